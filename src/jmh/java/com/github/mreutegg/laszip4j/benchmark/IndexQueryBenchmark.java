@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.LASPoint;
+import com.github.mreutegg.laszip4j.LASReader;
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import com.github.mreutegg.laszip4j.laszip.LASindex;
+import com.github.mreutegg.laszip4j.laszip.LASquadtree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rectangle queries on a generated LAS file with and without a spatial
+ * index (.lax) created with {@link LASindex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexQueryBenchmark {
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private File dir;
+
+    private File file;
+
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("index-").toFile();
+        file = new File(dir, "synthetic.las");
+        SyntheticLAS.write(file, 1, numPoints);
+        LASreader reader = new LASreadOpener().open(file.getAbsolutePath());
+        if (reader == null) {
+            throw new IOException("Unable to open " + file);
+        }
+        try {
+            // query a window of about one percent of the extent
+            double w = reader.header.max_x - reader.header.min_x;
+            double h = reader.header.max_y - reader.header.min_y;
+            minX = reader.header.min_x + w * 0.45;
+            maxX = minX + w * 0.1;
+            minY = reader.header.min_y + h * 0.45;
+            maxY = minY + h * 0.1;
+            if (indexed) {
+                writeIndex(reader);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                Files.delete(f.toPath());
+            }
+        }
+        Files.delete(dir.toPath());
+    }
+
+    @Benchmark
+    public int queryRectangle() {
+        int count = 0;
+        for (LASPoint ignored : new LASReader(file).insideRectangle(minX, minY, maxX, maxY).getPoints()) {
+            count++;
+        }
+        return count;
+    }
+
+    private void writeIndex(LASreader reader) throws IOException {
+        LASquadtree quadtree = new LASquadtree();
+        quadtree.setup(reader.header.min_x, reader.header.max_x,
+                reader.header.min_y, reader.header.max_y, 100.0f);
+        LASindex index = new LASindex();
+        index.prepare(quadtree, 1000);
+        int i = 0;
+        while (reader.read_point()) {
+            index.add(reader.point.get_x(), reader.point.get_y(), i++);
+        }
+        index.complete(100000, -20);
+        if (!index.write(file.getAbsolutePath())) {
+            throw new IOException("Unable to write index for " + file);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.LASPoint;
+import com.github.mreutegg.laszip4j.LASReader;
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes generated LAZ files of every point data format compressed with
+ * every compressor version available for the point data format: the
+ * pointwise compressor in version 1 and 2 for point data formats 0 to 5,
+ * the layered compressor in version 3 and 4 for point data formats 6 to 10.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LAZDecodeBenchmark {
+
+    /**
+     * The point data format and the compressor version separated by a slash.
+     */
+    @Param({
+            "0/1", "0/2", "1/1", "1/2", "2/1", "2/2",
+            "3/1", "3/2", "4/1", "4/2", "5/1", "5/2",
+            "6/3", "6/4", "7/3", "7/4", "8/3", "8/4",
+            "9/3", "9/4", "10/3", "10/4"
+    })
+    public String format;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        String[] formatAndVersion = format.split("/");
+        File source = File.createTempFile("decode-", ".las");
+        file = File.createTempFile("decode-", ".laz");
+        try {
+            SyntheticLAS.write(source, Integer.parseInt(formatAndVersion[0]), numPoints);
+            SyntheticLAS.compress(source, file, Integer.parseInt(formatAndVersion[1]), null);
+        } finally {
+            Files.deleteIfExists(source.toPath());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) {
+        for (LASPoint p : new LASReader(file).getPoints()) {
+            bh.consume(p.getX());
+            bh.consume(p.getY());
+            bh.consume(p.getZ());
+            bh.consume(p.getIntensity());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses generated LAS files of every point data format to LAZ with
+ * every compressor version available for the point data format, either
+ * sequentially or with chunks compressed in parallel. See
+ * {@link LAZDecodeBenchmark} for the available compressor versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LAZEncodeBenchmark {
+
+    /**
+     * The point data format and the compressor version separated by a slash.
+     */
+    @Param({
+            "0/1", "0/2", "1/1", "1/2", "2/1", "2/2",
+            "3/1", "3/2", "4/1", "4/2", "5/1", "5/2",
+            "6/3", "6/4", "7/3", "7/4", "8/3", "8/4",
+            "9/3", "9/4", "10/3", "10/4"
+    })
+    public String format;
+
+    /**
+     * Number of threads compressing chunks or zero for sequential compression.
+     */
+    @Param({"0", "4"})
+    public int threads;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private int version;
+
+    private File source;
+
+    private File target;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        source = File.createTempFile("encode-", ".las");
+        target = File.createTempFile("encode-", ".laz");
+        String[] formatAndVersion = format.split("/");
+        version = Integer.parseInt(formatAndVersion[1]);
+        SyntheticLAS.write(source, Integer.parseInt(formatAndVersion[0]), numPoints);
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        Files.deleteIfExists(source.toPath());
+        Files.deleteIfExists(target.toPath());
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        SyntheticLAS.compress(source, target, version, executor);
+        return target.length();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.LASPoint;
+import com.github.mreutegg.laszip4j.LASPointBlock;
+import com.github.mreutegg.laszip4j.LASReader;
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads an uncompressed LAS file with generated points through
+ * {@link LASReader}, point by point and in blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PointReadBenchmark {
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int pointDataFormat;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("synthetic-", ".las");
+        SyntheticLAS.write(file, pointDataFormat, numPoints);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public void readPoints(Blackhole bh) {
+        for (LASPoint p : new LASReader(file).getPoints()) {
+            bh.consume(p.getX());
+            bh.consume(p.getY());
+            bh.consume(p.getZ());
+            bh.consume(p.getClassification());
+        }
+    }
+
+    @Benchmark
+    public void readPointBlocks(Blackhole bh) {
+        for (LASPointBlock block : new LASReader(file).getPointBlocks(4096)) {
+            bh.consume(block.getX());
+            bh.consume(block.getY());
+            bh.consume(block.getZ());
+            bh.consume(block.getClassification());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.laslib.LASheader;
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutArray;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes generated points with {@link LASwritePoint} into memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PointWriteBenchmark {
+
+    @Param({"0", "1", "2", "3", "6", "7", "8"})
+    public int pointDataFormat;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private LASpoint[] points;
+
+    private int recordLength;
+
+    @Setup
+    public void setup() {
+        LASheader header = SyntheticLAS.header(pointDataFormat);
+        points = SyntheticLAS.points(header, numPoints);
+        recordLength = header.point_data_record_length;
+    }
+
+    @Benchmark
+    public long write() {
+        LASpoint first = points[0];
+        ByteStreamOutArray out = new ByteStreamOutArray((long) numPoints * recordLength);
+        LASwritePoint writer = new LASwritePoint();
+        if (!writer.setup(first.num_items, first.items) || !writer.init(out)) {
+            throw new IllegalStateException("Unable to set up point writer");
+        }
+        for (LASpoint p : points) {
+            writer.write(p.PointRecords);
+        }
+        writer.done();
+        return out.tell();
+    }
+}
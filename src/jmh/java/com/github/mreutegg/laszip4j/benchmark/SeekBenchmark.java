@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.benchmark;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.SyntheticLAS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random access with {@link LASreader#seek(long)} followed by a single
+ * {@link LASreader#read_point()}. Seeking in a LAZ file decompresses the
+ * chunk up to the requested point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SeekBenchmark {
+
+    /**
+     * Either a point data format for an uncompressed synthetic file or the
+     * name of a LAZ file bundled with the tests.
+     */
+    @Param({"1", "6", "500m_5460_59370_IM2023_subset.laz"})
+    public String source;
+
+    private File file;
+
+    private LASreader reader;
+
+    private Random random;
+
+    @Setup
+    public void setup() throws IOException {
+        if (source.endsWith(".laz")) {
+            file = File.createTempFile("seek-", ".laz");
+            try (InputStream in = SeekBenchmark.class.getResourceAsStream("/" + source)) {
+                if (in == null) {
+                    throw new IOException("Resource not found: " + source);
+                }
+                Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else {
+            file = File.createTempFile("seek-", ".las");
+            SyntheticLAS.write(file, Integer.parseInt(source), 1000000);
+        }
+        reader = new LASreadOpener().open(file.getAbsolutePath());
+        if (reader == null) {
+            throw new IOException("Unable to open " + file);
+        }
+        random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public int seekAndRead() {
+        long index = (long) (random.nextDouble() * reader.npoints);
+        if (!reader.seek(index) || !reader.read_point()) {
+            throw new IllegalStateException("Unable to read point " + index);
+        }
+        return reader.point.get_X();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates {@link LASfilter} criteria on generated points in memory. Lives
+ * in the laslib package because the {@link LASfilter} constructor is package
+ * private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({
+            "-keep_class 2",
+            "-keep_first -drop_z_below 105",
+            "-keep_class 2 6 -drop_z_below 100 -keep_intensity 100 3000"
+    })
+    public String filter;
+
+    @Param({"1000000"})
+    public int numPoints;
+
+    private LASpoint[] points;
+
+    private LASfilter lasfilter;
+
+    @Setup
+    public void setup() {
+        points = SyntheticLAS.points(SyntheticLAS.header(1), numPoints);
+        lasfilter = new LASfilter();
+        if (!lasfilter.parse(filter)) {
+            throw new IllegalArgumentException("Invalid filter: " + filter);
+        }
+    }
+
+    @Benchmark
+    public int filter() {
+        int filtered = 0;
+        for (LASpoint p : points) {
+            if (lasfilter.filter(p)) {
+                filtered++;
+            }
+        }
+        return filtered;
+    }
+}
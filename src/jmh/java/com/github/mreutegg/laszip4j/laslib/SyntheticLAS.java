@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_CHUNK_SIZE_DEFAULT;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_CHUNKED;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_NONE;
+
+/**
+ * Generates deterministic LAS points that look like an airborne scan: points
+ * are laid out along flight lines over a smooth terrain surface, with up to
+ * three returns per pulse and increasing GPS time. Lives in the laslib
+ * package because the {@link LASheader} constructor is package private.
+ */
+public final class SyntheticLAS {
+
+    private static final long SEED = 42;
+
+    private static final int POINTS_PER_LINE = 10000;
+
+    private static final short[] CLASSES = {2, 3, 4, 5, 6};
+
+    private static final char[] RECORD_LENGTH = {
+            20, 28, 26, 34, 57, 63, 30, 36, 38, 59, 67
+    };
+
+    private SyntheticLAS() {
+    }
+
+    /**
+     * Creates a header for the given point data format with a scale of 0.01
+     * and the LAS version required by the point data format.
+     *
+     * @param pointDataFormat the point data format (0..10).
+     * @return the header.
+     */
+    public static LASheader header(int pointDataFormat) {
+        if (pointDataFormat < 0 || pointDataFormat >= RECORD_LENGTH.length) {
+            throw new IllegalArgumentException("Unsupported point data format: " + pointDataFormat);
+        }
+        LASheader header = new LASheader();
+        if (pointDataFormat > 5) {
+            header.version_minor = 4;
+            header.header_size = 375;
+        } else if (pointDataFormat > 3) {
+            header.version_minor = 3;
+            header.header_size = 235;
+        }
+        header.offset_to_point_data = header.header_size;
+        header.point_data_format = (byte) pointDataFormat;
+        header.point_data_record_length = RECORD_LENGTH[pointDataFormat];
+        header.x_offset = 500000;
+        header.y_offset = 4000000;
+        header.z_offset = 0;
+        return header;
+    }
+
+    /**
+     * Generates points of the given point data format.
+     *
+     * @param header the header created with {@link #header(int)}.
+     * @param numPoints the number of points.
+     * @return the points.
+     */
+    public static LASpoint[] points(LASheader header, int numPoints) {
+        LASpoint[] points = new LASpoint[numPoints];
+        LASpoint point = newPoint(header);
+        Random random = new Random(SEED);
+        for (int i = 0; i < numPoints; i++) {
+            generate(point, i, random);
+            points[i] = new LASpoint(point);
+        }
+        return points;
+    }
+
+    /**
+     * Writes an uncompressed LAS file with generated points.
+     *
+     * @param file the file to write.
+     * @param pointDataFormat the point data format (0..10).
+     * @param numPoints the number of points.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(File file, int pointDataFormat, int numPoints)
+            throws IOException {
+        LASheader header = header(pointDataFormat);
+        LASwriterLAS writer = new LASwriterLAS();
+        if (!writer.open(file.getAbsolutePath(), header, LASZIP_COMPRESSOR_NONE, 0, 0, 65536)) {
+            throw new IOException("Unable to open " + file);
+        }
+        writer.inventory = new LASinventory();
+        LASpoint point = newPoint(header);
+        Random random = new Random(SEED);
+        for (int i = 0; i < numPoints; i++) {
+            generate(point, i, random);
+            writer.write_point(point);
+            writer.update_inventory(point);
+        }
+        writer.update_header(header, true);
+        writer.close();
+    }
+
+    /**
+     * Compresses a LAS file to LAZ with the given LASzip compressor version.
+     * Point data formats 0 to 5 are compressed with the pointwise compressor
+     * in version 1 or 2, point data formats 6 to 10 with the layered
+     * compressor in version 3 or 4.
+     *
+     * @param las the LAS file to compress.
+     * @param laz the LAZ file to write.
+     * @param version the compressor version (1..4).
+     * @param executor the executor compressing chunks in parallel or
+     *          {@code null} to compress sequentially.
+     * @throws IOException if a file cannot be read or written.
+     * @throws IllegalArgumentException if the version is not available for
+     *          the point data format of the LAS file.
+     */
+    public static void compress(File las, File laz, int version, Executor executor)
+            throws IOException {
+        LASreader reader = new LASreadOpener().open(las.getAbsolutePath());
+        if (reader == null) {
+            throw new IOException("Unable to open " + las);
+        }
+        try {
+            LASheader header = reader.header;
+            char compressor = compressor(header.point_data_format, version);
+            LASwriterLAS writer = new LASwriterLAS();
+            writer.set_executor(executor);
+            if (!writer.open(laz.getAbsolutePath(), header, compressor, version, LASZIP_CHUNK_SIZE_DEFAULT, 65536)) {
+                throw new IOException("Unable to open " + laz);
+            }
+            while (reader.read_point()) {
+                writer.write_point(reader.point);
+            }
+            writer.update_header(header);
+            writer.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the compressor for the given point data format and compressor
+     * version.
+     *
+     * @param pointDataFormat the point data format (0..10).
+     * @param version the compressor version (1..4).
+     * @return the compressor.
+     * @throws IllegalArgumentException if the version is not available for
+     *          the point data format.
+     */
+    public static char compressor(int pointDataFormat, int version) {
+        if (pointDataFormat <= 5 && (version == 1 || version == 2)) {
+            return LASZIP_COMPRESSOR_CHUNKED;
+        } else if (pointDataFormat > 5 && (version == 3 || version == 4)) {
+            return LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+        }
+        throw new IllegalArgumentException("Compressor version " + version
+                + " not available for point data format " + pointDataFormat);
+    }
+
+    private static LASpoint newPoint(LASheader header) {
+        LASpoint point = new LASpoint();
+        if (!point.init(header, header.point_data_format, header.point_data_record_length, header)) {
+            throw new IllegalArgumentException("Unable to initialize point for format " + header.point_data_format);
+        }
+        return point;
+    }
+
+    private static void generate(LASpoint point, int index, Random random) {
+        int line = index / POINTS_PER_LINE;
+        int pulse = (index % POINTS_PER_LINE) / 3;
+        byte numberOfReturns = (byte) (1 + (pulse % 3));
+        byte returnNumber = (byte) (1 + (index % numberOfReturns));
+        double x = 500000 + pulse * 0.5 + random.nextDouble() * 0.1;
+        double y = 4000000 + line * 50 + Math.sin(pulse / 50.0) * 20;
+        double ground = 100 + 10 * Math.sin(x / 200) + 5 * Math.cos(y / 150);
+        short classification = returnNumber == numberOfReturns ? 2 : CLASSES[1 + random.nextInt(CLASSES.length - 1)];
+        double z = classification == 2 ? ground : ground + random.nextDouble() * 25;
+        point.set_x(x);
+        point.set_y(y);
+        point.set_z(z + random.nextGaussian() * 0.05);
+        point.setIntensity((char) random.nextInt(4096));
+        point.setReturn_number(returnNumber);
+        point.setNumber_of_returns(numberOfReturns);
+        point.setClassification(classification);
+        point.setUser_data((short) (pulse & 0xFF));
+        point.setPoint_source_ID((char) (line + 1));
+        if (point.haveGpsTime()) {
+            point.setGps_time(300000.0 + index * 0.00001);
+        }
+        if (point.haveRgb()) {
+            char base = (char) (classification * 8000);
+            point.setRgb(0, base);
+            point.setRgb(1, (char) (base + random.nextInt(4096)));
+            point.setRgb(2, (char) (65535 - base));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASwriterCOPC;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Utility for writing a COPC (cloud optimized point cloud) file. The points
+ * are organized in an octree, where every node is a chunk of the LAZ file
+ * and lower levels of the octree hold a sample of the points. COPC files
+ * can be read with {@link LASReader}, which uses the octree for spatial
+ * queries and {@link LASReader#maxDepth(int) level of detail} reads.
+ * <p>
+ * COPC requires point data format 6, 7 or 8.
+ */
+public final class COPCWriter {
+
+    private final LASReader reader;
+
+    private int maxPointsPerNode = 100000;
+
+    private long maxPointsInMemory = 10000000;
+
+    private File tempDirectory;
+
+    /**
+     * Create a new writer that will read point data from the given reader.
+     *
+     * @param reader the source of the points to write.
+     */
+    public COPCWriter(LASReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The maximum number of points in a leaf node of the octree. A node with
+     * more points keeps one point per cell of its sampling grid with 128
+     * cells per axis and passes the other points on to its children. The
+     * default is 100000.
+     *
+     * @param maxPointsPerNode the maximum number of points in a leaf node.
+     * @return this writer.
+     */
+    public COPCWriter maxPointsPerNode(int maxPointsPerNode) {
+        if (maxPointsPerNode < 1) {
+            throw new IllegalArgumentException("maxPointsPerNode must be positive: " + maxPointsPerNode);
+        }
+        this.maxPointsPerNode = maxPointsPerNode;
+        return this;
+    }
+
+    /**
+     * The number of points buffered in memory before they are spilled to
+     * temporary files. Points are buffered per octree region and the
+     * number of regions is chosen based on the number of points in the
+     * header of the source. A region with more points is split into
+     * smaller regions when the file is written. The default is 10000000.
+     *
+     * @param maxPointsInMemory the maximum number of buffered points.
+     * @return this writer.
+     */
+    public COPCWriter maxPointsInMemory(long maxPointsInMemory) {
+        if (maxPointsInMemory < 1) {
+            throw new IllegalArgumentException("maxPointsInMemory must be positive: " + maxPointsInMemory);
+        }
+        this.maxPointsInMemory = maxPointsInMemory;
+        return this;
+    }
+
+    /**
+     * The directory for temporary files with spilled points. The default
+     * temporary-file directory is used when not set.
+     *
+     * @param tempDirectory the directory for temporary files.
+     * @return this writer.
+     */
+    public COPCWriter tempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * Write the points to the given output file.
+     *
+     * @param out the output file.
+     * @throws IllegalArgumentException if the point data format of the
+     *          source is not 6, 7 or 8.
+     */
+    public void write(File out) {
+        try (LASreader r = reader.openReader()) {
+            if (r.header.point_data_format < 6 || r.header.point_data_format > 8) {
+                throw new IllegalArgumentException(
+                        "COPC requires point data format 6, 7 or 8: " + r.header.point_data_format);
+            }
+            LASwriterCOPC w = new LASwriterCOPC();
+            w.set_max_points_per_node(maxPointsPerNode);
+            w.set_max_points_in_memory(maxPointsInMemory);
+            w.set_temp_dir(tempDirectory);
+            if (!w.open(out.getAbsolutePath(), r.header)) {
+                throw new IllegalStateException("Unable to write COPC file " + out);
+            }
+            long bytes;
+            try {
+                while (r.read_point()) {
+                    if (!w.write_point(r.point)) {
+                        throw new IllegalStateException("Unable to write COPC file " + out);
+                    }
+                }
+            } finally {
+                bytes = w.close();
+            }
+            if (bytes == 0) {
+                throw new UncheckedIOException(new IOException("Unable to write COPC file " + out));
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the points of recently used chunks in memory for random access by
+ * point index. Chunks are decoded entirely and evicted in least recently
+ * used order. Raw LAS files are split into blocks of
+ * {@link #RAW_BLOCK_SIZE} points. Compressed LAZ files without a chunk
+ * table are not supported, because they can only be decoded as a whole.
+ * The reader is opened for the first chunk that is not cached and kept
+ * open until {@link #close()}, which seeks to the chunks instead of
+ * opening the file again.
+ */
+final class ChunkCache implements AutoCloseable {
+
+    static final int RAW_BLOCK_SIZE = 50000;
+
+    private final Supplier<LASreader> opener;
+
+    private final int selective;
+
+    private final Map<Integer, LASPoint[]> chunks;
+
+    private long[] chunkPointStarts;
+
+    private LASreader reader;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param opener opens a new reader with the transformation applied.
+     * @param selective the decompress selective mask of the reader.
+     * @param maxChunks the maximum number of chunks in the cache.
+     */
+    ChunkCache(Supplier<LASreader> opener, int selective, int maxChunks) {
+        this.opener = opener;
+        this.selective = selective;
+        this.chunks = new LinkedHashMap<Integer, LASPoint[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LASPoint[]> eldest) {
+                return size() > maxChunks;
+            }
+        };
+    }
+
+    /**
+     * Returns the points with the given indices. The indices are processed
+     * in the order of their chunks, which means each chunk is decoded at
+     * most once per call.
+     */
+    synchronized LASPoint[] getPoints(long[] indices) {
+        Integer[] order = new Integer[indices.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(indices[a], indices[b]));
+        LASPoint[] points = new LASPoint[indices.length];
+        try {
+            if (chunkPointStarts == null) {
+                chunkPointStarts = getChunkPointStarts(openReader());
+            }
+            long numPoints = chunkPointStarts[chunkPointStarts.length - 1];
+            int current = -1;
+            LASPoint[] chunk = null;
+            for (int i : order) {
+                long index = indices[i];
+                if (index < 0 || index >= numPoints) {
+                    throw new IllegalArgumentException("index must be between 0 and " + (numPoints - 1) + ": " + index);
+                }
+                if (current == -1 || index >= chunkPointStarts[current + 1]) {
+                    current = chunkOf(index);
+                    chunk = chunks.get(current);
+                    if (chunk == null) {
+                        chunk = decodeChunk(openReader(), current);
+                        chunks.put(current, chunk);
+                    }
+                }
+                points[i] = chunk[(int) (index - chunkPointStarts[current])];
+            }
+            return points;
+        } catch (RuntimeException e) {
+            // the reader may be at any position
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the reader. The cached chunks are kept and the reader is
+     * opened again for a chunk that is not cached.
+     */
+    @Override
+    public synchronized void close() {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private LASreader openReader() {
+        if (reader == null) {
+            reader = opener.get();
+        }
+        return reader;
+    }
+
+    private int chunkOf(long index) {
+        int chunk = Arrays.binarySearch(chunkPointStarts, index);
+        return chunk < 0 ? -chunk - 2 : chunk;
+    }
+
+    private LASPoint[] decodeChunk(LASreader r, int chunk) {
+        long start = chunkPointStarts[chunk];
+        int numPoints = (int) (chunkPointStarts[chunk + 1] - start);
+        if (r.p_count != start && !r.seek(start)) {
+            throw new IllegalStateException("Unable to seek to point " + start);
+        }
+        LASPoint[] points = new LASPoint[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            if (!r.read_point()) {
+                throw new IllegalStateException("Unable to read point " + (start + i));
+            }
+            points[i] = new LASPoint(new LASpoint(r.point), selective);
+        }
+        return points;
+    }
+
+    private static long[] getChunkPointStarts(LASreader r) {
+        long[] starts = null;
+        if (r instanceof LASreaderLAS) {
+            starts = ((LASreaderLAS) r).get_chunk_point_starts();
+        }
+        if (starts == null && r.header.laszip == null) {
+            int numBlocks = (int) ((r.npoints + RAW_BLOCK_SIZE - 1) / RAW_BLOCK_SIZE);
+            starts = new long[numBlocks + 1];
+            for (int i = 0; i < numBlocks; i++) {
+                starts[i] = (long) i * RAW_BLOCK_SIZE;
+            }
+            starts[numBlocks] = r.npoints;
+        }
+        if (starts == null) {
+            throw new IllegalArgumentException("Random access requires a LAS file or a LAZ file with a chunk table");
+        }
+        return starts;
+    }
+}
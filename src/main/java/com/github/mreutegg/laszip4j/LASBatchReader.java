@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laszip.LASindex;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the points of many {@link LASQuery queries} in a single pass over
+ * a LAS or LAZ file. Every point is decoded once and passed to the sinks
+ * of all queries it matches. When all queries select an area and the file
+ * has a spatial index (see {@link LASIndexer}), only the intervals of
+ * points in cells that intersect one of the areas are read.
+ * <p>
+ * The sinks receive the same {@link LASPoint} instance for every point.
+ * A sink must copy the values it wants to keep.
+ */
+public final class LASBatchReader {
+
+    private final File file;
+
+    private final List<LASQuery> queries = new ArrayList<>();
+
+    private final List<Consumer<LASPoint>> sinks = new ArrayList<>();
+
+    private int selective = LASZIP_DECOMPRESS_SELECTIVE_ALL;
+
+    /**
+     * Create a new batch reader for the given file. The file may refer to
+     * a raw LAS or compressed LAZ file.
+     *
+     * @param file the file to read from.
+     */
+    public LASBatchReader(File file) {
+        this.file = requireNonNull(file);
+    }
+
+    /**
+     * Only read the given fields of a point.
+     *
+     * @param fields the fields to read.
+     * @return this reader.
+     * @see LASReader#select(LASPointField...)
+     */
+    public LASBatchReader select(LASPointField... fields) {
+        int selective = LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+        for (LASPointField f : fields) {
+            selective |= f.getMask();
+        }
+        this.selective = selective;
+        return this;
+    }
+
+    /**
+     * Add a query and the sink for its points.
+     *
+     * @param query the query.
+     * @param sink receives the points that match the query.
+     * @return this reader.
+     */
+    public LASBatchReader add(LASQuery query, Consumer<LASPoint> sink) {
+        queries.add(requireNonNull(query));
+        sinks.add(requireNonNull(sink));
+        return this;
+    }
+
+    /**
+     * Read the points and pass them to the sinks of the matching queries.
+     * The points are passed in file order.
+     */
+    public void read() {
+        if (queries.isEmpty()) {
+            return;
+        }
+        if (!file.exists() || !file.isFile()) {
+            throw new UncheckedIOException(
+                    new FileNotFoundException(file.getAbsolutePath()));
+        }
+        LASreadOpener opener = new LASreadOpener();
+        opener.set_decompress_selective(selective);
+        LASreader r = opener.open(file.getAbsolutePath());
+        if (r == null) {
+            throw new IllegalStateException("Unable to open " + file);
+        }
+        try {
+            LASPoint point = new LASPoint(r.point, selective);
+            long[] intervals = getIntervals(r.get_index());
+            if (intervals == null) {
+                while (r.read_point()) {
+                    dispatch(r, point);
+                }
+            } else {
+                for (int i = 0; i < intervals.length; i += 2) {
+                    long end = intervals[i + 1];
+                    if (!r.seek(intervals[i])) {
+                        break;
+                    }
+                    while (r.p_count <= end && r.read_point()) {
+                        dispatch(r, point);
+                    }
+                }
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private void dispatch(LASreader r, LASPoint point) {
+        for (int i = 0; i < queries.size(); i++) {
+            if (queries.get(i).matches(r.point, point)) {
+                sinks.get(i).accept(point);
+            }
+        }
+    }
+
+    // returns the sorted and disjoint intervals of points as pairs of start
+    // and end (inclusive) that may match a query or null if all points
+    // must be read
+    private long[] getIntervals(LASindex index) {
+        if (index == null) {
+            return null;
+        }
+        List<long[]> intervals = new ArrayList<>();
+        for (LASQuery q : queries) {
+            if (!q.isSpatial()) {
+                return null;
+            }
+            if (q.intersect(index)) {
+                while (index.has_intervals()) {
+                    intervals.add(new long[]{Integer.toUnsignedLong(index.start), Integer.toUnsignedLong(index.end)});
+                }
+            }
+        }
+        intervals.sort((a, b) -> Long.compare(a[0], b[0]));
+        long[] merged = new long[intervals.size() * 2];
+        int n = 0;
+        for (long[] interval : intervals) {
+            if (n > 0 && interval[0] <= merged[n - 1] + 1) {
+                merged[n - 1] = Math.max(merged[n - 1], interval[1]);
+            } else {
+                merged[n++] = interval[0];
+                merged[n++] = interval[1];
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+}
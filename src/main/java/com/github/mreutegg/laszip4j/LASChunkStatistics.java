@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CLASSIFICATION;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_Z;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates statistics of the chunks of a LAZ file. For every chunk, the
+ * statistics hold the bounding box of the points, the range of GPS times
+ * and the classifications and return numbers present in the chunk. The
+ * statistics are written to a file next to the LAZ file with the extension
+ * replaced by {@code lcs}. {@link LASReader} picks up the statistics and
+ * skips chunks without a point for queries like
+ * {@link LASReader#insideRectangle(double, double, double, double)} or a
+ * {@link LASReader#filter(LASPointFilter) filter} on coordinates,
+ * classifications, return numbers or GPS time. Statistics are ignored when
+ * the LAZ file changed after they were written: when the size or the
+ * modification time of the file or the chunks of the file do not match.
+ */
+public final class LASChunkStatistics {
+
+    private final File file;
+
+    /**
+     * Create chunk statistics for the given LAZ file.
+     *
+     * @param file the LAZ file.
+     */
+    public LASChunkStatistics(File file) {
+        this.file = requireNonNull(file);
+    }
+
+    /**
+     * Create the statistics and write them to a file next to the LAZ file.
+     * An existing file is replaced.
+     *
+     * @return the file with the statistics.
+     * @throws IllegalArgumentException if the file is not a LAZ file with
+     *          a chunk table.
+     */
+    public File write() {
+        LASchunkstats stats = createStatistics();
+        if (!stats.write(file.getAbsolutePath())) {
+            throw new UncheckedIOException(new IOException("Unable to write chunk statistics for " + file));
+        }
+        return new File(LASchunkstats.get_file_name(file.getAbsolutePath()));
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private LASchunkstats createStatistics() {
+        if (!file.exists() || !file.isFile()) {
+            throw new UncheckedIOException(
+                    new FileNotFoundException(file.getAbsolutePath()));
+        }
+        LASreadOpener opener = new LASreadOpener();
+        opener.set_decompress_selective(LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY
+                | LASZIP_DECOMPRESS_SELECTIVE_Z
+                | LASZIP_DECOMPRESS_SELECTIVE_CLASSIFICATION
+                | LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME);
+        LASreader r = opener.open(file.getAbsolutePath());
+        if (r == null) {
+            throw new IllegalStateException("Unable to open " + file);
+        }
+        try {
+            long[] chunkPointStarts = null;
+            long[] chunkStarts = null;
+            if (r instanceof LASreaderLAS) {
+                chunkPointStarts = ((LASreaderLAS) r).get_chunk_point_starts();
+                chunkStarts = ((LASreaderLAS) r).get_chunk_bounds();
+            }
+            if (chunkPointStarts == null || chunkStarts == null) {
+                throw new IllegalArgumentException("Chunk statistics require a LAZ file with chunks: " + file);
+            }
+            LASchunkstats stats = new LASchunkstats();
+            stats.prepare(chunkPointStarts, chunkStarts, r.point.haveGpsTime());
+            stats.set_file(file.getAbsolutePath());
+            int chunk = 0;
+            while (r.read_point()) {
+                while (r.p_count > chunkPointStarts[chunk + 1]) {
+                    chunk++;
+                }
+                stats.add(chunk, r.point);
+            }
+            return stats;
+        } finally {
+            r.close();
+        }
+    }
+}
@@ -19,6 +19,8 @@ package com.github.mreutegg.laszip4j;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Represents some extra bytes as described in the VLR LASF_Spec/4.
@@ -40,9 +42,7 @@ public final class LASExtraBytes {
      *          a potential offset and scale operation.
      */
     public Double getValue() {
-        Number v = getRawValue();
-        LASExtraBytesType t = description.getType();
-        return translateRawToDouble(v, t, 0);
+        return translateRawToDouble(getRawValue(), description, 0);
     }
 
     /**
@@ -56,16 +56,16 @@ public final class LASExtraBytes {
     public Double[] getValues() {
         Number[] raws = getRawValues();
         Double[] values = new Double[raws.length];
-        LASExtraBytesType t = description.getType();
         for (int i = 0; i < raws.length; i++) {
-            values[i] = translateRawToDouble(raws[i], t, i);
+            values[i] = translateRawToDouble(raws[i], description, i);
         }
         return values;
     }
 
-    private Double translateRawToDouble(Number v,
-                                        LASExtraBytesType t,
-                                        int i) {
+    static double translateRawToDouble(Number v,
+                                       LASExtraBytesDescription description,
+                                       int i) {
+        LASExtraBytesType t = description.getType();
         if (t.isUnsigned()) {
             Class<?> type = t.getClazz();
             if (type == Byte.class) {
@@ -111,18 +111,23 @@ public final class LASExtraBytes {
     }
 
     private Number getRawValue(Class<?> type, int offset) {
+        ByteBuffer bytes = ByteBuffer.wrap(point.getExtraBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        return getRawValue(bytes, type, offset);
+    }
+
+    static Number getRawValue(ByteBuffer bytes, Class<?> type, int offset) {
         if (type == Byte.class) {
-            return point.get_attributeByte(offset);
+            return bytes.get(offset);
         } else if (type == Short.class) {
-            return point.get_attributeShort(offset);
+            return bytes.getShort(offset);
         } else if (type == Integer.class) {
-            return point.get_attributeInt(offset);
+            return bytes.getInt(offset);
         } else if (type == Long.class) {
-            return point.get_attributeLong(offset);
+            return bytes.getLong(offset);
         } else if (type == Float.class) {
-            return point.get_attributeFloat(offset);
+            return bytes.getFloat(offset);
         } else if (type == Double.class) {
-            return point.get_attributeDouble(offset);
+            return bytes.getDouble(offset);
         } else {
             throw new IllegalStateException("Unsupported type: " + type.getName());
         }
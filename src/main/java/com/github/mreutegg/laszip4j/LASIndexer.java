@@ -0,0 +1,286 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
+import com.github.mreutegg.laszip4j.laszip.LASindex;
+import com.github.mreutegg.laszip4j.laszip.LASquadtree;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates a spatial index for a LAS or LAZ file. The index is a quadtree
+ * with intervals of points per cell and is either written to a LAX file
+ * next to the LAS/LAZ file or appended to a LAZ file. {@link LASReader}
+ * picks up the index and uses it for queries like
+ * {@link LASReader#insideRectangle(double, double, double, double)}
+ * instead of reading all points.
+ */
+public final class LASIndexer {
+
+    private final File file;
+
+    private float tileSize = 100.0f;
+
+    private int threshold = 1000;
+
+    private int minimumPoints = 100000;
+
+    private int maximumIntervals = -20;
+
+    private Executor executor;
+
+    /**
+     * Create a new indexer for the given LAS or LAZ file.
+     *
+     * @param file the file to index.
+     */
+    public LASIndexer(File file) {
+        this.file = requireNonNull(file);
+    }
+
+    /**
+     * The size of the smallest cells of the quadtree. The default is 100.
+     *
+     * @param tileSize the size of the smallest cells.
+     * @return this indexer.
+     */
+    public LASIndexer tileSize(float tileSize) {
+        if (!(tileSize > 0)) {
+            throw new IllegalArgumentException("tileSize must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * The maximum gap between the points of a cell that are still put in
+     * the same interval. The default is 1000.
+     *
+     * @param threshold the maximum gap in number of points.
+     * @return this indexer.
+     */
+    public LASIndexer threshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Cells are merged with their siblings into the parent cell as long as
+     * the parent cell has fewer points than the given minimum. The default
+     * is 100000.
+     *
+     * @param minimumPoints the minimum number of points in a cell.
+     * @return this indexer.
+     */
+    public LASIndexer minimumPoints(int minimumPoints) {
+        if (minimumPoints < 0) {
+            throw new IllegalArgumentException("minimumPoints must not be negative: " + minimumPoints);
+        }
+        this.minimumPoints = minimumPoints;
+        return this;
+    }
+
+    /**
+     * The maximum number of intervals in the index. Intervals with the
+     * smallest gaps are merged until there are no more than the given
+     * number. A negative value is relative to the number of cells, the
+     * default -20 allows on average 20 intervals per cell.
+     *
+     * @param maximumIntervals the maximum number of intervals.
+     * @return this indexer.
+     */
+    public LASIndexer maximumIntervals(int maximumIntervals) {
+        this.maximumIntervals = maximumIntervals;
+        return this;
+    }
+
+    /**
+     * Decode the chunks of a compressed LAZ file in parallel with tasks
+     * submitted to the given executor. Raw LAS files and LAZ files without
+     * a chunk table are read sequentially.
+     *
+     * @param executor the executor decoding the chunks.
+     * @return this indexer.
+     */
+    public LASIndexer parallel(Executor executor) {
+        this.executor = requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * Create the index and write it to a LAX file next to the LAS or LAZ
+     * file. An existing LAX file is replaced.
+     *
+     * @return the LAX file.
+     */
+    public File write() {
+        LASindex index = createIndex(false);
+        if (!index.write(file.getAbsolutePath())) {
+            throw new UncheckedIOException(new IOException("Unable to write spatial index for " + file));
+        }
+        return laxFile();
+    }
+
+    /**
+     * Create the index and append it to the LAZ file as an extended
+     * variable length record.
+     *
+     * @throws IllegalArgumentException if the file is not a LAZ file.
+     */
+    public void append() {
+        LASindex index = createIndex(true);
+        if (!index.append(file.getAbsolutePath())) {
+            throw new UncheckedIOException(new IOException("Unable to append spatial index to " + file));
+        }
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private LASindex createIndex(boolean compressed) {
+        Queue<LASreader> readers = new ConcurrentLinkedQueue<>();
+        try {
+            LASreader r = openReader();
+            readers.add(r);
+            if (compressed && r.header.laszip == null) {
+                throw new IllegalArgumentException("Spatial index can only be appended to a LAZ file: " + file);
+            }
+            LASquadtree spatial = new LASquadtree();
+            spatial.setup(r.header.min_x, r.header.max_x, r.header.min_y, r.header.max_y, tileSize);
+            LASindex index = new LASindex();
+            index.prepare(spatial, threshold);
+
+            long[] chunkPointStarts = null;
+            if (executor != null && r instanceof LASreaderLAS) {
+                chunkPointStarts = ((LASreaderLAS) r).get_chunk_point_starts();
+            }
+            if (chunkPointStarts != null && chunkPointStarts.length > 2) {
+                int numChunks = chunkPointStarts.length - 1;
+                int maxChunksInFlight = ParallelPointIterator.parallelism(executor);
+                Deque<CompletableFuture<LASindex>> pending = new ArrayDeque<>();
+                int nextChunk = 0;
+                try {
+                    while (nextChunk < numChunks || !pending.isEmpty()) {
+                        while (pending.size() < maxChunksInFlight && nextChunk < numChunks) {
+                            long start = chunkPointStarts[nextChunk];
+                            long end = chunkPointStarts[nextChunk + 1];
+                            pending.add(CompletableFuture.supplyAsync(
+                                    () -> indexChunk(readers, spatial, start, end), executor));
+                            nextChunk++;
+                        }
+                        // chunks are merged in file order as they complete
+                        if (!index.add(pending.remove().join())) {
+                            throw new IllegalStateException("Unable to merge spatial index of chunk");
+                        }
+                    }
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                } finally {
+                    // after a failure, wait for the chunks still in flight
+                    // before their readers are closed
+                    for (CompletableFuture<LASindex> f : pending) {
+                        try {
+                            f.join();
+                        } catch (RuntimeException e) {
+                            // ignore, the first failure is reported
+                        }
+                    }
+                }
+            } else {
+                while (r.read_point()) {
+                    index.add(r.point.get_x(), r.point.get_y(), (int) (r.p_count - 1));
+                }
+            }
+            index.complete(minimumPoints, maximumIntervals, false);
+            return index;
+        } finally {
+            LASreader r;
+            while ((r = readers.poll()) != null) {
+                r.close();
+            }
+        }
+    }
+
+    private LASindex indexChunk(Queue<LASreader> readers, LASquadtree spatial, long start, long end) {
+        LASreader r = readers.poll();
+        if (r == null) {
+            r = openReader();
+        }
+        try {
+            LASindex index = new LASindex();
+            index.prepare(spatial, threshold);
+            if (!r.seek(start)) {
+                throw new IllegalStateException("Unable to seek to point " + start + " in " + file);
+            }
+            ((LASreaderLAS) r).set_p_end(end);
+            while (r.read_point()) {
+                index.add(r.point.get_x(), r.point.get_y(), (int) (r.p_count - 1));
+            }
+            return index;
+        } finally {
+            readers.add(r);
+        }
+    }
+
+    private LASreader openReader() {
+        if (!file.exists() || !file.isFile()) {
+            throw new UncheckedIOException(
+                    new FileNotFoundException(file.getAbsolutePath()));
+        }
+        LASreadOpener opener = new LASreadOpener();
+        opener.set_decompress_selective(LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY);
+        LASreader reader = opener.open(file.getAbsolutePath());
+        if (reader == null) {
+            throw new IllegalStateException("Unable to open " + file);
+        }
+        return reader;
+    }
+
+    // same naming as LASindex.write(String)
+    private File laxFile() {
+        String name = file.getAbsolutePath();
+        if (name.contains(".las") || name.contains(".laz")) {
+            name = name.substring(0, name.length() - 1) + "x";
+        } else if (name.contains(".LAS") || name.contains(".LAZ")) {
+            name = name.substring(0, name.length() - 1) + "X";
+        } else {
+            name = name.substring(0, name.length() - 3) + "lax";
+        }
+        return new File(name);
+    }
+}
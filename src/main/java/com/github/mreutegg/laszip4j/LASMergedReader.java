@@ -0,0 +1,276 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASheader;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASreaderMerged;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the points of many LAS/LAZ files as if they were a single file.
+ * The header is the header of the first file with the point counts and
+ * the bounding box of all files. All files must have the same point data
+ * format and extra bytes. Points of files with other scale factors or offsets are
+ * requantized to a common scale factor and offset: the smallest scale
+ * factors of all files and the offsets of the first file, or offsets
+ * around the center of the bounding box when the offsets of the files
+ * differ.
+ * <p>
+ * The bounding boxes of the files are read from their headers. A spatial
+ * query like {@link #insideRectangle(double, double, double, double)} does
+ * not open files that do not intersect the area. The headers are read once
+ * and kept by this reader, files are only opened again to read points.
+ */
+public final class LASMergedReader {
+
+    private final List<File> files;
+
+    private Consumer<LASreader> constraint = LASreader::inside_none;
+
+    private double[] scaleFactor;
+
+    private double[] offset;
+
+    private boolean applyFileSourceID;
+
+    private boolean filesAreFlightlines;
+
+    private Executor executor;
+
+    private boolean ordered = true;
+
+    private int selective = LASZIP_DECOMPRESS_SELECTIVE_ALL;
+
+    private LASheader[] fileHeaders;
+
+    private LASHeader header;
+
+    /**
+     * Constructs a new reader for the given files.
+     *
+     * @param files the files to read from.
+     */
+    public LASMergedReader(File... files) {
+        this(Arrays.asList(files));
+    }
+
+    /**
+     * Constructs a new reader for the given files.
+     *
+     * @param files the files to read from.
+     */
+    public LASMergedReader(List<File> files) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("files must not be empty");
+        }
+        this.files = new ArrayList<>(files);
+    }
+
+    /**
+     * Only return points that fall into the specified tile.
+     *
+     * @return this reader.
+     * @see LASReader#insideTile(float, float, float)
+     */
+    public LASMergedReader insideTile(float ll_x, float ll_y, float size) {
+        constraint = reader -> reader.inside_tile(ll_x, ll_y, size);
+        return this;
+    }
+
+    /**
+     * Only return points that fall into the specified circle.
+     *
+     * @return this reader.
+     * @see LASReader#insideCircle(double, double, double)
+     */
+    public LASMergedReader insideCircle(double center_x, double center_y, double radius) {
+        constraint = reader -> reader.inside_circle(center_x, center_y, radius);
+        return this;
+    }
+
+    /**
+     * Only return points that fall into the specified rectangle.
+     *
+     * @return this reader.
+     * @see LASReader#insideRectangle(double, double, double, double)
+     */
+    public LASMergedReader insideRectangle(double min_x, double min_y, double max_x, double max_y) {
+        constraint = reader -> reader.inside_rectangle(min_x, min_y, max_x, max_y);
+        return this;
+    }
+
+    /**
+     * Only read the given fields of a point.
+     *
+     * @param fields the fields to read.
+     * @return this reader.
+     * @see LASReader#select(LASPointField...)
+     */
+    public LASMergedReader select(LASPointField... fields) {
+        int selective = LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+        for (LASPointField f : fields) {
+            selective |= f.getMask();
+        }
+        this.selective = selective;
+        return this;
+    }
+
+    /**
+     * Requantize all points to the given scale factors instead of the
+     * smallest scale factors of the files.
+     *
+     * @return this reader.
+     */
+    public LASMergedReader scaleFactor(double x, double y, double z) {
+        if (!(x > 0 && y > 0 && z > 0)) {
+            throw new IllegalArgumentException("scale factors must be positive");
+        }
+        this.scaleFactor = new double[]{x, y, z};
+        this.header = null;
+        return this;
+    }
+
+    /**
+     * Requantize all points to the given offsets instead of the offsets of
+     * the files.
+     *
+     * @return this reader.
+     */
+    public LASMergedReader offset(double x, double y, double z) {
+        this.offset = new double[]{x, y, z};
+        this.header = null;
+        return this;
+    }
+
+    /**
+     * Set the point source ID of the points to the file source ID in the
+     * header of their file.
+     *
+     * @return this reader.
+     */
+    public LASMergedReader applyFileSourceID() {
+        this.applyFileSourceID = true;
+        return this;
+    }
+
+    /**
+     * Set the point source ID of the points to the position of their file
+     * in the list of files, starting with 1. Takes precedence over
+     * {@link #applyFileSourceID()}.
+     *
+     * @return this reader.
+     */
+    public LASMergedReader filesAreFlightlines() {
+        this.filesAreFlightlines = true;
+        return this;
+    }
+
+    /**
+     * Decode the files concurrently with tasks submitted to the given
+     * executor. Every task decodes a batch of points of one file and the
+     * batches of a file are decoded one after another. The points are
+     * returned in the order of the files unless {@link #unordered()} is
+     * set.
+     *
+     * @param executor the executor decoding the files.
+     * @return this reader.
+     */
+    public LASMergedReader parallel(Executor executor) {
+        this.executor = requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * Return points of a parallel read interleaved in the order batches
+     * complete decoding instead of the order of the files. Points of a file
+     * are still returned in file order.
+     *
+     * @return this reader.
+     * @see #parallel(Executor)
+     */
+    public LASMergedReader unordered() {
+        this.ordered = false;
+        return this;
+    }
+
+    /**
+     * Returns the LAS points. The iterator returns the same
+     * {@link LASPoint} instance for every point, which reflects the current
+     * point of the iteration.
+     *
+     * @return the LAS points.
+     * @throws IllegalArgumentException if the files have different point
+     *          data formats or extra bytes.
+     */
+    public Iterable<LASPoint> getPoints() {
+        return () -> new LASReader.LASPointIterator(openReader(), selective);
+    }
+
+    /**
+     * @return the LAS header of the merged files.
+     * @throws IllegalArgumentException if the files have different point
+     *          data formats or extra bytes.
+     */
+    public LASHeader getHeader() {
+        if (header == null) {
+            try (LASreader r = openReader()) {
+                header = new LASHeader(r.header);
+            }
+        }
+        return header;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    LASreader openReader() {
+        LASreaderMerged reader = new LASreaderMerged();
+        for (File file : files) {
+            if (!file.exists() || !file.isFile()) {
+                throw new UncheckedIOException(
+                        new FileNotFoundException(file.getAbsolutePath()));
+            }
+            reader.add_file_name(file.getAbsolutePath());
+        }
+        reader.set_scale_factor(scaleFactor);
+        reader.set_offset(offset);
+        reader.set_decompress_selective(selective);
+        reader.set_executor(executor);
+        reader.set_interleaved(!ordered);
+        reader.set_file_headers(fileHeaders);
+        if (!reader.open()) {
+            throw new IllegalArgumentException("Cannot merge files " + files);
+        }
+        fileHeaders = reader.get_file_headers();
+        reader.set_files_are_flightlines(filesAreFlightlines);
+        reader.set_apply_file_source_ID(applyFileSourceID);
+        constraint.accept(reader);
+        return reader;
+    }
+}
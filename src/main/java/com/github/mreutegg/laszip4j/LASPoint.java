@@ -18,15 +18,38 @@ package com.github.mreutegg.laszip4j;
 
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
 
+import static com.github.mreutegg.laszip4j.LASPointField.CLASSIFICATION;
+import static com.github.mreutegg.laszip4j.LASPointField.EXTRA_BYTES;
+import static com.github.mreutegg.laszip4j.LASPointField.FLAGS;
+import static com.github.mreutegg.laszip4j.LASPointField.GPS_TIME;
+import static com.github.mreutegg.laszip4j.LASPointField.INTENSITY;
+import static com.github.mreutegg.laszip4j.LASPointField.NIR;
+import static com.github.mreutegg.laszip4j.LASPointField.POINT_SOURCE;
+import static com.github.mreutegg.laszip4j.LASPointField.RGB;
+import static com.github.mreutegg.laszip4j.LASPointField.SCAN_ANGLE;
+import static com.github.mreutegg.laszip4j.LASPointField.USER_DATA;
+import static com.github.mreutegg.laszip4j.LASPointField.WAVEPACKET;
+import static com.github.mreutegg.laszip4j.LASPointField.Z;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+
 /**
- * A LAS point data record.
+ * A LAS point data record. Accessors of fields not selected with
+ * {@link LASReader#select(LASPointField...)} throw an
+ * {@link IllegalStateException}.
  */
 public final class LASPoint {
 
-    private final LASpoint p;
+    final LASpoint p;
+
+    private final int selective;
 
     LASPoint(LASpoint p) {
+        this(p, LASZIP_DECOMPRESS_SELECTIVE_ALL);
+    }
+
+    LASPoint(LASpoint p, int selective) {
         this.p = p;
+        this.selective = selective;
     }
 
     /**
@@ -47,6 +70,7 @@ public final class LASPoint {
      * @return "Z" as a signed int.
      */
     public int getZ() {
+        Z.checkSelected(selective);
         return p.getZ();
     }
 
@@ -54,6 +78,7 @@ public final class LASPoint {
      * @return "Intensity" as an unsigned short (char).
      */
     public char getIntensity() {
+        INTENSITY.checkSelected(selective);
         return p.getIntensity();
     }
 
@@ -75,6 +100,7 @@ public final class LASPoint {
      * @return "Scan Direction Flag" as a byte (1 bit).
      */
     public byte getScanDirectionFlag() {
+        FLAGS.checkSelected(selective);
         return p.getScan_direction_flag();
     }
 
@@ -82,6 +108,7 @@ public final class LASPoint {
      * @return "Edge of Flight Line" as a byte (1 bit).
      */
     public byte getEdgeOfFlightLine() {
+        FLAGS.checkSelected(selective);
         return p.getEdge_of_flight_line();
     }
 
@@ -89,6 +116,7 @@ public final class LASPoint {
      * @return "Classification" as a short (range is 0..31 for point10, and 0..255 for point14).
      */
     public short getClassification() {
+        CLASSIFICATION.checkSelected(selective);
         return p.getClassification();
     }
 
@@ -96,6 +124,7 @@ public final class LASPoint {
      * @return "Synthetic" flag.
      */
     public boolean isSynthetic() {
+        FLAGS.checkSelected(selective);
         return p.getSynthetic_flag() == 1;
     }
 
@@ -103,6 +132,7 @@ public final class LASPoint {
      * @return "Key-point" flag.
      */
     public boolean isKeyPoint() {
+        FLAGS.checkSelected(selective);
         return p.getKeypoint_flag() == 1;
     }
 
@@ -110,6 +140,7 @@ public final class LASPoint {
      * @return "Withheld" flag.
      */
     public boolean isWithheld() {
+        FLAGS.checkSelected(selective);
         return p.getWithheld_flag() == 1;
     }
 
@@ -117,13 +148,22 @@ public final class LASPoint {
      * @return "Overlap" flag.
      */
     public boolean isOverlap() {
+        FLAGS.checkSelected(selective);
         return p.getOverlap_flag() == 1;
     }
 
+    /**
+     * @return "Scanner Channel" as a byte (range 0..3, always 0 for point10).
+     */
+    public byte getScannerChannel() {
+        return p.getExtended_scanner_channel();
+    }
+
     /**
      * @return "Scan Angle Rank (-90 to +90) - Left side" as a signed byte.
      */
     public byte getScanAngleRank() {
+        SCAN_ANGLE.checkSelected(selective);
         return p.getScan_angle_rank();
     }
 
@@ -131,6 +171,7 @@ public final class LASPoint {
      * @return "User Data" as a unsigned byte.
      */
     public short getUserData() {
+        USER_DATA.checkSelected(selective);
         return p.getUser_data();
     }
 
@@ -138,6 +179,7 @@ public final class LASPoint {
      * @return "Point Source ID" as an unsigned short (range 0..65535).
      */
     public char getPointSourceID() {
+        POINT_SOURCE.checkSelected(selective);
         return p.getPoint_source_ID();
     }
 
@@ -155,6 +197,7 @@ public final class LASPoint {
      */
     public double getGPSTime() {
         checkHasGPSTime();
+        GPS_TIME.checkSelected(selective);
         return p.getGps_time();
     }
 
@@ -170,6 +213,7 @@ public final class LASPoint {
      */
     public char getRed() {
         checkHasRGB();
+        RGB.checkSelected(selective);
         return p.get_R();
     }
 
@@ -178,6 +222,7 @@ public final class LASPoint {
      */
     public char getGreen() {
         checkHasRGB();
+        RGB.checkSelected(selective);
         return p.get_G();
     }
 
@@ -186,6 +231,7 @@ public final class LASPoint {
      */
     public char getBlue() {
         checkHasRGB();
+        RGB.checkSelected(selective);
         return p.get_B();
     }
 
@@ -201,6 +247,7 @@ public final class LASPoint {
      */
     public char getNIR() {
         checkHasNIR();
+        NIR.checkSelected(selective);
         return p.get_I();
     }
 
@@ -214,39 +261,61 @@ public final class LASPoint {
     /**
      * @return "Wave Packet Descriptor Index"
      */
-    public byte getWavePacketDescriptorIndex() { return (byte)p.getWavepacketDescriptorIndex(); }
+    public byte getWavePacketDescriptorIndex() {
+        WAVEPACKET.checkSelected(selective);
+        return (byte)p.getWavepacketDescriptorIndex();
+    }
 
     /**
      * @return "Byte offset to waveform data" as an unsigned long.
      */
-    public long getByteOffsetToWaveformData() { return p.getWavepacketOffsetToWaveformData(); }
+    public long getByteOffsetToWaveformData() {
+        WAVEPACKET.checkSelected(selective);
+        return p.getWavepacketOffsetToWaveformData();
+    }
 
     /**
      * @return "Waveform packet size in bytes" as an unsigned int.
      */
-    public int getWaveformPacketSizeInBytes() { return (int)p.getWavepacketPacketSize(); }
+    public int getWaveformPacketSizeInBytes() {
+        WAVEPACKET.checkSelected(selective);
+        return (int)p.getWavepacketPacketSize();
+    }
 
     /**
      * @return "Return Point Waveform Location" as a float.
      */
-    public float getReturnPointWaveformLocation() { return p.getWavepacketReturnPointWaveformLocation();}
+    public float getReturnPointWaveformLocation() {
+        WAVEPACKET.checkSelected(selective);
+        return p.getWavepacketReturnPointWaveformLocation();
+    }
 
     /**
      * @return "X(t)" as a float.
      */
-    public float getXt() { return p.getWavepacketParametricDx(); }
+    public float getXt() {
+        WAVEPACKET.checkSelected(selective);
+        return p.getWavepacketParametricDx();
+    }
 
     /**
      * @return "Y(t)" as a float.
      */
-    public float getYt() { return p.getWavepacketParametricDy(); }
+    public float getYt() {
+        WAVEPACKET.checkSelected(selective);
+        return p.getWavepacketParametricDy();
+    }
 
     /**
      * @return "Z(t)" as a float.
      */
-    public float getZt() { return p.getWavepacketParametricDz(); }
+    public float getZt() {
+        WAVEPACKET.checkSelected(selective);
+        return p.getWavepacketParametricDz();
+    }
 
     public LASExtraBytes getExtraBytes(LASExtraBytesDescription description) {
+        EXTRA_BYTES.checkSelected(selective);
         return new LASExtraBytes(p, description);
     }
 
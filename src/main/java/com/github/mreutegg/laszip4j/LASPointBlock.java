@@ -0,0 +1,348 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.github.mreutegg.laszip4j.LASPointField.CLASSIFICATION;
+import static com.github.mreutegg.laszip4j.LASPointField.EXTRA_BYTES;
+import static com.github.mreutegg.laszip4j.LASPointField.GPS_TIME;
+import static com.github.mreutegg.laszip4j.LASPointField.INTENSITY;
+import static com.github.mreutegg.laszip4j.LASPointField.NIR;
+import static com.github.mreutegg.laszip4j.LASPointField.POINT_SOURCE;
+import static com.github.mreutegg.laszip4j.LASPointField.RGB;
+import static com.github.mreutegg.laszip4j.LASPointField.SCAN_ANGLE;
+import static com.github.mreutegg.laszip4j.LASPointField.USER_DATA;
+import static com.github.mreutegg.laszip4j.LASPointField.Z;
+
+/**
+ * A block of LAS points with one primitive array per attribute. The arrays
+ * have a length of {@link #capacity()}, but only the first {@link #size()}
+ * entries are valid. An iteration over blocks returns the same instance with
+ * new content for every block. Accessors of fields not selected with
+ * {@link LASReader#select(LASPointField...)} throw an
+ * {@link IllegalStateException}.
+ * <p>
+ * A block is filled by copying the fields of each decoded point into the
+ * arrays. The decoders still produce one point at a time, so reading blocks
+ * costs the same decode work as {@link LASReader#getPoints()} plus one copy
+ * per point.
+ */
+public final class LASPointBlock {
+
+    private final int capacity;
+
+    private final int selective;
+
+    private int size;
+
+    private final int[] x;
+    private final int[] y;
+    private final int[] z;
+    private final char[] intensity;
+    private final byte[] returnNumber;
+    private final byte[] numberOfReturns;
+    private final short[] classification;
+    private final byte[] scanAngleRank;
+    private final short[] userData;
+    private final char[] pointSourceID;
+
+    private double[] gpsTime;
+    private char[] red;
+    private char[] green;
+    private char[] blue;
+    private char[] nir;
+
+    private byte[] extraBytes;
+    private int extraBytesLength = -1;
+
+    LASPointBlock(int capacity, int selective) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.selective = selective;
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.z = new int[capacity];
+        this.intensity = new char[capacity];
+        this.returnNumber = new byte[capacity];
+        this.numberOfReturns = new byte[capacity];
+        this.classification = new short[capacity];
+        this.scanAngleRank = new byte[capacity];
+        this.userData = new short[capacity];
+        this.pointSourceID = new char[capacity];
+    }
+
+    /**
+     * @return the number of valid points in this block.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of points in this block.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return "X" of the points as signed ints.
+     */
+    public int[] getX() {
+        return x;
+    }
+
+    /**
+     * @return "Y" of the points as signed ints.
+     */
+    public int[] getY() {
+        return y;
+    }
+
+    /**
+     * @return "Z" of the points as signed ints.
+     */
+    public int[] getZ() {
+        Z.checkSelected(selective);
+        return z;
+    }
+
+    /**
+     * @return "Intensity" of the points as unsigned shorts (char).
+     */
+    public char[] getIntensity() {
+        INTENSITY.checkSelected(selective);
+        return intensity;
+    }
+
+    /**
+     * @return "Return Number" of the points as bytes (range 1..15).
+     */
+    public byte[] getReturnNumber() {
+        return returnNumber;
+    }
+
+    /**
+     * @return "Number of Returns (given pulse)" of the points as bytes (range 1..15).
+     */
+    public byte[] getNumberOfReturns() {
+        return numberOfReturns;
+    }
+
+    /**
+     * @return "Classification" of the points as shorts (range is 0..31 for
+     *          point10, and 0..255 for point14).
+     */
+    public short[] getClassification() {
+        CLASSIFICATION.checkSelected(selective);
+        return classification;
+    }
+
+    /**
+     * @return "Scan Angle Rank (-90 to +90) - Left side" of the points as signed bytes.
+     */
+    public byte[] getScanAngleRank() {
+        SCAN_ANGLE.checkSelected(selective);
+        return scanAngleRank;
+    }
+
+    /**
+     * @return "User Data" of the points as unsigned bytes.
+     */
+    public short[] getUserData() {
+        USER_DATA.checkSelected(selective);
+        return userData;
+    }
+
+    /**
+     * @return "Point Source ID" of the points as unsigned shorts (range 0..65535).
+     */
+    public char[] getPointSourceID() {
+        POINT_SOURCE.checkSelected(selective);
+        return pointSourceID;
+    }
+
+    /**
+     * @return {@code true} if the points have "GPS Time"; {@code false} otherwise.
+     */
+    public boolean hasGPSTime() {
+        return gpsTime != null;
+    }
+
+    /**
+     * @return "GPS Time" of the points as doubles.
+     * @throws IllegalStateException when called on points without GPS Time.
+     * @see #hasGPSTime()
+     */
+    public double[] getGPSTime() {
+        if (gpsTime == null) {
+            throw new IllegalStateException("Points do not have GPS Time");
+        }
+        GPS_TIME.checkSelected(selective);
+        return gpsTime;
+    }
+
+    /**
+     * @return {@code true} if the points have RGB data; {@code false} otherwise.
+     */
+    public boolean hasRGB() {
+        return red != null;
+    }
+
+    /**
+     * @return "Red" of the points as unsigned shorts (char).
+     */
+    public char[] getRed() {
+        checkHasRGB();
+        return red;
+    }
+
+    /**
+     * @return "Green" of the points as unsigned shorts (char).
+     */
+    public char[] getGreen() {
+        checkHasRGB();
+        return green;
+    }
+
+    /**
+     * @return "Blue" of the points as unsigned shorts (char).
+     */
+    public char[] getBlue() {
+        checkHasRGB();
+        return blue;
+    }
+
+    /**
+     * @return {@code true} if the points have NIR data; {@code false} otherwise.
+     */
+    public boolean hasNIR() {
+        return nir != null;
+    }
+
+    /**
+     * @return "NIR" of the points as unsigned shorts (char).
+     */
+    public char[] getNIR() {
+        if (nir == null) {
+            throw new IllegalStateException("Points do not have NIR data");
+        }
+        NIR.checkSelected(selective);
+        return nir;
+    }
+
+    /**
+     * Returns the first value of the described extra bytes for each point
+     * after applying a potential offset and scale operation. Unlike the other
+     * accessors, this method returns a new array with a length of
+     * {@link #size()}.
+     *
+     * @param description the extra bytes description.
+     * @return the values of the described extra bytes.
+     * @throws IllegalStateException when called on points without extra bytes.
+     */
+    public double[] getExtraBytes(LASExtraBytesDescription description) {
+        if (extraBytes == null) {
+            throw new IllegalStateException("Points do not have extra bytes");
+        }
+        EXTRA_BYTES.checkSelected(selective);
+        ByteBuffer bytes = ByteBuffer.wrap(extraBytes).order(ByteOrder.LITTLE_ENDIAN);
+        Class<?> type = description.getType().getClazz();
+        double[] values = new double[size];
+        int offset = description.getOffset();
+        for (int i = 0; i < size; i++) {
+            Number v = LASExtraBytes.getRawValue(bytes, type, offset);
+            values[i] = LASExtraBytes.translateRawToDouble(v, description, 0);
+            offset += extraBytesLength;
+        }
+        return values;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    void add(LASpoint p) {
+        if (extraBytesLength < 0) {
+            allocateOptional(p);
+        }
+        int i = size++;
+        x[i] = p.getX();
+        y[i] = p.getY();
+        z[i] = p.getZ();
+        intensity[i] = p.getIntensity();
+        returnNumber[i] = p.getReturn_number();
+        numberOfReturns[i] = p.getNumber_of_returns();
+        classification[i] = p.getClassification();
+        scanAngleRank[i] = p.getScan_angle_rank();
+        userData[i] = p.getUser_data();
+        pointSourceID[i] = p.getPoint_source_ID();
+        if (gpsTime != null) {
+            gpsTime[i] = p.getGps_time();
+        }
+        if (red != null) {
+            red[i] = p.get_R();
+            green[i] = p.get_G();
+            blue[i] = p.get_B();
+        }
+        if (nir != null) {
+            nir[i] = p.get_I();
+        }
+        if (extraBytesLength > 0) {
+            System.arraycopy(p.getExtraBytes(), 0, extraBytes, i * extraBytesLength, extraBytesLength);
+        }
+    }
+
+    private void allocateOptional(LASpoint p) {
+        // all points read into a block have the same point format
+        if (p.haveGpsTime()) {
+            gpsTime = new double[capacity];
+        }
+        if (p.haveRgb()) {
+            red = new char[capacity];
+            green = new char[capacity];
+            blue = new char[capacity];
+        }
+        if (p.haveNIR()) {
+            nir = new char[capacity];
+        }
+        byte[] bytes = p.getExtraBytes();
+        extraBytesLength = bytes == null ? 0 : bytes.length;
+        if (extraBytesLength > 0) {
+            extraBytes = new byte[capacity * extraBytesLength];
+        }
+    }
+
+    private void checkHasRGB() throws IllegalStateException {
+        if (red == null) {
+            throw new IllegalStateException("Points do not have RGB data");
+        }
+        RGB.checkSelected(selective);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CLASSIFICATION;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_EXTRA_BYTES;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_FLAGS;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_INTENSITY;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_NIR;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_POINT_SOURCE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_RGB;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_SCAN_ANGLE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_USER_DATA;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_WAVEPACKET;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_Z;
+
+/**
+ * Fields of a LAS point that can be selected for reading with
+ * {@link LASReader#select(LASPointField...)}. X, Y, the return number,
+ * the number of returns and the scanner channel are always read.
+ */
+public enum LASPointField {
+
+    /**
+     * "Z".
+     */
+    Z(LASZIP_DECOMPRESS_SELECTIVE_Z),
+
+    /**
+     * "Classification".
+     */
+    CLASSIFICATION(LASZIP_DECOMPRESS_SELECTIVE_CLASSIFICATION),
+
+    /**
+     * The classification flags, "Scan Direction Flag" and "Edge of Flight Line".
+     */
+    FLAGS(LASZIP_DECOMPRESS_SELECTIVE_FLAGS),
+
+    /**
+     * "Intensity".
+     */
+    INTENSITY(LASZIP_DECOMPRESS_SELECTIVE_INTENSITY),
+
+    /**
+     * "Scan Angle Rank".
+     */
+    SCAN_ANGLE(LASZIP_DECOMPRESS_SELECTIVE_SCAN_ANGLE),
+
+    /**
+     * "User Data".
+     */
+    USER_DATA(LASZIP_DECOMPRESS_SELECTIVE_USER_DATA),
+
+    /**
+     * "Point Source ID".
+     */
+    POINT_SOURCE(LASZIP_DECOMPRESS_SELECTIVE_POINT_SOURCE),
+
+    /**
+     * "GPS Time".
+     */
+    GPS_TIME(LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME),
+
+    /**
+     * "Red", "Green" and "Blue".
+     */
+    RGB(LASZIP_DECOMPRESS_SELECTIVE_RGB),
+
+    /**
+     * "NIR".
+     */
+    NIR(LASZIP_DECOMPRESS_SELECTIVE_NIR),
+
+    /**
+     * The wave packet.
+     */
+    WAVEPACKET(LASZIP_DECOMPRESS_SELECTIVE_WAVEPACKET),
+
+    /**
+     * The extra bytes.
+     */
+    EXTRA_BYTES(LASZIP_DECOMPRESS_SELECTIVE_EXTRA_BYTES);
+
+    private final int mask;
+
+    LASPointField(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @return the decompress selective mask of this field.
+     */
+    int getMask() {
+        return mask;
+    }
+
+    /**
+     * Throws an {@link IllegalStateException} when this field is not
+     * selected in the given decompress selective mask.
+     */
+    void checkSelected(int selective) throws IllegalStateException {
+        if ((selective & mask) == 0) {
+            throw new IllegalStateException("Field not selected: " + this);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASfilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filters points by their attributes while they are read by a
+ * {@link LASReader}. A point is returned when it passes all criteria of the
+ * filter. The criteria are evaluated by the same filter as the
+ * {@code -keep_class}, {@code -drop_z_below}, etc. options of the LAStools
+ * command line and only the fields required by the criteria are decoded in
+ * addition to the fields selected with
+ * {@link LASReader#select(LASPointField...)}.
+ * <p>
+ * Coordinates of criteria refer to point data adjusted with scale and offset
+ * from the LAS header.
+ */
+public final class LASPointFilter {
+
+    private final List<String> arguments = new ArrayList<>();
+
+    /**
+     * Only keep points with one of the given classifications.
+     *
+     * @param classifications the classifications between 0 and 31.
+     * @return this filter.
+     */
+    public LASPointFilter keepClassification(int... classifications) {
+        return add("-keep_class", checkRange("classification", 0, 31, classifications));
+    }
+
+    /**
+     * Drop points with one of the given classifications.
+     *
+     * @param classifications the classifications between 0 and 31.
+     * @return this filter.
+     */
+    public LASPointFilter dropClassification(int... classifications) {
+        return add("-drop_class", checkRange("classification", 0, 31, classifications));
+    }
+
+    /**
+     * Only keep points with one of the given return numbers.
+     *
+     * @param returnNumbers the return numbers between 0 and 15.
+     * @return this filter.
+     */
+    public LASPointFilter keepReturn(int... returnNumbers) {
+        return add("-keep_return", checkRange("return number", 0, 15, returnNumbers));
+    }
+
+    /**
+     * Only keep first returns.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepFirstReturn() {
+        return add("-keep_first");
+    }
+
+    /**
+     * Only keep last returns.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepLastReturn() {
+        return add("-keep_last");
+    }
+
+    /**
+     * Only keep points of pulses with a single return.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepSingleReturn() {
+        return add("-keep_single");
+    }
+
+    /**
+     * Only keep points with {@code min <= z < max}.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepZ(double min, double max) {
+        return add("-keep_z", min, max);
+    }
+
+    /**
+     * Drop points with {@code z < min}.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter dropZBelow(double min) {
+        return add("-drop_z_below", min);
+    }
+
+    /**
+     * Drop points with {@code z >= max}.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter dropZAbove(double max) {
+        return add("-drop_z_above", max);
+    }
+
+    /**
+     * Only keep points with {@code min <= intensity <= max}.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepIntensity(int min, int max) {
+        return add("-keep_intensity", min, max);
+    }
+
+    /**
+     * Only keep points with {@code min <= GPS time <= max}. Points without a
+     * GPS time are kept.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepGPSTime(double min, double max) {
+        return add("-keep_gps_time", min, max);
+    }
+
+    /**
+     * Only keep points with {@code min <= scan angle rank <= max}.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter keepScanAngle(int min, int max) {
+        return add("-keep_scan_angle", min, max);
+    }
+
+    /**
+     * Only keep points with the given user data.
+     *
+     * @param userData the user data between 0 and 255.
+     * @return this filter.
+     */
+    public LASPointFilter keepUserData(int userData) {
+        return add("-keep_user_data", checkRange("user data", 0, 255, userData));
+    }
+
+    /**
+     * Only keep points with the given point source ID.
+     *
+     * @param pointSourceID the point source ID between 0 and 65535.
+     * @return this filter.
+     */
+    public LASPointFilter keepPointSource(int pointSourceID) {
+        return add("-keep_point_source", checkRange("point source ID", 0, 65535, pointSourceID));
+    }
+
+    /**
+     * Drop points with the withheld flag set.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter dropWithheld() {
+        return add("-drop_withheld");
+    }
+
+    /**
+     * Drop points with the synthetic flag set.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter dropSynthetic() {
+        return add("-drop_synthetic");
+    }
+
+    /**
+     * Drop points with the overlap flag set.
+     *
+     * @return this filter.
+     */
+    public LASPointFilter dropOverlap() {
+        return add("-drop_overlap");
+    }
+
+    /**
+     * @return the filter as LAStools command line options.
+     */
+    @Override
+    public String toString() {
+        return String.join(" ", arguments);
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    String[] getArguments() {
+        return arguments.toArray(new String[0]);
+    }
+
+    /**
+     * Compiles the given arguments into a new filter. A new filter is
+     * created for every reader, because criteria may keep state.
+     */
+    static LASfilter compile(String[] arguments) {
+        // LASfilter.parse() skips the first argument and clears the
+        // arguments it consumed
+        String[] argv = new String[arguments.length + 1];
+        argv[0] = "filter";
+        System.arraycopy(arguments, 0, argv, 1, arguments.length);
+        LASfilter filter = new LASfilter();
+        if (!filter.parse(argv.length, argv)) {
+            throw new IllegalStateException("Invalid filter: " + String.join(" ", arguments));
+        }
+        return filter;
+    }
+
+    private LASPointFilter add(String option, Object... values) {
+        arguments.add(option);
+        for (Object v : values) {
+            arguments.add(String.valueOf(v));
+        }
+        return this;
+    }
+
+    private LASPointFilter add(String option, int[] values) {
+        arguments.add(option);
+        for (int v : values) {
+            arguments.add(String.valueOf(v));
+        }
+        return this;
+    }
+
+    private static int[] checkRange(String name, int min, int max, int... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("at least one " + name + " is required");
+        }
+        for (int v : values) {
+            if (v < min || v > max) {
+                throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + v);
+            }
+        }
+        return values;
+    }
+}
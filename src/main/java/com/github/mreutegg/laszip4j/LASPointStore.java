@@ -0,0 +1,513 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.mreutegg.laszip4j.LASPointField.CLASSIFICATION;
+import static com.github.mreutegg.laszip4j.LASPointField.FLAGS;
+import static com.github.mreutegg.laszip4j.LASPointField.GPS_TIME;
+import static com.github.mreutegg.laszip4j.LASPointField.INTENSITY;
+import static com.github.mreutegg.laszip4j.LASPointField.NIR;
+import static com.github.mreutegg.laszip4j.LASPointField.POINT_SOURCE;
+import static com.github.mreutegg.laszip4j.LASPointField.RGB;
+import static com.github.mreutegg.laszip4j.LASPointField.SCAN_ANGLE;
+import static com.github.mreutegg.laszip4j.LASPointField.USER_DATA;
+import static com.github.mreutegg.laszip4j.LASPointField.Z;
+
+/**
+ * LAS points packed into off-heap memory. Every point is a fixed size record
+ * with only the fields {@link LASReader#select(LASPointField...) selected}
+ * on the reader and present in the point format. The records are stored in
+ * direct byte buffers of up to {@link #POINTS_PER_PAGE} points. Unlike a
+ * {@link LASPoint} per point, the points do not occupy the Java heap and
+ * the memory is released when the store is no longer referenced.
+ * <p>
+ * The accessors take the index of a point in the store and return the same
+ * values as the corresponding accessors of {@link LASPoint}. Accessors of
+ * fields not selected throw an {@link IllegalStateException}. Wave packets
+ * and extra bytes are not stored.
+ *
+ * @see LASReader#getPointStore()
+ */
+public final class LASPointStore {
+
+    /**
+     * The maximum number of points in a direct byte buffer.
+     */
+    public static final int POINTS_PER_PAGE = 1 << 20;
+
+    private static final int PAGE_SHIFT = 20;
+
+    private static final int PAGE_MASK = POINTS_PER_PAGE - 1;
+
+    private final int selective;
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+
+    private final long expectedSize;
+
+    private long size;
+
+    // offsets of the fields in a record, -1 if the field is not stored
+    private int recordLength;
+    private int zOffset = -1;
+    private int intensityOffset = -1;
+    private int classificationOffset = -1;
+    private int flagsOffset = -1;
+    private int scanAngleRankOffset = -1;
+    private int userDataOffset = -1;
+    private int pointSourceIDOffset = -1;
+    private int gpsTimeOffset = -1;
+    private int rgbOffset = -1;
+    private int nirOffset = -1;
+
+    private static final int X_OFFSET = 0;
+    private static final int Y_OFFSET = 4;
+    private static final int RETURN_NUMBER_OFFSET = 8;
+    private static final int NUMBER_OF_RETURNS_OFFSET = 9;
+    private static final int SCANNER_CHANNEL_OFFSET = 10;
+
+    // bits of the flags byte
+    private static final int SCAN_DIRECTION_BIT = 0x01;
+    private static final int EDGE_OF_FLIGHT_LINE_BIT = 0x02;
+    private static final int SYNTHETIC_BIT = 0x04;
+    private static final int KEY_POINT_BIT = 0x08;
+    private static final int WITHHELD_BIT = 0x10;
+    private static final int OVERLAP_BIT = 0x20;
+
+    LASPointStore(int selective, long expectedSize) {
+        this.selective = selective;
+        this.expectedSize = expectedSize;
+    }
+
+    /**
+     * @return the number of points in this store.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of a point record.
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * @return "X" of the point as a signed int.
+     */
+    public int getX(long index) {
+        return getInt(index, X_OFFSET);
+    }
+
+    /**
+     * @return "Y" of the point as a signed int.
+     */
+    public int getY(long index) {
+        return getInt(index, Y_OFFSET);
+    }
+
+    /**
+     * @return "Z" of the point as a signed int.
+     */
+    public int getZ(long index) {
+        Z.checkSelected(selective);
+        return getInt(index, zOffset);
+    }
+
+    /**
+     * @return "Intensity" of the point as an unsigned short (char).
+     */
+    public char getIntensity(long index) {
+        INTENSITY.checkSelected(selective);
+        return getChar(index, intensityOffset);
+    }
+
+    /**
+     * @return "Return Number" of the point as a byte (range 1..15).
+     */
+    public byte getReturnNumber(long index) {
+        return getByte(index, RETURN_NUMBER_OFFSET);
+    }
+
+    /**
+     * @return "Number of Returns (given pulse)" of the point as a byte (range 1..15).
+     */
+    public byte getNumberOfReturns(long index) {
+        return getByte(index, NUMBER_OF_RETURNS_OFFSET);
+    }
+
+    /**
+     * @return "Scan Direction Flag" of the point as a byte (1 bit).
+     */
+    public byte getScanDirectionFlag(long index) {
+        return (getFlags(index) & SCAN_DIRECTION_BIT) != 0 ? (byte) 1 : (byte) 0;
+    }
+
+    /**
+     * @return "Edge of Flight Line" of the point as a byte (1 bit).
+     */
+    public byte getEdgeOfFlightLine(long index) {
+        return (getFlags(index) & EDGE_OF_FLIGHT_LINE_BIT) != 0 ? (byte) 1 : (byte) 0;
+    }
+
+    /**
+     * @return "Synthetic" flag of the point.
+     */
+    public boolean isSynthetic(long index) {
+        return (getFlags(index) & SYNTHETIC_BIT) != 0;
+    }
+
+    /**
+     * @return "Key-point" flag of the point.
+     */
+    public boolean isKeyPoint(long index) {
+        return (getFlags(index) & KEY_POINT_BIT) != 0;
+    }
+
+    /**
+     * @return "Withheld" flag of the point.
+     */
+    public boolean isWithheld(long index) {
+        return (getFlags(index) & WITHHELD_BIT) != 0;
+    }
+
+    /**
+     * @return "Overlap" flag of the point.
+     */
+    public boolean isOverlap(long index) {
+        return (getFlags(index) & OVERLAP_BIT) != 0;
+    }
+
+    /**
+     * @return "Scanner Channel" of the point as a byte (range 0..3, always
+     *          0 for point10).
+     */
+    public byte getScannerChannel(long index) {
+        return getByte(index, SCANNER_CHANNEL_OFFSET);
+    }
+
+    /**
+     * @return "Classification" of the point as a short (range is 0..31 for
+     *          point10, and 0..255 for point14).
+     */
+    public short getClassification(long index) {
+        CLASSIFICATION.checkSelected(selective);
+        return (short) (getByte(index, classificationOffset) & 0xFF);
+    }
+
+    /**
+     * @return "Scan Angle Rank (-90 to +90) - Left side" of the point as a signed byte.
+     */
+    public byte getScanAngleRank(long index) {
+        SCAN_ANGLE.checkSelected(selective);
+        return getByte(index, scanAngleRankOffset);
+    }
+
+    /**
+     * @return "User Data" of the point as an unsigned byte.
+     */
+    public short getUserData(long index) {
+        USER_DATA.checkSelected(selective);
+        return (short) (getByte(index, userDataOffset) & 0xFF);
+    }
+
+    /**
+     * @return "Point Source ID" of the point as an unsigned short (range 0..65535).
+     */
+    public char getPointSourceID(long index) {
+        POINT_SOURCE.checkSelected(selective);
+        return getChar(index, pointSourceIDOffset);
+    }
+
+    /**
+     * @return {@code true} if the points have "GPS Time"; {@code false} otherwise.
+     */
+    public boolean hasGPSTime() {
+        return gpsTimeOffset != -1;
+    }
+
+    /**
+     * @return "GPS Time" of the point as a double.
+     * @throws IllegalStateException when called on points without GPS Time.
+     * @see #hasGPSTime()
+     */
+    public double getGPSTime(long index) {
+        GPS_TIME.checkSelected(selective);
+        if (gpsTimeOffset == -1) {
+            throw new IllegalStateException("Points do not have GPS Time");
+        }
+        ByteBuffer page = pages.get(page(index));
+        return page.getDouble(position(index) + gpsTimeOffset);
+    }
+
+    /**
+     * @return {@code true} if the points have RGB data; {@code false} otherwise.
+     */
+    public boolean hasRGB() {
+        return rgbOffset != -1;
+    }
+
+    /**
+     * @return "Red" of the point as an unsigned short (char).
+     */
+    public char getRed(long index) {
+        checkHasRGB();
+        return getChar(index, rgbOffset);
+    }
+
+    /**
+     * @return "Green" of the point as an unsigned short (char).
+     */
+    public char getGreen(long index) {
+        checkHasRGB();
+        return getChar(index, rgbOffset + 2);
+    }
+
+    /**
+     * @return "Blue" of the point as an unsigned short (char).
+     */
+    public char getBlue(long index) {
+        checkHasRGB();
+        return getChar(index, rgbOffset + 4);
+    }
+
+    /**
+     * @return {@code true} if the points have NIR data; {@code false} otherwise.
+     */
+    public boolean hasNIR() {
+        return nirOffset != -1;
+    }
+
+    /**
+     * @return "NIR" of the point as an unsigned short (char).
+     */
+    public char getNIR(long index) {
+        NIR.checkSelected(selective);
+        if (nirOffset == -1) {
+            throw new IllegalStateException("Points do not have NIR data");
+        }
+        return getChar(index, nirOffset);
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    void add(LASpoint p) {
+        if (recordLength == 0) {
+            layout(p);
+        }
+        int offset = (int) (size & PAGE_MASK);
+        int position = offset * recordLength;
+        ByteBuffer page;
+        if (offset == 0) {
+            // a page for the expected remaining points
+            long points = Math.min(POINTS_PER_PAGE, Math.max(1024, expectedSize - size));
+            page = allocate((int) points);
+            pages.add(page);
+        } else {
+            page = pages.get(pages.size() - 1);
+            if (page.capacity() == position) {
+                // more points than expected
+                page = copy(page, position, (int) Math.min(POINTS_PER_PAGE, 2L * offset));
+                pages.set(pages.size() - 1, page);
+            }
+        }
+        page.putInt(position + X_OFFSET, p.getX());
+        page.putInt(position + Y_OFFSET, p.getY());
+        page.put(position + RETURN_NUMBER_OFFSET, p.getReturn_number());
+        page.put(position + NUMBER_OF_RETURNS_OFFSET, p.getNumber_of_returns());
+        page.put(position + SCANNER_CHANNEL_OFFSET, p.getExtended_scanner_channel());
+        if (zOffset != -1) {
+            page.putInt(position + zOffset, p.getZ());
+        }
+        if (intensityOffset != -1) {
+            page.putChar(position + intensityOffset, p.getIntensity());
+        }
+        if (classificationOffset != -1) {
+            page.put(position + classificationOffset, (byte) p.getClassification());
+        }
+        if (flagsOffset != -1) {
+            page.put(position + flagsOffset, flags(p));
+        }
+        if (scanAngleRankOffset != -1) {
+            page.put(position + scanAngleRankOffset, p.getScan_angle_rank());
+        }
+        if (userDataOffset != -1) {
+            page.put(position + userDataOffset, (byte) p.getUser_data());
+        }
+        if (pointSourceIDOffset != -1) {
+            page.putChar(position + pointSourceIDOffset, p.getPoint_source_ID());
+        }
+        if (gpsTimeOffset != -1) {
+            page.putDouble(position + gpsTimeOffset, p.getGps_time());
+        }
+        if (rgbOffset != -1) {
+            page.putChar(position + rgbOffset, p.get_R());
+            page.putChar(position + rgbOffset + 2, p.get_G());
+            page.putChar(position + rgbOffset + 4, p.get_B());
+        }
+        if (nirOffset != -1) {
+            page.putChar(position + nirOffset, p.get_I());
+        }
+        size++;
+    }
+
+    /**
+     * Copies the last page into a buffer that only holds its points.
+     */
+    void trim() {
+        int points = (int) (size & PAGE_MASK);
+        if (points == 0) {
+            return;
+        }
+        ByteBuffer last = pages.get(pages.size() - 1);
+        if (last.capacity() > points * recordLength) {
+            pages.set(pages.size() - 1, copy(last, points * recordLength, points));
+        }
+    }
+
+    private ByteBuffer allocate(int points) {
+        return ByteBuffer.allocateDirect(points * recordLength).order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer copy(ByteBuffer page, int length, int points) {
+        ByteBuffer copy = allocate(points);
+        ByteBuffer src = page.duplicate();
+        src.position(0).limit(length);
+        copy.put(src);
+        return copy;
+    }
+
+    private void layout(LASpoint p) {
+        // all points in a store have the same point format. fields are
+        // ordered by size to keep them aligned
+        int offset = SCANNER_CHANNEL_OFFSET + 1;
+        if (p.haveGpsTime() && (selective & GPS_TIME.getMask()) != 0) {
+            offset = align(offset, 8);
+            gpsTimeOffset = offset;
+            offset += 8;
+        }
+        if ((selective & Z.getMask()) != 0) {
+            offset = align(offset, 4);
+            zOffset = offset;
+            offset += 4;
+        }
+        offset = align(offset, 2);
+        if ((selective & INTENSITY.getMask()) != 0) {
+            intensityOffset = offset;
+            offset += 2;
+        }
+        if ((selective & POINT_SOURCE.getMask()) != 0) {
+            pointSourceIDOffset = offset;
+            offset += 2;
+        }
+        if (p.haveRgb() && (selective & RGB.getMask()) != 0) {
+            rgbOffset = offset;
+            offset += 6;
+        }
+        if (p.haveNIR() && (selective & NIR.getMask()) != 0) {
+            nirOffset = offset;
+            offset += 2;
+        }
+        if ((selective & CLASSIFICATION.getMask()) != 0) {
+            classificationOffset = offset;
+            offset += 1;
+        }
+        if ((selective & FLAGS.getMask()) != 0) {
+            flagsOffset = offset;
+            offset += 1;
+        }
+        if ((selective & SCAN_ANGLE.getMask()) != 0) {
+            scanAngleRankOffset = offset;
+            offset += 1;
+        }
+        if ((selective & USER_DATA.getMask()) != 0) {
+            userDataOffset = offset;
+            offset += 1;
+        }
+        recordLength = align(offset, gpsTimeOffset != -1 ? 8 : 4);
+    }
+
+    private static byte flags(LASpoint p) {
+        int flags = 0;
+        if (p.getScan_direction_flag() != 0) {
+            flags |= SCAN_DIRECTION_BIT;
+        }
+        if (p.getEdge_of_flight_line() != 0) {
+            flags |= EDGE_OF_FLIGHT_LINE_BIT;
+        }
+        if (p.getSynthetic_flag() != 0) {
+            flags |= SYNTHETIC_BIT;
+        }
+        if (p.getKeypoint_flag() != 0) {
+            flags |= KEY_POINT_BIT;
+        }
+        if (p.getWithheld_flag() != 0) {
+            flags |= WITHHELD_BIT;
+        }
+        if (p.getOverlap_flag() != 0) {
+            flags |= OVERLAP_BIT;
+        }
+        return (byte) flags;
+    }
+
+    private int getFlags(long index) {
+        FLAGS.checkSelected(selective);
+        return getByte(index, flagsOffset) & 0xFF;
+    }
+
+    private static int align(int offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    private int page(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index must be between 0 and " + (size - 1) + ": " + index);
+        }
+        return (int) (index >>> PAGE_SHIFT);
+    }
+
+    private int position(long index) {
+        return ((int) index & PAGE_MASK) * recordLength;
+    }
+
+    private int getInt(long index, int offset) {
+        return pages.get(page(index)).getInt(position(index) + offset);
+    }
+
+    private char getChar(long index, int offset) {
+        return pages.get(page(index)).getChar(position(index) + offset);
+    }
+
+    private byte getByte(long index, int offset) {
+        return pages.get(page(index)).get(position(index) + offset);
+    }
+
+    private void checkHasRGB() throws IllegalStateException {
+        RGB.checkSelected(selective);
+        if (rgbOffset == -1) {
+            throw new IllegalStateException("Points do not have RGB data");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laszip.LASindex;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query for points, which is read with many other queries in a single
+ * pass by a {@link LASBatchReader}. A query selects points in an area and
+ * optionally filters them by their attributes. The specification of the
+ * area refers to point data adjusted with scale and offset from the LAS
+ * header.
+ */
+public final class LASQuery {
+
+    private static final int ALL = 0;
+    private static final int TILE = 1;
+    private static final int CIRCLE = 2;
+    private static final int RECTANGLE = 3;
+
+    private static final Predicate<LASPoint> ANY = p -> true;
+
+    private final int inside;
+
+    // tile: ll_x, ll_y, size; circle: center_x, center_y, radius;
+    // rectangle: min_x, min_y, max_x, max_y
+    private final double[] area;
+
+    private final Predicate<LASPoint> filter;
+
+    private LASQuery(int inside, double[] area, Predicate<LASPoint> filter) {
+        this.inside = inside;
+        this.area = area;
+        this.filter = filter;
+    }
+
+    /**
+     * @return a query for all points.
+     */
+    public static LASQuery all() {
+        return new LASQuery(ALL, new double[0], ANY);
+    }
+
+    /**
+     * A query for points that fall into the specified tile.
+     *
+     * @return the query.
+     */
+    public static LASQuery insideTile(float ll_x, float ll_y, float size) {
+        return new LASQuery(TILE, new double[]{ll_x, ll_y, size}, ANY);
+    }
+
+    /**
+     * A query for points that fall into the specified circle.
+     *
+     * @return the query.
+     */
+    public static LASQuery insideCircle(double center_x, double center_y, double radius) {
+        return new LASQuery(CIRCLE, new double[]{center_x, center_y, radius}, ANY);
+    }
+
+    /**
+     * A query for points that fall into the specified rectangle.
+     *
+     * @return the query.
+     */
+    public static LASQuery insideRectangle(double min_x, double min_y, double max_x, double max_y) {
+        return new LASQuery(RECTANGLE, new double[]{min_x, min_y, max_x, max_y}, ANY);
+    }
+
+    /**
+     * Returns a query that additionally filters the points of this query
+     * with the given predicate.
+     *
+     * @param predicate the predicate points must match.
+     * @return the new query.
+     */
+    public LASQuery filter(Predicate<LASPoint> predicate) {
+        requireNonNull(predicate);
+        return new LASQuery(inside, area, filter == ANY ? predicate : filter.and(predicate));
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    boolean isSpatial() {
+        return inside != ALL;
+    }
+
+    // intersects the cells of the spatial index with the area of this query
+    boolean intersect(LASindex index) {
+        switch (inside) {
+            case TILE:
+                return index.intersect_tile((float) area[0], (float) area[1], (float) area[2]);
+            case CIRCLE:
+                return index.intersect_circle(area[0], area[1], area[2]);
+            case RECTANGLE:
+                return index.intersect_rectangle(area[0], area[1], area[2], area[3]);
+            default:
+                return false;
+        }
+    }
+
+    boolean matches(LASpoint p, LASPoint point) {
+        return inside(p) && filter.test(point);
+    }
+
+    private boolean inside(LASpoint p) {
+        switch (inside) {
+            case TILE:
+                return p.inside_tile((float) area[0], (float) area[1],
+                        (float) area[0] + (float) area[2], (float) area[1] + (float) area[2]);
+            case CIRCLE:
+                return p.inside_circle(area[0], area[1], area[2] * area[2]);
+            case RECTANGLE:
+                return p.inside_rectangle(area[0], area[1], area[2], area[3]);
+            default:
+                return true;
+        }
+    }
+}
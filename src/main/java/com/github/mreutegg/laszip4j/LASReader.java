@@ -16,13 +16,17 @@
  */
 package com.github.mreutegg.laszip4j;
 
+import com.github.mreutegg.laszip4j.laslib.LASfilter;
 import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
 import com.github.mreutegg.laszip4j.laslib.LASreader;
 import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
 import com.github.mreutegg.laszip4j.laslib.LAStransform;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInPrefetch;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
 
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fclose;
 import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -30,16 +34,18 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * A utility for reading LAS/LAZ files.
  */
-public final class LASReader {
+public final class LASReader implements AutoCloseable {
 
     private final File file;
 
@@ -49,6 +55,28 @@ public final class LASReader {
 
     private LASPointTransformer transform = LASPointTransformer.NONE;
 
+    private String[] filter;
+
+    private double[] gpsTimeWindow;
+
+    private Executor executor;
+
+    private boolean ordered = true;
+
+    private int parallelism;
+
+    private int selective = LASZIP_DECOMPRESS_SELECTIVE_ALL;
+
+    private int maxDepth = -1;
+
+    private int prefetchBufferCount;
+
+    private int prefetchBufferSize;
+
+    private int chunkCacheSize = 8;
+
+    private ChunkCache chunkCache;
+
     /**
      * Constructs a new reader for the given file. The file may refer to a raw
      * LAS or compressed LAZ file.
@@ -68,6 +96,9 @@ public final class LASReader {
      * Only return points that fall into the specified tile.
      * The specification of the tile refers to point data
      * adjusted with scale and offset from the LAS header.
+     * A spatial index in a LAX file next to the file or appended to a
+     * LAZ file (see {@link LASIndexer}) is used to only read the points
+     * of the cells that intersect the area.
      *
      * @return this reader.
      */
@@ -77,9 +108,12 @@ public final class LASReader {
     }
 
     /**
-     * Only return points that fall into the specified tile.
+     * Only return points that fall into the specified circle.
      * The specification of the circle refers to point data
      * adjusted with scale and offset from the LAS header.
+     * A spatial index in a LAX file next to the file or appended to a
+     * LAZ file (see {@link LASIndexer}) is used to only read the points
+     * of the cells that intersect the area.
      *
      * @return this reader.
      */
@@ -92,6 +126,9 @@ public final class LASReader {
      * Only return points that fall into the specified rectangle.
      * The specification of the rectangle refers to point data
      * adjusted with scale and offset from the LAS header.
+     * A spatial index in a LAX file next to the file or appended to a
+     * LAZ file (see {@link LASIndexer}) is used to only read the points
+     * of the cells that intersect the area.
      *
      * @return this reader.
      */
@@ -100,6 +137,26 @@ public final class LASReader {
         return this;
     }
 
+    /**
+     * Only return points of COPC (cloud optimized point cloud) octree nodes
+     * up to the given depth. The root node has depth zero. Together with
+     * {@link #insideRectangle(double, double, double, double)},
+     * {@link #insideTile(float, float, float)} or
+     * {@link #insideCircle(double, double, double)} only the nodes that
+     * intersect the area are decoded. The depth is ignored for files that
+     * are not COPC files.
+     *
+     * @param depth the maximum depth of octree nodes to read.
+     * @return this reader.
+     */
+    public LASReader maxDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative: " + depth);
+        }
+        this.maxDepth = depth;
+        return this;
+    }
+
     /**
      * Apply a transformation to points read by this reader.
      *
@@ -108,14 +165,243 @@ public final class LASReader {
      */
     public LASReader transform(LASPointTransformer transformer) {
         this.transform = requireNonNull(transformer);
+        closeChunkCache();
+        return this;
+    }
+
+    /**
+     * Only return points that pass the given filter. The filter is applied
+     * while the points are read, before a {@link #transform(LASPointTransformer)
+     * transformation} and together with spatial constraints like
+     * {@link #insideRectangle(double, double, double, double)}. Fields used by
+     * the filter are decoded even when they are not
+     * {@link #select(LASPointField...) selected}, but remain inaccessible on
+     * the returned points. Changes to the filter after this call do not
+     * affect this reader.
+     *
+     * @param filter the filter.
+     * @return this reader.
+     */
+    public LASReader filter(LASPointFilter filter) {
+        this.filter = requireNonNull(filter).getArguments();
+        return this;
+    }
+
+    /**
+     * Only return points with {@code min <= GPS time <= max}. Points without
+     * a GPS time are returned. A LAZ file with {@link LASChunkStatistics} is
+     * not decoded entirely: when the statistics show that the chunks are
+     * ordered by GPS time, like flight lines, a binary search over the
+     * statistics finds the chunks that overlap the window and only those are
+     * read. Otherwise the statistics skip the chunks without a point in the
+     * window. Files without statistics are decoded entirely, because a point
+     * in the window may be anywhere in the file. Points are read
+     * sequentially, even when a {@link #parallel(Executor) parallel}
+     * executor is set.
+     *
+     * @param min the minimum GPS time.
+     * @param max the maximum GPS time.
+     * @return this reader.
+     */
+    public LASReader betweenGPSTime(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("min must not be greater than max: " + min + " > " + max);
+        }
+        this.gpsTimeWindow = new double[]{min, max};
         return this;
     }
 
     /**
+     * Only read the given fields of a point. X, Y, the return number and the
+     * number of returns are always read. Compressed LAZ files with point
+     * formats 6 and higher store the fields in separate layers and skip the
+     * layers of fields that are not selected. Accessing a field that was not
+     * selected on a point throws an {@link IllegalStateException}.
+     *
+     * @param fields the fields to read.
+     * @return this reader.
+     */
+    public LASReader select(LASPointField... fields) {
+        int selective = LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
+        for (LASPointField f : fields) {
+            selective |= f.getMask();
+        }
+        this.selective = selective;
+        closeChunkCache();
+        return this;
+    }
+
+    /**
+     * The maximum number of decoded chunks kept in memory for
+     * {@link #getPoint(long)} and {@link #getPoints(long[])}. The least
+     * recently used chunk is evicted first. The default is 8.
+     *
+     * @param chunks the maximum number of cached chunks.
+     * @return this reader.
+     */
+    public LASReader chunkCacheSize(int chunks) {
+        if (chunks < 1) {
+            throw new IllegalArgumentException("chunks must be positive: " + chunks);
+        }
+        this.chunkCacheSize = chunks;
+        closeChunkCache();
+        return this;
+    }
+
+    /**
+     * Decode the chunks of a compressed LAZ file in parallel with tasks
+     * submitted to the given executor. The points are returned in file order
+     * unless {@link #unordered()} is set. Raw LAS files, LAZ files without a
+     * chunk table, queries that use a spatial index and input streams are
+     * read sequentially. Points returned by a parallel read do not change
+     * when the iteration proceeds. The number of chunks decoded ahead is
+     * derived from the pool size of a {@link java.util.concurrent.ThreadPoolExecutor}
+     * or the parallelism of a {@link java.util.concurrent.ForkJoinPool}
+     * and from the number of processors for other executors.
+     *
+     * @param executor the executor decoding the chunks.
+     * @return this reader.
+     */
+    public LASReader parallel(Executor executor) {
+        this.executor = requireNonNull(executor);
+        this.parallelism = 0;
+        return this;
+    }
+
+    /**
+     * Decode the chunks of a compressed LAZ file in parallel with tasks
+     * submitted to the given executor, which runs up to {@code parallelism}
+     * tasks at the same time. Twice as many chunks are decoded ahead.
+     *
+     * @param executor the executor decoding the chunks.
+     * @param parallelism the number of tasks the executor runs at the same time.
+     * @return this reader.
+     * @see #parallel(Executor)
+     */
+    public LASReader parallel(Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.executor = requireNonNull(executor);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Return points of a parallel read in the order chunks complete decoding
+     * instead of the file order. Points within a chunk are still returned in
+     * file order.
+     *
+     * @return this reader.
+     * @see #parallel(Executor)
+     */
+    public LASReader unordered() {
+        this.ordered = false;
+        return this;
+    }
+
+    /**
+     * Returns the LAS points. Unless read in {@link #parallel(Executor)},
+     * the iterator returns the same {@link LASPoint} instance for every
+     * point, which reflects the current point of the iteration.
+     *
      * @return the LAS points.
      */
     public Iterable<LASPoint> getPoints() {
-        return LASPointIterator::new;
+        return this::newPointIterator;
+    }
+
+    /**
+     * Returns the point with the given index in the file. The chunk of the
+     * point is decoded entirely and kept in a cache of recently used chunks
+     * (see {@link #chunkCacheSize(int)}), which means reading other points
+     * of the chunk does not decode it again. Selected fields and the
+     * transformation apply, spatial constraints and filters do not. The
+     * same {@link LASPoint} instance is returned while its chunk is cached.
+     * The file is kept open for random access until {@link #close()}.
+     *
+     * @param index the index of the point.
+     * @return the point.
+     * @throws IllegalArgumentException if there is no point with the index
+     *          or the file is a LAZ file without a chunk table.
+     */
+    public LASPoint getPoint(long index) {
+        return getPoints(new long[]{index})[0];
+    }
+
+    /**
+     * Returns the points with the given indices in the file. The indices are
+     * processed in the order of their chunks, which means a chunk is
+     * decoded at most once per call.
+     *
+     * @param indices the indices of the points.
+     * @return the points in the order of the indices.
+     * @throws IllegalArgumentException if there is no point with one of the
+     *          indices or the file is a LAZ file without a chunk table.
+     * @see #getPoint(long)
+     */
+    public LASPoint[] getPoints(long[] indices) {
+        ChunkCache cache = chunkCache;
+        if (cache == null) {
+            cache = new ChunkCache(this::openRandomAccessReader, selective, chunkCacheSize);
+            chunkCache = cache;
+        }
+        return cache.getPoints(requireNonNull(indices));
+    }
+
+    /**
+     * Closes the file kept open for random access with {@link #getPoint(long)}
+     * and {@link #getPoints(long[])}. Point iterations open the file
+     * themselves and are not affected. The cached chunks are kept and the
+     * file is opened again on the next random access to a chunk that is not
+     * cached.
+     */
+    @Override
+    public void close() {
+        ChunkCache cache = chunkCache;
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Reads the points into off-heap memory. Each point is packed into a
+     * record with the {@link #select(LASPointField...) selected} fields,
+     * which avoids the objects of a {@link LASPoint} per point for large
+     * sets of points kept in memory. Spatial constraints, the filter and
+     * the transformation apply.
+     *
+     * @return the points in off-heap memory.
+     */
+    public LASPointStore getPointStore() {
+        try (LASreader r = openReader()) {
+            LASPointStore store = new LASPointStore(selective, r.npoints);
+            while (r.read_point()) {
+                store.add(r.point);
+            }
+            store.trim();
+            return store;
+        }
+    }
+
+    /**
+     * Returns the LAS points in blocks of up to {@code blockSize} points with
+     * one primitive array per attribute. The last block may contain fewer
+     * points. The iterator returns the same {@link LASPointBlock} instance
+     * for every block, which reflects the current block of the iteration.
+     * <p>
+     * The points are decoded the same way as by {@link #getPoints()} and
+     * copied into the columns of the block. Blocks are a convenient layout
+     * for column-oriented processing, but do not decode faster.
+     *
+     * @param blockSize the maximum number of points in a block.
+     * @return the LAS points in blocks.
+     */
+    public Iterable<LASPointBlock> getPointBlocks(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        return () -> new PointBlockIterator(newPointIterator(), new LASPointBlock(blockSize, selective));
     }
 
     /**
@@ -124,18 +410,18 @@ public final class LASReader {
     public CloseablePointIterable getCloseablePoints() {
         return new CloseablePointIterable() {
 
-            private final List<LASPointIterator> openIterators = new ArrayList<>();
+            private final List<PointIterator> openIterators = new ArrayList<>();
 
             @Override
             public void close() {
-                for (LASPointIterator it : openIterators) {
+                for (PointIterator it : openIterators) {
                     it.close();
                 }
             }
 
             @Override
             public Iterator<LASPoint> iterator() {
-                LASPointIterator it = new LASPointIterator();
+                PointIterator it = newPointIterator();
                 openIterators.add(it);
                 return it;
             }
@@ -152,6 +438,32 @@ public final class LASReader {
         return new LASReader(null, new BufferedInputStream(requireNonNull(is))).getPoints();
     }
 
+    /**
+     * Read LAS points from an input stream of a raw .las or .laz file. A
+     * background thread reads ahead from the input stream into a ring of
+     * {@code bufferCount} buffers with {@code bufferSize} bytes each, while
+     * the points are decoded from a previously filled buffer. This is useful
+     * when the input stream has latency, e.g. when it is read from the
+     * network.
+     *
+     * @param is the input stream.
+     * @param bufferCount the number of buffers to read ahead.
+     * @param bufferSize the size of a buffer in bytes.
+     * @return the LAS points.
+     */
+    public static Iterable<LASPoint> getPoints(InputStream is, int bufferCount, int bufferSize) {
+        if (bufferCount < 1) {
+            throw new IllegalArgumentException("bufferCount must be positive: " + bufferCount);
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        LASReader reader = new LASReader(null, requireNonNull(is));
+        reader.prefetchBufferCount = bufferCount;
+        reader.prefetchBufferSize = bufferSize;
+        return reader.getPoints();
+    }
+
     /**
      * @return the LAS header.
      */
@@ -176,35 +488,163 @@ public final class LASReader {
     //--------------------------------< internal >-----------------------------
 
     LASreader openReader() {
+        LASfilter lasFilter = null;
+        int decompressSelective = selective;
+        String[] filter = filterArguments();
+        if (filter.length > 0) {
+            lasFilter = LASPointFilter.compile(filter);
+            decompressSelective |= lasFilter.get_decompress_selective();
+        }
         LASreader reader;
         if (file != null) {
             if (!file.exists() || !file.isFile()) {
                 throw new UncheckedIOException(
                         new FileNotFoundException(file.getAbsolutePath()));
             }
-            reader = new LASreadOpener().open(file.getAbsolutePath());
+            LASreadOpener opener = new LASreadOpener();
+            opener.set_decompress_selective(decompressSelective);
+            reader = opener.open(file.getAbsolutePath());
         } else {
             LASreaderLAS lasReader = new LASreaderLAS();
-            if (lasReader.open(is, LASZIP_DECOMPRESS_SELECTIVE_ALL)) {
+            boolean opened;
+            if (prefetchBufferCount > 0) {
+                ByteStreamInPrefetch stream = new ByteStreamInPrefetch(is, prefetchBufferCount, prefetchBufferSize);
+                opened = lasReader.open(stream, decompressSelective);
+                if (!opened) {
+                    fclose(stream);
+                }
+            } else {
+                opened = lasReader.open(is, decompressSelective);
+            }
+            if (opened) {
                 reader = lasReader;
             } else {
                 throw new IllegalStateException("Cannot open las reader from stream");
             }
         }
+        // set the filter and transform first, they reset how the reader
+        // reads points and would otherwise drop the (indexed) constraint
+        if (lasFilter != null) {
+            lasFilter.compile(reader.header);
+            reader.set_filter(lasFilter);
+        }
+        if (transform != LASPointTransformer.NONE) {
+            reader.set_transform(new CustomLAStransform(transform, selective));
+        }
         constraint.apply(reader);
+        if (maxDepth != -1) {
+            reader.inside_copc_depth(maxDepth);
+        }
+        if (lasFilter != null && file != null && reader instanceof LASreaderLAS && !readsIndexed(reader)) {
+            probeChunks((LASreaderLAS) reader, filter, lasFilter.get_decompress_selective(), decompressSelective);
+            if (gpsTimeWindow != null) {
+                ((LASreaderLAS) reader).set_gps_time_window(gpsTimeWindow[0], gpsTimeWindow[1]);
+            }
+        }
+        return reader;
+    }
+
+    private void closeChunkCache() {
+        close();
+        chunkCache = null;
+    }
+
+    // a reader without constraints and filter for random access
+    private LASreader openRandomAccessReader() {
+        if (file == null) {
+            throw new IllegalStateException("Random access requires a file");
+        }
+        if (!file.exists() || !file.isFile()) {
+            throw new UncheckedIOException(
+                    new FileNotFoundException(file.getAbsolutePath()));
+        }
+        LASreadOpener opener = new LASreadOpener();
+        opener.set_decompress_selective(selective);
+        LASreader reader = opener.open(file.getAbsolutePath());
+        if (reader == null) {
+            throw new IllegalStateException("Unable to open " + file);
+        }
         if (transform != LASPointTransformer.NONE) {
-            reader.set_transform(new CustomLAStransform(transform));
+            reader.set_transform(new CustomLAStransform(transform, selective));
         }
         return reader;
     }
 
-    private class LASPointIterator implements Iterator<LASPoint>, AutoCloseable {
+    // layered chunks of point formats 6 and higher are probed with a second
+    // reader, which only decodes the layers needed by the filter. the other
+    // layers are only decoded for chunks with points that pass the filter
+    private void probeChunks(LASreaderLAS reader, String[] filter, int filterSelective, int decompressSelective) {
+        if (reader.header.laszip == null || reader.header.point_data_format < 6
+                || (decompressSelective & ~filterSelective) == 0) {
+            return;
+        }
+        LASreadOpener opener = new LASreadOpener();
+        opener.set_decompress_selective(filterSelective);
+        LASreader probe = opener.open(file.getAbsolutePath());
+        if (probe == null) {
+            return;
+        }
+        LASfilter probeFilter = LASPointFilter.compile(filter);
+        probeFilter.compile(probe.header);
+        probe.set_filter(probeFilter);
+        if (!(probe instanceof LASreaderLAS) || !reader.set_probe((LASreaderLAS) probe)) {
+            probe.close();
+        }
+    }
+
+    private PointIterator newPointIterator() {
+        LASreader r = openReader();
+        if (executor != null && file != null && gpsTimeWindow == null
+                && r instanceof LASreaderLAS && !readsIndexed(r)) {
+            long[] chunkPointStarts = ((LASreaderLAS) r).get_chunk_point_starts();
+            if (chunkPointStarts != null && chunkPointStarts.length > 2) {
+                return new ParallelPointIterator(() -> (LASreaderLAS) openReader(),
+                        (LASreaderLAS) r, chunkPointStarts, executor, ordered, selective,
+                        parallelism > 0 ? parallelism : ParallelPointIterator.parallelism(executor));
+            }
+        }
+        return new LASPointIterator(r, selective);
+    }
+
+    // the filter and the GPS time window as filter arguments
+    private String[] filterArguments() {
+        List<String> arguments = new ArrayList<>();
+        if (filter != null) {
+            arguments.addAll(Arrays.asList(filter));
+        }
+        if (gpsTimeWindow != null) {
+            arguments.addAll(Arrays.asList(new LASPointFilter()
+                    .keepGPSTime(gpsTimeWindow[0], gpsTimeWindow[1]).getArguments()));
+        }
+        return arguments.toArray(new String[0]);
+    }
+
+    private static boolean readsIndexed(LASreader r) {
+        if (r.get_copc_index() != null && r.get_copc_index().get_max_depth() != -1) {
+            return true;
+        }
+        return r.get_inside() != 0 && (r.get_index() != null || r.get_copc_index() != null);
+    }
+
+    interface PointIterator extends Iterator<LASPoint>, AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    static class LASPointIterator implements PointIterator {
 
         private final LASPoint end = new LASPoint(new LASpoint());
 
-        private final LASreader r = openReader();
+        private final LASreader r;
+        private final LASPoint point;
         private LASPoint next = null;
 
+        LASPointIterator(LASreader r, int selective) {
+            this.r = r;
+            this.point = new LASPoint(r.point, selective);
+        }
+
         @Override
         public boolean hasNext() {
             if (next == end) {
@@ -233,7 +673,7 @@ public final class LASReader {
         }
 
         private LASPoint readNext() {
-            LASPoint p = r.read_point() ? new LASPoint(r.point) : null;
+            LASPoint p = r.read_point() ? point : null;
             if (p == null) {
                 r.close();
                 p = end;
@@ -242,6 +682,39 @@ public final class LASReader {
         }
     }
 
+    private static class PointBlockIterator implements Iterator<LASPointBlock> {
+
+        private final PointIterator points;
+        private final LASPointBlock block;
+        private boolean next;
+
+        PointBlockIterator(PointIterator points, LASPointBlock block) {
+            this.points = points;
+            this.block = block;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!next) {
+                block.clear();
+                while (!block.isFull() && points.hasNext()) {
+                    block.add(points.next().p);
+                }
+                next = block.size() > 0;
+            }
+            return next;
+        }
+
+        @Override
+        public LASPointBlock next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            next = false;
+            return block;
+        }
+    }
+
     private interface Constraint {
 
         boolean apply(LASreader reader);
@@ -259,13 +732,26 @@ public final class LASReader {
 
         private final LASPointTransformer transformer;
 
-        private CustomLAStransform(LASPointTransformer transformer) {
+        private final int selective;
+
+        private LASpoint point;
+        private LASPoint lasPoint;
+        private PointModifier modifier;
+
+        private CustomLAStransform(LASPointTransformer transformer, int selective) {
             this.transformer = transformer;
+            this.selective = selective;
         }
 
         @Override
         public void transform(LASpoint point) {
-            transformer.transform(new LASPoint(point), new PointModifier(point));
+            if (this.point != point) {
+                // readers always pass the same point
+                this.point = point;
+                this.lasPoint = new LASPoint(point, selective);
+                this.modifier = new PointModifier(point);
+            }
+            transformer.transform(lasPoint, modifier);
         }
     }
 
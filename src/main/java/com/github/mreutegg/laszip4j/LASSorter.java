@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASwriterSorted;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility for writing a LAZ file with the points in spatially coherent
+ * order. The points are sorted along a space filling curve over the X and Y
+ * coordinates with an external merge sort, which keeps memory bounded by
+ * spilling sorted runs to temporary files. Nearby points end up in the
+ * same chunk, which usually improves compression and reduces the number of
+ * chunks read by spatial queries.
+ * <p>
+ * With point data format 6 or higher, chunks have a variable size of at
+ * most {@link #chunkSize(int)} points and end at quadtree cell boundaries
+ * of the curve. Older point data formats use a fixed chunk size.
+ */
+public final class LASSorter {
+
+    /**
+     * The space filling curve defining the order of the points.
+     */
+    public enum Curve {
+
+        /**
+         * The Z-order curve, which interleaves the bits of X and Y.
+         */
+        MORTON,
+
+        /**
+         * The Hilbert curve, where consecutive cells are always adjacent.
+         */
+        HILBERT
+    }
+
+    private final LASReader reader;
+
+    private Curve curve = Curve.HILBERT;
+
+    private boolean gpsTimeTiebreak;
+
+    private int chunkSize = 50000;
+
+    private long maxPointsInMemory = 10000000;
+
+    private File tempDirectory;
+
+    /**
+     * Create a new sorter that will read point data from the given reader.
+     *
+     * @param reader the source of the points to sort.
+     */
+    public LASSorter(LASReader reader) {
+        this.reader = requireNonNull(reader);
+    }
+
+    /**
+     * The space filling curve to sort the points. The default is
+     * {@link Curve#HILBERT}.
+     *
+     * @param curve the space filling curve.
+     * @return this sorter.
+     */
+    public LASSorter curve(Curve curve) {
+        this.curve = requireNonNull(curve);
+        return this;
+    }
+
+    /**
+     * Sort points with the same position on the curve by GPS time. By
+     * default, such points keep the order of the source. Has no effect
+     * when the points do not have a GPS time.
+     *
+     * @param gpsTimeTiebreak whether to sort by GPS time within a cell.
+     * @return this sorter.
+     */
+    public LASSorter gpsTimeTiebreak(boolean gpsTimeTiebreak) {
+        this.gpsTimeTiebreak = gpsTimeTiebreak;
+        return this;
+    }
+
+    /**
+     * The maximum number of points in a chunk of the LAZ file. The default
+     * is 50000.
+     *
+     * @param chunkSize the maximum number of points in a chunk.
+     * @return this sorter.
+     */
+    public LASSorter chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * The number of points sorted in memory before they are spilled to a
+     * temporary file. The default is 10000000.
+     *
+     * @param maxPointsInMemory the maximum number of buffered points.
+     * @return this sorter.
+     */
+    public LASSorter maxPointsInMemory(long maxPointsInMemory) {
+        if (maxPointsInMemory < 1) {
+            throw new IllegalArgumentException("maxPointsInMemory must be positive: " + maxPointsInMemory);
+        }
+        this.maxPointsInMemory = maxPointsInMemory;
+        return this;
+    }
+
+    /**
+     * The directory for temporary files with sorted runs of points. The
+     * default temporary-file directory is used when not set.
+     *
+     * @param tempDirectory the directory for temporary files.
+     * @return this sorter.
+     */
+    public LASSorter tempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * Write the sorted points to the given LAZ file.
+     *
+     * @param out the output file.
+     */
+    public void write(File out) {
+        try (LASreader r = reader.openReader()) {
+            LASwriterSorted w = new LASwriterSorted();
+            w.set_curve(curve == Curve.MORTON ? LASwriterSorted.MORTON : LASwriterSorted.HILBERT);
+            w.set_gps_time_tiebreak(gpsTimeTiebreak);
+            w.set_chunk_size(chunkSize);
+            w.set_max_points_in_memory(maxPointsInMemory);
+            w.set_temp_dir(tempDirectory);
+            if (!w.open(out.getAbsolutePath(), r.header)) {
+                throw new IllegalStateException("Unable to write sorted file " + out);
+            }
+            long bytes;
+            try {
+                while (r.read_point()) {
+                    if (!w.write_point(r.point)) {
+                        throw new IllegalStateException("Unable to write sorted file " + out);
+                    }
+                }
+            } finally {
+                bytes = w.close();
+            }
+            if (bytes == 0) {
+                throw new UncheckedIOException(new IOException("Unable to write sorted file " + out));
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LAStiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits the points of one or more inputs into a grid of square tiles and
+ * writes a file per tile. Every input is read once, in contrast to reading
+ * all inputs once per tile with
+ * {@link LASReader#insideTile(float, float, float)}. The tiles are aligned
+ * to multiples of the tile size, are named
+ * {@code <prefix>_<ll_x>_<ll_y>.laz} and have a lastiling VLR with the
+ * position of the tile in a quadtree over the bounding box of all inputs.
+ * <p>
+ * A limited number of tile writers is open at the same time. Points of
+ * further tiles are buffered and spilled to temporary files, and these
+ * tiles are written after all inputs were read.
+ * <p>
+ * All inputs must have the same point data format, scale factors and
+ * offsets. The header of the first input is used for the tiles.
+ */
+public final class LASTiler {
+
+    private final List<LASReader> readers;
+
+    private float tileSize = 1000.0f;
+
+    private int maxOpenWriters = 64;
+
+    private long maxPointsInMemory = 10000000;
+
+    private File tempDirectory;
+
+    private String prefix = "tile";
+
+    private boolean compress = true;
+
+    /**
+     * Create a new tiler that will read point data from the given readers.
+     *
+     * @param readers the sources of the points to tile.
+     */
+    public LASTiler(LASReader... readers) {
+        this(Arrays.asList(readers));
+    }
+
+    /**
+     * Create a new tiler that will read point data from the given readers.
+     *
+     * @param readers the sources of the points to tile.
+     */
+    public LASTiler(List<LASReader> readers) {
+        if (readers.isEmpty()) {
+            throw new IllegalArgumentException("readers must not be empty");
+        }
+        this.readers = new ArrayList<>(readers);
+    }
+
+    /**
+     * The width and height of a tile. The default is 1000.
+     *
+     * @param tileSize the size of a tile.
+     * @return this tiler.
+     */
+    public LASTiler tileSize(float tileSize) {
+        if (!(tileSize > 0)) {
+            throw new IllegalArgumentException("tileSize must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * The maximum number of tile files written at the same time. The
+     * default is 64.
+     *
+     * @param maxOpenWriters the maximum number of open writers.
+     * @return this tiler.
+     */
+    public LASTiler maxOpenWriters(int maxOpenWriters) {
+        if (maxOpenWriters < 0) {
+            throw new IllegalArgumentException("maxOpenWriters must not be negative: " + maxOpenWriters);
+        }
+        this.maxOpenWriters = maxOpenWriters;
+        return this;
+    }
+
+    /**
+     * The number of points of tiles without open writer buffered in memory
+     * before they are spilled to temporary files. The default is 10000000.
+     *
+     * @param maxPointsInMemory the maximum number of buffered points.
+     * @return this tiler.
+     */
+    public LASTiler maxPointsInMemory(long maxPointsInMemory) {
+        if (maxPointsInMemory < 1) {
+            throw new IllegalArgumentException("maxPointsInMemory must be positive: " + maxPointsInMemory);
+        }
+        this.maxPointsInMemory = maxPointsInMemory;
+        return this;
+    }
+
+    /**
+     * The directory for temporary files with spilled points. The default
+     * temporary-file directory is used when not set.
+     *
+     * @param tempDirectory the directory for temporary files.
+     * @return this tiler.
+     */
+    public LASTiler tempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * The prefix of the tile file names. The default is "tile".
+     *
+     * @param prefix the prefix of the file names.
+     * @return this tiler.
+     */
+    public LASTiler prefix(String prefix) {
+        this.prefix = requireNonNull(prefix);
+        return this;
+    }
+
+    /**
+     * Whether to write compressed LAZ or uncompressed LAS tiles. The
+     * default is to write LAZ tiles.
+     *
+     * @param compress whether to compress the tiles.
+     * @return this tiler.
+     */
+    public LASTiler compress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    /**
+     * Write the tiles to the given directory. Existing tiles with the same
+     * name are replaced.
+     *
+     * @param directory the output directory.
+     * @return the tiles in the order of their first point.
+     * @throws IllegalArgumentException if the inputs have different point
+     *          data formats, scale factors or offsets.
+     */
+    public List<File> write(File directory) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (LASReader reader : readers) {
+            LASHeader header = reader.getHeader();
+            minX = Math.min(minX, header.getMinX());
+            minY = Math.min(minY, header.getMinY());
+            maxX = Math.max(maxX, header.getMaxX());
+            maxY = Math.max(maxY, header.getMaxY());
+        }
+        LAStiler tiler = new LAStiler();
+        tiler.set_tile_size(tileSize);
+        tiler.set_max_open_writers(maxOpenWriters);
+        tiler.set_max_points_in_memory(maxPointsInMemory);
+        tiler.set_temp_dir(tempDirectory);
+        tiler.set_output_dir(directory);
+        tiler.set_prefix(prefix);
+        tiler.set_compress(compress);
+        boolean success = false;
+        try {
+            for (int i = 0; i < readers.size(); i++) {
+                try (LASreader r = readers.get(i).openReader()) {
+                    if (i == 0) {
+                        if (!tiler.open(r.header, minX, maxX, minY, maxY)) {
+                            throw new IllegalStateException("Unable to write tiles to " + directory);
+                        }
+                    } else if (!tiler.check(r.header)) {
+                        throw new IllegalArgumentException("Points of input " + i + " differ from first input");
+                    }
+                    while (r.read_point()) {
+                        if (!tiler.write_point(r.point)) {
+                            throw new IllegalStateException("Unable to write tiles to " + directory);
+                        }
+                    }
+                }
+            }
+            success = true;
+        } finally {
+            if (!tiler.close() && success) {
+                throw new UncheckedIOException(new IOException("Unable to write tiles to " + directory));
+            }
+        }
+        return tiler.get_files();
+    }
+}
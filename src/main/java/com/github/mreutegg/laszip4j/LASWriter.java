@@ -22,6 +22,9 @@ import com.github.mreutegg.laszip4j.laslib.LASwriter;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Utility for writing a LAS file.
@@ -30,6 +33,8 @@ public final class LASWriter {
 
     private final LASReader reader;
 
+    private Executor executor;
+
     /**
      * Create a new writer that will read point data from the given reader.
      *
@@ -39,6 +44,21 @@ public final class LASWriter {
         this.reader = reader;
     }
 
+    /**
+     * Compress the chunks of a LAZ output file in parallel with tasks
+     * submitted to the given executor. The points of a chunk are buffered
+     * until the chunk is complete and compressed chunks are written in
+     * order. The written file is the same as with sequential compression.
+     * Uncompressed LAS output is written sequentially.
+     *
+     * @param executor the executor compressing the chunks.
+     * @return this writer.
+     */
+    public LASWriter parallel(Executor executor) {
+        this.executor = requireNonNull(executor);
+        return this;
+    }
+
     /**
      * Write the points to the given output file.
      *
@@ -48,6 +68,7 @@ public final class LASWriter {
         try (LASreader r = reader.openReader()) {
             LASwriteOpener opener = new LASwriteOpener();
             opener.set_file_name(out.getAbsolutePath());
+            opener.set_executor(executor);
             LASwriter w = opener.open(r.header);
             int[] byReturn = r.header.number_of_points_by_return;
             Arrays.fill(byReturn, 0);
@@ -59,10 +80,10 @@ public final class LASWriter {
                     w.write_point(r.point);
                     short returnNumber = r.point.get_return_number();
                     returnNumber--;
-                    if (returnNumber < byReturn.length) {
+                    if (returnNumber >= 0 && returnNumber < byReturn.length) {
                         byReturn[returnNumber]++;
                     }
-                    if (returnNumber < extByReturn.length) {
+                    if (returnNumber >= 0 && returnNumber < extByReturn.length) {
                         extByReturn[returnNumber]++;
                     }
                     r.header.number_of_point_records++;
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.Parallelism;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Iterates over the points of a chunked LAZ file and decodes the chunks in
+ * parallel. Every chunk is decoded by a reader with its own arithmetic decoder
+ * and item readers. The readers are pooled and re-used for other chunks.
+ */
+final class ParallelPointIterator implements LASReader.PointIterator {
+
+    private final Supplier<LASreaderLAS> opener;
+
+    private final long[] chunkPointStarts;
+
+    private final Executor executor;
+
+    private final boolean ordered;
+
+    private final int selective;
+
+    private final int maxChunksInFlight;
+
+    private final Queue<LASreaderLAS> readers = new ConcurrentLinkedQueue<>();
+
+    // all submitted chunks not yet taken, in submission order
+    private final Deque<CompletableFuture<List<LASPoint>>> pending = new ArrayDeque<>();
+
+    private final BlockingQueue<CompletableFuture<List<LASPoint>>> completed = new LinkedBlockingQueue<>();
+
+    private int nextChunk;
+
+    private int chunksInFlight;
+
+    private Iterator<LASPoint> current = Collections.emptyIterator();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new iterator.
+     *
+     * @param opener opens a new reader with constraints and transformation applied.
+     * @param reader an already open reader, which will be re-used for decoding.
+     * @param chunkPointStarts the index of the first point of each chunk
+     *          followed by the number of points.
+     * @param executor the executor decoding the chunks.
+     * @param ordered whether points are returned in file order.
+     * @param selective the decompress selective mask of the reader.
+     * @param parallelism the number of chunks the executor decodes at the
+     *          same time. Twice as many chunks are submitted ahead.
+     */
+    ParallelPointIterator(Supplier<LASreaderLAS> opener,
+                          LASreaderLAS reader,
+                          long[] chunkPointStarts,
+                          Executor executor,
+                          boolean ordered,
+                          int selective,
+                          int parallelism) {
+        this.opener = opener;
+        this.chunkPointStarts = chunkPointStarts;
+        this.executor = executor;
+        this.ordered = ordered;
+        this.selective = selective;
+        this.maxChunksInFlight = parallelism * 2;
+        this.readers.add(reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed) {
+                return false;
+            }
+            submitChunks();
+            if (chunksInFlight == 0) {
+                close();
+                return false;
+            }
+            current = takeChunk().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public LASPoint next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (CompletableFuture<List<LASPoint>> f : pending) {
+            f.cancel(false);
+        }
+        pending.clear();
+        completed.clear();
+        current = Collections.emptyIterator();
+        LASreaderLAS r;
+        while ((r = readers.poll()) != null) {
+            r.close();
+        }
+    }
+
+    /**
+     * @param executor the executor.
+     * @return the parallelism of the executor.
+     * @see Parallelism#parallelism(Executor)
+     */
+    static int parallelism(Executor executor) {
+        return Parallelism.parallelism(executor);
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private void submitChunks() {
+        int numChunks = chunkPointStarts.length - 1;
+        while (chunksInFlight < maxChunksInFlight && nextChunk < numChunks) {
+            int chunk = nextChunk++;
+            CompletableFuture<List<LASPoint>> f = CompletableFuture.supplyAsync(
+                    () -> decodeChunk(chunk), executor);
+            pending.add(f);
+            if (!ordered) {
+                f.whenComplete((points, t) -> completed.add(f));
+            }
+            chunksInFlight++;
+        }
+    }
+
+    private List<LASPoint> takeChunk() {
+        CompletableFuture<List<LASPoint>> f;
+        if (ordered) {
+            f = pending.remove();
+        } else {
+            try {
+                f = completed.take();
+                pending.remove(f);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for decoded chunk", e);
+            }
+        }
+        chunksInFlight--;
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<LASPoint> decodeChunk(int chunk) {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        LASreaderLAS r = readers.poll();
+        if (r == null) {
+            r = opener.get();
+        }
+        try {
+            long start = chunkPointStarts[chunk];
+            long end = chunkPointStarts[chunk + 1];
+            List<LASPoint> points = new ArrayList<>((int) (end - start));
+            if (!r.seek(start)) {
+                // the reader may be at any position
+                r.close();
+                r = null;
+                throw new IllegalStateException("Unable to seek to point " + start);
+            }
+            r.set_p_end(end);
+            while (!closed && r.read_point()) {
+                points.add(new LASPoint(new LASpoint(r.point), selective));
+            }
+            return points;
+        } finally {
+            if (r != null) {
+                release(r);
+            }
+        }
+    }
+
+    private void release(LASreaderLAS r) {
+        if (closed) {
+            r.close();
+        } else {
+            readers.add(r);
+            // close() may have drained the pool concurrently
+            if (closed && readers.remove(r)) {
+                r.close();
+            }
+        }
+    }
+}
@@ -32,13 +32,32 @@ import java.io.RandomAccessFile;
 
 public final class Cstdio {
 
+    private static final PrintStream STDERR = System.err;
+
+    private static final ThreadLocal<PrintStream> THREAD_STDERR = new ThreadLocal<>();
+
     private Cstdio() {
     }
 
     public static void fprintf(PrintStream ps, String msg, Object... args) {
+        PrintStream threadStderr = THREAD_STDERR.get();
+        if (threadStderr != null && (ps == STDERR || ps == System.err)) {
+            ps = threadStderr;
+        }
         ps.printf(msg, args);
     }
 
+    // redirects fprintf() to stderr from the current thread to the given
+    // stream, e.g. to print the output of concurrent tasks in order.
+    // null resets the redirect.
+    public static void set_thread_stderr(PrintStream ps) {
+        if (ps == null) {
+            THREAD_STDERR.remove();
+        } else {
+            THREAD_STDERR.set(ps);
+        }
+    }
+
     public static int fputc(int b, OutputStream out) {
         try {
             out.write(b);
@@ -88,7 +107,8 @@ public final class Cstdio {
             return null;
         }
         try {
-            mode = mode.replace("b", "");
+            // map C modes like "wb" or "rb+" to RandomAccessFile modes
+            mode = mode.contains("w") || mode.contains("+") ? "rw" : "r";
             return new RandomAccessFile(f, mode);
         } catch (FileNotFoundException e) {
             return null;
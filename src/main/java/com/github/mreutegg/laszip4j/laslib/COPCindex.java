@@ -0,0 +1,293 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+/**
+ * Spatial index of a COPC (cloud optimized point cloud) file. The octree
+ * hierarchy is read lazily from the hierarchy pages of the file, only pages
+ * of nodes that intersect the query are loaded. Every octree node with
+ * points is a variable sized chunk of the LAZ file and the index seeks the
+ * reader to the chunks of the nodes that intersect the query rectangle up
+ * to the maximum depth. Used like a {@link com.github.mreutegg.laszip4j.laszip.LASindex}
+ * with {@link #seek_next(LASreader)}.
+ */
+public class COPCindex {
+
+    private static final PrintStream stderr = System.err;
+
+    private final String file_name;
+
+    private final LASvlr_copc_info info;
+
+    // entries of all loaded hierarchy pages
+    private final Map<Key, LASvlr_copc_entry> entries = new HashMap<>();
+
+    // file positions of loaded hierarchy pages
+    private final Set<Long> pages = new HashSet<>();
+
+    private int max_depth = -1;
+
+    private boolean all = TRUE;
+    private double r_min_x, r_min_y, r_max_x, r_max_y;
+
+    // intervals of points to read, end is inclusive
+    private long[] starts;
+    private long[] ends;
+    private int current;
+    private long end;
+    private boolean have_interval;
+
+    public COPCindex(String file_name, LASvlr_copc_info info)
+    {
+        this.file_name = file_name;
+        this.info = info;
+    }
+
+    public LASvlr_copc_info get_info()
+    {
+        return info;
+    }
+
+    // only use nodes up to this depth, -1 for all nodes
+    public void set_max_depth(int max_depth)
+    {
+        this.max_depth = max_depth;
+        starts = null;
+    }
+
+    public int get_max_depth()
+    {
+        return max_depth;
+    }
+
+    public void intersect_all()
+    {
+        all = TRUE;
+        starts = null;
+    }
+
+    public void intersect_rectangle(double r_min_x, double r_min_y, double r_max_x, double r_max_y)
+    {
+        all = FALSE;
+        this.r_min_x = r_min_x;
+        this.r_min_y = r_min_y;
+        this.r_max_x = r_max_x;
+        this.r_max_y = r_max_y;
+        starts = null;
+    }
+
+    // returns the nodes with points that intersect the query in file order
+    public List<LASvlr_copc_entry> get_entries()
+    {
+        List<LASvlr_copc_entry> result = new ArrayList<>();
+        collect(0, 0, 0, 0, result);
+        result.sort((a, b) -> Long.compareUnsigned(a.offset, b.offset));
+        return result;
+    }
+
+    public double get_min_x(LASvlr_copc_entry entry) { return info.center_x - info.halfsize + get_size(entry) * entry.x; }
+    public double get_min_y(LASvlr_copc_entry entry) { return info.center_y - info.halfsize + get_size(entry) * entry.y; }
+    public double get_min_z(LASvlr_copc_entry entry) { return info.center_z - info.halfsize + get_size(entry) * entry.z; }
+    public double get_max_x(LASvlr_copc_entry entry) { return get_min_x(entry) + get_size(entry); }
+    public double get_max_y(LASvlr_copc_entry entry) { return get_min_y(entry) + get_size(entry); }
+    public double get_max_z(LASvlr_copc_entry entry) { return get_min_z(entry) + get_size(entry); }
+
+    // edge length of the node cube
+    public double get_size(LASvlr_copc_entry entry)
+    {
+        return Math.scalb(2 * info.halfsize, -entry.level);
+    }
+
+    public boolean seek_next(LASreader lasreader)
+    {
+        if (!have_interval)
+        {
+            if (starts == null && !prepare_intervals(lasreader)) return FALSE;
+            if (current == starts.length) return FALSE;
+            end = ends[current];
+            lasreader.seek(starts[current++]);
+            have_interval = TRUE;
+        }
+        if (lasreader.p_count == end)
+        {
+            have_interval = FALSE;
+        }
+        return TRUE;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private void collect(int level, int x, int y, int z, List<LASvlr_copc_entry> result)
+    {
+        if (max_depth != -1 && level > max_depth) return;
+        LASvlr_copc_entry entry = get_entry(new Key(level, x, y, z));
+        if (entry == null || !intersects(entry)) return;
+        if (entry.point_count > 0) result.add(entry);
+        int i;
+        for (i = 0; i < 8; i++)
+        {
+            collect(level + 1, (x << 1) | (i & 1), (y << 1) | ((i >> 1) & 1), (z << 1) | ((i >> 2) & 1), result);
+        }
+    }
+
+    private LASvlr_copc_entry get_entry(Key key)
+    {
+        if (pages.isEmpty())
+        {
+            load_page(info.root_hier_offset, info.root_hier_size);
+        }
+        LASvlr_copc_entry entry = entries.get(key);
+        if (entry != null && entry.point_count == -1)
+        {
+            // the node is described by a child hierarchy page
+            if (pages.contains(entry.offset) || !load_page(entry.offset, entry.byte_size)) return null;
+            if (entries.get(key) == entry)
+            {
+                // child page without an entry for the node itself
+                entry = new LASvlr_copc_entry(key.level, key.x, key.y, key.z);
+                entries.put(key, entry);
+            }
+            entry = entries.get(key);
+        }
+        return entry;
+    }
+
+    private boolean load_page(long offset, long size)
+    {
+        pages.add(offset);
+        byte[] data = new byte[(int) size];
+        try (RandomAccessFile file = new RandomAccessFile(file_name, "r"))
+        {
+            file.seek(offset);
+            file.readFully(data);
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: reading COPC hierarchy page of %d bytes at %d from '%s'\n", size, offset, file_name);
+            return FALSE;
+        }
+        ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        while (bb.remaining() >= LASvlr_copc_entry.SIZE)
+        {
+            LASvlr_copc_entry entry = LASvlr_copc_entry.fromByteBuffer(bb);
+            entries.put(new Key(entry.level, entry.x, entry.y, entry.z), entry);
+        }
+        return TRUE;
+    }
+
+    private boolean intersects(LASvlr_copc_entry entry)
+    {
+        if (all) return TRUE;
+        return get_min_x(entry) <= r_max_x && get_max_x(entry) >= r_min_x
+                && get_min_y(entry) <= r_max_y && get_max_y(entry) >= r_min_y;
+    }
+
+    // translates the nodes into intervals of point indexes
+    private boolean prepare_intervals(LASreader lasreader)
+    {
+        List<LASvlr_copc_entry> selected = get_entries();
+        long[] chunk_starts = null;
+        long[] chunk_point_starts = null;
+        if (lasreader instanceof LASreaderLAS)
+        {
+            chunk_starts = ((LASreaderLAS) lasreader).get_chunk_starts();
+            chunk_point_starts = ((LASreaderLAS) lasreader).get_chunk_point_starts();
+        }
+        if (chunk_starts == null)
+        {
+            fprintf(stderr, "ERROR: COPC file '%s' has no chunk table\n", file_name);
+            return FALSE;
+        }
+        starts = new long[selected.size()];
+        ends = new long[selected.size()];
+        int num = 0;
+        for (LASvlr_copc_entry entry : selected)
+        {
+            int chunk = Arrays.binarySearch(chunk_starts, entry.offset);
+            if (chunk < 0)
+            {
+                fprintf(stderr, "WARNING: COPC node %s at %d is not a chunk\n", entry.toString(), entry.offset);
+                continue;
+            }
+            long start = chunk_point_starts[chunk];
+            long last = Math.min(start + entry.point_count, chunk_point_starts[chunk + 1]) - 1;
+            if (num > 0 && ends[num - 1] + 1 == start)
+            {
+                // merge with adjacent node
+                ends[num - 1] = last;
+            }
+            else
+            {
+                starts[num] = start;
+                ends[num] = last;
+                num++;
+            }
+        }
+        starts = Arrays.copyOf(starts, num);
+        ends = Arrays.copyOf(ends, num);
+        current = 0;
+        have_interval = FALSE;
+        return TRUE;
+    }
+
+    static final class Key {
+
+        final int level;
+        final int x;
+        final int y;
+        final int z;
+
+        Key(int level, int x, int y, int z)
+        {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key)) return FALSE;
+            Key k = (Key) obj;
+            return level == k.level && x == k.x && y == k.y && z == k.z;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return ((level * 31 + x) * 31 + y) * 31 + z;
+        }
+    }
+}
@@ -10,7 +10,9 @@
  */
 package com.github.mreutegg.laszip4j.laslib;
 
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASquantizer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -45,6 +47,99 @@ public abstract class LAScriterion
     public int get_decompress_selective(){return LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;};
     public abstract boolean filter(LASpoint point);
     public void reset(){};
+    // criteria on coordinates narrow the box of points to keep or set the
+    // box of points to drop with min <= x,y,z < max. other criteria return
+    // FALSE and leave the box unchanged
+    public boolean keep_box(double[] min, double[] max){return FALSE;};
+    public boolean drop_box(double[] min, double[] max){return FALSE;};
+    // criteria that depend on the points filtered before return FALSE
+    public boolean stateless(){return TRUE;};
+    // returns TRUE when the statistics of the chunk show that the criterion
+    // filters all points of the chunk
+    public boolean filter_chunk(LASchunkstats stats, int chunk){return FALSE;};
+
+    static boolean narrow(double[] min, double[] max, double min_x, double min_y, double min_z, double max_x, double max_y, double max_z)
+    {
+        if (Double.isNaN(min_x) || Double.isNaN(min_y) || Double.isNaN(min_z) || Double.isNaN(max_x) || Double.isNaN(max_y) || Double.isNaN(max_z))
+        {
+            return FALSE;
+        }
+        min[0] = Math.max(min[0], min_x); min[1] = Math.max(min[1], min_y); min[2] = Math.max(min[2], min_z);
+        max[0] = Math.min(max[0], max_x); max[1] = Math.min(max[1], max_y); max[2] = Math.min(max[2], max_z);
+        return TRUE;
+    }
+};
+
+// a box of coordinates compiled into integer coordinates, which are
+// compared without scaling every point. the bounds are long to express a
+// box without bounds on a side.
+class LAScriterionKeepBoxInt extends LAScriterion
+{
+    public String name() { return "keep_box_int"; };
+    public int get_command(StringBuilder string) { int n = 0; for (LAScriterion source : sources) n += source.get_command(string); return n; };
+    public int get_decompress_selective() { return (have_Z ? LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY | LASZIP_DECOMPRESS_SELECTIVE_Z : LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY); };
+    public boolean filter(LASpoint point) { return !inside(point); };
+    boolean inside(LASpoint point)
+    {
+        int X = point.get_X();
+        if (X < min_X || X >= max_X) return FALSE;
+        int Y = point.get_Y();
+        if (Y < min_Y || Y >= max_Y) return FALSE;
+        if (have_Z)
+        {
+            int Z = point.get_Z();
+            if (Z < min_Z || Z >= max_Z) return FALSE;
+        }
+        return TRUE;
+    }
+    public boolean filter_chunk(LASchunkstats stats, int chunk)
+    {
+        if (stats.max_X[chunk] < min_X || stats.min_X[chunk] >= max_X) return TRUE;
+        if (stats.max_Y[chunk] < min_Y || stats.min_Y[chunk] >= max_Y) return TRUE;
+        return have_Z && (stats.max_Z[chunk] < min_Z || stats.min_Z[chunk] >= max_Z);
+    }
+    boolean contains(LASchunkstats stats, int chunk)
+    {
+        if (stats.min_X[chunk] < min_X || stats.max_X[chunk] >= max_X) return FALSE;
+        if (stats.min_Y[chunk] < min_Y || stats.max_Y[chunk] >= max_Y) return FALSE;
+        return !have_Z || (stats.min_Z[chunk] >= min_Z && stats.max_Z[chunk] < max_Z);
+    }
+    LAScriterionKeepBoxInt(LASquantizer quantizer, double[] min, double[] max, LAScriterion[] sources)
+    {
+        this.min_X = ceil_quantized(min[0], quantizer.x_scale_factor, quantizer.x_offset);
+        this.min_Y = ceil_quantized(min[1], quantizer.y_scale_factor, quantizer.y_offset);
+        this.min_Z = ceil_quantized(min[2], quantizer.z_scale_factor, quantizer.z_offset);
+        this.max_X = ceil_quantized(max[0], quantizer.x_scale_factor, quantizer.x_offset);
+        this.max_Y = ceil_quantized(max[1], quantizer.y_scale_factor, quantizer.y_offset);
+        this.max_Z = ceil_quantized(max[2], quantizer.z_scale_factor, quantizer.z_offset);
+        this.have_Z = (min_Z != Long.MIN_VALUE || max_Z != Long.MAX_VALUE);
+        this.sources = sources;
+    }
+    // returns the smallest integer coordinate that is scaled to a value
+    // greater or equal to the given value. infinite values return the
+    // smallest and largest long.
+    static long ceil_quantized(double value, double scale_factor, double offset)
+    {
+        if (value == Double.NEGATIVE_INFINITY) return Long.MIN_VALUE;
+        if (value == Double.POSITIVE_INFINITY) return Long.MAX_VALUE;
+        double estimate = Math.ceil((value - offset) / scale_factor);
+        long I = (long) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE + 1L, estimate));
+        // correct the rounding of the estimate with the same arithmetic as LASquantizer
+        while (I > Integer.MIN_VALUE && scale_factor*(I-1)+offset >= value) I--;
+        while (I <= Integer.MAX_VALUE && scale_factor*I+offset < value) I++;
+        return I;
+    }
+    private final long min_X, min_Y, min_Z, max_X, max_Y, max_Z;
+    private final boolean have_Z;
+    private final LAScriterion[] sources;
+};
+
+class LAScriterionDropBoxInt extends LAScriterionKeepBoxInt
+{
+    public String name() { return "drop_box_int"; };
+    public boolean filter(LASpoint point) { return inside(point); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return contains(stats, chunk); };
+    LAScriterionDropBoxInt(LASquantizer quantizer, double[] min, double[] max, LAScriterion source) { super(quantizer, min, max, new LAScriterion[]{source}); };
 };
 
 class LAScriterionAnd extends LAScriterion
@@ -53,6 +148,8 @@ class LAScriterionAnd extends LAScriterion
     public int get_command(StringBuilder string) { int n = 0; n += one.get_command(string); n += two.get_command(string); n += sprintf(string, "-%s ", name()); return n; };
     public int get_decompress_selective() { return (one.get_decompress_selective() | two.get_decompress_selective()); };
     public boolean filter(LASpoint point) { return one.filter(point) && two.filter(point); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return one.filter_chunk(stats, chunk) && two.filter_chunk(stats, chunk); };
+    public boolean stateless() { return one.stateless() && two.stateless(); };
     LAScriterionAnd(LAScriterion one, LAScriterion two) { this.one = one; this.two = two; };
     private LAScriterion one;
     private LAScriterion two;
@@ -64,6 +161,8 @@ class LAScriterionOr extends LAScriterion
     public int get_command(StringBuilder string) { int n = 0; n += one.get_command(string); n += two.get_command(string); n += sprintf(string, "-%s ", name()); return n; };
     public int get_decompress_selective() { return (one.get_decompress_selective() | two.get_decompress_selective()); };
     public boolean filter(LASpoint point) { return one.filter(point) || two.filter(point); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return one.filter_chunk(stats, chunk) || two.filter_chunk(stats, chunk); };
+    public boolean stateless() { return one.stateless() && two.stateless(); };
     public LAScriterionOr(LAScriterion one, LAScriterion two) { this.one = one; this.two = two; };
     private LAScriterion one;
     private LAScriterion two;
@@ -74,6 +173,7 @@ class LAScriterionKeepTile extends LAScriterion
     public String name() { return "keep_tile"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g %g ", name(), ll_x, ll_y, tile_size); };
     public boolean filter(LASpoint point) { return (!point.inside_tile(ll_x, ll_y, ur_x, ur_y)); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, ll_x, ll_y, Double.NEGATIVE_INFINITY, ur_x, ur_y, Double.POSITIVE_INFINITY); };
     public LAScriterionKeepTile(float ll_x, float ll_y, float tile_size) { this.ll_x = ll_x; this.ll_y = ll_y; this.ur_x = ll_x+tile_size; this.ur_y = ll_y+tile_size; this.tile_size = tile_size; };
     private float ll_x, ll_y, ur_x, ur_y, tile_size;
 };
@@ -93,6 +193,7 @@ class LAScriterionKeepxyz extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g %g %g %g %g ", name(), min_x, min_y, min_z, max_x, max_y, max_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY | LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { return (!point.inside_box(min_x, min_y, min_z, max_x, max_y, max_z)); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, min_x, min_y, min_z, max_x, max_y, max_z); };
     public LAScriterionKeepxyz(double min_x, double min_y, double min_z, double max_x, double max_y, double max_z) { this.min_x = min_x; this.min_y = min_y; this.min_z = min_z; this.max_x = max_x; this.max_y = max_y; this.max_z = max_z; };
     private double min_x, min_y, min_z, max_x, max_y, max_z;
 };
@@ -103,6 +204,7 @@ class LAScriterionDropxyz extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g %g %g %g %g ", name(), min_x, min_y, min_z, max_x, max_y, max_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY | LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { return (point.inside_box(min_x, min_y, min_z, max_x, max_y, max_z)); };
+    public boolean drop_box(double[] min, double[] max) { return narrow(min, max, min_x, min_y, min_z, max_x, max_y, max_z); };
     public LAScriterionDropxyz(double min_x, double min_y, double min_z, double max_x, double max_y, double max_z) { this.min_x = min_x; this.min_y = min_y; this.min_z = min_z; this.max_x = max_x; this.max_y = max_y; this.max_z = max_z; };
     private double min_x, min_y, min_z, max_x, max_y, max_z;
 };
@@ -112,6 +214,7 @@ class LAScriterionKeepxy extends LAScriterion
     public String name() { return "keep_xy"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g %g %g ", name(), below_x, below_y, above_x, above_y); };
     public boolean filter(LASpoint point) { return (!point.inside_rectangle(below_x, below_y, above_x, above_y)); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, below_x, below_y, Double.NEGATIVE_INFINITY, above_x, above_y, Double.POSITIVE_INFINITY); };
     public LAScriterionKeepxy(double below_x, double below_y, double above_x, double above_y) { this.below_x = below_x; this.below_y = below_y; this.above_x = above_x; this.above_y = above_y; };
     private double below_x, below_y, above_x, above_y;
 };
@@ -121,6 +224,7 @@ class LAScriterionDropxy extends LAScriterion
     public String name() { return "drop_xy"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g %g %g ", name(), below_x, below_y, above_x, above_y); };
     public boolean filter(LASpoint point) { return (point.inside_rectangle(below_x, below_y, above_x, above_y)); };
+    public boolean drop_box(double[] min, double[] max) { return narrow(min, max, below_x, below_y, Double.NEGATIVE_INFINITY, above_x, above_y, Double.POSITIVE_INFINITY); };
     public LAScriterionDropxy(double below_x, double below_y, double above_x, double above_y) { this.below_x = below_x; this.below_y = below_y; this.above_x = above_x; this.above_y = above_y; };
     private double below_x, below_y, above_x, above_y;
 };
@@ -130,6 +234,7 @@ class LAScriterionKeepx extends LAScriterion
     public String name() { return "keep_x"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_x, above_x); };
     public boolean filter(LASpoint point) { double x = point.get_x(); return (x < below_x) || (x >= above_x); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, below_x, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, above_x, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionKeepx(double below_x, double above_x) { this.below_x = below_x; this.above_x = above_x; };
     private double below_x, above_x;
 };
@@ -139,6 +244,7 @@ class LAScriterionDropx extends LAScriterion
     public String name() { return "drop_x"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_x, above_x); };
     public boolean filter(LASpoint point) { double x = point.get_x(); return ((below_x <= x) && (x < above_x)); };
+    public boolean drop_box(double[] min, double[] max) { return narrow(min, max, below_x, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, above_x, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionDropx(double below_x, double above_x) { this.below_x = below_x; this.above_x = above_x; };
     private double below_x, above_x;
 };
@@ -148,6 +254,7 @@ class LAScriterionKeepy extends LAScriterion
     public String name() { return "keep_y"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_y, above_y); };
     public boolean filter(LASpoint point) { double y = point.get_y(); return (y < below_y) || (y >= above_y); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, below_y, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, above_y, Double.POSITIVE_INFINITY); };
     public LAScriterionKeepy(double below_y, double above_y) { this.below_y = below_y; this.above_y = above_y; };
     private double below_y, above_y;
 };
@@ -157,6 +264,7 @@ class LAScriterionDropy extends LAScriterion
     public String name() { return "drop_y"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_y, above_y); };
     public boolean filter(LASpoint point) { double y = point.get_y(); return ((below_y <= y) && (y < above_y)); };
+    public boolean drop_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, below_y, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, above_y, Double.POSITIVE_INFINITY); };
     public LAScriterionDropy(double below_y, double above_y) { this.below_y = below_y; this.above_y = above_y; };
     private double below_y, above_y;
 };
@@ -167,6 +275,7 @@ class LAScriterionKeepz extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_z, above_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { double z = point.get_z(); return (z < below_z) || (z >= above_z); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, below_z, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, above_z); };
     LAScriterionKeepz(double below_z, double above_z) { this.below_z = below_z; this.above_z = above_z; };
     double below_z, above_z;
 };
@@ -177,6 +286,7 @@ class LAScriterionDropz extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g %g ", name(), below_z, above_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { double z = point.get_z(); return ((below_z <= z) && (z < above_z)); };
+    public boolean drop_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, below_z, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, above_z); };
     public LAScriterionDropz(double below_z, double above_z) { this.below_z = below_z; this.above_z = above_z; };
     public double below_z, above_z;
 };
@@ -186,6 +296,7 @@ class LAScriterionDropxBelow extends LAScriterion
     public String name() { return "drop_x_below"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), below_x); };
     public boolean filter(LASpoint point) { return (point.get_x() < below_x); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, below_x, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionDropxBelow(double below_x) { this.below_x = below_x; };
     private double below_x;
 };
@@ -195,6 +306,7 @@ class LAScriterionDropxAbove extends LAScriterion
     public String name() { return "drop_x_above"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), above_x); };
     public boolean filter(LASpoint point) { return (point.get_x() >= above_x); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, above_x, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionDropxAbove(double above_x) { this.above_x = above_x; };
     private double above_x;
 };
@@ -204,6 +316,7 @@ class LAScriterionDropyBelow extends LAScriterion
     public String name() { return "drop_y_below"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), below_y); };
     public boolean filter(LASpoint point) { return (point.get_y() < below_y); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, below_y, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionDropyBelow(double below_y) { this.below_y = below_y; };
     private double below_y;
 };
@@ -213,6 +326,7 @@ class LAScriterionDropyAbove extends LAScriterion
     public String name() { return "drop_y_above"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), above_y); };
     public boolean filter(LASpoint point) { return (point.get_y() >= above_y); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, above_y, Double.POSITIVE_INFINITY); };
     public LAScriterionDropyAbove(double above_y) { this.above_y = above_y; };
     private double above_y;
 };
@@ -223,6 +337,7 @@ class LAScriterionDropzBelow extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), below_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { return (point.get_z() < below_z); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, below_z, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY); };
     public LAScriterionDropzBelow(double below_z) { this.below_z = below_z; };
     private double below_z;
 };
@@ -233,6 +348,7 @@ class LAScriterionDropzAbove extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %g ", name(), above_z); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_Z; };
     public boolean filter(LASpoint point) { return (point.get_z() >= above_z); };
+    public boolean keep_box(double[] min, double[] max) { return narrow(min, max, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, above_z); };
     LAScriterionDropzAbove(double above_z) { this.above_z = above_z; };
     double above_z;
 };
@@ -436,6 +552,7 @@ class LAScriterionKeepReturns extends LAScriterion
     public String name() { return "keep_return_mask"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %d ", name(), ~drop_return_mask); };
     public boolean filter(LASpoint point) { return ((1 << point.getReturn_number()) & drop_return_mask) != 0; };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return stats.only_returns(chunk, drop_return_mask); };
     LAScriterionKeepReturns(int keep_return_mask) { drop_return_mask = ~keep_return_mask; };
     private int drop_return_mask; // unsigned
 };
@@ -474,6 +591,7 @@ class LAScriterionKeepScanDirectionChange extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s ", name()); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_FLAGS; };
     public boolean filter(LASpoint point) { if (scan_direction_flag == point.getScan_direction_flag()) return TRUE; int s = scan_direction_flag; scan_direction_flag = point.getScan_direction_flag(); return s == -1; };
+    public boolean stateless() { return FALSE; };
     @Override
     public void reset() { scan_direction_flag = -1; };
     LAScriterionKeepScanDirectionChange() { reset(); };
@@ -603,6 +721,7 @@ class LAScriterionDropClassifications extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %d ", name(), drop_classification_mask); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_CLASSIFICATION; };
     public boolean filter(LASpoint point) { return ((1 << point.getClassification()) & drop_classification_mask) != 0; };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return stats.only_classifications(chunk, drop_classification_mask); };
     LAScriterionDropClassifications(int drop_classification_mask) { this.drop_classification_mask = drop_classification_mask; };
     private int drop_classification_mask; // unsigned
 };
@@ -816,6 +935,7 @@ class LAScriterionKeepGpsTime extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %.6f %.6f ", name(), below_gpstime, above_gpstime); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME; };
     public boolean filter(LASpoint point) { return (point.haveGpsTime() && ((point.getGps_time() < below_gpstime) || (point.getGps_time() > above_gpstime))); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return (stats.have_gps_time && ((stats.max_gps_time[chunk] < below_gpstime) || (stats.min_gps_time[chunk] > above_gpstime))); };
     LAScriterionKeepGpsTime(double below_gpstime, double above_gpstime) { this.below_gpstime = below_gpstime; this.above_gpstime = above_gpstime; };
     double below_gpstime, above_gpstime;
 };
@@ -826,6 +946,7 @@ class LAScriterionDropGpsTimeBelow extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %.6f ", name(), below_gpstime); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME; };
     public boolean filter(LASpoint point) { return (point.haveGpsTime() && (point.getGps_time() < below_gpstime)); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return (stats.have_gps_time && (stats.max_gps_time[chunk] < below_gpstime)); };
     LAScriterionDropGpsTimeBelow(double below_gpstime) { this.below_gpstime = below_gpstime; };
     double below_gpstime;
 };
@@ -836,6 +957,7 @@ class LAScriterionDropGpsTimeAbove extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %.6f ", name(), above_gpstime); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME; };
     public boolean filter(LASpoint point) { return (point.haveGpsTime() && (point.getGps_time() > above_gpstime)); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return (stats.have_gps_time && (stats.min_gps_time[chunk] > above_gpstime)); };
     LAScriterionDropGpsTimeAbove(double above_gpstime) { this.above_gpstime = above_gpstime; };
     double above_gpstime;
 };
@@ -846,6 +968,7 @@ class LAScriterionDropGpsTimeBetween extends LAScriterion
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %.6f %.6f ", name(), below_gpstime, above_gpstime); };
     public int get_decompress_selective() { return LASZIP_DECOMPRESS_SELECTIVE_GPS_TIME; };
     public boolean filter(LASpoint point) { return (point.haveGpsTime() && ((below_gpstime <= point.getGps_time()) && (point.getGps_time() <= above_gpstime))); };
+    public boolean filter_chunk(LASchunkstats stats, int chunk) { return (stats.have_gps_time && ((below_gpstime <= stats.min_gps_time[chunk]) && (stats.max_gps_time[chunk] <= above_gpstime))); };
     LAScriterionDropGpsTimeBetween(double below_gpstime, double above_gpstime) { this.below_gpstime = below_gpstime; this.above_gpstime = above_gpstime; };
     double below_gpstime, above_gpstime;
 };
@@ -875,6 +998,7 @@ class LAScriterionKeepEveryNth extends LAScriterion
     public String name() { return "keep_every_nth"; };
     public int get_command(StringBuilder string) { return sprintf(string, "-%s %d ", name(), every); };
     public boolean filter(LASpoint point) { if (counter == every) { counter = 1; return FALSE; } else { counter++; return TRUE; } };
+    public boolean stateless() { return FALSE; };
     LAScriterionKeepEveryNth(int every) { this.every = every; counter = 1; };
     int counter;
     int every;
@@ -890,6 +1014,7 @@ class LAScriterionKeepRandomFraction extends LAScriterion
         seed = rand();
         return ((float)seed/(float)RAND_MAX) > fraction;
     };
+    public boolean stateless() { return FALSE; };
     @Override
     public void reset() { seed = 0; };
     LAScriterionKeepRandomFraction(float fraction) { seed = 0; this.fraction = fraction; };
@@ -1060,6 +1185,7 @@ class LAScriterionThinWithGrid extends LAScriterion
             plus_plus_size = 0;
         }
     };
+    public boolean stateless() { return FALSE; };
     LAScriterionThinWithGrid(float grid_spacing)
     {
         this.grid_spacing = -grid_spacing;
@@ -1126,6 +1252,7 @@ class LAScriterionThinWithTime extends LAScriterion
     {
         times.clear();
     };
+    public boolean stateless() { return FALSE; };
     LAScriterionThinWithTime(double time_spacing)
     {
         this.time_spacing = time_spacing;
@@ -10,9 +10,14 @@
  */
 package com.github.mreutegg.laszip4j.laslib;
 
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASquantizer;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
 import static com.github.mreutegg.laszip4j.clib.Cstdlib.atof;
@@ -27,10 +32,16 @@ public class LASfilter {
 
     private static final PrintStream stderr = System.err;
 
+    // the number of points evaluated with all criteria after compile()
+    // to measure how many points each criterion filters
+    private static final int LEARN_POINTS = 1024;
+
     private int num_criteria; // unsigned
     private int alloc_criteria; // unsigned
     private LAScriterion[] criteria;
     private int[] counters;
+    private LAScriterion[] source_criteria;
+    private int learn_points;
 
     void clean()
         {
@@ -38,6 +49,8 @@ public class LASfilter {
         num_criteria = 0;
         criteria = null;
         counters = null;
+        source_criteria = null;
+        learn_points = 0;
     }
 
     static void usage()
@@ -1381,7 +1394,7 @@ public class LASfilter {
         return n;
     }
 
-    int get_decompress_selective()
+    public int get_decompress_selective()
     {
       int decompress_selective = LASZIP_DECOMPRESS_SELECTIVE_CHANNEL_RETURNS_XY;
       for (int i = 0; i < num_criteria; i++)
@@ -1406,10 +1419,115 @@ public class LASfilter {
         add_criterion(new LAScriterionKeepScanDirectionChange());
     }
 
+    // compiles the criteria for points quantized with the given quantizer.
+    // criteria on coordinates compare integer coordinates and all criteria
+    // that keep a box of points are fused into a single criterion. when no
+    // criterion keeps state between points, the criteria that filter the
+    // most of the first LEARN_POINTS points are evaluated first. compiling
+    // again with another quantizer starts from the parsed criteria.
+    public void compile(LASquantizer quantizer)
+    {
+        if (source_criteria == null)
+        {
+            source_criteria = (criteria == null ? new LAScriterion[0] : Arrays.copyOf(criteria, num_criteria));
+        }
+        boolean stateless = TRUE;
+        for (LAScriterion criterion : source_criteria)
+        {
+            stateless = stateless && criterion.stateless();
+        }
+        boolean quantized = (quantizer.x_scale_factor > 0 && quantizer.y_scale_factor > 0 && quantizer.z_scale_factor > 0);
+
+        List<LAScriterion> compiled = new ArrayList<>();
+        List<LAScriterion> keep_sources = new ArrayList<>();
+        double[] keep_min = unbounded(Double.NEGATIVE_INFINITY);
+        double[] keep_max = unbounded(Double.POSITIVE_INFINITY);
+        for (LAScriterion criterion : source_criteria)
+        {
+            double[] min = unbounded(Double.NEGATIVE_INFINITY);
+            double[] max = unbounded(Double.POSITIVE_INFINITY);
+            if (quantized && criterion.keep_box(min, max))
+            {
+                if (stateless)
+                {
+                    // the order of stateless criteria does not matter
+                    LAScriterion.narrow(keep_min, keep_max, min[0], min[1], min[2], max[0], max[1], max[2]);
+                    keep_sources.add(criterion);
+                }
+                else
+                {
+                    compiled.add(new LAScriterionKeepBoxInt(quantizer, min, max, new LAScriterion[]{criterion}));
+                }
+            }
+            else if (quantized && criterion.drop_box(min, max))
+            {
+                compiled.add(new LAScriterionDropBoxInt(quantizer, min, max, criterion));
+            }
+            else
+            {
+                compiled.add(criterion);
+            }
+        }
+        if (!keep_sources.isEmpty())
+        {
+            compiled.add(0, new LAScriterionKeepBoxInt(quantizer, keep_min, keep_max, keep_sources.toArray(new LAScriterion[0])));
+        }
+
+        criteria = compiled.toArray(new LAScriterion[0]);
+        num_criteria = criteria.length;
+        alloc_criteria = criteria.length;
+        counters = new int[num_criteria];
+        learn_points = (stateless && num_criteria > 1) ? LEARN_POINTS : 0;
+    }
+
+    private static double[] unbounded(double value)
+    {
+        return new double[]{value, value, value};
+    }
+
+    // evaluates all criteria and orders them by the number of points they
+    // filtered once LEARN_POINTS points were evaluated
+    private boolean learn(LASpoint point)
+    {
+        boolean filtered = FALSE;
+        for (int i = 0; i < num_criteria; i++)
+        {
+            if (criteria[i].filter(point))
+            {
+                counters[i]++;
+                filtered = TRUE;
+            }
+        }
+        if (--learn_points == 0)
+        {
+            Integer[] order = new Integer[num_criteria];
+            for (int i = 0; i < num_criteria; i++)
+            {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(counters[b], counters[a]));
+            LAScriterion[] ordered_criteria = new LAScriterion[num_criteria];
+            int[] ordered_counters = new int[num_criteria];
+            for (int i = 0; i < num_criteria; i++)
+            {
+                ordered_criteria[i] = criteria[order[i]];
+                ordered_counters[i] = counters[order[i]];
+            }
+            criteria = ordered_criteria;
+            counters = ordered_counters;
+        }
+        return filtered;
+    }
+
     public boolean filter(LASpoint point)
     {
         int i;
 
+        if (learn_points != 0)
+        {
+            return learn(point);
+        }
+
         for (i = 0; i < num_criteria; i++)
         {
             if (criteria[i].filter(point))
@@ -1421,6 +1539,30 @@ public class LASfilter {
         return FALSE; // point survived
     }
 
+    // returns TRUE when the statistics of the chunk show that all its points
+    // are filtered. criteria that keep state between points must see every
+    // point, which means a chunk is never filtered as a whole when there is
+    // such a criterion.
+    public boolean filter_chunk(LASchunkstats stats, int chunk)
+    {
+        int i;
+        for (i = 0; i < num_criteria; i++)
+        {
+            if (!criteria[i].stateless())
+            {
+                return FALSE;
+            }
+        }
+        for (i = 0; i < num_criteria; i++)
+        {
+            if (criteria[i].filter_chunk(stats, chunk))
+            {
+                return TRUE;
+            }
+        }
+        return FALSE;
+    }
+
     void reset()
     {
         int i;
@@ -1430,7 +1572,7 @@ public class LASfilter {
         }
     }
 
-    LASfilter()
+    public LASfilter()
     {
         alloc_criteria = 0;
         num_criteria = 0;
@@ -1440,6 +1582,16 @@ public class LASfilter {
 
     void add_criterion(LAScriterion filter_criterion)
     {
+        if (source_criteria != null)
+        {
+            // continue with the criteria before compile()
+            criteria = source_criteria;
+            num_criteria = source_criteria.length;
+            alloc_criteria = source_criteria.length;
+            counters = new int[num_criteria];
+            source_criteria = null;
+            learn_points = 0;
+        }
         if (num_criteria == alloc_criteria)
         {
             int i;
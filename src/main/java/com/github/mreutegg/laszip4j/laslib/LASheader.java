@@ -19,6 +19,7 @@ import com.github.mreutegg.laszip4j.laszip.MyDefs;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
 import static com.github.mreutegg.laszip4j.clib.Cstdio.sprintf;
@@ -82,6 +83,7 @@ public class LASheader extends LASattributer {
     public String vlr_geo_wkt_ogc_cs;
     public LASvlr_classification vlr_classification;
     public LASvlr_wave_packet_descr[] vlr_wave_packet_descr;
+    public LASvlr_copc_info vlr_copc_info;
 
     public LASzip laszip;
     public LASvlr_lastiling vlr_lastiling;
@@ -198,6 +200,7 @@ public class LASheader extends LASattributer {
             vlr_geo_wkt_ogc_cs = null;
             vlr_classification = null;
             vlr_wave_packet_descr = null;
+            vlr_copc_info = null;
             number_of_variable_length_records = 0;
         }
     };
@@ -397,7 +400,7 @@ public class LASheader extends LASattributer {
             vlrs[i] = new LASvlr();
             
         vlrs[i].reserved = 0; // used to be 0xAABB
-        vlrs[i].user_id = MyDefs.asByteArray(user_id);
+        vlrs[i].user_id = Arrays.copyOf(MyDefs.asByteArray(user_id), 16);
         vlrs[i].record_id = record_id;
         vlrs[i].record_length_after_header = record_length_after_header;
         if (keep_description && found_description)
@@ -479,6 +482,31 @@ public class LASheader extends LASattributer {
         return FALSE;
     };
 
+    // replaces an existing extended variable length record with the same user id and record id
+    void add_evlr(String user_id, char record_id, long record_length_after_header, byte[] data)
+    {
+        int i;
+        for (i = 0; i < number_of_extended_variable_length_records; i++)
+        {
+            if ((strcmp(evlrs[i].user_id, user_id) == 0) && (evlrs[i].record_id == record_id))
+            {
+                break;
+            }
+        }
+        if (i == number_of_extended_variable_length_records)
+        {
+            number_of_extended_variable_length_records++;
+            evlrs = (evlrs == null ? new LASevlr[1] : Arrays.copyOf(evlrs, number_of_extended_variable_length_records));
+            evlrs[i] = new LASevlr();
+        }
+        evlrs[i].reserved = 0;
+        evlrs[i].user_id = Arrays.copyOf(MyDefs.asByteArray(user_id), 16);
+        evlrs[i].record_id = record_id;
+        evlrs[i].record_length_after_header = record_length_after_header;
+        sprintf(evlrs[i].description, "by LAStools of rapidlasso GmbH");
+        evlrs[i].data = data;
+    }
+
     void set_lastiling(int level, int level_index, int implicit_levels, boolean buffer, boolean reversible, float min_x, float max_x, float min_y, float max_y)
     {
         clean_lastiling();
@@ -10,6 +10,7 @@
  */
 package com.github.mreutegg.laszip4j.laslib;
 
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
 import com.github.mreutegg.laszip4j.laszip.LASindex;
 
 import java.io.BufferedReader;
@@ -99,6 +100,9 @@ public class LASreadOpener {
     private double[] inside_circle;
     private double[] inside_rectangle;
 
+    // optional level-of-detail query for COPC files
+    private int copc_depth;
+
     boolean is_piped()
     {
         return (file_names.isEmpty() && use_stdin);
@@ -218,6 +222,7 @@ public class LASreadOpener {
                 lasreadermerged.set_translate_scan_angle(translate_scan_angle);
                 lasreadermerged.set_scale_scan_angle(scale_scan_angle);
                 lasreadermerged.set_io_ibuffer_size(io_ibuffer_size);
+                lasreadermerged.set_decompress_selective(decompress_selective);
                 for (file_name_current = 0; file_name_current < file_names.size(); file_name_current++) lasreadermerged.add_file_name(file_names.get(file_name_current));
                 if (!lasreadermerged.open())
                 {
@@ -361,6 +366,15 @@ public class LASreadOpener {
                     LASindex index = new LASindex();
                     if (index.read(file_name))
                         lasreaderlas.set_index(index);
+                    // the statistics refer to the coordinates as stored in the file
+                    if (lasreaderlas.getClass() == LASreaderLAS.class)
+                    {
+                        LASchunkstats chunk_stats = new LASchunkstats();
+                        if (chunk_stats.read(file_name))
+                            lasreaderlas.set_chunk_stats(chunk_stats);
+                    }
+                    if (lasreaderlas.header.vlr_copc_info != null)
+                        lasreaderlas.set_copc_index(new COPCindex(file_name, lasreaderlas.header.vlr_copc_info));
                     if (files_are_flightlines)
                     {
                         lasreaderlas.header.file_source_ID = (char) file_name_current;
@@ -369,11 +383,16 @@ public class LASreadOpener {
                     {
                         transform.setPointSource(lasreaderlas.header.file_source_ID);
                     }
-                    if (filter != null) lasreaderlas.set_filter(filter);
+                    if (filter != null)
+                    {
+                        filter.compile(lasreaderlas.header);
+                        lasreaderlas.set_filter(filter);
+                    }
                     if (transform != null) lasreaderlas.set_transform(transform);
                     if (inside_tile != null) lasreaderlas.inside_tile(inside_tile[0], inside_tile[1], inside_tile[2]);
                     if (inside_circle != null) lasreaderlas.inside_circle(inside_circle[0], inside_circle[1], inside_circle[2]);
                     if (inside_rectangle != null) lasreaderlas.inside_rectangle(inside_rectangle[0], inside_rectangle[1], inside_rectangle[2], inside_rectangle[3]);
+                    if (copc_depth != -1) lasreaderlas.inside_copc_depth(copc_depth);
                     if (pipe_on)
                     {
                         LASreaderPipeOn lasreaderpipeon = new LASreaderPipeOn();
@@ -726,7 +745,11 @@ public class LASreadOpener {
                     fprintf(stderr,"ERROR: cannot open lasreaderlas from stdin \n");
                     return null;
                 }
-                if (filter != null) lasreaderlas.set_filter(filter);
+                if (filter != null)
+                {
+                    filter.compile(lasreaderlas.header);
+                    lasreaderlas.set_filter(filter);
+                }
                 if (transform != null) lasreaderlas.set_transform(transform);
                 if (inside_tile != null) lasreaderlas.inside_tile(inside_tile[0], inside_tile[1], inside_tile[2]);
                 if (inside_circle != null) lasreaderlas.inside_circle(inside_circle[0], inside_circle[1], inside_circle[2]);
@@ -836,6 +859,7 @@ public class LASreadOpener {
                         else if (inside_tile != null) lasreaderlas.inside_tile(inside_tile[0], inside_tile[1], inside_tile[2]);
                         else lasreaderlas.inside_circle(inside_circle[0], inside_circle[1], inside_circle[2]);
                     }
+                    if (copc_depth != -1) lasreaderlas.inside_copc_depth(copc_depth);
                     return TRUE;
                 }
                 else if (strstr(file_name, ".bin") || strstr(file_name, ".BIN"))
@@ -1013,6 +1037,8 @@ public class LASreadOpener {
         fprintf(stderr,"  -inside min_x min_y max_x max_y\n");
         fprintf(stderr,"  -inside_tile ll_x ll_y size\n");
         fprintf(stderr,"  -inside_circle center_x center_y radius\n");
+        fprintf(stderr,"Level-of-detail queries for COPC files\n");
+        fprintf(stderr,"  -max_depth 3\n");
     }
 
     public boolean parse(int argc, String[] argv)
@@ -1091,6 +1117,16 @@ public class LASreadOpener {
                     return FALSE;
                 }
             }
+            else if (strcmp(argv[i],"-max_depth") == 0)
+            {
+                if ((i+1) >= argc)
+                {
+                    fprintf(stderr,"ERROR: '%s' needs 1 argument: depth\n", argv[i]);
+                    return FALSE;
+                }
+                set_copc_depth(atoi(argv[i+1]));
+                argv[i]="\0"; argv[i+1]="\0"; i+=1;
+            }
             else if (strcmp(argv[i],"-comma_not_point") == 0)
             {
                 comma_not_point = TRUE;
@@ -1473,7 +1509,7 @@ public class LASreadOpener {
         return null;
     }
 
-    String get_file_name(int number)
+    public String get_file_name(int number)
     {
         return file_names.get(number);
     }
@@ -1553,6 +1589,11 @@ public class LASreadOpener {
         this.files_are_flightlines = files_are_flightlines;
     }
 
+    public boolean get_files_are_flightlines()
+    {
+        return files_are_flightlines;
+    }
+
     void set_apply_file_source_ID(boolean apply_file_source_ID)
     {
         this.apply_file_source_ID = apply_file_source_ID;
@@ -1607,6 +1648,11 @@ public class LASreadOpener {
         return TRUE;
     }
 
+    public boolean is_merged()
+    {
+        return merged;
+    }
+
     void delete_file_name(int file_name_id)
     {
         file_names.remove(file_name_id);
@@ -1750,7 +1796,13 @@ public class LASreadOpener {
         this.pipe_on = pipe_on;
     }
 
-    void set_decompress_selective(int decompress_selective)
+    // only read points of COPC octree nodes up to this depth, -1 for all
+    public void set_copc_depth(int copc_depth)
+    {
+        this.copc_depth = copc_depth;
+    }
+
+    public void set_decompress_selective(int decompress_selective)
     {
         this.decompress_selective = decompress_selective;
         if (filter != null)
@@ -1839,6 +1891,7 @@ public class LASreadOpener {
         inside_tile = null;
         inside_circle = null;
         inside_rectangle = null;
+        copc_depth = -1;
         filter = null;
         transform = null;
         temp_file_base = null;
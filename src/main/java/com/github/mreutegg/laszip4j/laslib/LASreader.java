@@ -29,6 +29,7 @@ public abstract class LASreader implements Closeable {
     public long p_count;
 
     protected LASindex index;
+    protected COPCindex copc_index;
     protected LASfilter filter;
     protected LAStransform transform;
 
@@ -48,6 +49,7 @@ public abstract class LASreader implements Closeable {
         read_simple = this::read_point_default;
         read_complex = null;
         index = null;
+        copc_index = null;
         filter = null;
         transform = null;
         inside = 0;
@@ -75,6 +77,11 @@ public abstract class LASreader implements Closeable {
         this.index = index;
     }
 
+    public void set_copc_index(COPCindex copc_index)
+    {
+        this.copc_index = copc_index;
+    }
+
     public void set_filter(LASfilter filter)
     {
         this.filter = filter;
@@ -171,7 +178,12 @@ public abstract class LASreader implements Closeable {
         }
         else if (filter != null || transform != null)
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_complex = this::read_point_inside_tile_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_tile(ll_x, ll_y, size);
                 read_complex = this::read_point_inside_tile_indexed;
@@ -183,7 +195,12 @@ public abstract class LASreader implements Closeable {
         }
         else
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_simple = this::read_point_inside_tile_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_tile(ll_x, ll_y, size);
                 read_simple = this::read_point_inside_tile_indexed;
@@ -224,7 +241,12 @@ public abstract class LASreader implements Closeable {
         }
         else if (filter != null || transform != null)
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_complex = this::read_point_inside_circle_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_circle(center_x, center_y, radius);
                 read_complex = this::read_point_inside_circle_indexed;
@@ -236,7 +258,12 @@ public abstract class LASreader implements Closeable {
         }
         else
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_simple = this::read_point_inside_circle_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_circle(center_x, center_y, radius);
                 read_simple = this::read_point_inside_circle_indexed;
@@ -277,7 +304,12 @@ public abstract class LASreader implements Closeable {
         }
         else if (filter != null || transform != null)
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_complex = this::read_point_inside_rectangle_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_rectangle(min_x, min_y, max_x, max_y);
                 read_complex = this::read_point_inside_rectangle_indexed;
@@ -289,7 +321,12 @@ public abstract class LASreader implements Closeable {
         }
         else
         {
-            if (index != null)
+            if (copc_index != null)
+            {
+                copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+                read_simple = this::read_point_inside_rectangle_indexed;
+            }
+            else if (index != null)
             {
                 index.intersect_rectangle(min_x, min_y, max_x, max_y);
                 read_simple = this::read_point_inside_rectangle_indexed;
@@ -302,6 +339,31 @@ public abstract class LASreader implements Closeable {
         return TRUE;
     }
 
+    // only read points of COPC octree nodes up to the given depth
+    public boolean inside_copc_depth(int max_depth)
+    {
+        if (copc_index == null) return FALSE;
+        copc_index.set_max_depth(max_depth);
+        if (inside != 0)
+        {
+            // the header bounds are already clipped to the query area
+            copc_index.intersect_rectangle(header.min_x, header.min_y, header.max_x, header.max_y);
+        }
+        else
+        {
+            copc_index.intersect_all();
+            if (filter != null || transform != null)
+            {
+                read_complex = this::read_point_copc_indexed;
+            }
+            else
+            {
+                read_simple = this::read_point_copc_indexed;
+            }
+        }
+        return TRUE;
+    }
+
     public boolean read_point_inside_tile()
     {
         while (read_point_default())
@@ -313,7 +375,7 @@ public abstract class LASreader implements Closeable {
 
     public boolean read_point_inside_tile_indexed()
     {
-        while (index.seek_next(this))
+        while (seek_next())
         {
             if (read_point_default() && point.inside_tile(t_ll_x, t_ll_y, t_ur_x, t_ur_y)) return TRUE;
         }
@@ -331,7 +393,7 @@ public abstract class LASreader implements Closeable {
 
     public boolean read_point_inside_circle_indexed()
     {
-        while (index.seek_next(this))
+        while (seek_next())
         {
             if (read_point_default() && point.inside_circle(c_center_x, c_center_y, c_radius_squared)) return TRUE;
         }
@@ -349,13 +411,22 @@ public abstract class LASreader implements Closeable {
 
     public boolean read_point_inside_rectangle_indexed()
     {
-        while (index.seek_next(this))
+        while (seek_next())
         {
             if (read_point_default() && point.inside_rectangle(r_min_x, r_min_y, r_max_x, r_max_y)) return TRUE;
         }
         return FALSE;
     }
 
+    public boolean read_point_copc_indexed()
+    {
+        while (seek_next())
+        {
+            if (read_point_default()) return TRUE;
+        }
+        return FALSE;
+    }
+
     public boolean read_point_none()
     {
         return FALSE;
@@ -396,6 +467,7 @@ public abstract class LASreader implements Closeable {
     public boolean has_layers() { return FALSE; };
 
     public LASindex get_index() { return index; };
+    public COPCindex get_copc_index() { return copc_index; };
     public LASfilter get_filter() { return filter; };
     public LAStransform get_transform() { return transform; };
 
@@ -446,6 +518,10 @@ public abstract class LASreader implements Closeable {
 
     protected abstract boolean read_point_default();
 
+    private boolean seek_next() {
+        return copc_index != null ? copc_index.seek_next(this) : index.seek_next(this);
+    }
+
     private boolean read_complex() {
         try {
             return read_complex.call();
@@ -11,9 +11,10 @@
 package com.github.mreutegg.laszip4j.laslib;
 
 import com.github.mreutegg.laszip4j.laszip.ByteStreamIn;
-import com.github.mreutegg.laszip4j.laszip.ByteStreamInFile;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInMappedFile;
 import com.github.mreutegg.laszip4j.laszip.ByteStreamInStream;
 import com.github.mreutegg.laszip4j.laszip.LASattribute;
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
 import com.github.mreutegg.laszip4j.laszip.LASindex;
 import com.github.mreutegg.laszip4j.laszip.LASitem;
 import com.github.mreutegg.laszip4j.laszip.LASreadPoint;
@@ -25,6 +26,7 @@ import java.io.PrintStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fclose;
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fopenRAF;
@@ -48,6 +50,12 @@ public class LASreaderLAS extends LASreader {
     private ByteStreamIn stream;
     private LASreadPoint reader;
     private boolean checked_end;
+    private long p_end;
+    private LASreaderLAS probe;
+    private LASchunkstats chunk_stats;
+    private long[] chunk_point_starts;
+    private long checked_chunk_start;
+    private long checked_chunk_end;
 
     boolean open(String file_name, int io_buffer_size, boolean peek_only, int decompress_selective)
     {
@@ -65,7 +73,7 @@ public class LASreaderLAS extends LASreader {
         }
 
         // create input
-        ByteStreamIn in = new ByteStreamInFile(file);
+        ByteStreamIn in = new ByteStreamInMappedFile(file);
 
         return open(in, peek_only, decompress_selective);
     }
@@ -79,7 +87,7 @@ public class LASreaderLAS extends LASreader {
         }
 
         // create input
-        ByteStreamIn in = new ByteStreamInFile(file);
+        ByteStreamIn in = new ByteStreamInMappedFile(file);
 
         return open(in, decompress_selective);
     }
@@ -97,7 +105,7 @@ public class LASreaderLAS extends LASreader {
         return open(in, peek_only, decompress_selective);
     }
 
-    boolean open(ByteStreamIn stream, int decompress_selective) {
+    public boolean open(ByteStreamIn stream, int decompress_selective) {
         return open(stream, false, decompress_selective);
     }
 
@@ -363,13 +371,7 @@ public class LASreaderLAS extends LASreader {
 
         npoints = (header.number_of_point_records != 0 ? header.number_of_point_records : header.extended_number_of_point_records);
         p_count = 0;
-
-        if (peek_only)
-        {
-            // at least repair point type in incomplete header (no VLRs, no LASzip, no LAStiling) 
-            header.point_data_format &= 127;
-            return TRUE;
-        }
+        p_end = Long.MAX_VALUE;
 
         // read the variable length records into the header
 
@@ -808,6 +810,17 @@ public class LASreaderLAS extends LASreader {
                         fprintf(stderr,"WARNING: no payload for LASF_Spec (not specification-conform).\n");
                     }
                 }
+                else if ((strcmp(header.vlrs[i].user_id, "copc") == 0) && (header.vlrs[i].record_id == 1))
+                {
+                    if (header.vlrs[i].data != null && header.vlrs[i].record_length_after_header == LASvlr_copc_info.SIZE)
+                    {
+                        header.vlr_copc_info = LASvlr_copc_info.fromByteArray(header.vlrs[i].data);
+                    }
+                    else
+                    {
+                        fprintf(stderr,"WARNING: record_length_after_header of COPC info VLR is %d instead of 160\n", header.vlrs[i].record_length_after_header);
+                    }
+                }
                 else if ((strcmp(header.vlrs[i].user_id, "laszip encoded") == 0) || ((strcmp(header.vlrs[i].user_id, "LAStools") == 0) && (header.vlrs[i].record_id < 2000)) || (strcmp(header.vlrs[i].user_id, "lastools tile") == 0))
                 {
                     // we take our own VLRs with record IDs below 2000 away from everywhere
@@ -833,6 +846,13 @@ public class LASreaderLAS extends LASreader {
             }
         }
 
+        if (peek_only)
+        {
+            // at least repair point type in incomplete header (VLRs, but no EVLRs, no LASzip check, no point reader)
+            header.point_data_format &= 127;
+            return TRUE;
+        }
+
         // special handling for LAS 1.4
         if ((header.version_major == 1) && (header.version_minor >= 4))
         {
@@ -1287,8 +1307,239 @@ public class LASreaderLAS extends LASreader {
         return FALSE;
     }
 
+    // returns the index of the first point of each chunk followed by the
+    // number of points or null if the points cannot be read chunk by chunk
+    public long[] get_chunk_point_starts()
+    {
+        if (reader == null) return null;
+        long[] starts = reader.get_chunk_point_starts();
+        if (starts == null) return null;
+        if (starts[starts.length-1] >= npoints) return null;
+        long[] chunk_point_starts = Arrays.copyOf(starts, starts.length+1);
+        chunk_point_starts[starts.length] = npoints;
+        return chunk_point_starts;
+    }
+
+    // returns the file position of each chunk or null if the points cannot
+    // be read chunk by chunk
+    public long[] get_chunk_starts()
+    {
+        if (get_chunk_point_starts() == null) return null;
+        return reader.get_chunk_starts();
+    }
+
+    // returns the file position of each chunk followed by the end of the last
+    // chunk or null if the points cannot be read chunk by chunk
+    public long[] get_chunk_bounds()
+    {
+        if (get_chunk_point_starts() == null) return null;
+        return reader.get_chunk_bounds();
+    }
+
+    // read_point() returns FALSE once the point with index p_end is reached.
+    // together with seek() this restricts reading to a range of points.
+    public void set_p_end(long p_end)
+    {
+        this.p_end = p_end;
+    }
+
+    // two-phase reading of filtered points from layered chunks. the probe
+    // reads the same file, but only decodes the layers needed by its filter.
+    // chunks without a point that passes the filter of the probe are skipped
+    // and their other layers are never decoded. the probe is closed together
+    // with this reader.
+    public boolean set_probe(LASreaderLAS probe)
+    {
+        if (probe == null || probe.filter == null || !prepare_chunk_skipping())
+        {
+            return FALSE;
+        }
+        this.probe = probe;
+        return TRUE;
+    }
+
+    // statistics of the chunks, which are used to skip chunks that cannot
+    // have a point inside the area of interest or a point that passes the
+    // filter. statistics that do not match the points and file positions of
+    // the chunks are ignored.
+    public boolean set_chunk_stats(LASchunkstats chunk_stats)
+    {
+        if (chunk_stats == null || !prepare_chunk_skipping() || !Arrays.equals(chunk_point_starts, chunk_stats.chunk_point_starts)
+                || !Arrays.equals(get_chunk_bounds(), chunk_stats.chunk_starts))
+        {
+            return FALSE;
+        }
+        this.chunk_stats = chunk_stats;
+        return TRUE;
+    }
+
+    public LASchunkstats get_chunk_stats()
+    {
+        return chunk_stats;
+    }
+
+    private boolean prepare_chunk_skipping()
+    {
+        if (chunk_point_starts == null)
+        {
+            chunk_point_starts = get_chunk_point_starts();
+            checked_chunk_start = 0;
+            checked_chunk_end = 0;
+        }
+        return chunk_point_starts != null;
+    }
+
+    // returns FALSE when none of the remaining chunks can have a point for
+    // the current query
+    private boolean skip_chunks()
+    {
+        if (p_count >= checked_chunk_start && p_count < checked_chunk_end)
+        {
+            return TRUE;
+        }
+        // indexed reads seek to the intervals of the index themselves
+        if ((inside != 0 && (index != null || copc_index != null)) || (copc_index != null && copc_index.get_max_depth() != -1))
+        {
+            return TRUE;
+        }
+        while (p_count < npoints && p_count < p_end)
+        {
+            int chunk = Arrays.binarySearch(chunk_point_starts, p_count);
+            if (chunk < 0) chunk = -chunk - 2;
+            long chunk_end = chunk_point_starts[chunk+1];
+            if (!skip_chunk(chunk, chunk_end))
+            {
+                checked_chunk_start = chunk_point_starts[chunk];
+                checked_chunk_end = chunk_end;
+                return TRUE;
+            }
+            if (chunk_end >= npoints || chunk_end >= p_end || !seek(chunk_end))
+            {
+                return FALSE;
+            }
+        }
+        return TRUE;
+    }
+
+    private boolean skip_chunk(int chunk, long chunk_end)
+    {
+        if (chunk_stats != null)
+        {
+            if (inside != 0 && !inside_chunk(chunk))
+            {
+                return TRUE;
+            }
+            if (filter != null && filter.filter_chunk(chunk_stats, chunk))
+            {
+                return TRUE;
+            }
+        }
+        if (probe != null && probe.seek(p_count))
+        {
+            probe.set_p_end(chunk_end);
+            return !probe.read_point();
+        }
+        return FALSE;
+    }
+
+    // returns FALSE when the bounding box of the chunk does not intersect
+    // the area of interest
+    private boolean inside_chunk(int chunk)
+    {
+        if (!(header.x_scale_factor > 0 && header.y_scale_factor > 0))
+        {
+            return TRUE;
+        }
+        double min_x = header.get_x(chunk_stats.min_X[chunk]);
+        double max_x = header.get_x(chunk_stats.max_X[chunk]);
+        double min_y = header.get_y(chunk_stats.min_Y[chunk]);
+        double max_y = header.get_y(chunk_stats.max_Y[chunk]);
+        if (inside == 1)
+        {
+            return !(max_x < t_ll_x || min_x >= t_ur_x || max_y < t_ll_y || min_y >= t_ur_y);
+        }
+        else if (inside == 2)
+        {
+            double dx = Math.max(0.0, Math.max(min_x - c_center_x, c_center_x - max_x));
+            double dy = Math.max(0.0, Math.max(min_y - c_center_y, c_center_y - max_y));
+            return dx*dx + dy*dy < c_radius_squared;
+        }
+        else if (inside == 3)
+        {
+            return !(max_x < r_min_x || min_x >= r_max_x || max_y < r_min_y || min_y >= r_max_y);
+        }
+        return TRUE;
+    }
+
+    // reads the points of a GPS time window. when the statistics of the
+    // chunks show that the chunks are ordered by GPS time, i.e. no point of a
+    // chunk is earlier than a point of a previous chunk, a binary search over
+    // the statistics finds the chunks that overlap the window and reading is
+    // restricted to them. points outside the window are returned and must be
+    // filtered, e.g. with -keep_gps_time. without statistics all points are
+    // read, because the first points of the chunks cannot tell whether the
+    // file is ordered, and a point in the window may be anywhere in the file.
+    public boolean set_gps_time_window(double min_gps_time, double max_gps_time)
+    {
+        if (chunk_stats == null || !chunk_stats.have_gps_time)
+        {
+            return FALSE;
+        }
+        int number_chunks = chunk_stats.get_number_chunks();
+        int i;
+        for (i = 1; i < number_chunks; i++)
+        {
+            if (chunk_stats.min_gps_time[i] < chunk_stats.max_gps_time[i-1])
+            {
+                // the statistics still skip the chunks outside the window
+                return FALSE;
+            }
+        }
+        // the first chunk with a point at or after the start of the window
+        // and the first chunk with all points after the window
+        int first = search_gps_time(chunk_stats.max_gps_time, min_gps_time, TRUE);
+        int last = search_gps_time(chunk_stats.min_gps_time, max_gps_time, FALSE);
+        long start = chunk_stats.chunk_point_starts[first];
+        long end = chunk_stats.chunk_point_starts[Math.max(first, last)];
+        if (start < end && p_count != start && !seek(start))
+        {
+            return FALSE;
+        }
+        p_end = Math.min(p_end, (start < end ? end : p_count));
+        return TRUE;
+    }
+
+    // returns the index of the first of the ascending gps_times that is at or
+    // above the given GPS time when inclusive, or above it otherwise
+    private static int search_gps_time(double[] gps_times, double gps_time, boolean inclusive)
+    {
+        int lo = 0;
+        int hi = gps_times.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (gps_times[mid] < gps_time || (!inclusive && gps_times[mid] == gps_time))
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
     protected boolean read_point_default()
     {
+        if (p_count == p_end)
+        {
+            return FALSE;
+        }
+        if ((probe != null || chunk_stats != null) && !skip_chunks())
+        {
+            return FALSE;
+        }
         if (p_count < npoints)
         {
             if (reader.read(point.PointRecords) == FALSE)
@@ -1360,6 +1611,11 @@ public class LASreaderLAS extends LASreader {
             reader.done();
             reader = null;
         }
+        if (probe != null)
+        {
+            probe.close(close_stream);
+            probe = null;
+        }
         if (close_stream)
         {
             if (stream != null)
@@ -1380,5 +1636,6 @@ public class LASreaderLAS extends LASreader {
         file = null;
         stream = null;
         reader = null;
+        p_end = Long.MAX_VALUE;
     }
 }
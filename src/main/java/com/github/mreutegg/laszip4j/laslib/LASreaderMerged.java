@@ -11,15 +11,96 @@
 package com.github.mreutegg.laszip4j.laslib;
 
 import com.github.mreutegg.laszip4j.laszip.ByteStreamIn;
-
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInArray;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutArray;
+import com.github.mreutegg.laszip4j.laszip.LASattribute;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASquantizer;
+import com.github.mreutegg.laszip4j.laszip.LASreadPoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+import com.github.mreutegg.laszip4j.laszip.Parallelism;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.laslib.LasDefinitions.LAS_TOOLS_FORMAT_LAS;
+import static com.github.mreutegg.laszip4j.laslib.LasDefinitions.LAS_TOOLS_IO_IBUFFER_SIZE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
 import static java.lang.Boolean.FALSE;
-
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
+/**
+ * Reads the points of many files as if they were one. The header is the
+ * header of the first file with the point counts and the bounding box of
+ * all files. All files must have the same point type and size. Points of
+ * files with other scale factors or offsets are requantized to the scale
+ * factors and offsets of the header, which are the smallest scale factors
+ * and the offsets of the first file unless the offsets differ or are set.
+ * <p>
+ * Only the headers and VLRs of LAS/LAZ files are read on open and they can
+ * be passed to another reader for the same files with set_file_headers().
+ * The files are opened on demand and files outside the area of a spatial
+ * query are not opened at all. With an executor, the points of several
+ * files are decoded concurrently in batches and returned either in the
+ * order of the files or interleaved in the order the batches complete.
+ */
 public class LASreaderMerged extends LASreader {
 
+    private static final PrintStream stderr = System.err;
+
+    // number of points decoded by a task
+    private static final int BATCH_SIZE = 10000;
+
+    private final List<String> file_names = new ArrayList<>();
+
+    private double[] scale_factor;
+    private double[] offset;
+    private String parse_string;
+    private int skip_lines;
+    private boolean populate_header;
+    private boolean keep_lastiling;
+    private float translate_intensity = 0.0f;
+    private float scale_intensity = 1.0f;
+    private float translate_scan_angle = 0.0f;
+    private float scale_scan_angle = 1.0f;
+    private int io_ibuffer_size = LAS_TOOLS_IO_IBUFFER_SIZE;
+    private int decompress_selective = LASZIP_DECOMPRESS_SELECTIVE_ALL;
+    private boolean files_are_flightlines;
+    private boolean apply_file_source_ID;
+    private Executor executor;
+    private boolean interleaved;
+
+    private LASheader[] file_headers;
+    private Source[] sources;
+    private LASquantizer quantizer;
+    private int record_length;
+
+    private int next_source;
+    private final Deque<Source> sources_in_flight = new ArrayDeque<>();
+    private BlockingQueue<CompletableFuture<Batch>> completed = new LinkedBlockingQueue<>();
+    private int batches_in_flight;
+
+    private LASreadPoint deserializer;
+    private final ByteStreamInArray instream = new ByteStreamInArray();
+    private Batch batch;
+    private int batch_point;
+
+    private volatile boolean closed;
+
     @Override
     public int get_format() {
-        return 0;
+        return LAS_TOOLS_FORMAT_LAS;
     }
 
     @Override
@@ -34,75 +115,595 @@ public class LASreaderMerged extends LASreader {
 
     @Override
     public void close(boolean close_stream) {
-
+        closed = TRUE;
+        for (Source s : sources_in_flight)
+        {
+            for (CompletableFuture<Batch> f : s.pending) f.cancel(false);
+            s.pending.clear();
+        }
+        sources_in_flight.clear();
+        // batches completing after close go to the old queue
+        completed = new LinkedBlockingQueue<>();
+        batches_in_flight = 0;
+        batch = null;
+        if (sources != null)
+        {
+            for (Source s : sources) s.close();
+        }
     }
 
     @Override
     protected boolean read_point_default() {
-        return false;
+        while (batch == null || batch_point == batch.count)
+        {
+            batch = null;
+            if (!next_batch()) return FALSE;
+        }
+        if (batch_point == 0)
+        {
+            instream.init(batch.data.array(), batch.data.position());
+            deserializer.init(instream);
+        }
+        if (!deserializer.read(point.PointRecords)) return FALSE;
+        batch_point++;
+        p_count++;
+        return TRUE;
     }
 
     public void set_scale_factor(double[] scale_factor) {
-
+        this.scale_factor = (scale_factor != null ? scale_factor.clone() : null);
     }
 
     public void set_offset(double[] offset) {
-
+        this.offset = (offset != null ? offset.clone() : null);
     }
 
     public void set_parse_string(String parse_string) {
-
+        this.parse_string = parse_string;
     }
 
     public void set_skip_lines(int skip_lines) {
-
+        this.skip_lines = skip_lines;
     }
 
     public void set_populate_header(boolean populate_header) {
-
+        this.populate_header = populate_header;
     }
 
     public void set_keep_lastiling(boolean keep_lastiling) {
-
+        this.keep_lastiling = keep_lastiling;
     }
 
     public void set_translate_intensity(float translate_intensity) {
-
+        this.translate_intensity = translate_intensity;
     }
 
     public void set_scale_intensity(float scale_intensity) {
-
+        this.scale_intensity = scale_intensity;
     }
 
     public void set_translate_scan_angle(float translate_scan_angle) {
-
+        this.translate_scan_angle = translate_scan_angle;
     }
 
     public void set_scale_scan_angle(float scale_scan_angle) {
-
+        this.scale_scan_angle = scale_scan_angle;
     }
 
     public void set_io_ibuffer_size(int io_ibuffer_size) {
+        this.io_ibuffer_size = io_ibuffer_size;
+    }
+
+    public void set_decompress_selective(int decompress_selective) {
+        this.decompress_selective = decompress_selective;
+    }
+
+    // decode the files concurrently with tasks submitted to the executor,
+    // null to decode the files one after another when points are read
+    public void set_executor(Executor executor) {
+        this.executor = executor;
+    }
 
+    // return the points of concurrently decoded files in the order batches
+    // complete instead of the order of the files
+    public void set_interleaved(boolean interleaved) {
+        this.interleaved = interleaved;
     }
 
     public void add_file_name(String s) {
+        file_names.add(s);
+        file_headers = null;
+    }
+
+    // the headers of the files, which are not modified by this reader
+    public LASheader[] get_file_headers() {
+        return file_headers;
+    }
 
+    public void set_file_headers(LASheader[] file_headers) {
+        this.file_headers = file_headers;
     }
 
     public boolean open() {
-        return false;
+        if (file_names.isEmpty())
+        {
+            fprintf(stderr, "ERROR: no file names\n");
+            return FALSE;
+        }
+        if (file_headers == null || file_headers.length != file_names.size())
+        {
+            LASheader[] headers = new LASheader[file_names.size()];
+            for (int i = 0; i < headers.length; i++)
+            {
+                headers[i] = read_header(file_names.get(i));
+                if (headers[i] == null) return FALSE;
+            }
+            file_headers = headers;
+        }
+        // the merged header starts from a header of the first file that is
+        // not shared with other readers
+        header = read_header(file_names.get(0));
+        if (header == null) return FALSE;
+        LASheader first = file_headers[0];
+        sources = new Source[file_names.size()];
+        long number_of_point_records = 0;
+        long[] number_of_points_by_return = new long[15];
+        long[] legacy_number_of_points_by_return = new long[5];
+        boolean same_offsets = TRUE;
+        npoints = 0;
+        for (int i = 0; i < sources.length; i++)
+        {
+            LASheader h = file_headers[i];
+            if (h.point_data_format != first.point_data_format || h.point_data_record_length != first.point_data_record_length)
+            {
+                fprintf(stderr, "ERROR: '%s' has point type %d of size %d instead of point type %d of size %d\n", file_names.get(i), h.point_data_format, h.point_data_record_length, first.point_data_format, first.point_data_record_length);
+                return FALSE;
+            }
+            else if (!same_attributes(h, first))
+            {
+                fprintf(stderr, "ERROR: '%s' has other extra bytes than '%s'\n", file_names.get(i), file_names.get(0));
+                return FALSE;
+            }
+            else
+            {
+                same_offsets &= (h.x_offset == first.x_offset && h.y_offset == first.y_offset && h.z_offset == first.z_offset);
+                header.x_scale_factor = Math.min(header.x_scale_factor, h.x_scale_factor);
+                header.y_scale_factor = Math.min(header.y_scale_factor, h.y_scale_factor);
+                header.z_scale_factor = Math.min(header.z_scale_factor, h.z_scale_factor);
+                header.min_x = Math.min(header.min_x, h.min_x);
+                header.min_y = Math.min(header.min_y, h.min_y);
+                header.min_z = Math.min(header.min_z, h.min_z);
+                header.max_x = Math.max(header.max_x, h.max_x);
+                header.max_y = Math.max(header.max_y, h.max_y);
+                header.max_z = Math.max(header.max_z, h.max_z);
+            }
+            sources[i] = new Source(i, file_names.get(i), h);
+            npoints += (h.number_of_point_records != 0 ? Integer.toUnsignedLong(h.number_of_point_records) : h.extended_number_of_point_records);
+            number_of_point_records += Integer.toUnsignedLong(h.number_of_point_records);
+            for (int r = 0; r < 5; r++) legacy_number_of_points_by_return[r] += Integer.toUnsignedLong(h.number_of_points_by_return[r]);
+            for (int r = 0; r < 15; r++) number_of_points_by_return[r] += h.extended_number_of_points_by_return[r];
+        }
+
+        // the common quantization of all points
+        if (scale_factor != null)
+        {
+            header.x_scale_factor = scale_factor[0];
+            header.y_scale_factor = scale_factor[1];
+            header.z_scale_factor = scale_factor[2];
+        }
+        if (offset != null)
+        {
+            header.x_offset = offset[0];
+            header.y_offset = offset[1];
+            header.z_offset = offset[2];
+        }
+        else if (!same_offsets)
+        {
+            header.x_offset = auto_offset(header.min_x, header.max_x, header.x_scale_factor);
+            header.y_offset = auto_offset(header.min_y, header.max_y, header.y_scale_factor);
+            header.z_offset = auto_offset(header.min_z, header.max_z, header.z_scale_factor);
+        }
+        if (!fits(header.min_x, header.max_x, header.x_scale_factor, header.x_offset)
+                || !fits(header.min_y, header.max_y, header.y_scale_factor, header.y_offset)
+                || !fits(header.min_z, header.max_z, header.z_scale_factor, header.z_offset))
+        {
+            fprintf(stderr, "ERROR: bounding box of %d files does not fit the scale factors and offsets\n", sources.length);
+            return FALSE;
+        }
+        quantizer = new LASquantizer();
+        quantizer.x_scale_factor = header.x_scale_factor;
+        quantizer.y_scale_factor = header.y_scale_factor;
+        quantizer.z_scale_factor = header.z_scale_factor;
+        quantizer.x_offset = header.x_offset;
+        quantizer.y_offset = header.y_offset;
+        quantizer.z_offset = header.z_offset;
+        for (Source s : sources)
+        {
+            s.requantize = (s.quantizer.x_scale_factor != quantizer.x_scale_factor || s.quantizer.y_scale_factor != quantizer.y_scale_factor || s.quantizer.z_scale_factor != quantizer.z_scale_factor
+                    || s.quantizer.x_offset != quantizer.x_offset || s.quantizer.y_offset != quantizer.y_offset || s.quantizer.z_offset != quantizer.z_offset);
+        }
+
+        // the point counts of all files
+        if (number_of_point_records <= 0xFFFFFFFFL && (number_of_point_records == npoints || header.point_data_format <= 5))
+        {
+            header.number_of_point_records = (int) number_of_point_records;
+            for (int r = 0; r < 5; r++) header.number_of_points_by_return[r] = (legacy_number_of_points_by_return[r] <= 0xFFFFFFFFL ? (int) legacy_number_of_points_by_return[r] : 0);
+        }
+        else
+        {
+            header.number_of_point_records = 0;
+            for (int r = 0; r < 5; r++) header.number_of_points_by_return[r] = 0;
+        }
+        header.extended_number_of_point_records = (header.version_minor >= 4 ? npoints : 0);
+        for (int r = 0; r < 15; r++) header.extended_number_of_points_by_return[r] = (header.version_minor >= 4 ? number_of_points_by_return[r] : 0);
+        if (!keep_lastiling) header.clean_lastiling();
+        header.vlr_copc_info = null;
+
+        // points are passed from the decoding tasks as uncompressed point records
+        point = new LASpoint();
+        if (!point.init(header, header.point_data_format, header.point_data_record_length, header))
+        {
+            fprintf(stderr, "ERROR: point type %d of size %d not supported\n", header.point_data_format, header.point_data_record_length);
+            return FALSE;
+        }
+        record_length = header.point_data_record_length;
+        deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+        if (!deserializer.setup(point.num_items, point.items)) return FALSE;
+        return reopen();
     }
 
     public void set_files_are_flightlines(boolean files_are_flightlines) {
-
+        this.files_are_flightlines = files_are_flightlines;
     }
 
     public void set_apply_file_source_ID(boolean apply_file_source_ID) {
-
+        this.apply_file_source_ID = apply_file_source_ID;
     }
 
     public boolean reopen() {
-        return false;
+        if (sources == null) return FALSE;
+        close(true);
+        closed = FALSE;
+        next_source = 0;
+        p_count = 0;
+        return TRUE;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private LASreader open_reader(String file_name)
+    {
+        LASreadOpener lasreadopener = new LASreadOpener();
+        lasreadopener.set_parse_string(parse_string);
+        lasreadopener.set_skip_lines(skip_lines);
+        lasreadopener.set_populate_header(populate_header);
+        lasreadopener.set_keep_lastiling(keep_lastiling);
+        lasreadopener.set_translate_intensity(translate_intensity);
+        lasreadopener.set_scale_intensity(scale_intensity);
+        lasreadopener.set_translate_scan_angle(translate_scan_angle);
+        lasreadopener.set_scale_scan_angle(scale_scan_angle);
+        lasreadopener.set_io_ibuffer_size(io_ibuffer_size);
+        lasreadopener.set_decompress_selective(decompress_selective);
+        LASreader lasreader = lasreadopener.open(file_name);
+        if (lasreader == null)
+        {
+            fprintf(stderr, "ERROR: cannot open '%s'\n", file_name);
+        }
+        return lasreader;
+    }
+
+    // reads the header and the VLRs of a LAS/LAZ file without setting up a
+    // point reader. other files are opened as usual
+    private LASheader read_header(String file_name)
+    {
+        if (!(strstr(file_name, ".las") || strstr(file_name, ".laz") || strstr(file_name, ".LAS") || strstr(file_name, ".LAZ")))
+        {
+            LASreader lasreader = open_reader(file_name);
+            if (lasreader == null) return null;
+            lasreader.close();
+            return lasreader.header;
+        }
+        LASreaderLAS lasreaderlas = new LASreaderLAS();
+        if (!lasreaderlas.open(file_name, io_ibuffer_size, TRUE, decompress_selective))
+        {
+            fprintf(stderr, "ERROR: cannot open '%s'\n", file_name);
+            lasreaderlas.close();
+            return null;
+        }
+        lasreaderlas.close();
+        return lasreaderlas.header;
+    }
+
+    // whether two headers have the same extra bytes. the statistics of the
+    // extra bytes may differ
+    private static boolean same_attributes(LASheader h, LASheader other)
+    {
+        if (h.number_attributes != other.number_attributes) return FALSE;
+        for (int i = 0; i < h.number_attributes; i++)
+        {
+            LASattribute a = h.attributes.get(i);
+            LASattribute b = other.attributes.get(i);
+            if (a.data_type != b.data_type || !Arrays.equals(a.name, b.name)
+                    || !Arrays.equals(a.scale, b.scale) || !Arrays.equals(a.offset, b.offset))
+            {
+                return FALSE;
+            }
+        }
+        return TRUE;
+    }
+
+    // starts decoding files until the maximum number of files is in flight
+    private void start_sources()
+    {
+        int max_sources_in_flight = (executor != null ? Parallelism.parallelism(executor) : 1);
+        int batches_ahead = (executor != null ? 2 : 1);
+        while (sources_in_flight.size() < max_sources_in_flight && next_source < sources.length)
+        {
+            Source s = sources[next_source++];
+            if (!intersects(s)) continue;
+            sources_in_flight.add(s);
+            for (int i = 0; i < batches_ahead; i++) submit(s);
+        }
+    }
+
+    // whether the bounding box of a file intersects the area of a spatial query
+    private boolean intersects(Source s)
+    {
+        if (inside == 0) return TRUE;
+        return !(s.min_x > header.max_x || s.min_y > header.max_y || s.max_x < header.min_x || s.max_y < header.min_y);
+    }
+
+    // the tasks of a file are chained, which means a reader is never used
+    // concurrently and the batches of a file complete in order
+    private void submit(Source s)
+    {
+        CompletableFuture<Batch> f;
+        if (s.tail == null)
+        {
+            f = CompletableFuture.supplyAsync(() -> decode(s), executor != null ? executor : Runnable::run);
+        }
+        else
+        {
+            f = s.tail.thenApplyAsync(b -> decode(s), executor != null ? executor : Runnable::run);
+        }
+        s.tail = f;
+        s.pending.add(f);
+        if (interleaved)
+        {
+            BlockingQueue<CompletableFuture<Batch>> queue = completed;
+            f.whenComplete((b, t) -> queue.add(f));
+        }
+        batches_in_flight++;
+    }
+
+    private boolean next_batch()
+    {
+        while (!closed)
+        {
+            start_sources();
+            if (batches_in_flight == 0) return FALSE;
+            CompletableFuture<Batch> f;
+            if (interleaved)
+            {
+                try
+                {
+                    f = completed.take();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for decoded points", e);
+                }
+            }
+            else
+            {
+                f = sources_in_flight.getFirst().pending.getFirst();
+            }
+            batches_in_flight--;
+            Batch b = join(f);
+            Source s = b.source;
+            s.pending.remove(f);
+            if (s.finished) continue;
+            if (b.last)
+            {
+                // batches submitted after the last one are empty and
+                // skipped when they complete in an interleaved read
+                s.finished = TRUE;
+                sources_in_flight.remove(s);
+                if (!interleaved)
+                {
+                    batches_in_flight -= s.pending.size();
+                    for (CompletableFuture<Batch> p : s.pending) p.cancel(false);
+                    s.pending.clear();
+                }
+            }
+            else
+            {
+                submit(s);
+            }
+            if (b.count > 0)
+            {
+                batch = b;
+                batch_point = 0;
+                return TRUE;
+            }
+        }
+        return FALSE;
+    }
+
+    private Batch join(CompletableFuture<Batch> f)
+    {
+        try
+        {
+            return f.join();
+        }
+        catch (CompletionException e)
+        {
+            close();
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // decodes the next batch of points of a file into uncompressed point records
+    private Batch decode(Source s)
+    {
+        synchronized (s)
+        {
+            if (closed || s.done) return new Batch(s, null, 0, TRUE);
+            if (s.reader == null)
+            {
+                s.reader = open_reader(s.file_name);
+                if (s.reader == null)
+                {
+                    throw new IllegalStateException("cannot open '" + s.file_name + "'");
+                }
+                switch (inside)
+                {
+                    case 1:
+                        s.reader.inside_tile(t_ll_x, t_ll_y, t_size);
+                        break;
+                    case 2:
+                        s.reader.inside_circle(c_center_x, c_center_y, c_radius);
+                        break;
+                    case 3:
+                        s.reader.inside_rectangle(r_min_x, r_min_y, r_max_x, r_max_y);
+                        break;
+                }
+                s.serializer = new LASwritePoint();
+                if (!s.serializer.setup(point.num_items, point.items))
+                {
+                    throw new IllegalStateException("point type " + header.point_data_format + " not supported");
+                }
+            }
+            ByteStreamOutArray data = new ByteStreamOutArray(BATCH_SIZE * record_length);
+            s.serializer.init(data);
+            LASpoint p = s.reader.point;
+            int count = 0;
+            while (count < BATCH_SIZE && !closed && s.reader.read_point())
+            {
+                if (s.requantize)
+                {
+                    p.set_X(quantizer.get_X(s.quantizer.get_x(p.get_X())));
+                    p.set_Y(quantizer.get_Y(s.quantizer.get_y(p.get_Y())));
+                    p.set_Z(quantizer.get_Z(s.quantizer.get_z(p.get_Z())));
+                }
+                if (files_are_flightlines)
+                {
+                    p.set_point_source_ID((char) (s.index + 1));
+                }
+                else if (apply_file_source_ID)
+                {
+                    p.set_point_source_ID(s.file_source_ID);
+                }
+                s.serializer.write(p.PointRecords);
+                count++;
+            }
+            if (count < BATCH_SIZE)
+            {
+                s.done = TRUE;
+                s.reader.close();
+                s.reader = null;
+            }
+            return new Batch(s, data.takeData(), count, s.done);
+        }
+    }
+
+    private static double auto_offset(double min, double max, double scale_factor)
+    {
+        return ((long) ((min + max) / scale_factor / 20000000)) * 10000000 * scale_factor;
+    }
+
+    private static boolean fits(double min, double max, double scale_factor, double offset)
+    {
+        return (min - offset) / scale_factor >= Integer.MIN_VALUE && (max - offset) / scale_factor <= Integer.MAX_VALUE;
+    }
+
+    private static boolean strstr(String s1, String s2) {
+        return s1.contains(s2);
+    }
+
+    private final class Source {
+
+        final int index;
+
+        final String file_name;
+
+        final char file_source_ID;
+
+        final double min_x, min_y, max_x, max_y;
+
+        // the quantization of the points in the file
+        final LASquantizer quantizer = new LASquantizer();
+
+        boolean requantize;
+
+        // the submitted batches not yet returned to the consumer
+        final Deque<CompletableFuture<Batch>> pending = new ArrayDeque<>();
+
+        // the most recently submitted batch
+        CompletableFuture<Batch> tail;
+
+        // the last batch was returned to the consumer
+        boolean finished;
+
+        // guarded by this
+        LASreader reader;
+        LASwritePoint serializer;
+        boolean done;
+
+        Source(int index, String file_name, LASheader header)
+        {
+            this.index = index;
+            this.file_name = file_name;
+            this.file_source_ID = header.file_source_ID;
+            this.min_x = header.min_x;
+            this.min_y = header.min_y;
+            this.max_x = header.max_x;
+            this.max_y = header.max_y;
+            quantizer.x_scale_factor = header.x_scale_factor;
+            quantizer.y_scale_factor = header.y_scale_factor;
+            quantizer.z_scale_factor = header.z_scale_factor;
+            quantizer.x_offset = header.x_offset;
+            quantizer.y_offset = header.y_offset;
+            quantizer.z_offset = header.z_offset;
+        }
+
+        synchronized void close()
+        {
+            if (reader != null)
+            {
+                reader.close();
+                reader = null;
+            }
+            serializer = null;
+            done = FALSE;
+            finished = FALSE;
+            tail = null;
+            pending.clear();
+        }
+    }
+
+    private static final class Batch {
+
+        final Source source;
+
+        final ByteBuffer data;
+
+        final int count;
+
+        // no more points in the file
+        final boolean last;
+
+        Batch(Source source, ByteBuffer data, int count, boolean last)
+        {
+            this.source = source;
+            this.data = data;
+            this.count = count;
+            this.last = last;
+        }
     }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInArray;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutArray;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASquadtree;
+import com.github.mreutegg.laszip4j.laszip.LASreadPoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+/**
+ * Splits points into a grid of square tiles and writes one file per tile
+ * with a lastiling VLR. The tiles are aligned to multiples of the tile
+ * size and a point is in the tile with ll_x &lt;= x &lt; ll_x + size and
+ * ll_y &lt;= y &lt; ll_y + size, the same as {@link LASreader#inside_tile}.
+ * <p>
+ * Points are written directly to the tiles that got one of the open
+ * writers when their first point arrived. Points of the other tiles are
+ * buffered as uncompressed point records and spilled to one temporary file
+ * per tile when more than the maximum number of points are in memory. These
+ * tiles are written one by one on {@link #close()}.
+ */
+public class LAStiler {
+
+    private static final PrintStream stderr = System.err;
+
+    private float tile_size = 1000.0f;
+    private int max_open_writers = 64;
+    private long max_points_in_memory = 10000000;
+    private File temp_dir;
+    private File output_dir;
+    private String prefix = "tile";
+    private boolean compress = TRUE;
+
+    private LASheader header;
+    private LASquadtree quadtree;
+    private LASpoint point;
+    private LASwritePoint serializer;
+    private int record_length;
+
+    private final Map<Long, Tile> tiles = new LinkedHashMap<>();
+    private int open_writers;
+    private long points_in_memory;
+
+    public void set_tile_size(float tile_size)
+    {
+        this.tile_size = tile_size;
+    }
+
+    public void set_max_open_writers(int max_open_writers)
+    {
+        this.max_open_writers = max_open_writers;
+    }
+
+    public void set_max_points_in_memory(long max_points_in_memory)
+    {
+        this.max_points_in_memory = max_points_in_memory;
+    }
+
+    // directory for temporary files, null for the default temporary directory
+    public void set_temp_dir(File temp_dir)
+    {
+        this.temp_dir = temp_dir;
+    }
+
+    // directory for the tiles, null for the current directory
+    public void set_output_dir(File output_dir)
+    {
+        this.output_dir = output_dir;
+    }
+
+    // tiles are named <prefix>_<ll_x>_<ll_y>.laz
+    public void set_prefix(String prefix)
+    {
+        this.prefix = prefix;
+    }
+
+    public void set_compress(boolean compress)
+    {
+        this.compress = compress;
+    }
+
+    // the header is used for all tiles, the bounding box covers the points of all inputs
+    public boolean open(LASheader header, double min_x, double max_x, double min_y, double max_y)
+    {
+        if (!header.check()) return FALSE;
+        this.header = header;
+
+        quadtree = new LASquadtree();
+        if (!quadtree.setup(min_x, max_x, min_y, max_y, tile_size)) return FALSE;
+
+        // spilled points are stored as uncompressed point records
+        point = new LASpoint();
+        if (!point.init(header, header.point_data_format, header.point_data_record_length, header)) return FALSE;
+        serializer = new LASwritePoint();
+        if (!serializer.setup(point.num_items, point.items))
+        {
+            fprintf(stderr, "ERROR: point type %d of size %d not supported\n", header.point_data_format, header.point_data_record_length);
+            return FALSE;
+        }
+        record_length = header.point_data_record_length;
+
+        tiles.clear();
+        open_writers = 0;
+        points_in_memory = 0;
+        return TRUE;
+    }
+
+    // points of another input must have the same format and quantization
+    public boolean check(LASheader other)
+    {
+        if (other.point_data_format != header.point_data_format || other.point_data_record_length != header.point_data_record_length)
+        {
+            fprintf(stderr, "ERROR: point type %d of size %d differs from point type %d of size %d\n", other.point_data_format, other.point_data_record_length, header.point_data_format, header.point_data_record_length);
+            return FALSE;
+        }
+        if (other.x_scale_factor != header.x_scale_factor || other.y_scale_factor != header.y_scale_factor || other.z_scale_factor != header.z_scale_factor
+                || other.x_offset != header.x_offset || other.y_offset != header.y_offset || other.z_offset != header.z_offset)
+        {
+            fprintf(stderr, "ERROR: scale factors and offsets differ\n");
+            return FALSE;
+        }
+        return TRUE;
+    }
+
+    public boolean write_point(LASpoint point)
+    {
+        double x = point.get_x();
+        double y = point.get_y();
+        long tx = (long) Math.floor(x / tile_size);
+        long ty = (long) Math.floor(y / tile_size);
+        Long key = (tx << 32) | (ty & 0xFFFFFFFFL);
+        Tile tile = tiles.get(key);
+        if (tile == null)
+        {
+            tile = new Tile((float) (tx * (double) tile_size), (float) (ty * (double) tile_size));
+            if (open_writers < max_open_writers)
+            {
+                tile.writer = open_writer(tile);
+                if (tile.writer == null) return FALSE;
+                open_writers++;
+            }
+            else
+            {
+                tile.spilled = TRUE;
+            }
+            tiles.put(key, tile);
+        }
+        if (!tile.spilled)
+        {
+            if (!tile.writer.write_point(point)) return FALSE;
+            tile.writer.update_inventory(point);
+            return TRUE;
+        }
+        if (!serializer.init(tile.data)) return FALSE;
+        if (!serializer.write(point.PointRecords)) return FALSE;
+        if (++points_in_memory > max_points_in_memory)
+        {
+            return spill();
+        }
+        return TRUE;
+    }
+
+    // the tiles in the order of their first point
+    public List<File> get_files()
+    {
+        List<File> files = new ArrayList<>();
+        for (Tile tile : tiles.values())
+        {
+            files.add(tile.file_name);
+        }
+        return files;
+    }
+
+    public boolean close()
+    {
+        boolean success = TRUE;
+        try
+        {
+            for (Tile tile : tiles.values())
+            {
+                if (tile.writer != null)
+                {
+                    success &= close_writer(tile);
+                }
+            }
+            for (Tile tile : tiles.values())
+            {
+                if (success && tile.spilled)
+                {
+                    success = write_spilled(tile);
+                }
+            }
+        }
+        finally
+        {
+            for (Tile tile : tiles.values())
+            {
+                if (tile.writer != null)
+                {
+                    tile.writer.close(false);
+                    tile.writer = null;
+                }
+                if (tile.file != null && !tile.file.delete())
+                {
+                    fprintf(stderr, "WARNING: cannot delete temporary file '%s'\n", tile.file.getPath());
+                }
+                tile.file = null;
+            }
+            open_writers = 0;
+            points_in_memory = 0;
+        }
+        return success;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private LASwriter open_writer(Tile tile)
+    {
+        float center_x = tile.ll_x + tile_size / 2;
+        float center_y = tile.ll_y + tile_size / 2;
+        header.set_lastiling(quadtree.levels, quadtree.get_level_index(center_x, center_y), 0, FALSE, FALSE,
+                quadtree.min_x, quadtree.max_x, quadtree.min_y, quadtree.max_y);
+        LASwriteOpener opener = new LASwriteOpener();
+        opener.set_file_name(tile.file_name.getPath());
+        LASwriter writer = opener.open(header);
+        if (writer == null)
+        {
+            fprintf(stderr, "ERROR: cannot open tile '%s'\n", tile.file_name.getPath());
+            return null;
+        }
+        writer.inventory = new LASinventory();
+        return writer;
+    }
+
+    private boolean close_writer(Tile tile)
+    {
+        LASwriter writer = tile.writer;
+        tile.writer = null;
+        boolean success = writer.update_header(header, TRUE);
+        return writer.close() != 0 && success;
+    }
+
+    // appends the buffered points of all spilled tiles to their temporary files
+    private boolean spill()
+    {
+        for (Tile tile : tiles.values())
+        {
+            if (!tile.spilled || tile.data.tell() == 0) continue;
+            try
+            {
+                if (tile.file == null)
+                {
+                    tile.file = File.createTempFile("laszip4j-tile-", ".tmp", temp_dir);
+                }
+                ByteBuffer data = tile.data.takeData();
+                try (FileOutputStream out = new FileOutputStream(tile.file, true))
+                {
+                    out.write(data.array(), 0, data.position());
+                }
+            }
+            catch (IOException e)
+            {
+                fprintf(stderr, "ERROR: cannot write temporary file: %s\n", e.getMessage());
+                return FALSE;
+            }
+        }
+        points_in_memory = 0;
+        return TRUE;
+    }
+
+    // writes the spilled and buffered points of a tile
+    private boolean write_spilled(Tile tile)
+    {
+        tile.writer = open_writer(tile);
+        if (tile.writer == null) return FALSE;
+        LASreadPoint deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+        if (!deserializer.setup(point.num_items, point.items)) return FALSE;
+        byte[] record = new byte[record_length];
+        ByteStreamInArray in = new ByteStreamInArray(record, record_length);
+        if (!deserializer.init(in)) return FALSE;
+        if (tile.file != null)
+        {
+            try (DataInputStream spilled = new DataInputStream(new BufferedInputStream(new FileInputStream(tile.file), 1 << 16)))
+            {
+                long remaining = tile.file.length() / record_length;
+                while (remaining-- > 0)
+                {
+                    spilled.readFully(record);
+                    if (!write_record(tile.writer, deserializer, in)) return FALSE;
+                }
+            }
+            catch (IOException e)
+            {
+                fprintf(stderr, "ERROR: cannot read temporary file '%s'\n", tile.file.getPath());
+                return FALSE;
+            }
+        }
+        ByteBuffer buffered = tile.data.takeData();
+        int offset;
+        for (offset = 0; offset < buffered.position(); offset += record_length)
+        {
+            System.arraycopy(buffered.array(), offset, record, 0, record_length);
+            if (!write_record(tile.writer, deserializer, in)) return FALSE;
+        }
+        return close_writer(tile);
+    }
+
+    private boolean write_record(LASwriter writer, LASreadPoint deserializer, ByteStreamInArray in)
+    {
+        in.seek(0);
+        if (!deserializer.read(point.PointRecords)) return FALSE;
+        if (!writer.write_point(point)) return FALSE;
+        writer.update_inventory(point);
+        return TRUE;
+    }
+
+    private final class Tile {
+
+        final float ll_x, ll_y;
+
+        final File file_name;
+
+        // buffered points of a tile without open writer
+        final ByteStreamOutArray data = new ByteStreamOutArray();
+
+        LASwriter writer;
+
+        // points are buffered and written on close
+        boolean spilled;
+
+        // temporary file with spilled points
+        File file;
+
+        Tile(float ll_x, float ll_y)
+        {
+            this.ll_x = ll_x;
+            this.ll_y = ll_y;
+            this.file_name = new File(output_dir, prefix + "_" + coordinate(ll_x) + "_" + coordinate(ll_y) + (compress ? ".laz" : ".las"));
+        }
+    }
+
+    private static String coordinate(float v)
+    {
+        return (v == Math.rint(v) ? Long.toString((long) v) : Float.toString(v));
+    }
+}
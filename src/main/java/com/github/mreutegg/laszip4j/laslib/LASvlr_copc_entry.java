@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An entry of a COPC hierarchy page. The key (level, x, y, z) identifies an
+ * octree node. With a positive point count the offset and byte size refer to
+ * the LAZ chunk with the points of the node. A point count of -1 refers to a
+ * child hierarchy page.
+ */
+public class LASvlr_copc_entry {
+
+    public static final int SIZE = 32;
+
+    public int level;
+    public int x;
+    public int y;
+    public int z;
+    public long offset; // unsigned
+    public int byte_size;
+    public int point_count;
+
+    public LASvlr_copc_entry() {
+    }
+
+    public LASvlr_copc_entry(int level, int x, int y, int z) {
+        this.level = level;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(level);
+        buffer.putInt(x);
+        buffer.putInt(y);
+        buffer.putInt(z);
+        buffer.putLong(offset);
+        buffer.putInt(byte_size);
+        buffer.putInt(point_count);
+    }
+
+    public static LASvlr_copc_entry fromByteBuffer(ByteBuffer buffer) {
+        LASvlr_copc_entry entry = new LASvlr_copc_entry();
+        entry.level = buffer.getInt();
+        entry.x = buffer.getInt();
+        entry.y = buffer.getInt();
+        entry.z = buffer.getInt();
+        entry.offset = buffer.getLong();
+        entry.byte_size = buffer.getInt();
+        entry.point_count = buffer.getInt();
+        return entry;
+    }
+
+    @Override
+    public String toString() {
+        return level + "-" + x + "-" + y + "-" + z;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The COPC info VLR with user id "copc" and record id 1. It describes the
+ * cube of the octree root and where the root hierarchy page is located.
+ */
+public class LASvlr_copc_info {
+
+    public static final int SIZE = 160;
+
+    public double center_x;
+    public double center_y;
+    public double center_z;
+    public double halfsize;
+    public double spacing;
+    public long root_hier_offset; // unsigned
+    public long root_hier_size; // unsigned
+    public double gpstime_minimum;
+    public double gpstime_maximum;
+    public long[] reserved = new long[11];
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putDouble(center_x);
+        buffer.putDouble(center_y);
+        buffer.putDouble(center_z);
+        buffer.putDouble(halfsize);
+        buffer.putDouble(spacing);
+        buffer.putLong(root_hier_offset);
+        buffer.putLong(root_hier_size);
+        buffer.putDouble(gpstime_minimum);
+        buffer.putDouble(gpstime_maximum);
+        for (long r : reserved) {
+            buffer.putLong(r);
+        }
+    }
+
+    public static LASvlr_copc_info fromByteArray(byte[] data) {
+        ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        LASvlr_copc_info info = new LASvlr_copc_info();
+        info.center_x = bb.getDouble();
+        info.center_y = bb.getDouble();
+        info.center_z = bb.getDouble();
+        info.halfsize = bb.getDouble();
+        info.spacing = bb.getDouble();
+        info.root_hier_offset = bb.getLong();
+        info.root_hier_size = bb.getLong();
+        info.gpstime_minimum = bb.getDouble();
+        info.gpstime_maximum = bb.getDouble();
+        for (int i = 0; i < info.reserved.length; i++) {
+            info.reserved[i] = bb.getLong();
+        }
+        return info;
+    }
+}
@@ -12,7 +12,7 @@ package com.github.mreutegg.laszip4j.laslib;
 
 import com.github.mreutegg.laszip4j.laszip.ArithmeticDecoder;
 import com.github.mreutegg.laszip4j.laszip.ByteStreamIn;
-import com.github.mreutegg.laszip4j.laszip.ByteStreamInFile;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInMappedFile;
 import com.github.mreutegg.laszip4j.laszip.IntegerCompressor;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
 
@@ -165,7 +165,7 @@ public class LASwaveform13reader {
             return FALSE;
         }
 
-        stream = new ByteStreamInFile(file);
+        stream = new ByteStreamInMappedFile(file);
 
         this.start_of_waveform_data_packet_record = start_of_waveform_data_packet_record;
         this.wave_packet_descr = wave_packet_descr;
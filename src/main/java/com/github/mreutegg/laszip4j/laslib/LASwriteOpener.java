@@ -12,6 +12,7 @@ package com.github.mreutegg.laszip4j.laslib;
 
 import java.io.File;
 import java.io.PrintStream;
+import java.util.concurrent.Executor;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
 import static com.github.mreutegg.laszip4j.clib.Cstdlib.atof;
@@ -55,6 +56,7 @@ public class LASwriteOpener {
     private boolean use_stdout;
     private boolean use_nil;
     private boolean buffered;
+    private Executor executor;
 
     public boolean is_piped()
     {
@@ -66,7 +68,8 @@ public class LASwriteOpener {
         if (use_nil)
         {
             LASwriterLAS laswriterlas = new LASwriterLAS();
-            if (!laswriterlas.open(header, (format == LAS_TOOLS_FORMAT_LAZ ? LASZIP_COMPRESSOR_CHUNKED : LASZIP_COMPRESSOR_NONE), 2, chunk_size))
+            laswriterlas.set_executor(executor);
+            if (!laswriterlas.open(header, (format == LAS_TOOLS_FORMAT_LAZ ? (ntive ? LASZIP_COMPRESSOR_LAYERED_CHUNKED : LASZIP_COMPRESSOR_CHUNKED) : LASZIP_COMPRESSOR_NONE), 2, chunk_size))
             {
                 fprintf(stderr,"ERROR: cannot open laswriterlas to NULL\n");
                 return null;
@@ -78,6 +81,7 @@ public class LASwriteOpener {
             if (format <= LAS_TOOLS_FORMAT_LAZ)
             {
                 LASwriterLAS laswriterlas = new LASwriterLAS();
+                laswriterlas.set_executor(executor);
                 if (!laswriterlas.open(file_name, header, (format == LAS_TOOLS_FORMAT_LAZ ? (ntive ? LASZIP_COMPRESSOR_LAYERED_CHUNKED : LASZIP_COMPRESSOR_CHUNKED) : LASZIP_COMPRESSOR_NONE), 2, chunk_size, io_obuffer_size))
                 {
                     fprintf(stderr,"ERROR: cannot open laswriterlas with file name '%s'\n", file_name);
@@ -139,7 +143,8 @@ public class LASwriteOpener {
             if (format <= LAS_TOOLS_FORMAT_LAZ)
             {
                 LASwriterLAS laswriterlas = new LASwriterLAS();
-                if (!laswriterlas.open(stdout, header, (format == LAS_TOOLS_FORMAT_LAZ ? LASZIP_COMPRESSOR_CHUNKED : LASZIP_COMPRESSOR_NONE), 2, chunk_size))
+                laswriterlas.set_executor(executor);
+                if (!laswriterlas.open(stdout, header, (format == LAS_TOOLS_FORMAT_LAZ ? (ntive ? LASZIP_COMPRESSOR_LAYERED_CHUNKED : LASZIP_COMPRESSOR_CHUNKED) : LASZIP_COMPRESSOR_NONE), 2, chunk_size))
                 {
                     fprintf(stderr,"ERROR: cannot open laswriterlas to stdout\n");
                     return null;
@@ -617,6 +622,11 @@ public class LASwriteOpener {
         this.force = force;
     }
 
+    public void set_executor(Executor executor)
+    {
+        this.executor = executor;
+    }
+
     void set_chunk_size(int chunk_size)
     {
         this.chunk_size = chunk_size;
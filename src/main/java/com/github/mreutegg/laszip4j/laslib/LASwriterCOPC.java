@@ -0,0 +1,712 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInArray;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutArray;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutFile;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASreadPoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.clib.Cstring.strcmp;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+/**
+ * Writes a COPC (cloud optimized point cloud) file. The points are sorted
+ * into an octree and every node with points is written as a variable sized
+ * chunk of a LAZ file, followed by a hierarchy EVLR with all nodes. A node
+ * keeps one point per cell of its sampling grid and passes the other points
+ * on to its children until a node has no more than the maximum number of
+ * points.
+ * <p>
+ * The upper levels of the octree are sampled while points are written. The
+ * remaining points are buffered per node of the bucket level and spilled to
+ * temporary files when more than the maximum number of points are in memory.
+ * The buckets are written one by one on {@link #close()}. A bucket with more
+ * than the maximum number of points in memory is not loaded but streamed
+ * from its temporary file, sampled and split into buckets for its children.
+ */
+public class LASwriterCOPC extends LASwriter {
+
+    private static final PrintStream stderr = System.err;
+
+    // cells per axis of the sampling grid of a node
+    private static final int GRID_SIZE = 128;
+
+    // a node on the deepest level keeps all its points
+    private static final int MAX_LEVEL = 24;
+
+    // limits the number of temporary files to 8^3
+    private static final int MAX_BUCKET_LEVEL = 3;
+
+    // offset of start_of_first_extended_variable_length_record in a LAS 1.4 header
+    private static final int HEADER_OFFSET_START_OF_FIRST_EVLR = 235;
+
+    // size of the header of a variable length record
+    private static final int VLR_HEADER_SIZE = 54;
+
+    // size of the header of an extended variable length record
+    private static final int EVLR_HEADER_SIZE = 60;
+
+    private int max_points_per_node = 100000;
+    private long max_points_in_memory = 10000000;
+    private File temp_dir;
+
+    private String file_name;
+    private LASheader header;
+    private LASpoint point;
+    private LASwritePoint serializer;
+    private int record_length;
+
+    // the cube of the octree root
+    private double min_x, min_y, min_z, size;
+    private double gpstime_minimum, gpstime_maximum;
+
+    private int bucket_level;
+    private final Map<COPCindex.Key, Node> nodes = new LinkedHashMap<>();
+    private final Map<COPCindex.Key, Node> buckets = new LinkedHashMap<>();
+    private final List<File> temp_files = new ArrayList<>();
+    private long points_in_memory;
+
+    // occupied cells of the node sampled on close
+    private final BitSet cells = new BitSet(GRID_SIZE * GRID_SIZE * GRID_SIZE);
+
+    public void set_max_points_per_node(int max_points_per_node)
+    {
+        this.max_points_per_node = max_points_per_node;
+    }
+
+    public void set_max_points_in_memory(long max_points_in_memory)
+    {
+        this.max_points_in_memory = max_points_in_memory;
+    }
+
+    // directory for temporary files, null for the default temporary directory
+    public void set_temp_dir(File temp_dir)
+    {
+        this.temp_dir = temp_dir;
+    }
+
+    public boolean open(String file_name, LASheader header)
+    {
+        if (header.point_data_format < 6 || header.point_data_format > 8)
+        {
+            fprintf(stderr, "ERROR: COPC requires point type 6, 7 or 8 but point type is %d\n", header.point_data_format);
+            return FALSE;
+        }
+        if (!header.check()) return FALSE;
+        this.file_name = file_name;
+        this.header = header;
+
+        quantizer.x_scale_factor = header.x_scale_factor;
+        quantizer.y_scale_factor = header.y_scale_factor;
+        quantizer.z_scale_factor = header.z_scale_factor;
+        quantizer.x_offset = header.x_offset;
+        quantizer.y_offset = header.y_offset;
+        quantizer.z_offset = header.z_offset;
+
+        // buffered points are stored as uncompressed point records
+        point = new LASpoint();
+        if (!point.init(quantizer, header.point_data_format, header.point_data_record_length, header)) return FALSE;
+        serializer = new LASwritePoint();
+        if (!serializer.setup(point.num_items, point.items))
+        {
+            fprintf(stderr, "ERROR: point type %d of size %d not supported\n", header.point_data_format, header.point_data_record_length);
+            return FALSE;
+        }
+        record_length = header.point_data_record_length;
+
+        // a cube around the bounding box, padded by a scale factor
+        size = Math.max(Math.max(header.max_x - header.min_x, header.max_y - header.min_y), header.max_z - header.min_z);
+        size += 2 * Math.max(Math.max(header.x_scale_factor, header.y_scale_factor), header.z_scale_factor);
+        min_x = (header.min_x + header.max_x - size) / 2;
+        min_y = (header.min_y + header.max_y - size) / 2;
+        min_z = (header.min_z + header.max_z - size) / 2;
+
+        // enough buckets to hold evenly spread points in memory
+        long number_of_points = header.extended_number_of_point_records;
+        if (number_of_points == 0) number_of_points = Integer.toUnsignedLong(header.number_of_point_records);
+        bucket_level = 0;
+        while (bucket_level < MAX_BUCKET_LEVEL && (number_of_points >> (3 * bucket_level)) > max_points_in_memory)
+        {
+            bucket_level++;
+        }
+
+        gpstime_minimum = Double.MAX_VALUE;
+        gpstime_maximum = -Double.MAX_VALUE;
+        nodes.clear();
+        buckets.clear();
+        temp_files.clear();
+        points_in_memory = 0;
+        npoints = 0;
+        p_count = 0;
+        return TRUE;
+    }
+
+    @Override
+    public boolean write_point(LASpoint point)
+    {
+        double x = header.get_x(point.get_X());
+        double y = header.get_y(point.get_Y());
+        double z = header.get_z(point.get_Z());
+        double gps_time = point.get_gps_time();
+        if (gps_time < gpstime_minimum) gpstime_minimum = gps_time;
+        if (gps_time > gpstime_maximum) gpstime_maximum = gps_time;
+        p_count++;
+
+        int level = 0, nx = 0, ny = 0, nz = 0;
+        while (level < bucket_level)
+        {
+            Node node = nodes.computeIfAbsent(new COPCindex.Key(level, nx, ny, nz),
+                    k -> new Node(new BitSet(GRID_SIZE * GRID_SIZE * GRID_SIZE)));
+            int cx = cell(x, min_x, level, nx);
+            int cy = cell(y, min_y, level, ny);
+            int cz = cell(z, min_z, level, nz);
+            int c = cell_index(cx, cy, cz);
+            if (!node.cells.get(c))
+            {
+                node.cells.set(c);
+                return store(node, point);
+            }
+            nx = (nx << 1) | (cx >= GRID_SIZE / 2 ? 1 : 0);
+            ny = (ny << 1) | (cy >= GRID_SIZE / 2 ? 1 : 0);
+            nz = (nz << 1) | (cz >= GRID_SIZE / 2 ? 1 : 0);
+            level++;
+        }
+        Node bucket = buckets.computeIfAbsent(new COPCindex.Key(level, nx, ny, nz), k -> new Node(null));
+        if (!store(bucket, point)) return FALSE;
+        if (++points_in_memory > max_points_in_memory)
+        {
+            points_in_memory = 0;
+            return spill(buckets.values());
+        }
+        return TRUE;
+    }
+
+    // the chunks of a COPC file are the nodes of the octree
+    @Override
+    public boolean chunk()
+    {
+        return FALSE;
+    }
+
+    // the header is updated with the inventory of the points on close
+    @Override
+    public boolean update_header(LASheader header, boolean use_inventory, boolean update_extra_bytes)
+    {
+        return TRUE;
+    }
+
+    @Override
+    public long close(boolean update_npoints)
+    {
+        long bytes = 0;
+        try
+        {
+            bytes = write_copc();
+        }
+        finally
+        {
+            for (File temp_file : temp_files)
+            {
+                delete(temp_file);
+            }
+            nodes.clear();
+            buckets.clear();
+            temp_files.clear();
+        }
+        npoints = p_count;
+        p_count = 0;
+        return bytes;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private long write_copc()
+    {
+        // the COPC info must be the first VLR
+        while (header.remove_vlr("copc", 1));
+        header.add_vlr("copc", (char) 1, (char) LASvlr_copc_info.SIZE, new byte[LASvlr_copc_info.SIZE]);
+        int n = header.number_of_variable_length_records;
+        LASvlr copc_vlr = header.vlrs[n - 1];
+        System.arraycopy(header.vlrs, 0, header.vlrs, 1, n - 1);
+        header.vlrs[0] = copc_vlr;
+        header.clean_user_data_in_header();
+        // the hierarchy is known once all nodes are written
+        header.add_evlr("copc", (char) 1000, 0, null);
+
+        List<LASvlr_copc_entry> entries = new ArrayList<>();
+        RandomAccessFile file;
+        try
+        {
+            file = new RandomAccessFile(file_name, "rw");
+            file.setLength(0);
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: cannot open file '%s' for write\n", file_name);
+            return 0;
+        }
+        ByteStreamOutFile stream = new ByteStreamOutFile(file);
+        LASwriterLAS laswriter = new LASwriterLAS();
+        if (!laswriter.open(stream, header, LASZIP_COMPRESSOR_LAYERED_CHUNKED, 0, 0))
+        {
+            fprintf(stderr, "ERROR: cannot open COPC file '%s'\n", file_name);
+            laswriter.close(false);
+            return 0;
+        }
+        laswriter.inventory = new LASinventory();
+
+        if (!write_nodes(laswriter, stream, entries))
+        {
+            laswriter.close(false);
+            return 0;
+        }
+
+        LASevlr hierarchy = null;
+        for (LASevlr evlr : header.evlrs)
+        {
+            if ((strcmp(evlr.user_id, "copc") == 0) && (evlr.record_id == 1000)) hierarchy = evlr;
+        }
+        ByteBuffer data = ByteBuffer.allocate(entries.size() * LASvlr_copc_entry.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (LASvlr_copc_entry entry : entries)
+        {
+            entry.writeTo(data);
+        }
+        hierarchy.data = data.array();
+        hierarchy.record_length_after_header = hierarchy.data.length;
+
+        laswriter.update_header(header, TRUE);
+        laswriter.close();
+
+        LASvlr_copc_info info = new LASvlr_copc_info();
+        info.halfsize = size / 2;
+        info.center_x = min_x + info.halfsize;
+        info.center_y = min_y + info.halfsize;
+        info.center_z = min_z + info.halfsize;
+        info.spacing = size / GRID_SIZE;
+        info.root_hier_size = hierarchy.record_length_after_header;
+        info.gpstime_minimum = (entries.isEmpty() ? 0 : gpstime_minimum);
+        info.gpstime_maximum = (entries.isEmpty() ? 0 : gpstime_maximum);
+        try (RandomAccessFile f = new RandomAccessFile(file_name, "rw"))
+        {
+            // the EVLRs are written on close, find the hierarchy data
+            f.seek(HEADER_OFFSET_START_OF_FIRST_EVLR);
+            long offset = Long.reverseBytes(f.readLong());
+            for (LASevlr evlr : header.evlrs)
+            {
+                if (evlr == hierarchy) break;
+                offset += EVLR_HEADER_SIZE + evlr.record_length_after_header;
+            }
+            info.root_hier_offset = offset + EVLR_HEADER_SIZE;
+            ByteBuffer info_data = ByteBuffer.allocate(LASvlr_copc_info.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            info.writeTo(info_data);
+            copc_vlr.data = info_data.array();
+            header.vlr_copc_info = info;
+            // the COPC info is the data of the first VLR
+            f.seek(header.header_size + VLR_HEADER_SIZE);
+            f.write(copc_vlr.data);
+            return f.length();
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: writing COPC info to '%s'\n", file_name);
+            return 0;
+        }
+    }
+
+    private boolean write_nodes(LASwriterLAS laswriter, ByteStreamOutFile stream, List<LASvlr_copc_entry> entries)
+    {
+        for (Map.Entry<COPCindex.Key, Node> e : nodes.entrySet())
+        {
+            byte[] data = e.getValue().data.takeData().array();
+            if (!write_node(laswriter, stream, e.getKey(), data, all(e.getValue()), (int) e.getValue().count, entries)) return FALSE;
+        }
+        for (Map.Entry<COPCindex.Key, Node> e : buckets.entrySet())
+        {
+            if (!write_bucket(laswriter, stream, e.getKey(), e.getValue(), entries)) return FALSE;
+        }
+        return TRUE;
+    }
+
+    // writes the node of a bucket and its children
+    private boolean write_bucket(LASwriterLAS laswriter, ByteStreamOutFile stream, COPCindex.Key key,
+                                 Node bucket, List<LASvlr_copc_entry> entries)
+    {
+        boolean success;
+        if (bucket.count <= Math.min(max_points_in_memory, Integer.MAX_VALUE / record_length))
+        {
+            byte[] data = load(bucket);
+            success = (data != null && build(laswriter, stream, key, data, all(bucket), (int) bucket.count, entries));
+        }
+        else if (bucket.count <= max_points_per_node || key.level >= MAX_LEVEL)
+        {
+            success = stream_node(laswriter, stream, key, bucket, entries);
+        }
+        else
+        {
+            success = split(laswriter, stream, key, bucket, entries);
+        }
+        if (bucket.file != null)
+        {
+            delete(bucket.file);
+            bucket.file = null;
+        }
+        return success;
+    }
+
+    // writes a sample of the points of a bucket too large to load and passes
+    // the other points on to buckets for the children
+    private boolean split(LASwriterLAS laswriter, ByteStreamOutFile stream, COPCindex.Key key,
+                          Node bucket, List<LASvlr_copc_entry> entries)
+    {
+        Node sample = new Node(null);
+        Node[] children = new Node[8];
+        List<Node> in_memory = new ArrayList<>();
+        byte[] record = new byte[record_length];
+        ByteBuffer bb = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        int[] octant = new int[1];
+        long[] buffered = new long[1];
+        cells.clear();
+        boolean success = for_each_record(bucket, record, () -> {
+            Node node;
+            if (sample(key, bb, 0, octant))
+            {
+                node = sample;
+            }
+            else
+            {
+                if (children[octant[0]] == null)
+                {
+                    children[octant[0]] = new Node(null);
+                    in_memory.add(children[octant[0]]);
+                }
+                node = children[octant[0]];
+                if (++buffered[0] > max_points_in_memory)
+                {
+                    buffered[0] = 0;
+                    if (!spill(in_memory)) return FALSE;
+                }
+            }
+            if (!node.data.putBytes(record, 0, record_length)) return FALSE;
+            node.count++;
+            return TRUE;
+        });
+        if (!success) return FALSE;
+        if (bucket.file != null)
+        {
+            delete(bucket.file);
+            bucket.file = null;
+        }
+        // only one child is loaded at a time
+        if (!spill(in_memory)) return FALSE;
+        byte[] data = sample.data.takeData().array();
+        if (!write_node(laswriter, stream, key, data, all(sample), (int) sample.count, entries)) return FALSE;
+        int i;
+        for (i = 0; i < 8; i++)
+        {
+            if (children[i] == null) continue;
+            COPCindex.Key child_key = new COPCindex.Key(key.level + 1,
+                    (key.x << 1) | (i & 1), (key.y << 1) | ((i >> 1) & 1), (key.z << 1) | ((i >> 2) & 1));
+            if (!write_bucket(laswriter, stream, child_key, children[i], entries)) return FALSE;
+        }
+        return TRUE;
+    }
+
+    // writes all points of a bucket too large to load as one chunk
+    private boolean stream_node(LASwriterLAS laswriter, ByteStreamOutFile stream, COPCindex.Key key,
+                                Node bucket, List<LASvlr_copc_entry> entries)
+    {
+        LASreadPoint deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+        if (!deserializer.setup(point.num_items, point.items)) return FALSE;
+        byte[] record = new byte[record_length];
+        ByteStreamInArray in = new ByteStreamInArray(record, record_length);
+        if (!deserializer.init(in)) return FALSE;
+        LASvlr_copc_entry entry = new LASvlr_copc_entry(key.level, key.x, key.y, key.z);
+        entry.offset = stream.tell();
+        long count = bucket.count;
+        boolean success = for_each_record(bucket, record, () -> {
+            in.seek(0);
+            if (!deserializer.read(point.PointRecords)) return FALSE;
+            if (!laswriter.write_point(point)) return FALSE;
+            laswriter.update_inventory(point);
+            return TRUE;
+        });
+        if (!success || !laswriter.chunk()) return FALSE;
+        entry.byte_size = (int) (stream.tell() - entry.offset);
+        entry.point_count = (int) count;
+        entries.add(entry);
+        return TRUE;
+    }
+
+    // writes the node with a sample of the points and the other points to the children
+    private boolean build(LASwriterLAS laswriter, ByteStreamOutFile stream, COPCindex.Key key,
+                          byte[] data, int[] indexes, int count, List<LASvlr_copc_entry> entries)
+    {
+        if (count <= max_points_per_node || key.level >= MAX_LEVEL)
+        {
+            return write_node(laswriter, stream, key, data, indexes, count, entries);
+        }
+        ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        cells.clear();
+        int[] sample = new int[count];
+        int[] octant = new int[1];
+        int num_sample = 0;
+        int[] others = new int[count];
+        byte[] octants = new byte[count];
+        int num_others = 0;
+        int[] octant_counts = new int[8];
+        int i;
+        for (i = 0; i < count; i++)
+        {
+            if (sample(key, bb, indexes[i] * record_length, octant))
+            {
+                sample[num_sample++] = indexes[i];
+            }
+            else
+            {
+                others[num_others] = indexes[i];
+                octants[num_others++] = (byte) octant[0];
+                octant_counts[octant[0]]++;
+            }
+        }
+        if (!write_node(laswriter, stream, key, data, sample, num_sample, entries)) return FALSE;
+        int o;
+        for (o = 0; o < 8; o++)
+        {
+            if (octant_counts[o] == 0) continue;
+            int[] child = new int[octant_counts[o]];
+            int num_child = 0;
+            for (i = 0; i < num_others; i++)
+            {
+                if (octants[i] == o) child[num_child++] = others[i];
+            }
+            COPCindex.Key child_key = new COPCindex.Key(key.level + 1,
+                    (key.x << 1) | (o & 1), (key.y << 1) | ((o >> 1) & 1), (key.z << 1) | ((o >> 2) & 1));
+            if (!build(laswriter, stream, child_key, data, child, num_child, entries)) return FALSE;
+        }
+        return TRUE;
+    }
+
+    // occupies the cell of the point record at the given offset in the sampling
+    // grid of the node, or returns the octant of the child for the point
+    private boolean sample(COPCindex.Key key, ByteBuffer bb, int offset, int[] octant)
+    {
+        int cx = cell(header.get_x(bb.getInt(offset)), min_x, key.level, key.x);
+        int cy = cell(header.get_y(bb.getInt(offset + 4)), min_y, key.level, key.y);
+        int cz = cell(header.get_z(bb.getInt(offset + 8)), min_z, key.level, key.z);
+        int c = cell_index(cx, cy, cz);
+        if (!cells.get(c))
+        {
+            cells.set(c);
+            return TRUE;
+        }
+        octant[0] = (cx >= GRID_SIZE / 2 ? 1 : 0) | (cy >= GRID_SIZE / 2 ? 2 : 0) | (cz >= GRID_SIZE / 2 ? 4 : 0);
+        return FALSE;
+    }
+
+    // writes the points of a node as one chunk
+    private boolean write_node(LASwriterLAS laswriter, ByteStreamOutFile stream, COPCindex.Key key,
+                               byte[] data, int[] indexes, int count, List<LASvlr_copc_entry> entries)
+    {
+        LASreadPoint deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+        if (!deserializer.setup(point.num_items, point.items)) return FALSE;
+        ByteStreamInArray in = new ByteStreamInArray(data, data.length);
+        if (!deserializer.init(in)) return FALSE;
+        LASvlr_copc_entry entry = new LASvlr_copc_entry(key.level, key.x, key.y, key.z);
+        entry.offset = stream.tell();
+        int i;
+        for (i = 0; i < count; i++)
+        {
+            in.seek((long) indexes[i] * record_length);
+            if (!deserializer.read(point.PointRecords)) return FALSE;
+            if (!laswriter.write_point(point)) return FALSE;
+            laswriter.update_inventory(point);
+        }
+        if (!laswriter.chunk()) return FALSE;
+        entry.byte_size = (int) (stream.tell() - entry.offset);
+        entry.point_count = count;
+        entries.add(entry);
+        return TRUE;
+    }
+
+    private boolean store(Node node, LASpoint point)
+    {
+        if (!serializer.init(node.data)) return FALSE;
+        if (!serializer.write(point.PointRecords)) return FALSE;
+        node.count++;
+        return TRUE;
+    }
+
+    // appends the buffered points of the buckets to their temporary files
+    private boolean spill(Collection<Node> buckets)
+    {
+        for (Node bucket : buckets)
+        {
+            if (bucket.data.tell() == 0) continue;
+            try
+            {
+                if (bucket.file == null)
+                {
+                    bucket.file = File.createTempFile("laszip4j-copc-", ".tmp", temp_dir);
+                    temp_files.add(bucket.file);
+                }
+                ByteBuffer data = bucket.data.takeData();
+                try (FileOutputStream out = new FileOutputStream(bucket.file, true))
+                {
+                    out.write(data.array(), 0, data.position());
+                }
+            }
+            catch (IOException e)
+            {
+                fprintf(stderr, "ERROR: cannot write temporary file: %s\n", e.getMessage());
+                return FALSE;
+            }
+        }
+        return TRUE;
+    }
+
+    // calls the handler with every point record of a bucket read into the
+    // given record, the spilled points first
+    private boolean for_each_record(Node bucket, byte[] record, RecordHandler handler)
+    {
+        if (bucket.file != null)
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(bucket.file), 65536)))
+            {
+                long n = bucket.file.length() / record_length;
+                long i;
+                for (i = 0; i < n; i++)
+                {
+                    in.readFully(record);
+                    if (!handler.handle()) return FALSE;
+                }
+            }
+            catch (IOException e)
+            {
+                fprintf(stderr, "ERROR: cannot read temporary file '%s'\n", bucket.file.getPath());
+                return FALSE;
+            }
+        }
+        ByteBuffer buffered = bucket.data.takeData();
+        int offset;
+        for (offset = 0; offset < buffered.position(); offset += record_length)
+        {
+            System.arraycopy(buffered.array(), offset, record, 0, record_length);
+            if (!handler.handle()) return FALSE;
+        }
+        return TRUE;
+    }
+
+    private static void delete(File temp_file)
+    {
+        if (temp_file.exists() && !temp_file.delete())
+        {
+            fprintf(stderr, "WARNING: cannot delete temporary file '%s'\n", temp_file.getPath());
+        }
+    }
+
+    // returns the spilled and buffered points of a bucket
+    private byte[] load(Node bucket)
+    {
+        ByteBuffer buffered = bucket.data.takeData();
+        if (bucket.file == null)
+        {
+            return buffered.array();
+        }
+        try
+        {
+            byte[] spilled = Files.readAllBytes(bucket.file.toPath());
+            byte[] data = new byte[spilled.length + buffered.position()];
+            System.arraycopy(spilled, 0, data, 0, spilled.length);
+            System.arraycopy(buffered.array(), 0, data, spilled.length, buffered.position());
+            return data;
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: cannot read temporary file '%s'\n", bucket.file.getPath());
+            return null;
+        }
+    }
+
+    private static int[] all(Node node)
+    {
+        int[] indexes = new int[(int) node.count];
+        int i;
+        for (i = 0; i < indexes.length; i++) indexes[i] = i;
+        return indexes;
+    }
+
+    // the cell of the sampling grid of node n on the given level
+    private int cell(double v, double min, int level, int n)
+    {
+        double node_size = Math.scalb(size, -level);
+        int c = (int) Math.floor((v - min - node_size * n) / node_size * GRID_SIZE);
+        return (c < 0 ? 0 : (c >= GRID_SIZE ? GRID_SIZE - 1 : c));
+    }
+
+    private static int cell_index(int cx, int cy, int cz)
+    {
+        return (cx * GRID_SIZE + cy) * GRID_SIZE + cz;
+    }
+
+    private interface RecordHandler {
+
+        boolean handle();
+    }
+
+    private static final class Node {
+
+        // occupied cells of the sampling grid, null for a bucket
+        final BitSet cells;
+
+        final ByteStreamOutArray data = new ByteStreamOutArray();
+
+        long count;
+
+        // temporary file with spilled points
+        File file;
+
+        Node(BitSet cells)
+        {
+            this.cells = cells;
+        }
+    }
+}
@@ -16,11 +16,13 @@ import com.github.mreutegg.laszip4j.laszip.ByteStreamOutFile;
 import com.github.mreutegg.laszip4j.laszip.ByteStreamOutOstream;
 import com.github.mreutegg.laszip4j.laszip.LASpoint;
 import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePointParallel;
 import com.github.mreutegg.laszip4j.laszip.LASzip;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.RandomAccessFile;
+import java.util.concurrent.Executor;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fclose;
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fopenRAF;
@@ -53,6 +55,8 @@ public class LASwriterLAS extends LASwriter {
     private long start_of_first_extended_variable_length_record;
     private int number_of_extended_variable_length_records;     // unsigned
     private LASevlr[] evlrs;
+    // for parallel compression of chunks
+    private Executor executor;
 
     public LASwriterLAS() {
         this.file = null;
@@ -67,6 +71,12 @@ public class LASwriterLAS extends LASwriter {
         this.evlrs = null;
     }
 
+    // compress the chunks of a chunked LAZ file in parallel with tasks
+    // submitted to executor. must be called before open()
+    public void set_executor(Executor executor) {
+        this.executor = executor;
+    }
+
     @Override
     public boolean write_point(LASpoint point) {
         p_count++;
@@ -639,7 +649,7 @@ public class LASwriterLAS extends LASwriter {
 
         // create and setup the point writer
 
-        writer = new LASwritePoint();
+        writer = (executor != null ? new LASwritePointParallel(executor) : new LASwritePoint());
         if (laszip != null)
         {
             if (!writer.setup(laszip.num_items, laszip.items, laszip))
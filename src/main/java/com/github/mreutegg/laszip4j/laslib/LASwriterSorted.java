@@ -0,0 +1,552 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.ByteStreamInArray;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutArray;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import com.github.mreutegg.laszip4j.laszip.LASreadPoint;
+import com.github.mreutegg.laszip4j.laszip.LASwritePoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.laslib.LasDefinitions.LAS_TOOLS_IO_OBUFFER_SIZE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_CHUNKED;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+/**
+ * Writes a LAZ file with the points sorted along a space filling curve. The
+ * sort key is the Morton or Hilbert index of the integer X and Y coordinates
+ * relative to the minimum of the bounding box in the header, optionally
+ * followed by the GPS time. Points with the same key keep their order.
+ * <p>
+ * Points are buffered as uncompressed point records. When more than the
+ * maximum number of points are in memory, the buffered points are sorted and
+ * spilled to a temporary file. The sorted runs are merged on
+ * {@link #close()}. With point types 6 or higher the chunks have a variable
+ * size and end at the coarsest quadtree cell boundary within the last half
+ * of the maximum chunk size. Older point types use a fixed chunk size.
+ */
+public class LASwriterSorted extends LASwriter {
+
+    private static final PrintStream stderr = System.err;
+
+    public static final int MORTON = 0;
+    public static final int HILBERT = 1;
+
+    private int curve = HILBERT;
+    private boolean gps_time_tiebreak = FALSE;
+    private int chunk_size = 50000;
+    private long max_points_in_memory = 10000000;
+    private File temp_dir;
+
+    private String file_name;
+    private LASheader header;
+    private LASpoint point;
+    private LASwritePoint serializer;
+    private int record_length;
+    private boolean tiebreak;
+
+    // origin of the sort keys
+    private int min_X, min_Y;
+
+    // points buffered in memory
+    private ByteStreamOutArray data;
+    private long[] keys;
+    private double[] gps_times;
+    private int count;
+
+    // sorted runs in temporary files
+    private final List<File> runs = new ArrayList<>();
+
+    public void set_curve(int curve)
+    {
+        this.curve = curve;
+    }
+
+    public void set_gps_time_tiebreak(boolean gps_time_tiebreak)
+    {
+        this.gps_time_tiebreak = gps_time_tiebreak;
+    }
+
+    // the maximum number of points in a chunk
+    public void set_chunk_size(int chunk_size)
+    {
+        this.chunk_size = chunk_size;
+    }
+
+    public void set_max_points_in_memory(long max_points_in_memory)
+    {
+        this.max_points_in_memory = max_points_in_memory;
+    }
+
+    // directory for temporary files, null for the default temporary directory
+    public void set_temp_dir(File temp_dir)
+    {
+        this.temp_dir = temp_dir;
+    }
+
+    public boolean open(String file_name, LASheader header)
+    {
+        if (!header.check()) return FALSE;
+        this.file_name = file_name;
+        this.header = header;
+
+        quantizer.x_scale_factor = header.x_scale_factor;
+        quantizer.y_scale_factor = header.y_scale_factor;
+        quantizer.z_scale_factor = header.z_scale_factor;
+        quantizer.x_offset = header.x_offset;
+        quantizer.y_offset = header.y_offset;
+        quantizer.z_offset = header.z_offset;
+
+        // buffered points are stored as uncompressed point records
+        point = new LASpoint();
+        if (!point.init(quantizer, header.point_data_format, header.point_data_record_length, header)) return FALSE;
+        serializer = new LASwritePoint();
+        if (!serializer.setup(point.num_items, point.items))
+        {
+            fprintf(stderr, "ERROR: point type %d of size %d not supported\n", header.point_data_format, header.point_data_record_length);
+            return FALSE;
+        }
+        record_length = header.point_data_record_length;
+        tiebreak = gps_time_tiebreak && point.haveGpsTime();
+
+        min_X = header.get_X(header.min_x);
+        min_Y = header.get_Y(header.min_y);
+
+        data = new ByteStreamOutArray();
+        if (!serializer.init(data)) return FALSE;
+        keys = new long[(int) Math.min(max_points_in_memory, 1024)];
+        gps_times = (tiebreak ? new double[keys.length] : null);
+        count = 0;
+        runs.clear();
+        npoints = 0;
+        p_count = 0;
+        return TRUE;
+    }
+
+    @Override
+    public boolean write_point(LASpoint point)
+    {
+        if (count == keys.length)
+        {
+            int n = (int) Math.min(Math.min(max_points_in_memory, 2L * count), Integer.MAX_VALUE - 8);
+            keys = Arrays.copyOf(keys, n);
+            if (tiebreak) gps_times = Arrays.copyOf(gps_times, n);
+        }
+        keys[count] = get_key(point.get_X(), point.get_Y());
+        if (tiebreak) gps_times[count] = point.get_gps_time();
+        if (!serializer.write(point.PointRecords)) return FALSE;
+        count++;
+        p_count++;
+        // the records of a run must fit into an array
+        if (count >= max_points_in_memory || count == Integer.MAX_VALUE - 8 || data.tell() > Integer.MAX_VALUE - 8 - record_length)
+        {
+            return spill();
+        }
+        return TRUE;
+    }
+
+    // the chunks follow the sort order
+    @Override
+    public boolean chunk()
+    {
+        return FALSE;
+    }
+
+    // the header is updated with the inventory of the points on close
+    @Override
+    public boolean update_header(LASheader header, boolean use_inventory, boolean update_extra_bytes)
+    {
+        return TRUE;
+    }
+
+    @Override
+    public long close(boolean update_npoints)
+    {
+        long bytes = 0;
+        try
+        {
+            bytes = write_sorted();
+        }
+        finally
+        {
+            for (File run : runs)
+            {
+                if (!run.delete())
+                {
+                    fprintf(stderr, "WARNING: cannot delete temporary file '%s'\n", run.getPath());
+                }
+            }
+            runs.clear();
+            data = null;
+            keys = null;
+            gps_times = null;
+        }
+        npoints = p_count;
+        p_count = 0;
+        return bytes;
+    }
+
+    // the index of (x, y) on the Morton curve, in unsigned order
+    public static long morton(long x, long y)
+    {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    // the index of (x, y) on the Hilbert curve, in unsigned order
+    public static long hilbert(long x, long y)
+    {
+        long d = 0;
+        long s;
+        for (s = 1L << 31; s > 0; s >>>= 1)
+        {
+            int rx = ((x & s) != 0 ? 1 : 0);
+            int ry = ((y & s) != 0 ? 1 : 0);
+            d += s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant, only the lower bits are used from here on
+            if (ry == 0)
+            {
+                if (rx == 1)
+                {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                long t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private long get_key(int X, int Y)
+    {
+        long x = clamp((long) X - min_X);
+        long y = clamp((long) Y - min_Y);
+        return (curve == MORTON ? morton(x, y) : hilbert(x, y));
+    }
+
+    private static long clamp(long v)
+    {
+        return (v < 0 ? 0 : Math.min(v, 0xFFFFFFFFL));
+    }
+
+    private static long spread(long v)
+    {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    private int compare(long key1, double gps_time1, long key2, double gps_time2)
+    {
+        int c = Long.compareUnsigned(key1, key2);
+        if (c == 0 && tiebreak) c = Double.compare(gps_time1, gps_time2);
+        return c;
+    }
+
+    // stable merge sort of the buffered points
+    private int[] sort()
+    {
+        int[] order = new int[count];
+        int[] temp = new int[count];
+        int i;
+        for (i = 0; i < count; i++) order[i] = i;
+        int width;
+        for (width = 1; width < count; width *= 2)
+        {
+            int lo;
+            for (lo = 0; lo < count - width; lo += 2 * width)
+            {
+                int mid = lo + width;
+                int hi = (int) Math.min((long) lo + 2 * width, count);
+                int a = lo, b = mid, k = lo;
+                while (a < mid && b < hi)
+                {
+                    int p = order[a], q = order[b];
+                    if (compare(keys[q], (tiebreak ? gps_times[q] : 0), keys[p], (tiebreak ? gps_times[p] : 0)) < 0) temp[k++] = order[b++];
+                    else temp[k++] = order[a++];
+                }
+                while (a < mid) temp[k++] = order[a++];
+                while (b < hi) temp[k++] = order[b++];
+                System.arraycopy(temp, lo, order, lo, hi - lo);
+            }
+        }
+        return order;
+    }
+
+    // sorts the buffered points and writes them to a temporary file
+    private boolean spill()
+    {
+        if (count == 0) return TRUE;
+        int[] order = sort();
+        byte[] records = data.takeData().array();
+        try
+        {
+            File run = File.createTempFile("laszip4j-sort-", ".tmp", temp_dir);
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16)))
+            {
+                for (int i : order)
+                {
+                    out.writeLong(keys[i]);
+                    if (tiebreak) out.writeDouble(gps_times[i]);
+                    out.write(records, i * record_length, record_length);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: cannot write temporary file: %s\n", e.getMessage());
+            return FALSE;
+        }
+        count = 0;
+        return TRUE;
+    }
+
+    private long write_sorted()
+    {
+        boolean variable = (header.point_data_format > 5);
+        LASwriterLAS laswriter = new LASwriterLAS();
+        if (!laswriter.open(file_name, header, (variable ? LASZIP_COMPRESSOR_LAYERED_CHUNKED : LASZIP_COMPRESSOR_CHUNKED), 2, (variable ? 0 : chunk_size), LAS_TOOLS_IO_OBUFFER_SIZE))
+        {
+            fprintf(stderr, "ERROR: cannot open file '%s' for write\n", file_name);
+            return 0;
+        }
+        laswriter.inventory = new LASinventory();
+        Output output = new Output(laswriter, variable);
+        boolean success;
+        if (!output.init())
+        {
+            success = FALSE;
+        }
+        else if (runs.isEmpty())
+        {
+            success = write_buffered(output);
+        }
+        else
+        {
+            success = spill() && write_runs(output);
+        }
+        if (!success || !output.done())
+        {
+            laswriter.close(false);
+            return 0;
+        }
+        laswriter.update_header(header, TRUE);
+        return laswriter.close();
+    }
+
+    private boolean write_buffered(Output output)
+    {
+        int[] order = sort();
+        ByteBuffer buffered = data.takeData();
+        byte[] records = buffered.array();
+        for (int i : order)
+        {
+            if (!output.add(keys[i], records, i * record_length)) return FALSE;
+        }
+        return TRUE;
+    }
+
+    // merges the sorted runs, points with the same key are taken from earlier runs first
+    private boolean write_runs(Output output)
+    {
+        PriorityQueue<Run> queue = new PriorityQueue<>((r1, r2) -> {
+            int c = compare(r1.key, r1.gps_time, r2.key, r2.gps_time);
+            return (c != 0 ? c : Integer.compare(r1.index, r2.index));
+        });
+        try
+        {
+            for (File file : runs)
+            {
+                Run run = new Run(file, queue.size());
+                if (run.next()) queue.add(run);
+                else run.in.close();
+            }
+            Run run;
+            while ((run = queue.poll()) != null)
+            {
+                if (!output.add(run.key, run.record, 0)) return FALSE;
+                if (run.next()) queue.add(run);
+                else run.in.close();
+            }
+            return TRUE;
+        }
+        catch (IOException e)
+        {
+            fprintf(stderr, "ERROR: cannot read temporary file: %s\n", e.getMessage());
+            return FALSE;
+        }
+        finally
+        {
+            for (Run r : queue)
+            {
+                try
+                {
+                    r.in.close();
+                }
+                catch (IOException e)
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private final class Run {
+
+        final DataInputStream in;
+
+        final int index;
+
+        final byte[] record = new byte[record_length];
+
+        long key;
+
+        double gps_time;
+
+        Run(File file, int index) throws IOException
+        {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            this.index = index;
+        }
+
+        boolean next() throws IOException
+        {
+            try
+            {
+                key = in.readLong();
+            }
+            catch (EOFException e)
+            {
+                return FALSE;
+            }
+            if (tiebreak) gps_time = in.readDouble();
+            in.readFully(record);
+            return TRUE;
+        }
+    }
+
+    // writes the sorted points and ends variable sized chunks at cell boundaries
+    private final class Output {
+
+        final LASwriterLAS laswriter;
+
+        final boolean variable;
+
+        final LASreadPoint deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+
+        final ByteStreamInArray in;
+
+        // one more point than a chunk to see the boundary after a full chunk
+        final long[] chunk_keys;
+
+        final byte[] chunk_data;
+
+        int chunk_count;
+
+        Output(LASwriterLAS laswriter, boolean variable)
+        {
+            this.laswriter = laswriter;
+            this.variable = variable;
+            int capacity = (variable ? chunk_size + 1 : 1);
+            chunk_keys = new long[capacity];
+            chunk_data = new byte[capacity * record_length];
+            in = new ByteStreamInArray(chunk_data, chunk_data.length);
+        }
+
+        boolean init()
+        {
+            return deserializer.setup(point.num_items, point.items);
+        }
+
+        boolean add(long key, byte[] record, int offset)
+        {
+            chunk_keys[chunk_count] = key;
+            System.arraycopy(record, offset, chunk_data, chunk_count * record_length, record_length);
+            chunk_count++;
+            if (chunk_count < chunk_keys.length) return TRUE;
+            if (!variable) return write(1);
+            // end the chunk at the coarsest cell boundary in its last half
+            int end = chunk_size;
+            int level = Long.numberOfLeadingZeros(chunk_keys[end - 1] ^ chunk_keys[end]);
+            int i;
+            for (i = chunk_size - 1; i >= Math.max(1, chunk_size / 2); i--)
+            {
+                int l = Long.numberOfLeadingZeros(chunk_keys[i - 1] ^ chunk_keys[i]);
+                if (l < level)
+                {
+                    level = l;
+                    end = i;
+                }
+            }
+            if (!write(end) || !laswriter.chunk()) return FALSE;
+            System.arraycopy(chunk_keys, end, chunk_keys, 0, chunk_count);
+            System.arraycopy(chunk_data, end * record_length, chunk_data, 0, chunk_count * record_length);
+            return TRUE;
+        }
+
+        boolean done()
+        {
+            if (chunk_count == 0) return TRUE;
+            if (!write(chunk_count)) return FALSE;
+            return !variable || laswriter.chunk();
+        }
+
+        // writes the first n buffered points
+        private boolean write(int n)
+        {
+            if (!deserializer.init(in)) return FALSE;
+            int i;
+            for (i = 0; i < n; i++)
+            {
+                in.seek((long) i * record_length);
+                if (!deserializer.read(point.PointRecords)) return FALSE;
+                if (!laswriter.write_point(point)) return FALSE;
+                laswriter.update_inventory(point);
+            }
+            chunk_count -= n;
+            return TRUE;
+        }
+    }
+}
@@ -22,12 +22,20 @@ import com.github.mreutegg.laszip4j.laslib.LASwriteOpener;
 import com.github.mreutegg.laszip4j.laszip.LASindex;
 import com.github.mreutegg.laszip4j.laszip.LASquadtree;
 
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.clib.Cstdio.set_thread_stderr;
 import static com.github.mreutegg.laszip4j.clib.Cstdlib.atof;
 import static com.github.mreutegg.laszip4j.clib.Cstdlib.atoi;
 import static com.github.mreutegg.laszip4j.clib.Cstring.strcmp;
@@ -38,6 +46,9 @@ import static java.lang.Boolean.TRUE;
 
 public class Laszip {
 
+    // set while a worker thread processes one of multiple input files
+    private static final ThreadLocal<Boolean> worker = new ThreadLocal<>();
+
     public static void main(String[] args) {
         run(args);
         byebye(false);
@@ -62,6 +73,8 @@ public class Laszip {
         boolean format_not_specified = false;
         boolean lax = false;
         boolean append = false;
+        int cores = 1;
+        int bare_file_name = -1;
         float tile_size = 100.0f;
         int threshold = 1000;
         int minimum_points = 100000;
@@ -110,8 +123,13 @@ public class Laszip {
             }
             else if (strcmp(argv[i],"-cores") == 0)
             {
-                fprintf(stderr, "WARNING: not compiled with multi-core batching. ignoring '-cores' ...\n");
+                if ((i+1) >= argc)
+                {
+                    fprintf(stderr,"ERROR: '%s' needs 1 argument: number\n", argv[i]);
+                    usage(true);
+                }
                 i++;
+                cores = atoi(argv[i]);
             }
             else if (strcmp(argv[i],"-dry") == 0)
             {
@@ -201,6 +219,7 @@ public class Laszip {
             {
                 lasreadopener.add_file_name(argv[i]);
                 argv[i] = "\0";
+                bare_file_name = i - 1;
             }
             else
             {
@@ -237,6 +256,29 @@ public class Laszip {
             usage(true);
         }
 
+        // maybe process the input files concurrently
+
+        if ((cores > 1) && (lasreadopener.get_file_name_number() > 1))
+        {
+            if (lasreadopener.is_merged())
+            {
+                fprintf(stderr,"WARNING: cannot process merged input on multiple cores. ignoring '-cores' ...\n");
+            }
+            else if (lasreadopener.get_files_are_flightlines())
+            {
+                fprintf(stderr,"WARNING: cannot process files that are flightlines on multiple cores. ignoring '-cores' ...\n");
+            }
+            else if (laswriteopener.active())
+            {
+                fprintf(stderr,"WARNING: cannot process multiple files with one output on multiple cores. ignoring '-cores' ...\n");
+            }
+            else
+            {
+                laszip_multi_core(args, bare_file_name, lasreadopener, cores, verbose);
+                return;
+            }
+        }
+
         // check if projection info was set in the command line
 
         int number_of_keys = 0;
@@ -293,7 +335,7 @@ public class Laszip {
                 {
                     if (lasreader.p_count != lasreader.npoints)
                     {
-                        fprintf(stderr,"FAILED integrity check for '%s' after %lld of %lld points\n", lasreadopener.get_file_name(), lasreader.p_count, lasreader.npoints);
+                        fprintf(stderr,"FAILED integrity check for '%s' after %d of %d points\n", lasreadopener.get_file_name(), lasreader.p_count, lasreader.npoints);
                     }
                     else
                     {
@@ -452,7 +494,7 @@ public class Laszip {
                                     if (!waveform_with_map)
                                     {
                                         fprintf(stderr,"WARNING: gap in waveform offsets.\n");
-                                        fprintf(stderr,"WARNING: last offset plus size was %lld but new offset is %lld (for point %lld)\n", 
+                                        fprintf(stderr,"WARNING: last offset plus size was %d but new offset is %d (for point %d)\n", 
                                             (u_last_offset + u_last_size), 
                                             lasreader.point.getWavepacketOffsetToWaveformData() , lasreader.p_count);
                                     }
@@ -494,7 +536,7 @@ public class Laszip {
                                 else
                                 {
                                     fprintf(stderr,"ERROR: waveform offsets not in monotonically increasing order.\n");
-                                    fprintf(stderr,"ERROR: last offset was %lld but new offset is %lld (for point %lld)\n", 
+                                    fprintf(stderr,"ERROR: last offset was %d but new offset is %d (for point %d)\n", 
                                         u_last_offset, lasreader.point.getWavepacketOffsetToWaveformData(), lasreader.p_count);
                                     fprintf(stderr,"ERROR: use option '-waveforms_with_map' to compress.\n");
                                     byebye(true);
@@ -695,7 +737,7 @@ public class Laszip {
                     }
                 }
 
-                if (verbose) fprintf(stderr,"%g secs to write %lld bytes for '%s' with %lld points of type %d\n", taketime()-start_time, bytes_written, laswriteopener.get_file_name(), lasreader.p_count, lasreader.header.point_data_format);
+                if (verbose) fprintf(stderr,"%g secs to write %d bytes for '%s' with %d points of type %d\n", taketime()-start_time, bytes_written, laswriteopener.get_file_name(), lasreader.p_count, lasreader.header.point_data_format);
 
                 if (start_of_waveform_data_packet_record != 0 && !waveform)
                 {
@@ -757,6 +799,150 @@ public class Laszip {
         if (verbose && lasreadopener.get_file_name_number() > 1) fprintf(stderr,"needed %g sec for %d files\n", taketime()-total_start_time, lasreadopener.get_file_name_number());
     }
 
+    // processes every input file with the given arguments on a pool of
+    // worker threads. the output of a file is buffered and printed in the
+    // order of the input files. a failure only affects the file that
+    // failed and is reported once all files are processed.
+    private static void laszip_multi_core(String[] args, int bare_file_name, LASreadOpener lasreadopener, int cores, boolean verbose)
+    {
+        PrintStream stderr = System.err;
+        double total_start_time = taketime();
+        int file_name_number = lasreadopener.get_file_name_number();
+
+        // the arguments without input files and cores
+
+        List<String> worker_args = new ArrayList<>();
+        for (int i = 0; i < args.length; i++)
+        {
+            if (i == bare_file_name)
+            {
+                continue;
+            }
+            if (strcmp(args[i],"-cores") == 0 || strcmp(args[i],"-lof") == 0)
+            {
+                i++;
+            }
+            else if (strcmp(args[i],"-i") == 0)
+            {
+                while ((i+1) < args.length && !args[i+1].startsWith("-")) i++;
+            }
+            else
+            {
+                worker_args.add(args[i]);
+            }
+        }
+
+        if (verbose) fprintf(stderr,"processing %d files on %d cores\n", file_name_number, cores);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(cores, file_name_number));
+        int failed = 0;
+        try
+        {
+            List<Future<WorkerOutput>> outputs = new ArrayList<>();
+            for (int i = 0; i < file_name_number; i++)
+            {
+                List<String> file_args = new ArrayList<>(worker_args);
+                file_args.add("-i");
+                file_args.add(lasreadopener.get_file_name(i));
+                outputs.add(executor.submit(() -> run_worker(file_args.toArray(new String[0]))));
+            }
+            for (int i = 0; i < file_name_number; i++)
+            {
+                WorkerOutput output;
+                try
+                {
+                    output = outputs.get(i).get();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while processing '" + lasreadopener.get_file_name(i) + "'", e);
+                }
+                catch (ExecutionException e)
+                {
+                    throw new IllegalStateException("Failed to process '" + lasreadopener.get_file_name(i) + "'", e.getCause());
+                }
+                stderr.write(output.text, 0, output.text.length);
+                if (output.error != null)
+                {
+                    failed++;
+                    if (output.error instanceof ByeBye)
+                    {
+                        fprintf(stderr,"ERROR: processing '%s' failed\n", lasreadopener.get_file_name(i));
+                    }
+                    else
+                    {
+                        fprintf(stderr,"ERROR: processing '%s' failed: %s\n", lasreadopener.get_file_name(i), output.error);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        if (verbose) fprintf(stderr,"needed %g sec for %d files\n", taketime()-total_start_time, file_name_number);
+
+        if (failed > 0)
+        {
+            fprintf(stderr,"ERROR: processing failed for %d of %d files\n", failed, file_name_number);
+            byebye(true);
+        }
+    }
+
+    private static WorkerOutput run_worker(String[] args)
+    {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        Exception error = null;
+        worker.set(TRUE);
+        set_thread_stderr(new PrintStream(text, true));
+        try
+        {
+            run(args);
+        }
+        catch (ByeBye e)
+        {
+            if (e.error) error = e;
+        }
+        catch (Exception e)
+        {
+            error = e;
+        }
+        finally
+        {
+            set_thread_stderr(null);
+            worker.remove();
+        }
+        return new WorkerOutput(text.toByteArray(), error);
+    }
+
+    private static final class WorkerOutput
+    {
+        final byte[] text;
+        final Exception error;
+
+        WorkerOutput(byte[] text, Exception error)
+        {
+            this.text = text;
+            this.error = error;
+        }
+    }
+
+    // thrown instead of exiting when a worker thread processes a file
+    private static final class ByeBye extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        final boolean error;
+
+        ByeBye(boolean error)
+        {
+            super(error ? "error" : "done", null, false, false);
+            this.error = error;
+        }
+    }
+
     private static double taketime() {
         return System.currentTimeMillis() / 1000;
     }
@@ -776,6 +962,7 @@ public class Laszip {
         fprintf(stderr,"laszip lidar.laz -v\n");
         fprintf(stderr,"laszip -i lidar.las -o lidar_zipped.laz\n");
         fprintf(stderr,"laszip -i lidar.laz -o lidar_unzipped.las\n");
+        fprintf(stderr,"laszip -i *.las -cores 4\n");
         fprintf(stderr,"laszip -i lidar.las -stdout -olaz > lidar.laz\n");
         fprintf(stderr,"laszip -stdin -o lidar.laz < lidar.las\n");
         fprintf(stderr,"laszip -h\n");
@@ -788,6 +975,10 @@ public class Laszip {
 
     private static void byebye(boolean error)
     {
+        if (worker.get() != null)
+        {
+            throw new ByeBye(error);
+        }
         System.exit(error ? 1 : 0);
     }
 
@@ -10,6 +10,8 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
+import java.nio.ByteBuffer;
+
 import static com.github.mreutegg.laszip4j.laszip.ArithmeticModel.AC__MaxLength;
 import static com.github.mreutegg.laszip4j.laszip.ArithmeticModel.AC__MinLength;
 import static com.github.mreutegg.laszip4j.laszip.ArithmeticModel.BM__LengthShift;
@@ -56,6 +58,7 @@ import static java.lang.Integer.compareUnsigned;
 public class ArithmeticDecoder implements IByteStreamInProvider {
 
     private ByteStreamIn instream;
+    private ByteBuffer inbuffer;            // read bytes directly when the stream has a buffer
     private int u_value, u_length;
 
     public ArithmeticDecoder() {
@@ -65,16 +68,18 @@ public class ArithmeticDecoder implements IByteStreamInProvider {
     public boolean init(ByteStreamIn instream) {
         if (instream == null) return false;
         this.instream = instream;
+        this.inbuffer = instream.getBuffer();
         u_length = AC__MaxLength;
-        u_value  = ((instream.getByte() & 0xff) << 24);
-        u_value |= ((instream.getByte() & 0xff) << 16);
-        u_value |= ((instream.getByte() & 0xff) << 8);
-        u_value |= ((instream.getByte() & 0xff));
+        u_value  = ((getByte() & 0xff) << 24);
+        u_value |= ((getByte() & 0xff) << 16);
+        u_value |= ((getByte() & 0xff) << 8);
+        u_value |= ((getByte() & 0xff));
         return true;
     }
 
     public void done() {
         instream = null;
+        inbuffer = null;
     }
 
     ArithmeticBitModel createBitModel() {
@@ -253,14 +258,15 @@ public class ArithmeticDecoder implements IByteStreamInProvider {
 
     public long readInt64()
     {
-        long u_lowerInt = readInt();
-        long u_upperInt = readInt();
+        long u_lowerInt = Integer.toUnsignedLong(readInt());
+        long u_upperInt = Integer.toUnsignedLong(readInt());
         return (u_upperInt<<32)|u_lowerInt;
     }
 
     public void setByteStreamIn(ByteStreamIn instream)	
     {	
         this.instream = instream;
+        this.inbuffer = (instream != null ? instream.getBuffer() : null);
     }
 
     public ByteStreamIn getByteStreamIn()	
@@ -275,7 +281,17 @@ public class ArithmeticDecoder implements IByteStreamInProvider {
 
     private void renorm_dec_interval() {
         do {                                          // read least-significant byte
-            u_value = (u_value << 8) | (instream.getByte() & 0xff);
+            u_value = (u_value << 8) | (getByte() & 0xff);
         } while (Integer.compareUnsigned((u_length <<= 8), AC__MinLength) < 0);        // length multiplied by 256
     }
+
+    private byte getByte() {
+        if (inbuffer != null && inbuffer.hasRemaining()) {
+            return inbuffer.get();
+        }
+        byte b = instream.getByte();
+        // the stream may have moved on to another buffer
+        inbuffer = instream.getBuffer();
+        return b;
+    }
 }
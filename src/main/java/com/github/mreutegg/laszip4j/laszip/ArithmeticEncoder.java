@@ -67,7 +67,7 @@ public class ArithmeticEncoder {
     private int u_base, u_length;
 
     public ArithmeticEncoder() {
-        outbuffer = new byte[AC_BUFFER_SIZE];
+        outbuffer = new byte[2 * AC_BUFFER_SIZE];
         endbuffer = outbuffer.length;
     }
 
@@ -98,13 +98,12 @@ public class ArithmeticEncoder {
         if (compareUnsigned(u_init_base, u_base) > 0) propagate_carry();                 // overflow = carry
         renorm_enc_interval();                // renormalization = output last bytes
 
-        /* TODO doesn't make sense. is this really needed?
+        // the second half of the circular buffer is still pending
         if (endbyte != endbuffer)
         {
             assert(outbyte < AC_BUFFER_SIZE);
-            outstream.putBytes(outbuffer + AC_BUFFER_SIZE, AC_BUFFER_SIZE);
+            outstream.putBytes(outbuffer, AC_BUFFER_SIZE, AC_BUFFER_SIZE);
         }
-        */
         int buffer_size = outbyte;
         if (buffer_size > 0) outstream.putBytes(outbuffer, buffer_size);
 
@@ -116,6 +115,10 @@ public class ArithmeticEncoder {
         outstream = null;
     }
 
+    public ByteStreamOut getByteStreamOut() {
+        return outstream;
+    }
+
     public ArithmeticBitModel createBitModel() {
         return new ArithmeticBitModel();
     }
@@ -208,7 +211,7 @@ public class ArithmeticEncoder {
 
     void writeByte(byte sym) {
         int u_init_base = u_base;
-        u_base += (int)(sym) * (u_length >>>= 8);           // new interval base and length
+        u_base += (sym & 0xFF) * (u_length >>>= 8);           // new interval base and length
 
         if (compareUnsigned(u_init_base, u_base) > 0) propagate_carry();                 // overflow = carry
         if (compareUnsigned(u_length, AC__MinLength) < 0) renorm_enc_interval();        // renormalization
@@ -216,7 +219,7 @@ public class ArithmeticEncoder {
 
     void writeShort(short u_sym) {
         int u_init_base = u_base;
-        u_base += (int)(u_sym) * (u_length >>>= 16);          // new interval base and length
+        u_base += (u_sym & 0xFFFF) * (u_length >>>= 16);          // new interval base and length
 
         if (compareUnsigned(u_init_base, u_base) > 0) propagate_carry();                 // overflow = carry
         if (compareUnsigned(u_length, AC__MinLength) < 0) renorm_enc_interval();        // renormalization
@@ -250,7 +253,7 @@ public class ArithmeticEncoder {
             p = endbuffer - 1;
         else
             p = outbyte - 1;
-        while (outbuffer[p] == 0xFF) {
+        while (outbuffer[p] == (byte) 0xFF) {
             outbuffer[p] = 0;
             if (p == 0)
                 p = endbuffer - 1;
@@ -276,7 +279,7 @@ public class ArithmeticEncoder {
 
     private void manage_outbuffer() {
         if (outbyte == endbuffer) outbyte = 0;
-        outstream.putBytes(outbuffer, AC_BUFFER_SIZE);
+        outstream.putBytes(outbuffer, outbyte, AC_BUFFER_SIZE);
         endbyte = outbyte + AC_BUFFER_SIZE;
         assert(endbyte > outbyte);
         assert(outbyte < endbuffer);
@@ -11,6 +11,7 @@
 package com.github.mreutegg.laszip4j.laszip;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 
 public abstract class ByteStreamIn implements Closeable {
 
@@ -57,6 +58,9 @@ public abstract class ByteStreamIn implements Closeable {
     /* seek to the end of the file                               */
     public abstract boolean seekEnd(long distance);
     public boolean seekEnd() {return seekEnd(0);}
+    /* buffer at the current position of the stream or null.    */
+    /* reading from the buffer advances the stream               */
+    ByteBuffer getBuffer() { return null; }
     /* constructor                                               */
     public ByteStreamIn() { u_bit_buffer = 0; u_num_buffer = 0; };
 
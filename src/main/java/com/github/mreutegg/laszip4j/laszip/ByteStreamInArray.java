@@ -19,6 +19,8 @@ public class ByteStreamInArray extends ByteStreamIn {
 
     private ByteBuffer data;
 
+    private byte[] buffer;
+
     public ByteStreamInArray()
     {
         data = null;
@@ -49,6 +51,26 @@ public class ByteStreamInArray extends ByteStreamIn {
         return true;
     }
     
+    /**
+     * Reads num_bytes from the given stream into a buffer owned by this
+     * stream. The buffer is reused by later calls, which only allocate
+     * when a larger buffer is needed.
+     */
+    public boolean initFrom(ByteStreamIn stream, int num_bytes)
+    {
+        if (buffer == null || buffer.length < num_bytes)
+        {
+            buffer = new byte[num_bytes];
+        }
+        stream.getBytes(buffer, num_bytes);
+        return init(buffer, num_bytes);
+    }
+
+    @Override
+    ByteBuffer getBuffer() {
+        return data;
+    }
+
     @Override
     public byte getByte() {
         if (!data.hasRemaining()) {
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * A {@link ByteStreamIn} reading directly from little-endian memory mapped
+ * buffers of a file. Files larger than the segment size are mapped with
+ * multiple buffers and only values crossing a segment boundary are assembled
+ * byte by byte. The {@link ArithmeticDecoder} reads from the current
+ * buffer without going through the stream for every byte.
+ */
+public class ByteStreamInMappedFile extends ByteStreamIn {
+
+    private static final int MMAP_BUFFER_SIZE = Integer.getInteger("laszip4j.mmap.buffer.size", Integer.MAX_VALUE);
+
+    private final RandomAccessFile file;
+
+    private final long length;
+
+    private final int segmentSize;
+
+    private final ByteBuffer[] segments;
+
+    private int segmentIndex;
+
+    private ByteBuffer buffer;
+
+    public ByteStreamInMappedFile(RandomAccessFile file) {
+        this(file, MMAP_BUFFER_SIZE);
+    }
+
+    ByteStreamInMappedFile(RandomAccessFile file, int segmentSize) {
+        this.file = file;
+        this.segmentSize = segmentSize;
+        try {
+            this.length = file.length();
+            FileChannel channel = file.getChannel();
+            int numSegments = (int) Math.max(1, (length + segmentSize - 1) / segmentSize);
+            this.segments = new ByteBuffer[numSegments];
+            for (int i = 0; i < numSegments; i++) {
+                long offset = (long) i * segmentSize;
+                long size = Math.min(length - offset, segmentSize);
+                segments[i] = channel.map(READ_ONLY, offset, size).order(LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.buffer = segments[0];
+    }
+
+    @Override
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public byte getByte() {
+        if (!buffer.hasRemaining()) {
+            nextSegment();
+        }
+        return buffer.get();
+    }
+
+    @Override
+    public void getBytes(byte[] bytes, int u_num_bytes) {
+        int offset = 0;
+        while (u_num_bytes > 0) {
+            if (!buffer.hasRemaining()) {
+                nextSegment();
+            }
+            int n = Math.min(buffer.remaining(), u_num_bytes);
+            buffer.get(bytes, offset, n);
+            offset += n;
+            u_num_bytes -= n;
+        }
+    }
+
+    @Override
+    public char get16bitsLE() {
+        if (buffer.remaining() >= 2) {
+            return buffer.getChar();
+        }
+        return (char) (Byte.toUnsignedInt(getByte()) | (Byte.toUnsignedInt(getByte()) << 8));
+    }
+
+    @Override
+    public int get32bitsLE() {
+        if (buffer.remaining() >= 4) {
+            return buffer.getInt();
+        }
+        return get16bitsLE() | (get16bitsLE() << 16);
+    }
+
+    @Override
+    public long get64bitsLE() {
+        if (buffer.remaining() >= 8) {
+            return buffer.getLong();
+        }
+        return Integer.toUnsignedLong(get32bitsLE()) | ((long) get32bitsLE() << 32);
+    }
+
+    @Override
+    public char get16bitsBE() {
+        return Character.reverseBytes(get16bitsLE());
+    }
+
+    @Override
+    public int get32bitsBE() {
+        return Integer.reverseBytes(get32bitsLE());
+    }
+
+    @Override
+    public long get64bitsBE() {
+        return Long.reverseBytes(get64bitsLE());
+    }
+
+    @Override
+    public boolean isSeekable() {
+        return true;
+    }
+
+    @Override
+    public long tell() {
+        return (long) segmentIndex * segmentSize + buffer.position();
+    }
+
+    @Override
+    public boolean seek(long position) {
+        if (position < 0 || position > length) {
+            return false;
+        }
+        int index = (int) Math.min(position / segmentSize, segments.length - 1);
+        segmentIndex = index;
+        buffer = segments[index];
+        buffer.position((int) (position - (long) index * segmentSize));
+        return true;
+    }
+
+    @Override
+    public boolean seekEnd(long distance) {
+        if ((0 <= distance) && (distance <= length)) {
+            return seek(length - distance);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void nextSegment() {
+        if (segmentIndex + 1 >= segments.length) {
+            throw new UncheckedEOFException();
+        }
+        buffer = segments[++segmentIndex];
+        buffer.position(0);
+    }
+}
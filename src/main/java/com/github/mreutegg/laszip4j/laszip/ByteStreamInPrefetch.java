@@ -0,0 +1,276 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ByteStreamIn} for non-seekable input streams, which reads ahead
+ * on a background thread. The thread fills a ring of buffers from the input
+ * stream while the decoder consumes a previously filled buffer. A buffer is
+ * returned to the ring once it has been consumed completely. The
+ * {@link ArithmeticDecoder} reads from the current buffer without going
+ * through the stream for every byte.
+ */
+public class ByteStreamInPrefetch extends ByteStreamIn {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).order(LITTLE_ENDIAN);
+
+    private final InputStream in;
+
+    private final BlockingQueue<byte[]> free;
+
+    private final BlockingQueue<Block> filled;
+
+    private final Thread prefetcher;
+
+    private volatile boolean closed;
+
+    private ByteBuffer buffer = EMPTY;
+
+    private byte[] current;
+
+    private Block end;
+
+    // number of bytes in buffers before the current buffer
+    private long position;
+
+    /**
+     * Creates a new prefetching stream and starts reading ahead from the
+     * input stream.
+     *
+     * @param in the input stream to read from.
+     * @param bufferCount the number of buffers in the ring.
+     * @param bufferSize the size of a buffer in bytes.
+     */
+    public ByteStreamInPrefetch(InputStream in, int bufferCount, int bufferSize) {
+        if (bufferCount < 1) {
+            throw new IllegalArgumentException("bufferCount must be positive: " + bufferCount);
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.in = requireNonNull(in);
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        // room for all buffers and the end marker, the prefetcher never blocks on it
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new byte[bufferSize]);
+        }
+        this.prefetcher = new Thread(this::prefetch, "laszip4j-prefetch");
+        this.prefetcher.setDaemon(true);
+        this.prefetcher.start();
+    }
+
+    @Override
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public byte getByte() {
+        if (!buffer.hasRemaining()) {
+            nextBuffer();
+        }
+        return buffer.get();
+    }
+
+    @Override
+    public void getBytes(byte[] bytes, int u_num_bytes) {
+        int offset = 0;
+        while (u_num_bytes > 0) {
+            if (!buffer.hasRemaining()) {
+                nextBuffer();
+            }
+            int n = Math.min(buffer.remaining(), u_num_bytes);
+            buffer.get(bytes, offset, n);
+            offset += n;
+            u_num_bytes -= n;
+        }
+    }
+
+    @Override
+    public char get16bitsLE() {
+        if (buffer.remaining() >= 2) {
+            return buffer.getChar();
+        }
+        return (char) (Byte.toUnsignedInt(getByte()) | (Byte.toUnsignedInt(getByte()) << 8));
+    }
+
+    @Override
+    public int get32bitsLE() {
+        if (buffer.remaining() >= 4) {
+            return buffer.getInt();
+        }
+        return get16bitsLE() | (get16bitsLE() << 16);
+    }
+
+    @Override
+    public long get64bitsLE() {
+        if (buffer.remaining() >= 8) {
+            return buffer.getLong();
+        }
+        return Integer.toUnsignedLong(get32bitsLE()) | ((long) get32bitsLE() << 32);
+    }
+
+    @Override
+    public char get16bitsBE() {
+        return Character.reverseBytes(get16bitsLE());
+    }
+
+    @Override
+    public int get32bitsBE() {
+        return Integer.reverseBytes(get32bitsLE());
+    }
+
+    @Override
+    public long get64bitsBE() {
+        return Long.reverseBytes(get64bitsLE());
+    }
+
+    @Override
+    public boolean isSeekable() {
+        return false;
+    }
+
+    @Override
+    public long tell() {
+        return position + buffer.position();
+    }
+
+    @Override
+    public boolean seek(long position) {
+        return false;
+    }
+
+    @Override
+    public boolean seekEnd(long distance) {
+        return false;
+    }
+
+    @Override
+    public boolean skipBytes(int num_bytes) {
+        try {
+            while (num_bytes > 0) {
+                if (!buffer.hasRemaining()) {
+                    nextBuffer();
+                }
+                int n = Math.min(buffer.remaining(), num_bytes);
+                buffer.position(buffer.position() + n);
+                num_bytes -= n;
+            }
+        } catch (UncheckedEOFException e) {
+            return FALSE;
+        }
+        return TRUE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        prefetcher.interrupt();
+        in.close();
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private void nextBuffer() {
+        if (end == null) {
+            if (current != null) {
+                position += buffer.limit();
+                free.add(current);
+                current = null;
+                buffer = EMPTY;
+            }
+            Block b;
+            try {
+                b = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+            if (b.data != null) {
+                // a new ByteBuffer for every block, the decoder may still
+                // hold on to the exhausted buffer of the previous block
+                current = b.data;
+                buffer = ByteBuffer.wrap(b.data, 0, b.length).order(LITTLE_ENDIAN);
+                return;
+            }
+            end = b;
+        }
+        if (end.error != null) {
+            throw new UncheckedIOException(end.error);
+        }
+        throw new UncheckedEOFException();
+    }
+
+    private void prefetch() {
+        try {
+            while (!closed) {
+                byte[] data = free.take();
+                int length = 0;
+                IOException error = null;
+                try {
+                    int n;
+                    while (length < data.length && (n = in.read(data, length, data.length - length)) != -1) {
+                        length += n;
+                    }
+                } catch (IOException e) {
+                    error = e;
+                }
+                if (length > 0) {
+                    filled.add(new Block(data, length, null));
+                }
+                if (error != null || length < data.length) {
+                    // end of stream or failure, unless closed by the consumer
+                    if (!closed) {
+                        filled.add(new Block(null, 0, error));
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed while waiting for a free buffer
+        }
+    }
+
+    private static final class Block {
+
+        final byte[] data;
+
+        final int length;
+
+        final IOException error;
+
+        Block(byte[] data, int length, IOException error) {
+            this.data = data;
+            this.length = length;
+            this.error = error;
+        }
+    }
+}
@@ -49,7 +49,9 @@ public abstract class ByteStreamOut implements Closeable {
     /* write a single byte                                       */
     public abstract boolean putByte(byte b);
     /* write an array of bytes                                   */
-    public abstract boolean putBytes(byte[] bytes, int u_num_bytes);
+    public boolean putBytes(byte[] bytes, int u_num_bytes) { return putBytes(bytes, 0, u_num_bytes); };
+    /* write a range of an array of bytes                        */
+    public abstract boolean putBytes(byte[] bytes, int offset, int u_num_bytes);
     /* write 16 bit low-endian field                             */
     public abstract boolean put16bitsLE(char bytes);
     /* write 16 bit low-endian field                             */
@@ -42,9 +42,9 @@ public class ByteStreamOutArray extends ByteStreamOut {
     }
 
     @Override
-    public boolean putBytes(byte[] bytes, int u_num_bytes) {
+    public boolean putBytes(byte[] bytes, int offset, int u_num_bytes) {
         ensureCapacity(u_num_bytes);
-        data.put(bytes, 0, u_num_bytes);
+        data.put(bytes, offset, u_num_bytes);
         updateSize();
         return true;
     }
@@ -155,7 +155,8 @@ public class ByteStreamOutArray extends ByteStreamOut {
 
     private void ensureCapacity(int u_num_bytes) {
         if (data.remaining() < u_num_bytes) {
-            data = realloc(data, data.capacity() + Math.max(u_num_bytes, 1024));
+            // grow geometrically to keep appending to large layers and chunks linear
+            data = realloc(data, data.capacity() + Math.max(u_num_bytes, Math.max(data.capacity(), 1024)));
         }
     }
 
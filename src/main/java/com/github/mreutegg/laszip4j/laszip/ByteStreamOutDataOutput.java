@@ -43,9 +43,9 @@ abstract class ByteStreamOutDataOutput extends ByteStreamOut {
     }
 
     @Override
-    public boolean putBytes(byte[] bytes, int u_num_bytes) {
+    public boolean putBytes(byte[] bytes, int offset, int u_num_bytes) {
         try {
-            dataOut.write(bytes, 0, u_num_bytes);
+            dataOut.write(bytes, offset, u_num_bytes);
             return true;
         } catch (IOException e) {
             return false;
@@ -37,14 +37,14 @@ public class ByteStreamOutFile extends ByteStreamOut {
     }
 
     @Override
-    public boolean putBytes(byte[] bytes, int u_num_bytes) {
+    public boolean putBytes(byte[] bytes, int offset, int u_num_bytes) {
         try {
             if (u_num_bytes > buffer.capacity()) {
                 flushBuffer();
-                file.write(bytes, 0, u_num_bytes);
+                file.write(bytes, offset, u_num_bytes);
             } else {
                 ensureRemainingBufferSize(u_num_bytes);
-                buffer.put(bytes, 0, u_num_bytes);
+                buffer.put(bytes, offset, u_num_bytes);
             }
         } catch (IOException e) {
             return false;
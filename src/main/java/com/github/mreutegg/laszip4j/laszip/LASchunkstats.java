@@ -0,0 +1,330 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fclose;
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fopenRAF;
+import static com.github.mreutegg.laszip4j.clib.Cstdio.fprintf;
+import static com.github.mreutegg.laszip4j.clib.Cstring.strncmp;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.asByteArray;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.stringFromByteArray;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+// statistics of the points in the chunks of a LAZ file: the bounding box of
+// the integer coordinates, the range of GPS times and a bitmap of the
+// classifications and return numbers. the statistics are stored in a file
+// next to the LAZ file with the extension replaced by 'lcs'. the file also
+// stores the file positions of the chunks and the size and modification
+// time of the LAZ file. statistics of a LAZ file that was rewritten since
+// are not read.
+public class LASchunkstats {
+
+    private static final PrintStream stderr = System.err;
+
+    public long[] chunk_point_starts; // number_chunks + 1 entries
+    public long[] chunk_starts; // number_chunks + 1 entries, the last is the end of the last chunk
+    public long file_size;
+    public long file_time;
+    public boolean have_gps_time;
+    public int[] min_X, max_X, min_Y, max_Y, min_Z, max_Z;
+    public double[] min_gps_time, max_gps_time;
+    public int[] returns; // bit per return number
+    public long[] classifications; // 4 longs with a bit per classification
+
+    public LASchunkstats()
+    {
+        chunk_point_starts = null;
+        have_gps_time = FALSE;
+    }
+
+    public int get_number_chunks()
+    {
+        return (chunk_point_starts == null ? 0 : chunk_point_starts.length - 1);
+    }
+
+    public void prepare(long[] chunk_point_starts, long[] chunk_starts, boolean have_gps_time)
+    {
+        int number_chunks = chunk_point_starts.length - 1;
+        this.chunk_point_starts = Arrays.copyOf(chunk_point_starts, chunk_point_starts.length);
+        this.chunk_starts = Arrays.copyOf(chunk_starts, chunk_point_starts.length);
+        this.have_gps_time = have_gps_time;
+        min_X = filled(number_chunks, Integer.MAX_VALUE); max_X = filled(number_chunks, Integer.MIN_VALUE);
+        min_Y = filled(number_chunks, Integer.MAX_VALUE); max_Y = filled(number_chunks, Integer.MIN_VALUE);
+        min_Z = filled(number_chunks, Integer.MAX_VALUE); max_Z = filled(number_chunks, Integer.MIN_VALUE);
+        min_gps_time = new double[number_chunks];
+        max_gps_time = new double[number_chunks];
+        Arrays.fill(min_gps_time, Double.POSITIVE_INFINITY);
+        Arrays.fill(max_gps_time, Double.NEGATIVE_INFINITY);
+        returns = new int[number_chunks];
+        classifications = new long[4*number_chunks];
+    }
+
+    private static int[] filled(int length, int value)
+    {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public void add(int chunk, LASpoint point)
+    {
+        int X = point.get_X();
+        int Y = point.get_Y();
+        int Z = point.get_Z();
+        if (X < min_X[chunk]) min_X[chunk] = X;
+        if (X > max_X[chunk]) max_X[chunk] = X;
+        if (Y < min_Y[chunk]) min_Y[chunk] = Y;
+        if (Y > max_Y[chunk]) max_Y[chunk] = Y;
+        if (Z < min_Z[chunk]) min_Z[chunk] = Z;
+        if (Z > max_Z[chunk]) max_Z[chunk] = Z;
+        if (have_gps_time)
+        {
+            double gps_time = point.getGps_time();
+            if (gps_time < min_gps_time[chunk]) min_gps_time[chunk] = gps_time;
+            if (gps_time > max_gps_time[chunk]) max_gps_time[chunk] = gps_time;
+        }
+        returns[chunk] |= (1 << point.getReturn_number());
+        int classification = point.getClassification() & 0xFF;
+        classifications[4*chunk + (classification >> 6)] |= (1L << classification);
+    }
+
+    // returns TRUE when every return number in the chunk has its bit set in
+    // the mask, which is tested like (1 << return_number) & mask
+    public boolean only_returns(int chunk, int mask)
+    {
+        return (returns[chunk] & ~mask) == 0;
+    }
+
+    // returns TRUE when every classification in the chunk has its bit set
+    // in the mask, which is tested like (1 << classification) & mask
+    public boolean only_classifications(int chunk, int mask)
+    {
+        for (int classification = 0; classification < 256; classification++)
+        {
+            if ((classifications[4*chunk + (classification >> 6)] & (1L << classification)) != 0)
+            {
+                if (((1 << classification) & mask) == 0)
+                {
+                    return FALSE;
+                }
+            }
+        }
+        return TRUE;
+    }
+
+    // remembers the size and modification time of the LAZ file
+    public void set_file(String file_name)
+    {
+        File file = new File(file_name);
+        file_size = file.length();
+        file_time = file.lastModified();
+    }
+
+    // returns TRUE when the LAZ file has the size and modification time of
+    // the file the statistics were created for
+    public boolean matches_file(String file_name)
+    {
+        File file = new File(file_name);
+        return file.length() == file_size && file.lastModified() == file_time;
+    }
+
+    // same naming as LASindex with 'lcs' instead of 'lax'
+    public static String get_file_name(String file_name)
+    {
+        int dot = file_name.lastIndexOf('.');
+        if (dot <= file_name.lastIndexOf('/') || dot <= file_name.lastIndexOf('\\'))
+        {
+            return file_name + ".lcs";
+        }
+        boolean upper = file_name.substring(dot).equals(file_name.substring(dot).toUpperCase());
+        return file_name.substring(0, dot+1) + (upper ? "LCS" : "lcs");
+    }
+
+    public boolean read(String file_name)
+    {
+        if (file_name == null) return FALSE;
+        String name = get_file_name(file_name);
+        RandomAccessFile file = fopenRAF(name.toCharArray(), "rb");
+        if (file == null)
+        {
+            return FALSE;
+        }
+        ByteStreamIn stream = new ByteStreamInMappedFile(file);
+        if (!read(stream))
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): cannot read '%s'\n", name);
+            fclose(file);
+            return FALSE;
+        }
+        fclose(file);
+        if (!matches_file(file_name))
+        {
+            fprintf(stderr,"WARNING (LASchunkstats): '%s' is outdated and ignored\n", name);
+            chunk_point_starts = null;
+            return FALSE;
+        }
+        return TRUE;
+    }
+
+    public boolean write(String file_name)
+    {
+        if (file_name == null) return FALSE;
+        String name = get_file_name(file_name);
+        RandomAccessFile file = fopenRAF(name.toCharArray(), "wb");
+        if (file == null)
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): cannot open '%s' for write\n", name);
+            return FALSE;
+        }
+        ByteStreamOut stream = new ByteStreamOutFile(file);
+        if (!write(stream))
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): cannot write '%s'\n", name);
+            fclose(stream);
+            return FALSE;
+        }
+        // closing the stream flushes its buffer to the file
+        fclose(stream);
+        return TRUE;
+    }
+
+    public boolean read(ByteStreamIn stream)
+    {
+        chunk_point_starts = null;
+        byte[] signature = new byte[4];
+        try { stream.getBytes(signature, 4); } catch (Exception e)
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): reading signature\n");
+            return FALSE;
+        }
+        if (strncmp(stringFromByteArray(signature), "LASC", 4) != 0)
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): wrong signature %4s instead of 'LASC'\n", stringFromByteArray(signature));
+            return FALSE;
+        }
+        long[] starts;
+        try
+        {
+            int version = stream.get32bitsLE(); // unsigned
+            if (version != 1)
+            {
+                fprintf(stderr,"ERROR (LASchunkstats): unknown version %d\n", version);
+                return FALSE;
+            }
+            int number_chunks = stream.get32bitsLE(); // unsigned
+            if (number_chunks < 0)
+            {
+                fprintf(stderr,"ERROR (LASchunkstats): too many chunks\n");
+                return FALSE;
+            }
+            boolean have_gps_time = (stream.get32bitsLE() != 0);
+            long size = stream.get64bitsLE();
+            long time = stream.get64bitsLE();
+            starts = new long[number_chunks+1];
+            for (int i = 0; i <= number_chunks; i++)
+            {
+                starts[i] = stream.get64bitsLE();
+            }
+            long[] positions = new long[number_chunks+1];
+            for (int i = 0; i <= number_chunks; i++)
+            {
+                positions[i] = stream.get64bitsLE();
+            }
+            prepare(starts, positions, have_gps_time);
+            file_size = size;
+            file_time = time;
+            for (int i = 0; i < number_chunks; i++)
+            {
+                min_X[i] = stream.get32bitsLE(); max_X[i] = stream.get32bitsLE();
+                min_Y[i] = stream.get32bitsLE(); max_Y[i] = stream.get32bitsLE();
+                min_Z[i] = stream.get32bitsLE(); max_Z[i] = stream.get32bitsLE();
+                min_gps_time[i] = Double.longBitsToDouble(stream.get64bitsLE());
+                max_gps_time[i] = Double.longBitsToDouble(stream.get64bitsLE());
+                returns[i] = stream.get32bitsLE();
+                for (int j = 0; j < 4; j++)
+                {
+                    classifications[4*i+j] = stream.get64bitsLE();
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            chunk_point_starts = null;
+            fprintf(stderr,"ERROR (LASchunkstats): reading chunk statistics\n");
+            return FALSE;
+        }
+        return TRUE;
+    }
+
+    public boolean write(ByteStreamOut stream)
+    {
+        if (!stream.putBytes(asByteArray("LASC"), 4))
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): writing signature\n");
+            return FALSE;
+        }
+        int version = 1; // unsigned
+        int number_chunks = get_number_chunks();
+        if (!stream.put32bitsLE(version) || !stream.put32bitsLE(number_chunks) || !stream.put32bitsLE(have_gps_time ? 1 : 0)
+                || !stream.put64bitsLE(file_size) || !stream.put64bitsLE(file_time))
+        {
+            fprintf(stderr,"ERROR (LASchunkstats): writing header\n");
+            return FALSE;
+        }
+        for (int i = 0; i <= number_chunks; i++)
+        {
+            if (!stream.put64bitsLE(chunk_point_starts[i]))
+            {
+                fprintf(stderr,"ERROR (LASchunkstats): writing chunk point starts\n");
+                return FALSE;
+            }
+        }
+        for (int i = 0; i <= number_chunks; i++)
+        {
+            if (!stream.put64bitsLE(chunk_starts[i]))
+            {
+                fprintf(stderr,"ERROR (LASchunkstats): writing chunk starts\n");
+                return FALSE;
+            }
+        }
+        for (int i = 0; i < number_chunks; i++)
+        {
+            boolean written = stream.put32bitsLE(min_X[i]) && stream.put32bitsLE(max_X[i])
+                    && stream.put32bitsLE(min_Y[i]) && stream.put32bitsLE(max_Y[i])
+                    && stream.put32bitsLE(min_Z[i]) && stream.put32bitsLE(max_Z[i])
+                    && stream.put64bitsLE(Double.doubleToLongBits(min_gps_time[i]))
+                    && stream.put64bitsLE(Double.doubleToLongBits(max_gps_time[i]))
+                    && stream.put32bitsLE(returns[i]);
+            for (int j = 0; j < 4 && written; j++)
+            {
+                written = stream.put64bitsLE(classifications[4*i+j]);
+            }
+            if (!written)
+            {
+                fprintf(stderr,"ERROR (LASchunkstats): writing statistics of chunk %d\n", i);
+                return FALSE;
+            }
+        }
+        return TRUE;
+    }
+}
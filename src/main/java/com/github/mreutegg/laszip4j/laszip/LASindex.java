@@ -71,11 +71,19 @@ public class LASindex {
         return interval.add(p_index, cell);
     }
 
+    // adds the points of another index, which was prepared with the same
+    // spatial and threshold and holds only points that follow the points
+    // added to this index
+    public boolean add(LASindex other)
+    {
+        return interval.add(other.interval);
+    }
+
     public void complete(int u_minimum_points, int maximum_intervals) {
         complete(u_minimum_points, maximum_intervals, true);
     }
 
-    void complete(int u_minimum_points, int maximum_intervals, boolean verbose)
+    public void complete(int u_minimum_points, int maximum_intervals, boolean verbose)
     {
         if (verbose)
         {
@@ -255,7 +263,7 @@ public class LASindex {
         return interval.get_merged_cell();
     }
 
-    boolean has_intervals()
+    public boolean has_intervals()
     {
         if (interval.has_intervals())
         {
@@ -292,7 +300,7 @@ public class LASindex {
         {
             return FALSE;
         }
-        ByteStreamIn stream = new ByteStreamInFile(file);
+        ByteStreamIn stream = new ByteStreamInMappedFile(file);
         if (!read(stream))
         {
             fprintf(stderr,"ERROR (LASindex): cannot read '%s'\n", new String(name));
@@ -320,7 +328,7 @@ public class LASindex {
         lasreader.close();
 
         RandomAccessFile file = fopenRAF(file_name.toCharArray(), "rb");
-        ByteStreamIn bytestreamin = new ByteStreamInFile(file);
+        ByteStreamIn bytestreamin = new ByteStreamInMappedFile(file);
 
         // maybe write LASindex EVLR start position into LASzip VLR
 
@@ -396,7 +404,7 @@ public class LASindex {
         if (!write(bytestreamout))
         {
             fprintf(stderr,"ERROR (LASindex): cannot append LAX to '%s'\n", file_name);
-            fclose(file);
+            fclose(bytestreamout);
             return FALSE;
         }
 
@@ -418,7 +426,7 @@ public class LASindex {
         // close writer
 
         bytestreamout.seekEnd();
-        fclose(file);
+        fclose(bytestreamout);
 
         return TRUE;
     }
@@ -451,10 +459,11 @@ public class LASindex {
         if (!write(stream))
         {
             fprintf(stderr,"ERROR (LASindex): cannot write '%s'\n", new String(name));
-            fclose(file);
+            fclose(stream);
             return FALSE;
         }
-        fclose(file);
+        // closing the stream flushes its buffer to the file
+        fclose(stream);
         return TRUE;
     }
 
@@ -77,6 +77,44 @@ public class LASinterval {
         return FALSE;
     }
 
+    // add the cells and intervals of another interval. all its points
+    // must follow the points added so far, e.g. when the other interval
+    // was created for the next chunk of points.
+    boolean add(LASinterval other)
+    {
+        for (Map.Entry<Integer, LASintervalStartCell> entry : other.cells.entrySet())
+        {
+            LASintervalStartCell other_cell = entry.getValue();
+            LASintervalCell other_interval = other_cell;
+            LASintervalStartCell cell = cells.get(entry.getKey());
+            if (cell == null)
+            {
+                cell = new LASintervalStartCell(other_cell.start);
+                cell.end = other_cell.end;
+                cell.full = 0;
+                cell.total = other_cell.end - other_cell.start + 1;
+                cells.put(entry.getKey(), cell);
+                number_intervals++;
+                other_interval = other_cell.next;
+            }
+            else if (Integer.compareUnsigned(other_cell.start, (cell.last != null ? cell.last.end : cell.end)) <= 0)
+            {
+                return FALSE;
+            }
+            cell.full += other_cell.full;
+            while (other_interval != null)
+            {
+                if (cell.add(other_interval, threshold))
+                {
+                    number_intervals++;
+                }
+                other_interval = other_interval.next;
+            }
+        }
+        last_cell = null;
+        return TRUE;
+    }
+
     // get total number of cells
     int get_number_cells()
     {
@@ -148,6 +186,13 @@ public class LASinterval {
             }
         }
 
+        // nothing to merge when every cell has a single interval
+
+        if (map.isEmpty())
+        {
+            return;
+        }
+
         diff = map.firstKey();
 
         int size = size(map);
@@ -195,7 +240,7 @@ public class LASinterval {
                 // delete cell;
             }
         });
-        fprintf(stderr,"largest interval gap increased to %d\n", diff);
+        if (verbose) fprintf(stderr,"largest interval gap increased to %d\n", diff);
 
         // update totals
 
@@ -69,4 +69,37 @@ public class LASintervalStartCell extends LASintervalCell {
         return FALSE; // added to interval
     }
 
+    // adds an interval of points that all follow the points of this cell
+    boolean add(LASintervalCell cell, int threshold)
+    {
+        int current_end = (last != null ? last.end : end);
+        assert(cell.start > current_end);
+        int diff = cell.start - current_end;
+        if (diff > threshold)
+        {
+            if (last != null)
+            {
+                last.next = new LASintervalCell(cell);
+                last = last.next;
+            }
+            else
+            {
+                next = new LASintervalCell(cell);
+                last = next;
+            }
+            total += cell.end - cell.start + 1;
+            return TRUE; // created new interval
+        }
+        if (last != null)
+        {
+            last.end = cell.end;
+        }
+        else
+        {
+            end = cell.end;
+        }
+        total += cell.end - current_end;
+        return FALSE; // added to interval
+    }
+
 }
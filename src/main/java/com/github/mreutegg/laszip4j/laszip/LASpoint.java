@@ -32,7 +32,18 @@ public class LASpoint {
     
     public LASpoint(LASpoint other)
     {
-        this.PointRecords = other.PointRecords;
+        // the readers decode into the records of a point, hence a copy
+        // must not share them
+        this.PointRecords = new PointDataRecord[other.PointRecords.length];
+        for (int i = 0; i < PointRecords.length; i++)
+        {
+            PointRecords[i] = other.PointRecords[i].copy();
+        }
+        this.quantizer = other.quantizer;
+        this.attributer = other.attributer;
+        this.num_items = other.num_items;
+        this.items = other.items;
+        resolveRecords();
     }
 
     // these functions set the desired point format (and maybe add on attributes in extra bytes)
@@ -83,6 +94,7 @@ public class LASpoint {
                     return FALSE;
             }
         }
+        resolveRecords();
         this.quantizer = quantizer;
         this.attributer = attributer;
         return TRUE;
@@ -160,6 +172,7 @@ public class LASpoint {
     public byte get_keypoint_flag() { return getKeypoint_flag(); };
     public byte get_withheld_flag() { return getWithheld_flag(); };
     public byte get_extended_overlap_flag() { return getOverlap_flag();}
+    public byte get_extended_scanner_channel() { return getExtended_scanner_channel(); };
     public byte get_scan_angle_rank() { return getScan_angle_rank(); };
     public short get_user_data() { return getUser_data(); };
     public int get_point_source_ID() { return getPoint_source_ID(); }; // unsigned
@@ -213,10 +226,9 @@ public class LASpoint {
 
     public boolean get_attribute(int index, byte[] data)
     {
-        PointDataRecord bytesRecord = getPointDataRecord(PointDataRecordBytes.class);
-        if (has_attribute(index) && null != bytesRecord)
+        if (has_attribute(index) && null != extraBytes)
         {
-            System.arraycopy(((PointDataRecordBytes)bytesRecord).Bytes, attributer.attribute_starts.get(index), data, 0, attributer.attribute_sizes.get(index));
+            System.arraycopy(extraBytes.Bytes, attributer.attribute_starts.get(index), data, 0, attributer.attribute_sizes.get(index));
             return TRUE;
         }
         return FALSE;
@@ -224,10 +236,9 @@ public class LASpoint {
 
     public boolean set_attribute(int index, byte[] data)
     {
-        PointDataRecord bytesRecord = getPointDataRecord(PointDataRecordBytes.class);
-        if (has_attribute(index) && null != bytesRecord)
+        if (has_attribute(index) && null != extraBytes)
         {
-            System.arraycopy(data, 0, ((PointDataRecordBytes)bytesRecord).Bytes, attributer.attribute_starts.get(index), attributer.attribute_sizes.get(index));
+            System.arraycopy(data, 0, extraBytes.Bytes, attributer.attribute_starts.get(index), attributer.attribute_sizes.get(index));
             return TRUE;
         }
         return FALSE;
@@ -279,6 +290,7 @@ public class LASpoint {
     public byte getWithheld_flag() { return getPointXYZ().hasClassificationFlag(ClassificationFlag.Withheld)?(byte)1:(byte)0; }
     public void setWithheld_flag(boolean withheld) { getPointXYZ().setClassificationFlag(ClassificationFlag.Withheld, withheld); }
     public byte getOverlap_flag() { return getPointXYZ().hasClassificationFlag(ClassificationFlag.Overlap)?(byte)1:(byte)0; }
+    public byte getExtended_scanner_channel() { return getPointXYZ() instanceof PointDataRecordPoint14 ? ((PointDataRecordPoint14) getPointXYZ()).getScannerChannel() : (byte)0; }
     public byte getScan_angle_rank() { return getPointXYZ().getScanAngleRank(); }
     public float getScan_angle() { return getPointXYZ().getScanAngle(); }
     public short getUser_data() { return getPointXYZ().UserData; }
@@ -358,89 +370,65 @@ public class LASpoint {
     
 
 
-    private PointDataRecord getPointDataRecord(Class<? extends PointDataRecord> ofThisType )
-    {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == ofThisType)
-                return r;
-        }
+    // the records by attribute, resolved once when the records are created
 
-        return null;
-    }
+    private PointDataRecordXYZBase pointXYZ;
+    private PointDataRecordRGB pointRGB;
+    private PointDataRecordRgbNIR pointRGBNIR;
+    private IGpsTimeProvider gpsTimeProvider;
+    private PointDataRecordWavepacket wavepacket;
+    private PointDataRecordBytes extraBytes;
 
-    private PointDataRecordXYZBase getPointXYZ()
+    private void resolveRecords()
     {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == PointDataRecordPoint14.class)
-                return (PointDataRecordXYZBase)r;
-        }
-
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == PointDataRecordPoint10.class)
-                return (PointDataRecordXYZBase)r;
-        }
-
-        return null;
-    }
-
-    private PointDataRecordRGB getPointRGB()
-    {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == PointDataRecordRgbNIR.class)
-                return (PointDataRecordRGB)r;
-        }
+        pointXYZ = null;
+        pointRGB = null;
+        pointRGBNIR = null;
+        gpsTimeProvider = null;
+        wavepacket = null;
+        extraBytes = null;
 
         for(PointDataRecord  r : PointRecords)
         {
-            if (null != r && r.getClass() == PointDataRecordRGB.class)
-                return (PointDataRecordRGB)r;
+            if (null == r)
+                continue;
+
+            Class<?> type = r.getClass();
+            if (type == PointDataRecordPoint14.class && !(pointXYZ instanceof PointDataRecordPoint14))
+                pointXYZ = (PointDataRecordXYZBase)r;
+            else if (type == PointDataRecordPoint10.class && null == pointXYZ)
+                pointXYZ = (PointDataRecordXYZBase)r;
+            else if (type == PointDataRecordRgbNIR.class && null == pointRGBNIR)
+                pointRGBNIR = (PointDataRecordRgbNIR)r;
+            else if (type == PointDataRecordRGB.class && null == pointRGB)
+                pointRGB = (PointDataRecordRGB)r;
+            else if (type == PointDataRecordWavepacket.class && null == wavepacket)
+                wavepacket = (PointDataRecordWavepacket)r;
+            else if (type == PointDataRecordBytes.class && null == extraBytes)
+                extraBytes = (PointDataRecordBytes)r;
+
+            if (r instanceof IGpsTimeProvider && null == gpsTimeProvider)
+                gpsTimeProvider = (IGpsTimeProvider)r;
         }
 
-        return null;
+        // a record with NIR also provides RGB and takes precedence
+        if (null != pointRGBNIR)
+            pointRGB = pointRGBNIR;
     }
 
-    private PointDataRecordRgbNIR getPointRGBNIR()
-    {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == PointDataRecordRgbNIR.class)
-                return (PointDataRecordRgbNIR)r;
-        }
+    private PointDataRecordXYZBase getPointXYZ() { return pointXYZ; }
 
-        return null;
-    }
-    
-    private IGpsTimeProvider getGpsTimeProvider()
-    {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (r instanceof IGpsTimeProvider)
-                return (IGpsTimeProvider)r;
-        }
+    private PointDataRecordRGB getPointRGB() { return pointRGB; }
 
-        return null;
-    }
+    private PointDataRecordRgbNIR getPointRGBNIR() { return pointRGBNIR; }
 
-    private PointDataRecordWavepacket getWavepacket()
-    {
-        for(PointDataRecord  r : PointRecords)
-        {
-            if (null != r && r.getClass() == PointDataRecordWavepacket.class)
-                return (PointDataRecordWavepacket)r;
-        }
-
-        return null;
-    }
+    private IGpsTimeProvider getGpsTimeProvider() { return gpsTimeProvider; }
 
-    private byte[] getExtraBytes() {
+    private PointDataRecordWavepacket getWavepacket() { return wavepacket; }
 
-        PointDataRecord bytesRecord = getPointDataRecord(PointDataRecordBytes.class);
+    public byte[] getExtraBytes() {
 
-        return null == bytesRecord ? null : ((PointDataRecordBytes)bytesRecord).Bytes;
+        return null == extraBytes ? null : extraBytes.Bytes;
     }
 
 }
@@ -273,7 +273,7 @@ public class LASquadtree {
     }
 
     // returns the (sub-)level index of the cell that x & y fall into
-    int get_level_index(double x, double y)
+    public int get_level_index(double x, double y)
     {
         return get_level_index(x, y, levels);
     }
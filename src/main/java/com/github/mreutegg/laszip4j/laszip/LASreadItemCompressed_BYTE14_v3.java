@@ -120,16 +120,13 @@ public class LASreadItemCompressed_BYTE14_v3 extends LASreadItemCompressed{
       
         /* load the requested bytes and init the corresponding instreams and decoders */
 
-        byte[] bytes;
         for (i = 0; i < number; i++)
         {
           if (requested_Bytes[i])
           {
             if (num_bytes_Bytes[i] != 0)
             {
-              bytes = new byte[num_bytes_Bytes[i]];
-              instream.getBytes(bytes, num_bytes_Bytes[i]);
-              instream_Bytes[i].init(bytes, num_bytes_Bytes[i]);
+              instream_Bytes[i].initFrom(instream, num_bytes_Bytes[i]);
               dec_Bytes[i].init(instream_Bytes[i]);
               changed_Bytes[i] = true;
             }
@@ -181,7 +178,7 @@ public class LASreadItemCompressed_BYTE14_v3 extends LASreadItemCompressed{
     }
 
     @Override
-    public PointDataRecord read(MutableInteger context) {
+    public void read(PointDataRecord item, MutableInteger context) {
         // get last
 
         PointDataRecordBytes last_item = contexts[current_context].last_item;
@@ -199,7 +196,7 @@ public class LASreadItemCompressed_BYTE14_v3 extends LASreadItemCompressed{
         }
 
         // decompress
-        PointDataRecordBytes result = new PointDataRecordBytes(number);
+        PointDataRecordBytes result = (PointDataRecordBytes) item;
 
         for (int i = 0; i < number; i++)
         {
@@ -213,8 +210,6 @@ public class LASreadItemCompressed_BYTE14_v3 extends LASreadItemCompressed{
                 result.Bytes[i] = last_item.Bytes[i];
             }
         }
-
-        return result;
     }
 
     private boolean createAndInitModelsAndDecompressors(int context, PointDataRecordBytes seedItem) {
@@ -41,16 +41,15 @@ public class LASreadItemCompressed_BYTE_v1 extends LASreadItemCompressed {
     }
 
     @Override	
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
-        PointDataRecordBytes result = new PointDataRecordBytes(number);
+        PointDataRecordBytes result = (PointDataRecordBytes) item;
 
         for (int i = 0; i < number; i++)
         {
-            result.Bytes[i] = (byte)(ic_byte.decompress(last_item.Bytes[i], i));
+            result.Bytes[i] = (byte)(ic_byte.decompress(Byte.toUnsignedInt(last_item.Bytes[i]), i));
         }
-
-        return result;
+        last_item.copyFrom(result);
     }
 
     @Override	
@@ -54,17 +54,16 @@ public class LASreadItemCompressed_BYTE_v2 extends LASreadItemCompressed {
     }
 
     @Override	
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
-        PointDataRecordBytes result = new PointDataRecordBytes(number);
+        PointDataRecordBytes result = (PointDataRecordBytes) item;
 
         for (int i = 0; i < number; i++)
         {
             int value = last_item.Bytes[i] + dec.decodeSymbol(m_byte[i]);
             result.Bytes[i] = U8_FOLD(value);
         }
-
-        return result;
+        last_item.copyFrom(result);
     }
 
     @Override	
@@ -52,7 +52,7 @@ public class LASreadItemCompressed_GPSTIME11_v1 extends LASreadItemCompressed {
     }
 
     @Override
-    public PointDataRecordGpsTime read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
         int multi;
         if (last_gpstime_diff == 0) // if the last integer difference was zero
@@ -120,10 +120,7 @@ public class LASreadItemCompressed_GPSTIME11_v1 extends LASreadItemCompressed {
             }
         }
 
-        PointDataRecordGpsTime result = new PointDataRecordGpsTime();
-        result.GPSTime = last_item.GPSTime;
-
-        return result;
+        ((PointDataRecordGpsTime) item).GPSTime = last_item.GPSTime;
     }
 
     @Override
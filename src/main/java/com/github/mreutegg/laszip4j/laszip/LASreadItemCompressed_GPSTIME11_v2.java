@@ -68,10 +68,8 @@ public class LASreadItemCompressed_GPSTIME11_v2 extends LASreadItemCompressed {
     }
 
     @Override
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
-        PointDataRecordGpsTime result = new PointDataRecordGpsTime();
-
         int multi;
         if (last_gpstime_diff[last] == 0) // if the last integer difference was zero
         {
@@ -95,7 +93,7 @@ public class LASreadItemCompressed_GPSTIME11_v2 extends LASreadItemCompressed {
             else if (multi > 2) // we switch to another sequence
             {
                 last = (last+multi-2)&3;
-                result = (PointDataRecordGpsTime)read(notUsed);
+                read(item, notUsed);
             }
         }
         else
@@ -169,13 +167,11 @@ public class LASreadItemCompressed_GPSTIME11_v2 extends LASreadItemCompressed {
             else if (multi >=  LASZIP_GPSTIME_MULTI_CODE_FULL)
             {
                 last = (last+multi-LASZIP_GPSTIME_MULTI_CODE_FULL)&3;
-                result = (PointDataRecordGpsTime)read(notUsed);
+                read(item, notUsed);
             }
         }
 
-        result.GPSTime = last_item[last].GPSTime;
-
-        return result;
+        ((PointDataRecordGpsTime) item).GPSTime = last_item[last].GPSTime;
     }
 
     @Override
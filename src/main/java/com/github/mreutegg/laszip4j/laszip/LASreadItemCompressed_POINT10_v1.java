@@ -81,7 +81,7 @@ public class LASreadItemCompressed_POINT10_v1 extends LASreadItemCompressed {
     }
 
     @Override
-    public PointDataRecord read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
 
         // find median difference for x and y from 3 preceding differences
         int median_x;
@@ -148,12 +148,13 @@ public class LASreadItemCompressed_POINT10_v1 extends LASreadItemCompressed {
             // decompress the flags, ... if has changed
             if ((changed_values & 16) != 0)
             {
-                if (m_bit_byte[last_item.Flags] == null)
+                int idx = Byte.toUnsignedInt(last_item.Flags);
+                if (m_bit_byte[idx] == null)
                 {
-                    m_bit_byte[last_item.Flags] = dec.createSymbolModel(256);
-                    dec.initSymbolModel(m_bit_byte[last_item.Flags]);
+                    m_bit_byte[idx] = dec.createSymbolModel(256);
+                    dec.initSymbolModel(m_bit_byte[idx]);
                 }
-                last_item.Flags = (byte) dec.decodeSymbol(m_bit_byte[last_item.Flags]);
+                last_item.Flags = (byte) dec.decodeSymbol(m_bit_byte[idx]);
             }
 
             // decompress the classification ... if it has changed
@@ -198,9 +199,7 @@ public class LASreadItemCompressed_POINT10_v1 extends LASreadItemCompressed {
         if (last_incr > 2) last_incr = 0;
 
         // copy the last point
-        PointDataRecordPoint10 result = new PointDataRecordPoint10(last_item);
-
-        return result;
+        ((PointDataRecordPoint10) item).copyFrom(last_item);
     }
 
     @Override	
@@ -99,7 +99,7 @@ public class LASreadItemCompressed_POINT10_v2 extends LASreadItemCompressed {
     }
 
     @Override	
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
         int r, n, m, l; // unsigned
         int k_bits; // unsigned
@@ -199,9 +199,7 @@ public class LASreadItemCompressed_POINT10_v2 extends LASreadItemCompressed {
         last_item.Z = ic_z.decompress((int)last_height[l], (n==1 ? 1 : 0) + (k_bits < 18 ? U32_ZERO_BIT_0(k_bits) : 18));
         last_height[l] = last_item.Z;
 
-        PointDataRecordPoint10 result = new PointDataRecordPoint10(last_item);
-
-        return result;
+        ((PointDataRecordPoint10) item).copyFrom(last_item);
     }
 
     @Override	
@@ -189,18 +189,14 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
 
         /* load the requested bytes and init the corresponding instreams and decoders */
 
-        byte[] bytes = new byte[num_bytes_channel_returns_XY];
-        instream.getBytes(bytes, num_bytes_channel_returns_XY);
-        instream_channel_returns_XY.init(bytes, num_bytes_channel_returns_XY);
+        instream_channel_returns_XY.initFrom(instream, num_bytes_channel_returns_XY);
         dec_channel_returns_XY.init(instream_channel_returns_XY);
 
         if (requested_Z)
         {
             if (num_bytes_Z > 0 )
             {
-                bytes = new byte[num_bytes_Z];
-                instream.getBytes(bytes, num_bytes_Z);
-                instream_Z.init(bytes, num_bytes_Z);
+                instream_Z.initFrom(instream, num_bytes_Z);
                 dec_Z.init(instream_Z);
                 changed_Z = true;
             }
@@ -223,9 +219,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_classification > 0)
             {
-                bytes = new byte[num_bytes_classification];
-                instream.getBytes(bytes, num_bytes_classification);
-                instream_classification.init(bytes, num_bytes_classification);
+                instream_classification.initFrom(instream, num_bytes_classification);
                 dec_classification.init(instream_classification);
                 changed_classification = true;
             }
@@ -248,9 +242,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_flags > 0)
             {
-                bytes = new byte[num_bytes_flags];
-                instream.getBytes(bytes, num_bytes_flags);
-                instream_flags.init(bytes, num_bytes_flags);
+                instream_flags.initFrom(instream, num_bytes_flags);
                 dec_flags.init(instream_flags);
                 changed_flags = true;
             }
@@ -273,9 +265,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_intensity > 0)
             {
-                bytes = new byte[num_bytes_intensity];
-                instream.getBytes(bytes, num_bytes_intensity);
-                instream_intensity.init(bytes, num_bytes_intensity);
+                instream_intensity.initFrom(instream, num_bytes_intensity);
                 dec_intensity.init(instream_intensity);
                 changed_intensity = true;
             }
@@ -298,9 +288,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_scan_angle > 0)
             {
-                bytes = new byte[num_bytes_scan_angle];
-                instream.getBytes(bytes, num_bytes_scan_angle);
-                instream_scan_angle.init(bytes, num_bytes_scan_angle);
+                instream_scan_angle.initFrom(instream, num_bytes_scan_angle);
                 dec_scan_angle.init(instream_scan_angle);
                 changed_scan_angle = true;
             }
@@ -323,9 +311,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_user_data > 0)
             {
-                bytes = new byte[num_bytes_user_data];
-                instream.getBytes(bytes, num_bytes_user_data);
-                instream_user_data.init(bytes, num_bytes_user_data);
+                instream_user_data.initFrom(instream, num_bytes_user_data);
                 dec_user_data.init(instream_user_data);
                 changed_user_data = true;
             }
@@ -348,9 +334,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_point_source > 0)
             {
-                bytes = new byte[num_bytes_point_source];
-                instream.getBytes(bytes, num_bytes_point_source);
-                instream_point_source.init(bytes, num_bytes_point_source);
+                instream_point_source.initFrom(instream, num_bytes_point_source);
                 dec_point_source.init(instream_point_source);
                 changed_point_source = true;
             }
@@ -373,9 +357,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
         {
             if (num_bytes_gps_time > 0)
             {
-                bytes = new byte[num_bytes_gps_time];
-                instream.getBytes(bytes, num_bytes_gps_time);
-                instream_gps_time.init(bytes, num_bytes_gps_time);
+                instream_gps_time.initFrom(instream, num_bytes_gps_time);
                 dec_gps_time.init(instream_gps_time);
                 changed_gps_time = true;
             }
@@ -412,7 +394,7 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
     }
 
     @Override
-    public PointDataRecord read(MutableInteger context)
+    public void read(PointDataRecord item, MutableInteger context)
     {
         // get last
 
@@ -666,13 +648,12 @@ public class LASreadItemCompressed_POINT14_v3 extends LASreadItemCompressed {
             }
         }
 
-        PointDataRecordPoint14 result = new PointDataRecordPoint14(last_item);
+        PointDataRecordPoint14 result = (PointDataRecordPoint14) item;
+        result.copyFrom(last_item);
         result.CompressionContext = current_context;
 
         // remember if the last point had a gps_time_change
         last_item.gps_time_change = gps_time_change;
-
-        return result; 
     }
 
     @Override
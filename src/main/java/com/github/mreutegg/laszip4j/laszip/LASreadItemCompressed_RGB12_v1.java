@@ -44,9 +44,9 @@ public class LASreadItemCompressed_RGB12_v1 extends LASreadItemCompressed {
     }
 
     @Override	
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {       
-        PointDataRecordRGB result = new PointDataRecordRGB();
+        PointDataRecordRGB result = (PointDataRecordRGB) item;
 
         int sym = dec.decodeSymbol(m_byte_used);
         if ((sym & (1 << 0)) != 0) 
@@ -77,8 +77,6 @@ public class LASreadItemCompressed_RGB12_v1 extends LASreadItemCompressed {
         last_item.R = result.R;
         last_item.G = result.G;
         last_item.B = result.B;
-
-        return result;
     }
 
     @Override	
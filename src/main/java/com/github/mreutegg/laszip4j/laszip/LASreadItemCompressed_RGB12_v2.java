@@ -60,13 +60,13 @@ public class LASreadItemCompressed_RGB12_v2 extends LASreadItemCompressed {
     }
 
     @Override
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
         int corr;
         int diff = 0;
         int sym = dec.decodeSymbol(m_byte_used);
 
-        PointDataRecordRGB result = new PointDataRecordRGB();
+        PointDataRecordRGB result = (PointDataRecordRGB) item;
 
         if ((sym & (1 << 0)) != 0)
         {
@@ -144,8 +144,6 @@ public class LASreadItemCompressed_RGB12_v2 extends LASreadItemCompressed {
         last_item.R = result.R;
         last_item.G = result.G;
         last_item.B = result.B;
-      
-        return result;
     }
 
     @Override
@@ -74,9 +74,7 @@ public class LASreadItemCompressed_RGB14_v3 extends LASreadItemCompressed{
     {
         if (num_bytes_RGB != 0)
         {
-            byte[] bytes = new byte[num_bytes_RGB];
-            instream.getBytes(bytes, num_bytes_RGB);
-            instream_RGB.init(bytes, num_bytes_RGB);
+            instream_RGB.initFrom(instream, num_bytes_RGB);
             dec_RGB.init(instream_RGB);
             changed_RGB = true;
         }
@@ -118,9 +116,9 @@ public class LASreadItemCompressed_RGB14_v3 extends LASreadItemCompressed{
   }
   
   @Override
-  public PointDataRecord read(MutableInteger context) {
+  public void read(PointDataRecord item, MutableInteger context) {
 
-    PointDataRecordRGB result = new PointDataRecordRGB();
+    PointDataRecordRGB result = (PointDataRecordRGB) item;
 
     // get last
     PointDataRecordRGB last_item = contexts[current_context].last_item;
@@ -226,8 +224,6 @@ public class LASreadItemCompressed_RGB14_v3 extends LASreadItemCompressed{
         result.G=last_item.G;
         result.B=last_item.B;
     }
-
-    return result;
   }
 
   private boolean createAndInitModelsAndDecompressors(int context, PointDataRecordRGB seedItem)
@@ -101,9 +101,7 @@ public class LASreadItemCompressed_RGBNIR14_v3 extends LASreadItemCompressed{
         {
             if (num_bytes_RGB != 0)
             {
-                byte[] bytes = new byte[num_bytes_RGB];
-                instream.getBytes(bytes, num_bytes_RGB);
-                instream_RGB.init(bytes, num_bytes_RGB);
+                instream_RGB.initFrom(instream, num_bytes_RGB);
                 dec_RGB.init(instream_RGB);
                 changed_RGB = true;
             }
@@ -126,9 +124,7 @@ public class LASreadItemCompressed_RGBNIR14_v3 extends LASreadItemCompressed{
         {
             if (num_bytes_NIR != 0)
             {
-                byte[] bytes = new byte[num_bytes_NIR];
-                instream.getBytes(bytes, num_bytes_NIR);
-                instream_NIR.init(bytes, num_bytes_NIR);
+                instream_NIR.initFrom(instream, num_bytes_NIR);
                 dec_NIR.init(instream_NIR);
                 changed_NIR = true;
             }
@@ -176,7 +172,7 @@ public class LASreadItemCompressed_RGBNIR14_v3 extends LASreadItemCompressed{
     }
 
     @Override
-    public PointDataRecord read(MutableInteger context) {
+    public void read(PointDataRecord item, MutableInteger context) {
 
         // get last
 
@@ -196,7 +192,7 @@ public class LASreadItemCompressed_RGBNIR14_v3 extends LASreadItemCompressed{
 
         // decompress
 
-        PointDataRecordRgbNIR result = new PointDataRecordRgbNIR();
+        PointDataRecordRgbNIR result = (PointDataRecordRgbNIR) item;
         ////////////////////////////////////////
         // decompress RGB layer 
         ////////////////////////////////////////
@@ -323,8 +319,6 @@ public class LASreadItemCompressed_RGBNIR14_v3 extends LASreadItemCompressed{
         {
             result.NIR = last_item.NIR;
         }
-
-        return result;
     }
 
     boolean createAndInitModelsAndDecompressors(int context, PointDataRecordRgbNIR seedItem){
@@ -66,9 +66,9 @@ public class LASreadItemCompressed_WAVEPACKET13_v1 extends LASreadItemCompressed
         last_item = new PointDataRecordWavepacket((PointDataRecordWavepacket)seedItem);
     }
 
-    public PointDataRecord read(MutableInteger notUsed)
+    public void read(PointDataRecord item, MutableInteger notUsed)
     {
-        PointDataRecordWavepacket result = new PointDataRecordWavepacket();
+        PointDataRecordWavepacket result = (PointDataRecordWavepacket) item;
         result.DescriptorIndex = (short)dec.decodeSymbol(m_packet_index);
             
         sym_last_offset_diff = dec.decodeSymbol(m_offset_diff[sym_last_offset_diff]);
@@ -97,9 +97,7 @@ public class LASreadItemCompressed_WAVEPACKET13_v1 extends LASreadItemCompressed
         result.setDy( ic_xyz.decompress(last_item.getDyAsInt(), 1) );
         result.setDz( ic_xyz.decompress(last_item.getDzAsInt(), 2));
       
-        last_item = new PointDataRecordWavepacket(result);
-
-        return result;
+        last_item.copyFrom(result);
     }
 
     @Override
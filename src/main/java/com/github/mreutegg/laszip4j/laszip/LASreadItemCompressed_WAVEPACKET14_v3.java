@@ -84,9 +84,7 @@ public class LASreadItemCompressed_WAVEPACKET14_v3 extends LASreadItemCompressed
         {
             if (num_bytes_wavepacket != 0)
             {
-                byte[] bytes = new byte[num_bytes_wavepacket];
-                instream.getBytes(bytes, num_bytes_wavepacket);
-                instream_wavepacket.init(bytes, num_bytes_wavepacket);
+                instream_wavepacket.initFrom(instream, num_bytes_wavepacket);
                 dec_wavepacket.init(instream_wavepacket);
                 changed_wavepacket = true;
             }
@@ -134,7 +132,7 @@ public class LASreadItemCompressed_WAVEPACKET14_v3 extends LASreadItemCompressed
     }
 
     @Override
-    public PointDataRecord read(MutableInteger context) {
+    public void read(PointDataRecord item, MutableInteger context) {
         // get last
 
         PointDataRecordWavepacket last_item = contexts[current_context].last_item;
@@ -152,11 +150,11 @@ public class LASreadItemCompressed_WAVEPACKET14_v3 extends LASreadItemCompressed
         }
 
         // decompress
-        PointDataRecordWavepacket result = new PointDataRecordWavepacket();
+        PointDataRecordWavepacket result = (PointDataRecordWavepacket) item;
 
         if (changed_wavepacket)
         {
-            result.DescriptorIndex = (byte)(dec_wavepacket.decodeSymbol(contexts[current_context].m_packet_index));
+            result.DescriptorIndex = (short)(dec_wavepacket.decodeSymbol(contexts[current_context].m_packet_index));
 
             contexts[current_context].sym_last_offset_diff = 
               dec_wavepacket.decodeSymbol(contexts[current_context].m_offset_diff[contexts[current_context].sym_last_offset_diff]);
@@ -185,10 +183,12 @@ public class LASreadItemCompressed_WAVEPACKET14_v3 extends LASreadItemCompressed
             result.setDy( contexts[current_context].ic_xyz.decompress(last_item.getDyAsInt(), 1) );
             result.setDz( contexts[current_context].ic_xyz.decompress(last_item.getDzAsInt(), 2) );
         
-            last_item = new PointDataRecordWavepacket(result);
+            last_item.copyFrom(result);
+        }
+        else
+        {
+            result.copyFrom(last_item);
         }
-
-        return result;
     }
 
     private boolean createAndInitModelsAndDecompressors(int context, PointDataRecordWavepacket seedItem) {
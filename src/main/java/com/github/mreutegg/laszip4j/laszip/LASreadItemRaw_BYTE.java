@@ -19,10 +19,9 @@ public class LASreadItemRaw_BYTE extends LASreadItemRaw {
     }
 
     @Override
-    public PointDataRecordBytes read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
 
-        PointDataRecordBytes result = new PointDataRecordBytes(byteCount);
+        PointDataRecordBytes result = (PointDataRecordBytes) item;
         instream.getBytes(result.Bytes, byteCount);
-        return result;
     }
 }
@@ -18,13 +18,12 @@ public class LASreadItemRaw_GPSTIME11 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordGpsTime read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
 
         bb.clear();
         instream.getBytes(bb.array(), Long.BYTES);
 
-        PointDataRecordGpsTime result = new PointDataRecordGpsTime();
+        PointDataRecordGpsTime result = (PointDataRecordGpsTime) item;
         result.GPSTime = bb.getLong(0);
-        return result;
     }
 }
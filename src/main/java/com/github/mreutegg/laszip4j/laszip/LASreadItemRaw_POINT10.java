@@ -18,11 +18,11 @@ public class LASreadItemRaw_POINT10 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordPoint10 read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
         bb.clear();
         instream.getBytes(bb.array(), 20);
 
-        PointDataRecordPoint10 result = new PointDataRecordPoint10();
+        PointDataRecordPoint10 result = (PointDataRecordPoint10) item;
         result.X = bb.getInt();
         result.Y = bb.getInt();
         result.Z = bb.getInt();
@@ -32,6 +32,5 @@ public class LASreadItemRaw_POINT10 extends LASreadItemRaw {
         result.ScanAngleRank = bb.get();
         result.UserData = (short)Byte.toUnsignedInt(bb.get());
         result.PointSourceID = bb.getChar();
-        return result;
     }
 }
@@ -18,11 +18,11 @@ public class LASreadItemRaw_POINT14 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordPoint14 read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
         bb.clear();
         instream.getBytes(bb.array(), 30);
 
-        PointDataRecordPoint14 result = new PointDataRecordPoint14();
+        PointDataRecordPoint14 result = (PointDataRecordPoint14) item;
         result.X = bb.getInt();
         result.Y = bb.getInt();
         result.Z = bb.getInt();
@@ -34,7 +34,5 @@ public class LASreadItemRaw_POINT14 extends LASreadItemRaw {
         result.ScanAngle = bb.getShort();
         result.PointSourceID = bb.getChar();
         result.GPSTime = bb.getLong();
-
-        return result;
     }
 }
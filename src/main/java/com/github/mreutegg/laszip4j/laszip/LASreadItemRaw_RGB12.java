@@ -18,15 +18,14 @@ public class LASreadItemRaw_RGB12 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordRGB read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
         bb.clear();
         instream.getBytes(bb.array(), 6);
 
-        PointDataRecordRGB result = new PointDataRecordRGB();
+        PointDataRecordRGB result = (PointDataRecordRGB) item;
 
         result.R = bb.getChar();
         result.G = bb.getChar();
         result.B = bb.getChar();
-        return result;
     }
 }
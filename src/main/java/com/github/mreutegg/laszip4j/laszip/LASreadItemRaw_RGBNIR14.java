@@ -18,15 +18,14 @@ public class LASreadItemRaw_RGBNIR14 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordRgbNIR read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
         bb.clear();
         instream.getBytes(bb.array(), 8);
 
-        PointDataRecordRgbNIR result = new PointDataRecordRgbNIR();
+        PointDataRecordRgbNIR result = (PointDataRecordRgbNIR) item;
         result.R = bb.getChar();
         result.G = bb.getChar();
         result.B = bb.getChar();
         result.NIR = bb.getChar();
-        return result;
     }
 }
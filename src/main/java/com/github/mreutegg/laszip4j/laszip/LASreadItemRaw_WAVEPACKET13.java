@@ -18,11 +18,11 @@ public class LASreadItemRaw_WAVEPACKET13 extends LASreadItemRaw {
     private ByteBuffer bb = ByteBuffer.allocate(29).order(ByteOrder.LITTLE_ENDIAN);
 
     @Override
-    public PointDataRecordWavepacket read(MutableInteger notUsed) {
+    public void read(PointDataRecord item, MutableInteger notUsed) {
         bb.clear();
         instream.getBytes(bb.array(), 29);
 
-        PointDataRecordWavepacket result = new PointDataRecordWavepacket();
+        PointDataRecordWavepacket result = (PointDataRecordWavepacket) item;
         result.DescriptorIndex = (short) Byte.toUnsignedInt(bb.get());
         result.OffsetToWaveformData = bb.getLong();
         result.PacketSize = Integer.toUnsignedLong(bb.getInt());
@@ -30,6 +30,5 @@ public class LASreadItemRaw_WAVEPACKET13 extends LASreadItemRaw {
         result.ParametricDx = bb.getFloat();
         result.ParametricDy = bb.getFloat();
         result.ParametricDz = bb.getFloat();
-        return result;
     }
 }
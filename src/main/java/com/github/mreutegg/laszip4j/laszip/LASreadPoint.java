@@ -11,6 +11,7 @@
 package com.github.mreutegg.laszip4j.laszip;
 
 import java.io.EOFException;
+import java.util.Arrays;
 
 import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_CODER_ARITHMETIC;
 import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_POINTWISE;
@@ -43,6 +44,8 @@ public class LASreadPoint {
     private long point_start;
     private int point_size; // unsigned
     private PointDataRecord[] seek_point;
+    // passed from the POINT14 reader to all other readers
+    private final MutableInteger context = new MutableInteger(0);
     // used for error and warning reporting
     private String last_error;
     private String last_warning;
@@ -361,7 +364,7 @@ public class LASreadPoint {
     public boolean read(PointDataRecord[] pointRecords)
     {
         int i; // unsigned
-        MutableInteger context = new MutableInteger(0);
+        context.set(0);
 
         try
         {
@@ -408,14 +411,14 @@ public class LASreadPoint {
                 {
                     for (i = 0; i < num_readers; i++)
                     {
-                        pointRecords[i] = readers[i].read(context);
+                        readers[i].read(pointRecords[i], context);
                     }
                 }
                 else
                 {
                     for (i = 0; i < num_readers; i++)
                     {
-                        pointRecords[i] = readers_raw[i].read(context);
+                        readers_raw[i].read(pointRecords[i], context);
                     }
                     if (layered_las14_compression)
                     {
@@ -449,7 +452,7 @@ public class LASreadPoint {
             {
                 for (i = 0; i < num_readers; i++)
                 {
-                    pointRecords[i] = readers[i].read(context);
+                    readers[i].read(pointRecords[i], context);
                 }
             }
         }
@@ -487,6 +490,47 @@ public class LASreadPoint {
         return TRUE;
     }
 
+    // returns the index of the first point of each chunk or null when the
+    // chunk table is not available (e.g. not seekable, missing or corrupt)
+    public long[] get_chunk_point_starts()
+    {
+        if (dec == null || !instream.isSeekable()) return null;
+        if (point_start == 0)
+        {
+            if (!init_dec()) return null;
+            chunk_count = 0;
+        }
+        if (chunk_starts == null || last_warning != null) return null;
+        // is the chunk table complete?
+        if (tabled_chunks < 2 || (tabled_chunks-1) != number_chunks) return null;
+        long[] starts = new long[number_chunks];
+        int i; // unsigned
+        for (i = 0; i < number_chunks; i++)
+        {
+            if (chunk_totals != null)
+                starts[i] = Integer.toUnsignedLong(chunk_totals[i]);
+            else
+                starts[i] = Integer.toUnsignedLong(chunk_size) * i;
+        }
+        return starts;
+    }
+
+    // returns the file position of each chunk or null when the chunk table
+    // is not available (e.g. not seekable, missing or corrupt)
+    public long[] get_chunk_starts()
+    {
+        if (get_chunk_point_starts() == null) return null;
+        return Arrays.copyOf(chunk_starts, number_chunks);
+    }
+
+    // returns the file position of each chunk followed by the end of the
+    // last chunk or null when the chunk table is not available
+    public long[] get_chunk_bounds()
+    {
+        if (get_chunk_point_starts() == null) return null;
+        return Arrays.copyOf(chunk_starts, number_chunks+1);
+    }
+
     public boolean check_end()
     {
         if (readers == readers_compressed)
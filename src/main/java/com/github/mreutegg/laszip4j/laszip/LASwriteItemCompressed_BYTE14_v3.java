@@ -10,18 +10,220 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.LASwriteItemCompressed_POINT14_v3.putLayer;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_FOLD;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_BYTE14_v3 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_BYTE14_v3(ArithmeticEncoder enc, char size) {
+
+    private ArithmeticEncoder enc;
+
+    private ByteStreamOutArray[] outstream_Bytes;
+
+    private ArithmeticEncoder[] enc_Bytes;
+
+    private boolean[] changed_Bytes;
+
+    private int current_context;
+    private LAScontextBYTE14[] contexts = new LAScontextBYTE14[4];
+
+    private int number;
+
+    public LASwriteItemCompressed_BYTE14_v3(ArithmeticEncoder enc, int number) {
+
+        /* not used as an encoder. just gives access to outstream */
+
+        assert(enc != null);
+        this.enc = enc;
+
+        /* must be more than one byte */
+
+        assert(number != 0);
+        this.number = number;
+
+        /* zero outstream and encoder pointer arrays */
+
+        outstream_Bytes = null;
+
+        enc_Bytes = null;
+
+        /* create and init booleans arrays */
+
+        changed_Bytes = new boolean[number];
+
+        /* mark the four scanner channel contexts as uninitialized */
+
+        for (int c = 0; c < contexts.length; c++)
+        {
+            contexts[c] = new LAScontextBYTE14();
+            contexts[c].m_bytes = null;
+        }
+        current_context = 0;
+    }
+
+    @Override
+    public boolean init(PointDataRecord seedItem, int context) {
+
+        int i;
+
+        /* on the first init create outstreams and encoders */
+
+        if (outstream_Bytes == null)
+        {
+            /* create outstreams and layer encoders */
+
+            outstream_Bytes = new ByteStreamOutArray[number];
+            enc_Bytes = new ArithmeticEncoder[number];
+            for (i = 0; i < number; i++)
+            {
+                outstream_Bytes[i] = new ByteStreamOutArray();
+                enc_Bytes[i] = new ArithmeticEncoder();
+            }
+        }
+        else
+        {
+            /* otherwise just seek back */
+
+            for (i = 0; i < number; i++)
+            {
+                outstream_Bytes[i].seek(0);
+            }
+        }
+
+        /* init layer encoders */
+
+        for (i = 0; i < number; i++)
+        {
+            enc_Bytes[i].init(outstream_Bytes[i]);
+        }
+
+        /* set changed booleans to FALSE */
+
+        for (i = 0; i < number; i++)
+        {
+            changed_Bytes[i] = false;
+        }
+
+        /* mark the four scanner channel contexts as unused */
+
+        for (int c = 0; c < 4; c++)
+        {
+            contexts[c].unused = true;
+        }
+
+        /* set scanner channel as current context */
+
+        current_context = context; // all other items use context set by POINT14 writer
+
+        /* create and init entropy models and integer compressors (and init context from item) */
+
+        createAndInitModelsAndCompressors(current_context, (PointDataRecordBytes) seedItem);
+
+        return TRUE;
     }
 
     @Override
     public boolean write(PointDataRecord point, int context) {
-        return false;
+
+        PointDataRecordBytes item = (PointDataRecordBytes) point;
+
+        // get last
+
+        PointDataRecordBytes last_item = contexts[current_context].last_item;
+
+        // check for context switch
+
+        if (current_context != context)
+        {
+            current_context = context; // all other items use context set by POINT14 writer
+            if (contexts[current_context].unused)
+            {
+                createAndInitModelsAndCompressors(current_context, last_item);
+                last_item = contexts[current_context].last_item;
+            }
+        }
+
+        // compress
+
+        for (int i = 0; i < number; i++)
+        {
+            int diff = item.Bytes[i] - last_item.Bytes[i];
+            enc_Bytes[i].encodeSymbol(contexts[current_context].m_bytes[i], Byte.toUnsignedInt(U8_FOLD(diff)));
+            if (diff != 0)
+            {
+                changed_Bytes[i] = true;
+                last_item.Bytes[i] = item.Bytes[i];
+            }
+        }
+        return TRUE;
+    }
+
+    @Override
+    public boolean chunk_sizes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        for (int i = 0; i < number; i++)
+        {
+            // finish the encoders
+
+            enc_Bytes[i].done();
+
+            // output the sizes of all layer (i.e.. number of bytes per layer)
+
+            outstream.put32bitsLE(changed_Bytes[i] ? (int) outstream_Bytes[i].tell() : 0);
+        }
+
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean chunk_bytes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // output the bytes of all layers
+
+        for (int i = 0; i < number; i++)
+        {
+            if (changed_Bytes[i]) putLayer(outstream, outstream_Bytes[i]);
+        }
+
+        return TRUE;
+    }
+
+    private boolean createAndInitModelsAndCompressors(int context, PointDataRecordBytes seedItem) {
+
+        int i;
+
+        /* should only be called when context is unused */
+
+        assert(contexts[context].unused);
+
+        /* first create all entropy models (if needed) */
+
+        if (contexts[context].m_bytes == null)
+        {
+            contexts[context].m_bytes = new ArithmeticModel[number];
+            for (i = 0; i < number; i++)
+            {
+                contexts[context].m_bytes[i] = enc_Bytes[i].createSymbolModel(256);
+            }
+        }
+
+        /* then init entropy models */
+
+        for (i = 0; i < number; i++)
+        {
+            enc_Bytes[i].initSymbolModel(contexts[context].m_bytes[i]);
+        }
+
+        /* init current context from item */
+
+        contexts[context].last_item = new PointDataRecordBytes(seedItem);
+
+        contexts[context].unused = false;
+
+        return TRUE;
     }
 }
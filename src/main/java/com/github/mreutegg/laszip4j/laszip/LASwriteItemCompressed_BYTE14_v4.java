@@ -10,18 +10,11 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
-public class LASwriteItemCompressed_BYTE14_v4 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_BYTE14_v4(ArithmeticEncoder enc, char size) {
-    }
-
-    @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
-    }
-
-    @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+/**
+ * Version 4 uses the same layered compression as version 3.
+ */
+public class LASwriteItemCompressed_BYTE14_v4 extends LASwriteItemCompressed_BYTE14_v3 {
+    public LASwriteItemCompressed_BYTE14_v4(ArithmeticEncoder enc, int number) {
+        super(enc, number);
     }
 }
@@ -10,18 +10,52 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_BYTE_v1 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_BYTE_v1(ArithmeticEncoder enc, char size) {
+
+    private int number; // unsigned
+    private PointDataRecordBytes last_item;
+
+    private IntegerCompressor ic_byte;
+
+    public LASwriteItemCompressed_BYTE_v1(ArithmeticEncoder enc, int number)
+    {
+        /* set encoder */
+        assert(enc != null);
+        assert(number != 0);
+        this.number = number;
+
+        /* create models and integer compressors */
+        ic_byte = new IntegerCompressor(enc, 8, number);
+
+        /* create last item */
+        last_item = new PointDataRecordBytes(number);
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+
+        /* init models and integer compressors */
+        ic_byte.initCompressor();
+
+        /* init last item */
+        last_item.copyFrom((PointDataRecordBytes) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordBytes item = (PointDataRecordBytes) point;
+
+        for (int i = 0; i < number; i++)
+        {
+            ic_byte.compress(Byte.toUnsignedInt(last_item.Bytes[i]), Byte.toUnsignedInt(item.Bytes[i]), i);
+        }
+        last_item.copyFrom(item);
+        return TRUE;
     }
 }
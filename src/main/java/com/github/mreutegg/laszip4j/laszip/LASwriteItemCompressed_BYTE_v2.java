@@ -10,18 +10,66 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_FOLD;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_BYTE_v2 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_BYTE_v2(ArithmeticEncoder enc, char size) {
+
+    private ArithmeticEncoder enc;
+    private int number; // unsigned
+    private PointDataRecordBytes last_item;
+
+    private ArithmeticModel[] m_byte;
+
+    public LASwriteItemCompressed_BYTE_v2(ArithmeticEncoder enc, int number)
+    {
+        int i;
+
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+        assert(number != 0);
+        this.number = number;
+
+        /* create models and integer compressors */
+        m_byte = new ArithmeticModel[number];
+        for (i = 0; i < number; i++)
+        {
+            m_byte[i] = enc.createSymbolModel(256);
+        }
+
+        /* create last item */
+        last_item = new PointDataRecordBytes(number);
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        int i;
+        /* init state */
+
+        /* init models and integer compressors */
+        for (i = 0; i < number; i++)
+        {
+            enc.initSymbolModel(m_byte[i]);
+        }
+
+        /* init last item */
+        last_item.copyFrom((PointDataRecordBytes) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordBytes item = (PointDataRecordBytes) point;
+
+        for (int i = 0; i < number; i++)
+        {
+            int diff = item.Bytes[i] - last_item.Bytes[i];
+            enc.encodeSymbol(m_byte[i], Byte.toUnsignedInt(U8_FOLD(diff)));
+        }
+        last_item.copyFrom(item);
+        return TRUE;
     }
 }
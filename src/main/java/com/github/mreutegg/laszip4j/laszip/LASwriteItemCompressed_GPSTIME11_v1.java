@@ -10,18 +10,160 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_GPSTIME11_v1 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_GPSTIME11_v1(ArithmeticEncoder enc) {
+
+    private static final int LASZIP_GPSTIME_MULTIMAX = 512;
+
+    private ArithmeticEncoder enc;
+    private long last_gpstime;
+
+    private ArithmeticModel m_gpstime_multi;
+    private ArithmeticModel m_gpstime_0diff;
+    private IntegerCompressor ic_gpstime;
+    private int multi_extreme_counter;
+    private int last_gpstime_diff;
+
+    public LASwriteItemCompressed_GPSTIME11_v1(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+        /* create entropy models and integer compressors */
+        m_gpstime_multi = enc.createSymbolModel(LASZIP_GPSTIME_MULTIMAX);
+        m_gpstime_0diff = enc.createSymbolModel(3);
+        ic_gpstime = new IntegerCompressor(enc, 32, 6); // 32 bits, 6 contexts
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+        last_gpstime_diff = 0;
+        multi_extreme_counter = 0;
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_gpstime_multi);
+        enc.initSymbolModel(m_gpstime_0diff);
+        ic_gpstime.initCompressor();
+
+        /* init last item */
+        last_gpstime = ((PointDataRecordGpsTime) seedItem).GPSTime;
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord item, int notUsed)
+    {
+        long this_gpstime = ((PointDataRecordGpsTime) item).GPSTime;
+
+        if (last_gpstime_diff == 0) // if the last integer difference was zero
+        {
+            if (this_gpstime == last_gpstime)
+            {
+                enc.encodeSymbol(m_gpstime_0diff, 0); // the doubles have not changed
+            }
+            else
+            {
+                // calculate the difference between the two doubles as an integer
+                long curr_gpstime_diff_64 = this_gpstime - last_gpstime;
+                int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+                if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+                {
+                    enc.encodeSymbol(m_gpstime_0diff, 1); // the difference can be represented with 32 bits
+                    ic_gpstime.compress(0, curr_gpstime_diff, 0);
+                    last_gpstime_diff = curr_gpstime_diff;
+                }
+                else
+                {
+                    enc.encodeSymbol(m_gpstime_0diff, 2); // the difference is huge
+                    enc.writeInt64(this_gpstime);
+                }
+                last_gpstime = this_gpstime;
+            }
+        }
+        else // the last integer difference was *not* zero
+        {
+            if (this_gpstime == last_gpstime)
+            {
+                // if the doubles have not changed use a special symbol
+                enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTIMAX-1);
+            }
+            else
+            {
+                // calculate the difference between the two doubles as an integer
+                long curr_gpstime_diff_64 = this_gpstime - last_gpstime;
+                int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+                // if the current gpstime difference can be represented with 32 bits
+                if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+                {
+                    // compute multiplier between current and last integer difference
+                    int multi = (int) (((float) curr_gpstime_diff / (float) last_gpstime_diff) + 0.5f);
+
+                    // limit the multiplier into some bounds
+                    if (multi >= LASZIP_GPSTIME_MULTIMAX-3)
+                    {
+                        multi = LASZIP_GPSTIME_MULTIMAX-3;
+                    }
+                    else if (multi <= 0)
+                    {
+                        multi = 0;
+                    }
+                    // compress this multiplier
+                    enc.encodeSymbol(m_gpstime_multi, multi);
+                    // compress the residual curr_gpstime_diff in dependance on the multiplier
+                    if (multi == 1)
+                    {
+                        // this is the case we assume we get most often
+                        ic_gpstime.compress(last_gpstime_diff, curr_gpstime_diff, 1);
+                        last_gpstime_diff = curr_gpstime_diff;
+                        multi_extreme_counter = 0;
+                    }
+                    else
+                    {
+                        if (multi == 0)
+                        {
+                            ic_gpstime.compress(last_gpstime_diff/4, curr_gpstime_diff, 2);
+                            multi_extreme_counter++;
+                            if (multi_extreme_counter > 3)
+                            {
+                                last_gpstime_diff = curr_gpstime_diff;
+                                multi_extreme_counter = 0;
+                            }
+                        }
+                        else if (multi < 10)
+                        {
+                            ic_gpstime.compress(multi*last_gpstime_diff, curr_gpstime_diff, 3);
+                        }
+                        else if (multi < 50)
+                        {
+                            ic_gpstime.compress(multi*last_gpstime_diff, curr_gpstime_diff, 4);
+                        }
+                        else
+                        {
+                            ic_gpstime.compress(multi*last_gpstime_diff, curr_gpstime_diff, 5);
+                            if (multi == LASZIP_GPSTIME_MULTIMAX-3)
+                            {
+                                multi_extreme_counter++;
+                                if (multi_extreme_counter > 3)
+                                {
+                                    last_gpstime_diff = curr_gpstime_diff;
+                                    multi_extreme_counter = 0;
+                                }
+                            }
+                        }
+                    }
+                }
+                else
+                {
+                    // if difference is so huge ... we simply write the double
+                    enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTIMAX-2);
+                    enc.writeInt64(this_gpstime);
+                }
+                last_gpstime = this_gpstime;
+            }
+        }
+        return TRUE;
     }
 }
@@ -10,18 +10,225 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.I32_QUANTIZE;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_GPSTIME11_v2 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_GPSTIME11_v2(ArithmeticEncoder enc) {
+
+    private static final int LASZIP_GPSTIME_MULTI = 500;
+    private static final int LASZIP_GPSTIME_MULTI_MINUS = -10;
+    private static final int LASZIP_GPSTIME_MULTI_UNCHANGED = (LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS + 1);
+    private static final int LASZIP_GPSTIME_MULTI_CODE_FULL = (LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS + 2);
+
+    private static final int LASZIP_GPSTIME_MULTI_TOTAL = (LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS + 6);
+
+    private ArithmeticEncoder enc;
+    private int last, next; // unsigned
+    private long[] last_gpstime = new long[4];
+    private int[] last_gpstime_diff = new int[4];
+    private int[] multi_extreme_counter = new int[4];
+
+    private ArithmeticModel m_gpstime_multi;
+    private ArithmeticModel m_gpstime_0diff;
+    private IntegerCompressor ic_gpstime;
+
+    public LASwriteItemCompressed_GPSTIME11_v2(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+        /* create entropy models and integer compressors */
+        m_gpstime_multi = enc.createSymbolModel(LASZIP_GPSTIME_MULTI_TOTAL);
+        m_gpstime_0diff = enc.createSymbolModel(6);
+        ic_gpstime = new IntegerCompressor(enc, 32, 9); // 32 bits, 9 contexts
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+        last = 0; next = 0;
+        last_gpstime_diff[0] = 0;
+        last_gpstime_diff[1] = 0;
+        last_gpstime_diff[2] = 0;
+        last_gpstime_diff[3] = 0;
+        multi_extreme_counter[0] = 0;
+        multi_extreme_counter[1] = 0;
+        multi_extreme_counter[2] = 0;
+        multi_extreme_counter[3] = 0;
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_gpstime_multi);
+        enc.initSymbolModel(m_gpstime_0diff);
+        ic_gpstime.initCompressor();
+
+        /* init last item */
+        last_gpstime[0] = ((PointDataRecordGpsTime) seedItem).GPSTime;
+        last_gpstime[1] = 0;
+        last_gpstime[2] = 0;
+        last_gpstime[3] = 0;
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord item, int context)
+    {
+        long this_gpstime = ((PointDataRecordGpsTime) item).GPSTime;
+
+        if (last_gpstime_diff[last] == 0) // if the last integer difference was zero
+        {
+            if (this_gpstime == last_gpstime[last])
+            {
+                enc.encodeSymbol(m_gpstime_0diff, 0); // the doubles have not changed
+            }
+            else
+            {
+                // calculate the difference between the two doubles as an integer
+                long curr_gpstime_diff_64 = this_gpstime - last_gpstime[last];
+                int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+                if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+                {
+                    enc.encodeSymbol(m_gpstime_0diff, 1); // the difference can be represented with 32 bits
+                    ic_gpstime.compress(0, curr_gpstime_diff, 0);
+                    last_gpstime_diff[last] = curr_gpstime_diff;
+                    multi_extreme_counter[last] = 0;
+                }
+                else // the difference is huge
+                {
+                    int i; // unsigned
+                    // maybe the double belongs to another time sequence
+                    for (i = 1; i < 4; i++)
+                    {
+                        long other_gpstime_diff_64 = this_gpstime - last_gpstime[(last+i)&3];
+                        int other_gpstime_diff = (int) other_gpstime_diff_64;
+                        if (other_gpstime_diff_64 == (long) other_gpstime_diff)
+                        {
+                            enc.encodeSymbol(m_gpstime_0diff, i+2); // it belongs to another sequence
+                            last = (last+i)&3;
+                            return write(item, context);
+                        }
+                    }
+                    // no other sequence found. start new sequence.
+                    enc.encodeSymbol(m_gpstime_0diff, 2);
+                    ic_gpstime.compress((int)(last_gpstime[last] >>> 32), (int)(this_gpstime >>> 32), 8);
+                    enc.writeInt((int) this_gpstime);
+                    next = (next+1)&3;
+                    last = next;
+                    last_gpstime_diff[last] = 0;
+                    multi_extreme_counter[last] = 0;
+                }
+                last_gpstime[last] = this_gpstime;
+            }
+        }
+        else // the last integer difference was *not* zero
+        {
+            if (this_gpstime == last_gpstime[last])
+            {
+                // if the doubles have not changed use a special symbol
+                enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI_UNCHANGED);
+            }
+            else
+            {
+                // calculate the difference between the two doubles as an integer
+                long curr_gpstime_diff_64 = this_gpstime - last_gpstime[last];
+                int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+
+                // if the current gpstime difference can be represented with 32 bits
+                if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+                {
+                    // compute multiplier between current and last integer difference
+                    float multi_f = (float) curr_gpstime_diff / (float) (last_gpstime_diff[last]);
+                    int multi = I32_QUANTIZE(multi_f);
+
+                    // compress the residual curr_gpstime_diff in dependance on the multiplier
+                    if (multi == 1)
+                    {
+                        // this is the case we assume we get most often for regular spaced pulses
+                        enc.encodeSymbol(m_gpstime_multi, 1);
+                        ic_gpstime.compress(last_gpstime_diff[last], curr_gpstime_diff, 1);
+                        multi_extreme_counter[last] = 0;
+                    }
+                    else if (multi > 0)
+                    {
+                        if (multi < LASZIP_GPSTIME_MULTI) // positive multipliers up to LASZIP_GPSTIME_MULTI are compressed directly
+                        {
+                            enc.encodeSymbol(m_gpstime_multi, multi);
+                            if (multi < 10)
+                                ic_gpstime.compress(multi*last_gpstime_diff[last], curr_gpstime_diff, 2);
+                            else
+                                ic_gpstime.compress(multi*last_gpstime_diff[last], curr_gpstime_diff, 3);
+                        }
+                        else
+                        {
+                            enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI);
+                            ic_gpstime.compress(LASZIP_GPSTIME_MULTI*last_gpstime_diff[last], curr_gpstime_diff, 4);
+                            multi_extreme_counter[last]++;
+                            if (multi_extreme_counter[last] > 3)
+                            {
+                                last_gpstime_diff[last] = curr_gpstime_diff;
+                                multi_extreme_counter[last] = 0;
+                            }
+                        }
+                    }
+                    else if (multi < 0)
+                    {
+                        if (multi > LASZIP_GPSTIME_MULTI_MINUS) // negative multipliers larger than LASZIP_GPSTIME_MULTI_MINUS are compressed directly
+                        {
+                            enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI - multi);
+                            ic_gpstime.compress(multi*last_gpstime_diff[last], curr_gpstime_diff, 5);
+                        }
+                        else
+                        {
+                            enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS);
+                            ic_gpstime.compress(LASZIP_GPSTIME_MULTI_MINUS*last_gpstime_diff[last], curr_gpstime_diff, 6);
+                            multi_extreme_counter[last]++;
+                            if (multi_extreme_counter[last] > 3)
+                            {
+                                last_gpstime_diff[last] = curr_gpstime_diff;
+                                multi_extreme_counter[last] = 0;
+                            }
+                        }
+                    }
+                    else
+                    {
+                        enc.encodeSymbol(m_gpstime_multi, 0);
+                        ic_gpstime.compress(0, curr_gpstime_diff, 7);
+                        multi_extreme_counter[last]++;
+                        if (multi_extreme_counter[last] > 3)
+                        {
+                            last_gpstime_diff[last] = curr_gpstime_diff;
+                            multi_extreme_counter[last] = 0;
+                        }
+                    }
+                }
+                else // the difference is huge
+                {
+                    int i; // unsigned
+                    // maybe the double belongs to another time sequence
+                    for (i = 1; i < 4; i++)
+                    {
+                        long other_gpstime_diff_64 = this_gpstime - last_gpstime[(last+i)&3];
+                        int other_gpstime_diff = (int) other_gpstime_diff_64;
+                        if (other_gpstime_diff_64 == (long) other_gpstime_diff)
+                        {
+                            // it belongs to this sequence
+                            enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI_CODE_FULL+i);
+                            last = (last+i)&3;
+                            return write(item, context);
+                        }
+                    }
+                    // no other sequence found. start new sequence.
+                    enc.encodeSymbol(m_gpstime_multi, LASZIP_GPSTIME_MULTI_CODE_FULL);
+                    ic_gpstime.compress((int)(last_gpstime[last] >>> 32), (int)(this_gpstime >>> 32), 8);
+                    enc.writeInt((int) this_gpstime);
+                    next = (next+1)&3;
+                    last = next;
+                    last_gpstime_diff[last] = 0;
+                    multi_extreme_counter[last] = 0;
+                }
+                last_gpstime[last] = this_gpstime;
+            }
+        }
+        return TRUE;
     }
 }
@@ -10,18 +10,199 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_POINT10_v1 extends LASwriteItemCompressed {
+
+    private ArithmeticEncoder enc;
+    private PointDataRecordPoint10 last_item = new PointDataRecordPoint10();
+
+    private int[] last_x_diff = new int[3];
+    private int[] last_y_diff = new int[3];
+    private int last_incr;
+    private IntegerCompressor ic_dx;
+    private IntegerCompressor ic_dy;
+    private IntegerCompressor ic_z;
+    private IntegerCompressor ic_intensity;
+    private IntegerCompressor ic_scan_angle_rank;
+    private IntegerCompressor ic_point_source_ID;
+    private ArithmeticModel m_changed_values;
+    private ArithmeticModel[] m_bit_byte = new ArithmeticModel[256];
+    private ArithmeticModel[] m_classification = new ArithmeticModel[256];
+    private ArithmeticModel[] m_user_data = new ArithmeticModel[256];
+
     public LASwriteItemCompressed_POINT10_v1(ArithmeticEncoder enc) {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* create models and integer compressors */
+        ic_dx = new IntegerCompressor(enc, 32);  // 32 bits, 1 context
+        ic_dy = new IntegerCompressor(enc, 32, 20); // 32 bits, 20 contexts
+        ic_z = new IntegerCompressor(enc, 32, 20);  // 32 bits, 20 contexts
+        ic_intensity = new IntegerCompressor(enc, 16);
+        ic_scan_angle_rank = new IntegerCompressor(enc, 8, 2);
+        ic_point_source_ID = new IntegerCompressor(enc, 16);
+        m_changed_values = enc.createSymbolModel(64);
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed) {
+
+        int i;
+
+        /* init state */
+        last_x_diff[0] = last_x_diff[1] = last_x_diff[2] = 0;
+        last_y_diff[0] = last_y_diff[1] = last_y_diff[2] = 0;
+        last_incr = 0;
+
+        /* init models and integer compressors */
+        ic_dx.initCompressor();
+        ic_dy.initCompressor();
+        ic_z.initCompressor();
+        ic_intensity.initCompressor();
+        ic_scan_angle_rank.initCompressor();
+        ic_point_source_ID.initCompressor();
+        enc.initSymbolModel(m_changed_values);
+        for (i = 0; i < 256; i++)
+        {
+            if (m_bit_byte[i] != null) enc.initSymbolModel(m_bit_byte[i]);
+            if (m_classification[i] != null) enc.initSymbolModel(m_classification[i]);
+            if (m_user_data[i] != null) enc.initSymbolModel(m_user_data[i]);
+        }
+
+        /* init last item */
+        last_item.copyFrom((PointDataRecordPoint10) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed) {
+
+        PointDataRecordPoint10 item = (PointDataRecordPoint10) point;
+
+        // find median difference for x and y from 3 preceding differences
+        int median_x;
+        if (last_x_diff[0] < last_x_diff[1])
+        {
+            if (last_x_diff[1] < last_x_diff[2])
+                median_x = last_x_diff[1];
+            else if (last_x_diff[0] < last_x_diff[2])
+                median_x = last_x_diff[2];
+            else
+                median_x = last_x_diff[0];
+        }
+        else
+        {
+            if (last_x_diff[0] < last_x_diff[2])
+                median_x = last_x_diff[0];
+            else if (last_x_diff[1] < last_x_diff[2])
+                median_x = last_x_diff[2];
+            else
+                median_x = last_x_diff[1];
+        }
+
+        int median_y;
+        if (last_y_diff[0] < last_y_diff[1])
+        {
+            if (last_y_diff[1] < last_y_diff[2])
+                median_y = last_y_diff[1];
+            else if (last_y_diff[0] < last_y_diff[2])
+                median_y = last_y_diff[2];
+            else
+                median_y = last_y_diff[0];
+        }
+        else
+        {
+            if (last_y_diff[0] < last_y_diff[2])
+                median_y = last_y_diff[0];
+            else if (last_y_diff[1] < last_y_diff[2])
+                median_y = last_y_diff[2];
+            else
+                median_y = last_y_diff[1];
+        }
+
+        // compress x y z coordinates
+        int x_diff = item.X - last_item.X;
+        int y_diff = item.Y - last_item.Y;
+
+        ic_dx.compress(median_x, x_diff);
+        // we use the number k of bits corrector bits to switch contexts
+        int k_bits = ic_dx.getK(); // unsigned
+        ic_dy.compress(median_y, y_diff, (k_bits < 19 ? k_bits : 19));
+        k_bits = (k_bits + ic_dy.getK())/2;
+        ic_z.compress(last_item.Z, item.Z, (k_bits < 19 ? k_bits : 19));
+
+        // compress which other values have changed
+        int changed_values = ((last_item.Intensity != item.Intensity ? 1 : 0) << 5) |
+                ((last_item.Flags != item.Flags ? 1 : 0) << 4) |
+                ((last_item.Classification != item.Classification ? 1 : 0) << 3) |
+                ((last_item.ScanAngleRank != item.ScanAngleRank ? 1 : 0) << 2) |
+                ((last_item.UserData != item.UserData ? 1 : 0) << 1) |
+                (last_item.PointSourceID != item.PointSourceID ? 1 : 0);
+
+        enc.encodeSymbol(m_changed_values, changed_values);
+
+        // compress the intensity if it has changed
+        if ((changed_values & 32) != 0)
+        {
+            ic_intensity.compress(last_item.Intensity, item.Intensity);
+        }
+
+        // compress the edge_of_flight_line, scan_direction_flag, ... if it has changed
+        if ((changed_values & 16) != 0)
+        {
+            int idx = Byte.toUnsignedInt(last_item.Flags);
+            if (m_bit_byte[idx] == null)
+            {
+                m_bit_byte[idx] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_bit_byte[idx]);
+            }
+            enc.encodeSymbol(m_bit_byte[idx], Byte.toUnsignedInt(item.Flags));
+        }
+
+        // compress the classification ... if it has changed
+        if ((changed_values & 8) != 0)
+        {
+            if (m_classification[last_item.Classification] == null)
+            {
+                m_classification[last_item.Classification] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_classification[last_item.Classification]);
+            }
+            enc.encodeSymbol(m_classification[last_item.Classification], item.Classification);
+        }
+
+        // compress the scan_angle_rank ... if it has changed
+        if ((changed_values & 4) != 0)
+        {
+            ic_scan_angle_rank.compress(Byte.toUnsignedInt(last_item.ScanAngleRank), Byte.toUnsignedInt(item.ScanAngleRank), k_bits < 3 ? 1 : 0);
+        }
+
+        // compress the user_data ... if it has changed
+        if ((changed_values & 2) != 0)
+        {
+            if (m_user_data[last_item.UserData] == null)
+            {
+                m_user_data[last_item.UserData] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_user_data[last_item.UserData]);
+            }
+            enc.encodeSymbol(m_user_data[last_item.UserData], item.UserData);
+        }
+
+        // compress the point_source_ID ... if it has changed
+        if ((changed_values & 1) != 0)
+        {
+            ic_point_source_ID.compress(last_item.PointSourceID, item.PointSourceID);
+        }
+
+        // record the difference
+        last_x_diff[last_incr] = x_diff;
+        last_y_diff[last_incr] = y_diff;
+        last_incr++;
+        if (last_incr > 2) last_incr = 0;
+
+        // copy the last item
+        last_item.copyFrom(item);
+        return TRUE;
     }
 }
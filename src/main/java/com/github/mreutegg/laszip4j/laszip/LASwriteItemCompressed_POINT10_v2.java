@@ -10,18 +10,184 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.Common_v2.number_return_level;
+import static com.github.mreutegg.laszip4j.laszip.Common_v2.number_return_map;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U32_ZERO_BIT_0;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_FOLD;
+import static com.github.mreutegg.laszip4j.laszip.StreamingMedian5.newStreamingMedian5;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_POINT10_v2 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_POINT10_v2(ArithmeticEncoder enc) {
+
+    private ArithmeticEncoder enc;
+    private PointDataRecordPoint10 last_item = new PointDataRecordPoint10();
+    private int[] last_intensity = new int[16];
+    private StreamingMedian5[] last_x_diff_median5 = newStreamingMedian5(16);
+    private StreamingMedian5[] last_y_diff_median5 = newStreamingMedian5(16);
+    private int[] last_height = new int[8];
+
+    private ArithmeticModel m_changed_values;
+    private IntegerCompressor ic_intensity;
+    private ArithmeticModel[] m_scan_angle_rank = new ArithmeticModel[2];
+    private IntegerCompressor ic_point_source_ID;
+    private ArithmeticModel[] m_bit_byte = new ArithmeticModel[256];
+    private ArithmeticModel[] m_classification = new ArithmeticModel[256];
+    private ArithmeticModel[] m_user_data = new ArithmeticModel[256];
+    private IntegerCompressor ic_dx;
+    private IntegerCompressor ic_dy;
+    private IntegerCompressor ic_z;
+
+    public LASwriteItemCompressed_POINT10_v2(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* create models and integer compressors */
+        m_changed_values = enc.createSymbolModel(64);
+        ic_intensity = new IntegerCompressor(enc, 16, 4);
+        m_scan_angle_rank[0] = enc.createSymbolModel(256);
+        m_scan_angle_rank[1] = enc.createSymbolModel(256);
+        ic_point_source_ID = new IntegerCompressor(enc, 16);
+        ic_dx = new IntegerCompressor(enc, 32, 2);  // 32 bits, 2 context
+        ic_dy = new IntegerCompressor(enc, 32, 22); // 32 bits, 22 contexts
+        ic_z = new IntegerCompressor(enc, 32, 20);  // 32 bits, 20 contexts
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        int i; // unsigned
+
+        /* init state */
+        for (i=0; i < 16; i++)
+        {
+            last_x_diff_median5[i].init();
+            last_y_diff_median5[i].init();
+            last_intensity[i] = 0;
+            last_height[i/2] = 0;
+        }
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_changed_values);
+        ic_intensity.initCompressor();
+        enc.initSymbolModel(m_scan_angle_rank[0]);
+        enc.initSymbolModel(m_scan_angle_rank[1]);
+        ic_point_source_ID.initCompressor();
+        for (i = 0; i < 256; i++)
+        {
+            if (m_bit_byte[i] != null) enc.initSymbolModel(m_bit_byte[i]);
+            if (m_classification[i] != null) enc.initSymbolModel(m_classification[i]);
+            if (m_user_data[i] != null) enc.initSymbolModel(m_user_data[i]);
+        }
+        ic_dx.initCompressor();
+        ic_dy.initCompressor();
+        ic_z.initCompressor();
+
+        /* init last item */
+        last_item.copyFrom((PointDataRecordPoint10) seedItem);
+
+        /* but set intensity to zero (for the algorith)*/
+        last_item.Intensity = 0;
+
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordPoint10 item = (PointDataRecordPoint10) point;
+        int r = item.getReturnNumber();
+        int n = item.getNumberOfReturns();
+        int m = number_return_map[n][r];
+        int l = number_return_level[n][r];
+        int k_bits; // unsigned
+        int median, diff; // signed
+
+        // compress which other values have changed
+        int changed_values = ((last_item.Flags != item.Flags ? 1 : 0) << 5) |
+                ((last_intensity[m] != item.Intensity ? 1 : 0) << 4) |
+                ((last_item.Classification != item.Classification ? 1 : 0) << 3) |
+                ((last_item.ScanAngleRank != item.ScanAngleRank ? 1 : 0) << 2) |
+                ((last_item.UserData != item.UserData ? 1 : 0) << 1) |
+                (last_item.PointSourceID != item.PointSourceID ? 1 : 0);
+
+        enc.encodeSymbol(m_changed_values, changed_values);
+
+        // compress the bit_byte (edge_of_flight_line, scan_direction_flag, returns, ...) if it has changed
+        if ((changed_values & 32) != 0)
+        {
+            int idx = Byte.toUnsignedInt(last_item.Flags);
+            if (m_bit_byte[idx] == null)
+            {
+                m_bit_byte[idx] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_bit_byte[idx]);
+            }
+            enc.encodeSymbol(m_bit_byte[idx], Byte.toUnsignedInt(item.Flags));
+        }
+
+        // compress the intensity if it has changed
+        if ((changed_values & 16) != 0)
+        {
+            ic_intensity.compress(last_intensity[m], item.Intensity, (m < 3 ? m : 3));
+            last_intensity[m] = item.Intensity;
+        }
+
+        // compress the classification ... if it has changed
+        if ((changed_values & 8) != 0)
+        {
+            if (m_classification[last_item.Classification] == null)
+            {
+                m_classification[last_item.Classification] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_classification[last_item.Classification]);
+            }
+            enc.encodeSymbol(m_classification[last_item.Classification], item.Classification);
+        }
+
+        // compress the scan_angle_rank ... if it has changed
+        if ((changed_values & 4) != 0)
+        {
+            int k = item.hasScanFlag(ScanFlag.ScanDirection) ? 1 : 0;
+            enc.encodeSymbol(m_scan_angle_rank[k], Byte.toUnsignedInt(U8_FOLD(item.ScanAngleRank - last_item.ScanAngleRank)));
+        }
+
+        // compress the user_data ... if it has changed
+        if ((changed_values & 2) != 0)
+        {
+            if (m_user_data[last_item.UserData] == null)
+            {
+                m_user_data[last_item.UserData] = enc.createSymbolModel(256);
+                enc.initSymbolModel(m_user_data[last_item.UserData]);
+            }
+            enc.encodeSymbol(m_user_data[last_item.UserData], item.UserData);
+        }
+
+        // compress the point_source_ID ... if it has changed
+        if ((changed_values & 1) != 0)
+        {
+            ic_point_source_ID.compress(last_item.PointSourceID, item.PointSourceID);
+        }
+
+        // compress x coordinate
+        median = last_x_diff_median5[m].get();
+        diff = item.X - last_item.X;
+        ic_dx.compress(median, diff, n==1 ? 1 : 0);
+        last_x_diff_median5[m].add(diff);
+
+        // compress y coordinate
+        k_bits = ic_dx.getK();
+        median = last_y_diff_median5[m].get();
+        diff = item.Y - last_item.Y;
+        ic_dy.compress(median, diff, (n==1 ? 1 : 0) + ( k_bits < 20 ? U32_ZERO_BIT_0(k_bits) : 20 ));
+        last_y_diff_median5[m].add(diff);
+
+        // compress z coordinate
+        k_bits = (ic_dx.getK() + ic_dy.getK()) / 2;
+        ic_z.compress(last_height[l], item.Z, (n==1 ? 1 : 0) + (k_bits < 18 ? U32_ZERO_BIT_0(k_bits) : 18));
+        last_height[l] = item.Z;
+
+        // copy the last item
+        last_item.copyFrom(item);
+        return TRUE;
     }
 }
@@ -10,18 +10,820 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.Common_v3.number_return_level_8ctx;
+import static com.github.mreutegg.laszip4j.laszip.Common_v3.number_return_map_6ctx;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.I32_QUANTIZE;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U32_ZERO_BIT_0;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_POINT14_v3 extends LASwriteItemCompressed {
+
+    private ArithmeticEncoder enc;
+
+    private ByteStreamOutArray outstream_channel_returns_XY;
+    private ByteStreamOutArray outstream_Z;
+    private ByteStreamOutArray outstream_classification;
+    private ByteStreamOutArray outstream_flags;
+    private ByteStreamOutArray outstream_intensity;
+    private ByteStreamOutArray outstream_scan_angle;
+    private ByteStreamOutArray outstream_user_data;
+    private ByteStreamOutArray outstream_point_source;
+    private ByteStreamOutArray outstream_gps_time;
+
+    private ArithmeticEncoder enc_channel_returns_XY;
+    private ArithmeticEncoder enc_Z;
+    private ArithmeticEncoder enc_classification;
+    private ArithmeticEncoder enc_flags;
+    private ArithmeticEncoder enc_intensity;
+    private ArithmeticEncoder enc_scan_angle;
+    private ArithmeticEncoder enc_user_data;
+    private ArithmeticEncoder enc_point_source;
+    private ArithmeticEncoder enc_gps_time;
+
+    private boolean changed_classification;
+    private boolean changed_flags;
+    private boolean changed_intensity;
+    private boolean changed_scan_angle;
+    private boolean changed_user_data;
+    private boolean changed_point_source;
+    private boolean changed_gps_time;
+
+    private int current_context;
+
+    private LAScontextPOINT14[] contexts = new LAScontextPOINT14[4];
+
+    public static final int LASZIP_GPSTIME_MULTI = 500;
+
+    public static final int LASZIP_GPSTIME_MULTI_MINUS = -10;
+    public static final int LASZIP_GPSTIME_MULTI_CODE_FULL = (LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS + 1);
+
+    public static final int LASZIP_GPSTIME_MULTI_TOTAL = (LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS + 5);
+
     public LASwriteItemCompressed_POINT14_v3(ArithmeticEncoder enc) {
+
+        /* not used as an encoder. just gives access to outstream */
+
+        assert(enc != null);
+        this.enc = enc;
+
+        /* zero outstreams and encoders */
+
+        outstream_channel_returns_XY = null;
+        outstream_Z = null;
+        outstream_classification = null;
+        outstream_flags = null;
+        outstream_intensity = null;
+        outstream_scan_angle = null;
+        outstream_user_data = null;
+        outstream_point_source = null;
+        outstream_gps_time = null;
+
+        enc_channel_returns_XY = null;
+        enc_Z = null;
+        enc_classification = null;
+        enc_flags = null;
+        enc_intensity = null;
+        enc_scan_angle = null;
+        enc_user_data = null;
+        enc_point_source = null;
+        enc_gps_time = null;
+
+        /* mark the four scanner channel contexts as uninitialized */
+
+        for (int i = 0; i < contexts.length; i++)
+        {
+            contexts[i] = new LAScontextPOINT14();
+            contexts[i].initialized = false;
+        }
+        current_context = 0;
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int context) {
+
+        /* on the first init create outstreams and encoders */
+
+        if (null == outstream_channel_returns_XY)
+        {
+            /* create outstreams */
+
+            outstream_channel_returns_XY = new ByteStreamOutArray();
+            outstream_Z = new ByteStreamOutArray();
+            outstream_classification = new ByteStreamOutArray();
+            outstream_flags = new ByteStreamOutArray();
+            outstream_intensity = new ByteStreamOutArray();
+            outstream_scan_angle = new ByteStreamOutArray();
+            outstream_user_data = new ByteStreamOutArray();
+            outstream_point_source = new ByteStreamOutArray();
+            outstream_gps_time = new ByteStreamOutArray();
+
+            /* create encoders */
+
+            enc_channel_returns_XY = new ArithmeticEncoder();
+            enc_Z = new ArithmeticEncoder();
+            enc_classification = new ArithmeticEncoder();
+            enc_flags = new ArithmeticEncoder();
+            enc_intensity = new ArithmeticEncoder();
+            enc_scan_angle = new ArithmeticEncoder();
+            enc_user_data = new ArithmeticEncoder();
+            enc_point_source = new ArithmeticEncoder();
+            enc_gps_time = new ArithmeticEncoder();
+        }
+        else
+        {
+            /* otherwise just seek back */
+
+            outstream_channel_returns_XY.seek(0);
+            outstream_Z.seek(0);
+            outstream_classification.seek(0);
+            outstream_flags.seek(0);
+            outstream_intensity.seek(0);
+            outstream_scan_angle.seek(0);
+            outstream_user_data.seek(0);
+            outstream_point_source.seek(0);
+            outstream_gps_time.seek(0);
+        }
+
+        /* init encoders */
+
+        enc_channel_returns_XY.init(outstream_channel_returns_XY);
+        enc_Z.init(outstream_Z);
+        enc_classification.init(outstream_classification);
+        enc_flags.init(outstream_flags);
+        enc_intensity.init(outstream_intensity);
+        enc_scan_angle.init(outstream_scan_angle);
+        enc_user_data.init(outstream_user_data);
+        enc_point_source.init(outstream_point_source);
+        enc_gps_time.init(outstream_gps_time);
+
+        /* set changed booleans to FALSE */
+
+        changed_classification = false;
+        changed_flags = false;
+        changed_intensity = false;
+        changed_scan_angle = false;
+        changed_user_data = false;
+        changed_point_source = false;
+        changed_gps_time = false;
+
+        /* mark the four scanner channel contexts as unused */
+
+        for (int c = 0; c < 4; c++)
+        {
+            contexts[c].unused = true;
+        }
+
+        /* set scanner channel as current context */
+
+        current_context = ((PointDataRecordPoint14)seedItem).getScannerChannel();
+
+        /* create and init entropy models and integer compressors (and init context from item) */
+
+        createAndInitModelsAndCompressors(current_context, (PointDataRecordPoint14)seedItem);
+
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int context)
+    {
+        PointDataRecordPoint14 item = (PointDataRecordPoint14) point;
+
+        // get last
+
+        PointDataRecordPoint14 last_item = contexts[current_context].last_item;
+
+        ////////////////////////////////////////
+        // compress returns_XY layer
+        ////////////////////////////////////////
+
+        // create single (3) / first (1) / last (2) / intermediate (0) context from last point return
+
+        int lpr = (last_item.getReturnNumber() == 1 ? 1 : 0); // first?
+        lpr += (last_item.getReturnNumber() >= last_item.getNumberOfReturns() ? 2 : 0); // last?
+
+        // add info whether the GPS time changed in the last return to the context
+
+        lpr += (last_item.gps_time_change ? 4 : 0);
+
+        // get the (potentially new) context
+
+        int scanner_channel = item.getScannerChannel();
+
+        // if context is not current the attributes are compared with the last item of
+        // that context or, if it is unused, the last item it will be initialized from
+
+        PointDataRecordPoint14 compare_item = last_item;
+        if (scanner_channel != current_context && !contexts[scanner_channel].unused)
+        {
+            compare_item = contexts[scanner_channel].last_item;
+        }
+
+        // determine changed attributes
+
+        boolean point_source_change = (item.PointSourceID != compare_item.PointSourceID);
+        boolean gps_time_change = (item.GPSTime != compare_item.GPSTime);
+        boolean scan_angle_change = (item.ScanAngle != compare_item.ScanAngle);
+
+        // get last and current return counts
+
+        int last_n = compare_item.getNumberOfReturns();
+        int last_r = compare_item.getReturnNumber();
+
+        int n = item.getNumberOfReturns();
+        int r = item.getReturnNumber();
+
+        // create the 7 bit mask that encodes various changes (its value ranges from 0 to 127)
+
+        int changed_values = ((scanner_channel != current_context ? 1 : 0) << 6) | // scanner channel compared to last point (same = 0 / different = 1)
+                ((point_source_change ? 1 : 0) << 5) | // point source ID compared to last point from *same* scanner channel (same = 0 / different = 1)
+                ((gps_time_change ? 1 : 0) << 4) |     // GPS time stamp compared to last point from *same* scanner channel (same = 0 / different = 1)
+                ((scan_angle_change ? 1 : 0) << 3) |   // scan angle compared to last point from *same* scanner channel (same = 0 / different = 1)
+                ((n != last_n ? 1 : 0) << 2);          // number of returns compared to last point from *same* scanner channel (same = 0 / different = 1)
+
+        // return number compared to last point of *same* scanner channel (same = 0 / plus one mod 16 = 1 / minus one mod 16 = 2 / other difference = 3)
+
+        if (r != last_r)
+        {
+            if (r == ((last_r + 1) % 16))
+            {
+                changed_values |= 1;
+            }
+            else if (r == ((last_r + 15) % 16))
+            {
+                changed_values |= 2;
+            }
+            else
+            {
+                changed_values |= 3;
+            }
+        }
+
+        // compress the 7 bit mask that encodes changes with last point return context
+
+        enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_changed_values[lpr], changed_values);
+
+        // if scanner channel has changed, record change
+
+        if ((changed_values & (1 << 6)) != 0)
+        {
+            int diff = scanner_channel - current_context;
+            if (diff > 0)
+            {
+                enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_scanner_channel, diff - 1); // curr = last + (sym + 1)
+            }
+            else
+            {
+                enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_scanner_channel, diff - 1 + 4); // curr = (last + (sym + 1)) % 4
+            }
+            // maybe create and init entropy models and integer compressors
+            if (contexts[scanner_channel].unused)
+            {
+                // create and init entropy models and integer compressors (and init context from last item)
+                createAndInitModelsAndCompressors(scanner_channel, contexts[current_context].last_item);
+            }
+            // switch context to current scanner channel
+            current_context = scanner_channel;
+
+            // get last for new context
+            last_item = contexts[current_context].last_item;
+            last_item.setScannerChannel((byte) scanner_channel);
+        }
+
+        // if number of returns is different we compress it
+
+        if ((changed_values & (1 << 2)) != 0)
+        {
+            if (contexts[current_context].m_number_of_returns[last_n] == null)
+            {
+                contexts[current_context].m_number_of_returns[last_n] = enc_channel_returns_XY.createSymbolModel(16);
+                enc_channel_returns_XY.initSymbolModel(contexts[current_context].m_number_of_returns[last_n]);
+            }
+            enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_number_of_returns[last_n], n);
+        }
+
+        // if return number is different and difference is bigger than +1 / -1 we compress how it is different
+
+        if ((changed_values & 3) == 3)
+        {
+            if (gps_time_change) // if the GPS time has changed
+            {
+                if (contexts[current_context].m_return_number[last_r] == null)
+                {
+                    contexts[current_context].m_return_number[last_r] = enc_channel_returns_XY.createSymbolModel(16);
+                    enc_channel_returns_XY.initSymbolModel(contexts[current_context].m_return_number[last_r]);
+                }
+                enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_return_number[last_r], r);
+            }
+            else // if the GPS time has not changed
+            {
+                int diff = r - last_r;
+                if (diff > 1)
+                {
+                    enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_return_number_gps_same, diff - 2); // r = last_r + (sym + 2) with sym = diff - 2
+                }
+                else
+                {
+                    enc_channel_returns_XY.encodeSymbol(contexts[current_context].m_return_number_gps_same, diff - 2 + 16); // r = (last_r + (sym + 2)) % 16 with sym = diff - 2 + 16
+                }
+            }
+        }
+
+        // get return map m and return level l context for current point
+
+        int m = number_return_map_6ctx[n][r];
+        int l = number_return_level_8ctx[n][r];
+
+        // create single (3) / first (1) / last (2) / intermediate (0) return context for current point
+
+        int cpr = (r == 1 ? 2 : 0); // first ?
+        cpr += (r >= n ? 1 : 0); // last ?
+
+        int k_bits;
+        int median, diff;
+
+        // compress X coordinate
+        median = contexts[current_context].last_X_diff_median5[(m<<1) | (gps_time_change?1:0)].get();
+        diff = item.X - last_item.X;
+        contexts[current_context].ic_dX.compress(median, diff, n==1?1:0);
+        contexts[current_context].last_X_diff_median5[(m<<1) | (gps_time_change?1:0)].add(diff);
+
+        // compress Y coordinate
+        k_bits = contexts[current_context].ic_dX.getK();
+        median = contexts[current_context].last_Y_diff_median5[(m<<1) | (gps_time_change?1:0)].get();
+        diff = item.Y - last_item.Y;
+        contexts[current_context].ic_dY.compress(median, diff, (n==1?1:0) + ( k_bits < 20 ? U32_ZERO_BIT_0(k_bits) : 20 ));
+        contexts[current_context].last_Y_diff_median5[(m<<1) | (gps_time_change?1:0)].add(diff);
+
+        ////////////////////////////////////////
+        // compress Z layer
+        ////////////////////////////////////////
+
+        k_bits = (contexts[current_context].ic_dX.getK() + contexts[current_context].ic_dY.getK()) / 2;
+        contexts[current_context].ic_Z.compress((int)contexts[current_context].last_Z[l], item.Z, (n==1?1:0) + (k_bits < 18 ? U32_ZERO_BIT_0(k_bits) : 18));
+        contexts[current_context].last_Z[l] = item.Z;
+
+        ////////////////////////////////////////
+        // compress classifications layer
+        ////////////////////////////////////////
+
+        int last_classification = last_item.Classification;
+        int classification = item.Classification;
+
+        if (classification != last_classification)
+        {
+            changed_classification = true;
+        }
+
+        int ccc = ((last_classification & 0x1F) << 1) + (cpr == 3 ? 1 : 0);
+        if (contexts[current_context].m_classification[ccc] == null)
+        {
+            contexts[current_context].m_classification[ccc] = enc_classification.createSymbolModel(256);
+            enc_classification.initSymbolModel(contexts[current_context].m_classification[ccc]);
+        }
+        enc_classification.encodeSymbol(contexts[current_context].m_classification[ccc], classification);
+
+        ////////////////////////////////////////
+        // compress flags layer
+        ////////////////////////////////////////
+
+        // These flag bit locations don't agree with the las spec because the scanner channel bits are omitted from 'flags' here.
+        // So scan_direction_flag is at bit 4, and edge_of_flight_line is at bit 5
+
+        int last_flags = ((last_item.hasScanFlag(ScanFlag.EdgeOfFlightLine)?1:0) << 5) |
+                ((last_item.hasScanFlag(ScanFlag.ScanDirection)?1:0) << 4) |
+                last_item.getClassificationFlags();
+        int flags = ((item.hasScanFlag(ScanFlag.EdgeOfFlightLine)?1:0) << 5) |
+                ((item.hasScanFlag(ScanFlag.ScanDirection)?1:0) << 4) |
+                item.getClassificationFlags();
+
+        if (flags != last_flags)
+        {
+            changed_flags = true;
+        }
+
+        if (contexts[current_context].m_flags[last_flags] == null)
+        {
+            contexts[current_context].m_flags[last_flags] = enc_flags.createSymbolModel(64);
+            enc_flags.initSymbolModel(contexts[current_context].m_flags[last_flags]);
+        }
+        enc_flags.encodeSymbol(contexts[current_context].m_flags[last_flags], flags);
+
+        ////////////////////////////////////////
+        // compress intensity layer
+        ////////////////////////////////////////
+
+        if (item.Intensity != last_item.Intensity)
+        {
+            changed_intensity = true;
+        }
+        contexts[current_context].ic_intensity.compress(contexts[current_context].last_intensity[(cpr<<1) | (gps_time_change?1:0)], item.Intensity, cpr);
+        contexts[current_context].last_intensity[(cpr<<1) | (gps_time_change?1:0)] = item.Intensity;
+
+        ////////////////////////////////////////
+        // compress scan_angle layer
+        ////////////////////////////////////////
+
+        if (scan_angle_change)
+        {
+            changed_scan_angle = true;
+            contexts[current_context].ic_scan_angle.compress(last_item.ScanAngle, item.ScanAngle, (gps_time_change?1:0)); // if the GPS time has changed
+        }
+
+        ////////////////////////////////////////
+        // compress user_data layer
+        ////////////////////////////////////////
+
+        if (item.UserData != last_item.UserData)
+        {
+            changed_user_data = true;
+        }
+        if (contexts[current_context].m_user_data[last_item.UserData/4] == null)
+        {
+            contexts[current_context].m_user_data[last_item.UserData/4] = enc_user_data.createSymbolModel(256);
+            enc_user_data.initSymbolModel(contexts[current_context].m_user_data[last_item.UserData/4]);
+        }
+        enc_user_data.encodeSymbol(contexts[current_context].m_user_data[last_item.UserData/4], item.UserData);
+
+        ////////////////////////////////////////
+        // compress point_source layer
+        ////////////////////////////////////////
+
+        if (point_source_change)
+        {
+            changed_point_source = true;
+            contexts[current_context].ic_point_source_ID.compress(last_item.PointSourceID, item.PointSourceID);
+        }
+
+        ////////////////////////////////////////
+        // compress gps_time layer
+        ////////////////////////////////////////
+
+        if (gps_time_change) // if the GPS time has changed
+        {
+            changed_gps_time = true;
+            write_gps_time(item.GPSTime);
+        }
+
+        // copy the last item
+        last_item.copyFrom(item);
+        // remember if the last point had a gps_time_change
+        last_item.gps_time_change = gps_time_change;
+
+        return TRUE;
+    }
+
+    @Override
+    public boolean chunk_sizes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // finish the encoders
+
+        enc_channel_returns_XY.done();
+        enc_Z.done();
+        if (changed_classification) enc_classification.done();
+        if (changed_flags) enc_flags.done();
+        if (changed_intensity) enc_intensity.done();
+        if (changed_scan_angle) enc_scan_angle.done();
+        if (changed_user_data) enc_user_data.done();
+        if (changed_point_source) enc_point_source.done();
+        if (changed_gps_time) enc_gps_time.done();
+
+        // output the sizes of all layer (i.e.. number of bytes per layer)
+
+        outstream.put32bitsLE((int) outstream_channel_returns_XY.tell());
+        outstream.put32bitsLE((int) outstream_Z.tell());
+        outstream.put32bitsLE(changed_classification ? (int) outstream_classification.tell() : 0);
+        outstream.put32bitsLE(changed_flags ? (int) outstream_flags.tell() : 0);
+        outstream.put32bitsLE(changed_intensity ? (int) outstream_intensity.tell() : 0);
+        outstream.put32bitsLE(changed_scan_angle ? (int) outstream_scan_angle.tell() : 0);
+        outstream.put32bitsLE(changed_user_data ? (int) outstream_user_data.tell() : 0);
+        outstream.put32bitsLE(changed_point_source ? (int) outstream_point_source.tell() : 0);
+        outstream.put32bitsLE(changed_gps_time ? (int) outstream_gps_time.tell() : 0);
+
+        return TRUE;
+    }
+
+    @Override
+    public boolean chunk_bytes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // output the bytes of all layers
+
+        putLayer(outstream, outstream_channel_returns_XY);
+        putLayer(outstream, outstream_Z);
+        if (changed_classification) putLayer(outstream, outstream_classification);
+        if (changed_flags) putLayer(outstream, outstream_flags);
+        if (changed_intensity) putLayer(outstream, outstream_intensity);
+        if (changed_scan_angle) putLayer(outstream, outstream_scan_angle);
+        if (changed_user_data) putLayer(outstream, outstream_user_data);
+        if (changed_point_source) putLayer(outstream, outstream_point_source);
+        if (changed_gps_time) putLayer(outstream, outstream_gps_time);
+
+        return TRUE;
+    }
+
+    static void putLayer(ByteStreamOut outstream, ByteStreamOutArray layer) {
+        int num_bytes = (int) layer.tell();
+        if (num_bytes > 0) {
+            outstream.putBytes(layer.getData().array(), 0, num_bytes);
+        }
+    }
+
+    private boolean createAndInitModelsAndCompressors(int context, PointDataRecordPoint14 seedItem)
+    {
+        /* should only be called when context is unused */
+
+        assert(contexts[context].unused);
+
+        /* first create all entropy models and integer compressors (if needed) */
+
+        if ( !contexts[context].initialized )
+        {
+            /* for the channel_returns_XY layer */
+
+            for (int i = 0; i < 8; i++)
+            {
+                contexts[context].m_changed_values[i] = enc_channel_returns_XY.createSymbolModel(128);
+            }
+            contexts[context].m_scanner_channel = enc_channel_returns_XY.createSymbolModel(3);
+            for (int i = 0; i < 16; i++)
+            {
+                contexts[context].m_number_of_returns[i] = null;
+                contexts[context].m_return_number[i] = null;
+            }
+            contexts[context].m_return_number_gps_same = enc_channel_returns_XY.createSymbolModel(13);
+
+            contexts[context].ic_dX = new IntegerCompressor(enc_channel_returns_XY, 32, 2);  // 32 bits, 2 context
+            contexts[context].ic_dY = new IntegerCompressor(enc_channel_returns_XY, 32, 22); // 32 bits, 22 contexts
+
+            /* for the Z layer */
+
+            contexts[context].ic_Z = new IntegerCompressor(enc_Z, 32, 20);  // 32 bits, 20 contexts
+
+            /* for the classification layer */
+            /* for the flags layer */
+            /* for the user_data layer */
+
+            for (int i = 0; i < 64; i++)
+            {
+                contexts[context].m_classification[i] = null;
+                contexts[context].m_flags[i] = null;
+                contexts[context].m_user_data[i] = null;
+            }
+
+            /* for the intensity layer */
+
+            contexts[context].ic_intensity = new IntegerCompressor(enc_intensity, 16, 4);
+
+            /* for the scan_angle layer */
+
+            contexts[context].ic_scan_angle = new IntegerCompressor(enc_scan_angle, 16, 2);
+
+            /* for the point_source_ID layer */
+
+            contexts[context].ic_point_source_ID = new IntegerCompressor(enc_point_source, 16);
+
+            /* for the gps_time layer */
+
+            contexts[context].m_gpstime_multi = enc_gps_time.createSymbolModel(LASZIP_GPSTIME_MULTI_TOTAL);
+            contexts[context].m_gpstime_0diff = enc_gps_time.createSymbolModel(5);
+            contexts[context].ic_gpstime = new IntegerCompressor(enc_gps_time, 32, 9); // 32 bits, 9 contexts
+
+            contexts[context].initialized = true;
+        }
+
+        /* then init entropy models and integer compressors */
+
+        /* for the channel_returns_XY layer */
+
+        for (int i = 0; i < 8; i++)
+        {
+            enc_channel_returns_XY.initSymbolModel(contexts[context].m_changed_values[i]);
+        }
+        enc_channel_returns_XY.initSymbolModel(contexts[context].m_scanner_channel);
+        for (int i = 0; i < 16; i++)
+        {
+            if (null != contexts[context].m_number_of_returns[i]) enc_channel_returns_XY.initSymbolModel(contexts[context].m_number_of_returns[i]);
+            if (null != contexts[context].m_return_number[i]) enc_channel_returns_XY.initSymbolModel(contexts[context].m_return_number[i]);
+        }
+        enc_channel_returns_XY.initSymbolModel(contexts[context].m_return_number_gps_same);
+        contexts[context].ic_dX.initCompressor();
+        contexts[context].ic_dY.initCompressor();
+        for (int i = 0; i < 12; i++)
+        {
+            contexts[context].last_X_diff_median5[i].init();
+            contexts[context].last_Y_diff_median5[i].init();
+        }
+
+        /* for the Z layer */
+
+        contexts[context].ic_Z.initCompressor();
+        for (int i = 0; i < 8; i++)
+        {
+            contexts[context].last_Z[i] = seedItem.Z;
+        }
+
+        /* for the classification layer */
+        /* for the flags layer */
+        /* for the user_data layer */
+
+        for (int i = 0; i < 64; i++)
+        {
+            if (null != contexts[context].m_classification[i]) enc_classification.initSymbolModel(contexts[context].m_classification[i]);
+            if (null != contexts[context].m_flags[i]) enc_flags.initSymbolModel(contexts[context].m_flags[i]);
+            if (null != contexts[context].m_user_data[i]) enc_user_data.initSymbolModel(contexts[context].m_user_data[i]);
+        }
+
+        /* for the intensity layer */
+
+        contexts[context].ic_intensity.initCompressor();
+        for (int i = 0; i < 8; i++)
+        {
+            contexts[context].last_intensity[i] = seedItem.Intensity;
+        }
+
+        /* for the scan_angle layer */
+
+        contexts[context].ic_scan_angle.initCompressor();
+
+        /* for the point_source_ID layer */
+
+        contexts[context].ic_point_source_ID.initCompressor();
+
+        /* for the gps_time layer */
+
+        enc_gps_time.initSymbolModel(contexts[context].m_gpstime_multi);
+        enc_gps_time.initSymbolModel(contexts[context].m_gpstime_0diff);
+        contexts[context].ic_gpstime.initCompressor();
+        contexts[context].last = 0;
+        contexts[context].next = 0;
+        contexts[context].last_gpstime_diff[0] = 0;
+        contexts[context].last_gpstime_diff[1] = 0;
+        contexts[context].last_gpstime_diff[2] = 0;
+        contexts[context].last_gpstime_diff[3] = 0;
+        contexts[context].multi_extreme_counter[0] = 0;
+        contexts[context].multi_extreme_counter[1] = 0;
+        contexts[context].multi_extreme_counter[2] = 0;
+        contexts[context].multi_extreme_counter[3] = 0;
+        contexts[context].last_gpstime[0] = seedItem.GPSTime;
+        contexts[context].last_gpstime[1] = 0;
+        contexts[context].last_gpstime[2] = 0;
+        contexts[context].last_gpstime[3] = 0;
+
+        /* init current context from item */
+
+        contexts[context].last_item = new PointDataRecordPoint14(seedItem);
+        contexts[context].last_item.gps_time_change = false;
+
+        contexts[context].unused = false;
+
+        return TRUE;
+    }
+
+    private void write_gps_time(long gps_time)
+    {
+        LAScontextPOINT14 ctx = contexts[current_context];
+        if (ctx.last_gpstime_diff[ctx.last] == 0) // if the last integer difference was zero
+        {
+            // calculate the difference between the two doubles as an integer
+            long curr_gpstime_diff_64 = gps_time - ctx.last_gpstime[ctx.last];
+            int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+            if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+            {
+                enc_gps_time.encodeSymbol(ctx.m_gpstime_0diff, 0); // the difference can be represented with 32 bits
+                ctx.ic_gpstime.compress(0, curr_gpstime_diff, 0);
+                ctx.last_gpstime_diff[ctx.last] = curr_gpstime_diff;
+                ctx.multi_extreme_counter[ctx.last] = 0;
+            }
+            else // the difference is huge
+            {
+                // maybe the double belongs to another time sequence
+                for (int i = 1; i < 4; i++)
+                {
+                    long other_gpstime_diff_64 = gps_time - ctx.last_gpstime[(ctx.last+i)&3];
+                    int other_gpstime_diff = (int) other_gpstime_diff_64;
+                    if (other_gpstime_diff_64 == (long) other_gpstime_diff)
+                    {
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_0diff, i+1); // it belongs to another sequence
+                        ctx.last = (ctx.last+i)&3;
+                        write_gps_time(gps_time);
+                        return;
+                    }
+                }
+                // no other sequence found. start new sequence.
+                enc_gps_time.encodeSymbol(ctx.m_gpstime_0diff, 1);
+                ctx.ic_gpstime.compress((int)(ctx.last_gpstime[ctx.last] >>> 32), (int)(gps_time >>> 32), 8);
+                enc_gps_time.writeInt((int) gps_time);
+                ctx.next = (ctx.next+1)&3;
+                ctx.last = ctx.next;
+                ctx.last_gpstime_diff[ctx.last] = 0;
+                ctx.multi_extreme_counter[ctx.last] = 0;
+            }
+            ctx.last_gpstime[ctx.last] = gps_time;
+        }
+        else // the last integer difference was *not* zero
+        {
+            // calculate the difference between the two doubles as an integer
+            long curr_gpstime_diff_64 = gps_time - ctx.last_gpstime[ctx.last];
+            int curr_gpstime_diff = (int) curr_gpstime_diff_64;
+
+            // if the current gpstime difference can be represented with 32 bits
+            if (curr_gpstime_diff_64 == (long) curr_gpstime_diff)
+            {
+                // compute multiplier between current and last integer difference
+                float multi_f = (float) curr_gpstime_diff / (float) (ctx.last_gpstime_diff[ctx.last]);
+                int multi = I32_QUANTIZE(multi_f);
+
+                // compress the residual curr_gpstime_diff in dependance on the multiplier
+                if (multi == 1)
+                {
+                    // this is the case we assume we get most often for regular spaced pulses
+                    enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, 1);
+                    ctx.ic_gpstime.compress(ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 1);
+                    ctx.multi_extreme_counter[ctx.last] = 0;
+                }
+                else if (multi > 0)
+                {
+                    if (multi < LASZIP_GPSTIME_MULTI) // positive multipliers up to LASZIP_GPSTIME_MULTI are compressed directly
+                    {
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, multi);
+                        if (multi < 10)
+                            ctx.ic_gpstime.compress(multi*ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 2);
+                        else
+                            ctx.ic_gpstime.compress(multi*ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 3);
+                    }
+                    else
+                    {
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, LASZIP_GPSTIME_MULTI);
+                        ctx.ic_gpstime.compress(LASZIP_GPSTIME_MULTI*ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 4);
+                        ctx.multi_extreme_counter[ctx.last]++;
+                        if (ctx.multi_extreme_counter[ctx.last] > 3)
+                        {
+                            ctx.last_gpstime_diff[ctx.last] = curr_gpstime_diff;
+                            ctx.multi_extreme_counter[ctx.last] = 0;
+                        }
+                    }
+                }
+                else if (multi < 0)
+                {
+                    if (multi > LASZIP_GPSTIME_MULTI_MINUS) // negative multipliers larger than LASZIP_GPSTIME_MULTI_MINUS are compressed directly
+                    {
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, LASZIP_GPSTIME_MULTI - multi);
+                        ctx.ic_gpstime.compress(multi*ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 5);
+                    }
+                    else
+                    {
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, LASZIP_GPSTIME_MULTI - LASZIP_GPSTIME_MULTI_MINUS);
+                        ctx.ic_gpstime.compress(LASZIP_GPSTIME_MULTI_MINUS*ctx.last_gpstime_diff[ctx.last], curr_gpstime_diff, 6);
+                        ctx.multi_extreme_counter[ctx.last]++;
+                        if (ctx.multi_extreme_counter[ctx.last] > 3)
+                        {
+                            ctx.last_gpstime_diff[ctx.last] = curr_gpstime_diff;
+                            ctx.multi_extreme_counter[ctx.last] = 0;
+                        }
+                    }
+                }
+                else
+                {
+                    enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, 0);
+                    ctx.ic_gpstime.compress(0, curr_gpstime_diff, 7);
+                    ctx.multi_extreme_counter[ctx.last]++;
+                    if (ctx.multi_extreme_counter[ctx.last] > 3)
+                    {
+                        ctx.last_gpstime_diff[ctx.last] = curr_gpstime_diff;
+                        ctx.multi_extreme_counter[ctx.last] = 0;
+                    }
+                }
+            }
+            else // the difference is huge
+            {
+                // maybe the double belongs to another time sequence
+                for (int i = 1; i < 4; i++)
+                {
+                    long other_gpstime_diff_64 = gps_time - ctx.last_gpstime[(ctx.last+i)&3];
+                    int other_gpstime_diff = (int) other_gpstime_diff_64;
+                    if (other_gpstime_diff_64 == (long) other_gpstime_diff)
+                    {
+                        // it belongs to this sequence
+                        enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, LASZIP_GPSTIME_MULTI_CODE_FULL+i);
+                        ctx.last = (ctx.last+i)&3;
+                        write_gps_time(gps_time);
+                        return;
+                    }
+                }
+                // no other sequence found. start new sequence.
+                enc_gps_time.encodeSymbol(ctx.m_gpstime_multi, LASZIP_GPSTIME_MULTI_CODE_FULL);
+                ctx.ic_gpstime.compress((int)(ctx.last_gpstime[ctx.last] >>> 32), (int)(gps_time >>> 32), 8);
+                enc_gps_time.writeInt((int) gps_time);
+                ctx.next = (ctx.next+1)&3;
+                ctx.last = ctx.next;
+                ctx.last_gpstime_diff[ctx.last] = 0;
+                ctx.multi_extreme_counter[ctx.last] = 0;
+            }
+            ctx.last_gpstime[ctx.last] = gps_time;
+        }
     }
 }
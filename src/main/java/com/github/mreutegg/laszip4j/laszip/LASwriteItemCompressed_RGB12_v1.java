@@ -10,18 +10,65 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_RGB12_v1 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_RGB12_v1(ArithmeticEncoder enc) {
+
+    private ArithmeticEncoder enc;
+    private PointDataRecordRGB last_item;
+
+    private ArithmeticModel m_byte_used;
+    private IntegerCompressor ic_rgb;
+
+    public LASwriteItemCompressed_RGB12_v1(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* create models and integer compressors */
+        m_byte_used = enc.createSymbolModel(64);
+        ic_rgb = new IntegerCompressor(enc, 8, 6);
+
+        last_item = null;
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_byte_used);
+        ic_rgb.initCompressor();
+
+        /* init last item */
+        last_item = new PointDataRecordRGB((PointDataRecordRGB) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordRGB item = (PointDataRecordRGB) point;
+
+        int sym = ((last_item.R&0x00FF) != (item.R&0x00FF) ? 1 : 0) << 0;
+        sym |= ((last_item.R&0xFF00) != (item.R&0xFF00) ? 1 : 0) << 1;
+        sym |= ((last_item.G&0x00FF) != (item.G&0x00FF) ? 1 : 0) << 2;
+        sym |= ((last_item.G&0xFF00) != (item.G&0xFF00) ? 1 : 0) << 3;
+        sym |= ((last_item.B&0x00FF) != (item.B&0x00FF) ? 1 : 0) << 4;
+        sym |= ((last_item.B&0xFF00) != (item.B&0xFF00) ? 1 : 0) << 5;
+        enc.encodeSymbol(m_byte_used, sym);
+        if ((sym & (1 << 0)) != 0) ic_rgb.compress(last_item.R&255, item.R&255, 0);
+        if ((sym & (1 << 1)) != 0) ic_rgb.compress(last_item.R>>8, item.R>>8, 1);
+        if ((sym & (1 << 2)) != 0) ic_rgb.compress(last_item.G&255, item.G&255, 2);
+        if ((sym & (1 << 3)) != 0) ic_rgb.compress(last_item.G>>8, item.G>>8, 3);
+        if ((sym & (1 << 4)) != 0) ic_rgb.compress(last_item.B&255, item.B&255, 4);
+        if ((sym & (1 << 5)) != 0) ic_rgb.compress(last_item.B>>8, item.B>>8, 5);
+
+        last_item.R = item.R;
+        last_item.G = item.G;
+        last_item.B = item.B;
+        return TRUE;
     }
 }
@@ -10,18 +10,117 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_CLAMP;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_FOLD;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_RGB12_v2 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_RGB12_v2(ArithmeticEncoder enc) {
+
+    private ArithmeticEncoder enc;
+    private PointDataRecordRGB last_item = new PointDataRecordRGB();
+
+    private ArithmeticModel m_byte_used;
+    private ArithmeticModel m_rgb_diff_0;
+    private ArithmeticModel m_rgb_diff_1;
+    private ArithmeticModel m_rgb_diff_2;
+    private ArithmeticModel m_rgb_diff_3;
+    private ArithmeticModel m_rgb_diff_4;
+    private ArithmeticModel m_rgb_diff_5;
+
+    public LASwriteItemCompressed_RGB12_v2(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* create models and integer compressors */
+        m_byte_used = enc.createSymbolModel(128);
+        m_rgb_diff_0 = enc.createSymbolModel(256);
+        m_rgb_diff_1 = enc.createSymbolModel(256);
+        m_rgb_diff_2 = enc.createSymbolModel(256);
+        m_rgb_diff_3 = enc.createSymbolModel(256);
+        m_rgb_diff_4 = enc.createSymbolModel(256);
+        m_rgb_diff_5 = enc.createSymbolModel(256);
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_byte_used);
+        enc.initSymbolModel(m_rgb_diff_0);
+        enc.initSymbolModel(m_rgb_diff_1);
+        enc.initSymbolModel(m_rgb_diff_2);
+        enc.initSymbolModel(m_rgb_diff_3);
+        enc.initSymbolModel(m_rgb_diff_4);
+        enc.initSymbolModel(m_rgb_diff_5);
+
+        /* init last item */
+        copy((PointDataRecordRGB) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordRGB item = (PointDataRecordRGB) point;
+        int diff_l = 0;
+        int diff_h = 0;
+        int corr;
+        int sym = ((last_item.R&0x00FF) != (item.R&0x00FF) ? 1 : 0) << 0;
+        sym |= ((last_item.R&0xFF00) != (item.R&0xFF00) ? 1 : 0) << 1;
+        sym |= ((last_item.G&0x00FF) != (item.G&0x00FF) ? 1 : 0) << 2;
+        sym |= ((last_item.G&0xFF00) != (item.G&0xFF00) ? 1 : 0) << 3;
+        sym |= ((last_item.B&0x00FF) != (item.B&0x00FF) ? 1 : 0) << 4;
+        sym |= ((last_item.B&0xFF00) != (item.B&0xFF00) ? 1 : 0) << 5;
+        sym |= (((item.R&0x00FF) != (item.G&0x00FF)) || ((item.R&0x00FF) != (item.B&0x00FF)) ||
+                ((item.R&0xFF00) != (item.G&0xFF00)) || ((item.R&0xFF00) != (item.B&0xFF00)) ? 1 : 0) << 6;
+        enc.encodeSymbol(m_byte_used, sym);
+        if ((sym & (1 << 0)) != 0)
+        {
+            diff_l = (item.R&255) - (last_item.R&255);
+            enc.encodeSymbol(m_rgb_diff_0, Byte.toUnsignedInt(U8_FOLD(diff_l)));
+        }
+        if ((sym & (1 << 1)) != 0)
+        {
+            diff_h = (item.R>>>8) - (last_item.R>>>8);
+            enc.encodeSymbol(m_rgb_diff_1, Byte.toUnsignedInt(U8_FOLD(diff_h)));
+        }
+        if ((sym & (1 << 6)) != 0)
+        {
+            if ((sym & (1 << 2)) != 0)
+            {
+                corr = (item.G&255) - U8_CLAMP(diff_l + (last_item.G&255));
+                enc.encodeSymbol(m_rgb_diff_2, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 4)) != 0)
+            {
+                diff_l = (diff_l + (item.G&255) - (last_item.G&255)) / 2;
+                corr = (item.B&255) - U8_CLAMP(diff_l + (last_item.B&255));
+                enc.encodeSymbol(m_rgb_diff_4, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 3)) != 0)
+            {
+                corr = (item.G>>>8) - U8_CLAMP(diff_h + (last_item.G>>>8));
+                enc.encodeSymbol(m_rgb_diff_3, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 5)) != 0)
+            {
+                diff_h = (diff_h + (item.G>>>8) - (last_item.G>>>8)) / 2;
+                corr = (item.B>>>8) - U8_CLAMP(diff_h + (last_item.B>>>8));
+                enc.encodeSymbol(m_rgb_diff_5, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+        }
+        copy(item);
+        return TRUE;
+    }
+
+    private void copy(PointDataRecordRGB item)
+    {
+        last_item.R = item.R;
+        last_item.G = item.G;
+        last_item.B = item.B;
     }
 }
@@ -10,18 +10,208 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.LASwriteItemCompressed_POINT14_v3.putLayer;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_CLAMP;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U8_FOLD;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_RGB14_v3 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_RGB14_v3(ArithmeticEncoder enc) {
+
+    private ArithmeticEncoder enc;
+    private ByteStreamOutArray outstream_RGB;
+    private ArithmeticEncoder enc_RGB;
+    private boolean changed_RGB;
+    private int current_context;
+    private LAScontextRGB14[] contexts = new LAScontextRGB14[4];
+
+    public LASwriteItemCompressed_RGB14_v3(ArithmeticEncoder enc)
+    {
+        /* not used as an encoder. just gives access to outstream */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* zero outstreams and encoders */
+        outstream_RGB = null;
+        enc_RGB = null;
+
+        /* mark the four scanner channel contexts as uninitialized */
+        for (int c = 0; c < contexts.length; c++)
+        {
+            contexts[c] = new LAScontextRGB14();
+            contexts[c].m_byte_used = null;
+        }
+        current_context = 0;
+    }
+
+    @Override
+    public boolean init(PointDataRecord seedItem, int context)
+    {
+        /* on the first init create outstreams and encoders */
+        if (outstream_RGB == null)
+        {
+            outstream_RGB = new ByteStreamOutArray();
+            enc_RGB = new ArithmeticEncoder();
+        }
+        else
+        {
+            /* otherwise just seek back */
+            outstream_RGB.seek(0);
+        }
+
+        /* init encoders */
+        enc_RGB.init(outstream_RGB);
+
+        /* set changed booleans to FALSE */
+        changed_RGB = false;
+
+        /* mark the four scanner channel contexts as unused */
+        for (int c = 0; c < 4; c++)
+        {
+            contexts[c].unused = true;
+        }
+
+        /* set scanner channel as current context */
+        current_context = context; // all other items use context set by POINT14 writer
+
+        /* create and init entropy models and integer compressors (and init context from item) */
+        createAndInitModelsAndCompressors(current_context, (PointDataRecordRGB) seedItem);
+
+        return TRUE;
+    }
+
+    @Override
+    public boolean write(PointDataRecord point, int context)
+    {
+        PointDataRecordRGB item = (PointDataRecordRGB) point;
+
+        // get last
+        PointDataRecordRGB last_item = contexts[current_context].last_item;
+
+        // check for context switch
+        if (current_context != context)
+        {
+            current_context = context; // all other items use context set by POINT14 writer
+            if (contexts[current_context].unused)
+            {
+                createAndInitModelsAndCompressors(current_context, last_item);
+                last_item = contexts[current_context].last_item;
+            }
+        }
+
+        // compress
+        int diff_l = 0;
+        int diff_h = 0;
+        int corr;
+        int sym = ((last_item.R&0x00FF) != (item.R&0x00FF) ? 1 : 0) << 0;
+        sym |= ((last_item.R&0xFF00) != (item.R&0xFF00) ? 1 : 0) << 1;
+        sym |= ((last_item.G&0x00FF) != (item.G&0x00FF) ? 1 : 0) << 2;
+        sym |= ((last_item.G&0xFF00) != (item.G&0xFF00) ? 1 : 0) << 3;
+        sym |= ((last_item.B&0x00FF) != (item.B&0x00FF) ? 1 : 0) << 4;
+        sym |= ((last_item.B&0xFF00) != (item.B&0xFF00) ? 1 : 0) << 5;
+        sym |= (((item.R&0x00FF) != (item.G&0x00FF)) || ((item.R&0x00FF) != (item.B&0x00FF)) ||
+                ((item.R&0xFF00) != (item.G&0xFF00)) || ((item.R&0xFF00) != (item.B&0xFF00)) ? 1 : 0) << 6;
+        enc_RGB.encodeSymbol(contexts[current_context].m_byte_used, sym);
+        if ((sym & (1 << 0)) != 0)
+        {
+            diff_l = (item.R&255) - (last_item.R&255);
+            enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_0, Byte.toUnsignedInt(U8_FOLD(diff_l)));
+        }
+        if ((sym & (1 << 1)) != 0)
+        {
+            diff_h = (item.R>>>8) - (last_item.R>>>8);
+            enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_1, Byte.toUnsignedInt(U8_FOLD(diff_h)));
+        }
+        if ((sym & (1 << 6)) != 0)
+        {
+            if ((sym & (1 << 2)) != 0)
+            {
+                corr = (item.G&255) - U8_CLAMP(diff_l + (last_item.G&255));
+                enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_2, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 4)) != 0)
+            {
+                diff_l = (diff_l + (item.G&255) - (last_item.G&255)) / 2;
+                corr = (item.B&255) - U8_CLAMP(diff_l + (last_item.B&255));
+                enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_4, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 3)) != 0)
+            {
+                corr = (item.G>>>8) - U8_CLAMP(diff_h + (last_item.G>>>8));
+                enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_3, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+            if ((sym & (1 << 5)) != 0)
+            {
+                diff_h = (diff_h + (item.G>>>8) - (last_item.G>>>8)) / 2;
+                corr = (item.B>>>8) - U8_CLAMP(diff_h + (last_item.B>>>8));
+                enc_RGB.encodeSymbol(contexts[current_context].m_rgb_diff_5, Byte.toUnsignedInt(U8_FOLD(corr)));
+            }
+        }
+        if (sym != 0)
+        {
+            changed_RGB = true;
+        }
+        last_item.R = item.R;
+        last_item.G = item.G;
+        last_item.B = item.B;
+        return TRUE;
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean chunk_sizes()
+    {
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // finish the encoders
+        enc_RGB.done();
+
+        // output the sizes of all layer (i.e.. number of bytes per layer)
+        outstream.put32bitsLE(changed_RGB ? (int) outstream_RGB.tell() : 0);
+
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean chunk_bytes()
+    {
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // output the bytes of all layers
+        if (changed_RGB) putLayer(outstream, outstream_RGB);
+
+        return TRUE;
+    }
+
+    private boolean createAndInitModelsAndCompressors(int context, PointDataRecordRGB seedItem)
+    {
+        /* should only be called when context is unused */
+        assert(contexts[context].unused);
+
+        /* first create all entropy models (if needed) */
+        if (contexts[context].m_byte_used == null)
+        {
+            contexts[context].m_byte_used = enc_RGB.createSymbolModel(128);
+            contexts[context].m_rgb_diff_0 = enc_RGB.createSymbolModel(256);
+            contexts[context].m_rgb_diff_1 = enc_RGB.createSymbolModel(256);
+            contexts[context].m_rgb_diff_2 = enc_RGB.createSymbolModel(256);
+            contexts[context].m_rgb_diff_3 = enc_RGB.createSymbolModel(256);
+            contexts[context].m_rgb_diff_4 = enc_RGB.createSymbolModel(256);
+            contexts[context].m_rgb_diff_5 = enc_RGB.createSymbolModel(256);
+        }
+
+        /* then init entropy models */
+        enc_RGB.initSymbolModel(contexts[context].m_byte_used);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_0);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_1);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_2);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_3);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_4);
+        enc_RGB.initSymbolModel(contexts[context].m_rgb_diff_5);
+
+        /* init current context from item */
+        contexts[context].last_item = new PointDataRecordRGB(seedItem);
+
+        contexts[context].unused = false;
+
+        return TRUE;
     }
 }
@@ -10,18 +10,11 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
-public class LASwriteItemCompressed_RGB14_v4 extends LASwriteItemCompressed {
+/**
+ * Version 4 uses the same layered compression as version 3.
+ */
+public class LASwriteItemCompressed_RGB14_v4 extends LASwriteItemCompressed_RGB14_v3 {
     public LASwriteItemCompressed_RGB14_v4(ArithmeticEncoder enc) {
-    }
-
-    @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
-    }
-
-    @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+        super(enc);
     }
 }
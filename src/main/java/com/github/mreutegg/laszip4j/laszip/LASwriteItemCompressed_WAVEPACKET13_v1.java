@@ -10,18 +10,111 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_WAVEPACKET13_v1 extends LASwriteItemCompressed {
-    public LASwriteItemCompressed_WAVEPACKET13_v1(ArithmeticEncoder enc) {
+
+    private ArithmeticEncoder enc;
+    private PointDataRecordWavepacket last_item;
+
+    private int last_diff_32;
+    private int sym_last_offset_diff; // unsigned
+    private ArithmeticModel m_packet_index;
+    private ArithmeticModel[] m_offset_diff = new ArithmeticModel[4];
+    private IntegerCompressor ic_offset_diff;
+    private IntegerCompressor ic_packet_size;
+    private IntegerCompressor ic_return_point;
+    private IntegerCompressor ic_xyz;
+
+    public LASwriteItemCompressed_WAVEPACKET13_v1(ArithmeticEncoder enc)
+    {
+        /* set encoder */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* create models and integer compressors */
+        m_packet_index = enc.createSymbolModel(256);
+        m_offset_diff[0] = enc.createSymbolModel(4);
+        m_offset_diff[1] = enc.createSymbolModel(4);
+        m_offset_diff[2] = enc.createSymbolModel(4);
+        m_offset_diff[3] = enc.createSymbolModel(4);
+        ic_offset_diff = new IntegerCompressor(enc, 32);
+        ic_packet_size = new IntegerCompressor(enc, 32);
+        ic_return_point = new IntegerCompressor(enc, 32);
+        ic_xyz = new IntegerCompressor(enc, 32, 3);
+
+        /* create last item */
+        last_item = null;
     }
 
     @Override
-    public boolean write(PointDataRecord point, int context) {
-        return false;
+    public boolean init(PointDataRecord seedItem, int notUsed)
+    {
+        /* init state */
+        last_diff_32 = 0;
+        sym_last_offset_diff = 0;
+
+        /* init models and integer compressors */
+        enc.initSymbolModel(m_packet_index);
+        enc.initSymbolModel(m_offset_diff[0]);
+        enc.initSymbolModel(m_offset_diff[1]);
+        enc.initSymbolModel(m_offset_diff[2]);
+        enc.initSymbolModel(m_offset_diff[3]);
+        ic_offset_diff.initCompressor();
+        ic_packet_size.initCompressor();
+        ic_return_point.initCompressor();
+        ic_xyz.initCompressor();
+
+        /* init last item */
+        last_item = new PointDataRecordWavepacket((PointDataRecordWavepacket) seedItem);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean write(PointDataRecord point, int notUsed)
+    {
+        PointDataRecordWavepacket item = (PointDataRecordWavepacket) point;
+        enc.encodeSymbol(m_packet_index, item.DescriptorIndex & 0xFF);
+
+        // calculate the difference between the two offsets
+        long curr_diff_64 = item.OffsetToWaveformData - last_item.OffsetToWaveformData;
+        int curr_diff_32 = (int) curr_diff_64;
+
+        // if the current difference can be represented with 32 bits
+        if (curr_diff_64 == (long) curr_diff_32)
+        {
+            if (curr_diff_32 == 0) // current difference is zero
+            {
+                enc.encodeSymbol(m_offset_diff[sym_last_offset_diff], 0);
+                sym_last_offset_diff = 0;
+            }
+            else if (curr_diff_32 == (int) last_item.PacketSize) // current difference is size of last packet
+            {
+                enc.encodeSymbol(m_offset_diff[sym_last_offset_diff], 1);
+                sym_last_offset_diff = 1;
+            }
+            else
+            {
+                enc.encodeSymbol(m_offset_diff[sym_last_offset_diff], 2);
+                sym_last_offset_diff = 2;
+                ic_offset_diff.compress(last_diff_32, curr_diff_32);
+                last_diff_32 = curr_diff_32;
+            }
+        }
+        else
+        {
+            enc.encodeSymbol(m_offset_diff[sym_last_offset_diff], 3);
+            sym_last_offset_diff = 3;
+            enc.writeInt64(item.OffsetToWaveformData);
+        }
+
+        ic_packet_size.compress((int) last_item.PacketSize, (int) item.PacketSize);
+        ic_return_point.compress(last_item.getReturnPointWaveformLocationAsInt(), item.getReturnPointWaveformLocationAsInt());
+        ic_xyz.compress(last_item.getDxAsInt(), item.getDxAsInt(), 0);
+        ic_xyz.compress(last_item.getDyAsInt(), item.getDyAsInt(), 1);
+        ic_xyz.compress(last_item.getDzAsInt(), item.getDzAsInt(), 2);
+
+        last_item.copyFrom(item);
+        return TRUE;
     }
 }
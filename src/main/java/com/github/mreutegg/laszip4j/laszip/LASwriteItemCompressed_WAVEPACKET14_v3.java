@@ -10,18 +10,215 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
-// TODO: only dummy implementation
+import static com.github.mreutegg.laszip4j.laszip.LASwriteItemCompressed_POINT14_v3.putLayer;
+import static java.lang.Boolean.TRUE;
+
 public class LASwriteItemCompressed_WAVEPACKET14_v3 extends LASwriteItemCompressed {
+
+    private ArithmeticEncoder enc;
+    private ByteStreamOutArray outstream_wavepacket;
+    private ArithmeticEncoder enc_wavepacket;
+    private boolean changed_wavepacket;
+    private int current_context;
+    private LAScontextWAVEPACKET14[] contexts = new LAScontextWAVEPACKET14[4];
+
     public LASwriteItemCompressed_WAVEPACKET14_v3(ArithmeticEncoder enc) {
+
+        /* not used as an encoder. just gives access to outstream */
+        assert(enc != null);
+        this.enc = enc;
+
+        /* zero outstreams and encoders */
+        outstream_wavepacket = null;
+        enc_wavepacket = null;
+
+        /* mark the four scanner channel contexts as uninitialized */
+        for (int c = 0; c < contexts.length; c++)
+        {
+            contexts[c] = new LAScontextWAVEPACKET14();
+            contexts[c].m_packet_index = null;
+        }
+        current_context = 0;
+    }
+
+    @Override
+    public boolean init(PointDataRecord seedItem, int context) {
+
+        /* on the first init create outstreams and encoders */
+        if (outstream_wavepacket == null)
+        {
+            outstream_wavepacket = new ByteStreamOutArray();
+            enc_wavepacket = new ArithmeticEncoder();
+        }
+        else
+        {
+            /* otherwise just seek back */
+            outstream_wavepacket.seek(0);
+        }
+
+        /* init encoders */
+        enc_wavepacket.init(outstream_wavepacket);
+
+        /* set changed booleans to FALSE */
+        changed_wavepacket = false;
+
+        /* mark the four scanner channel contexts as unused */
+        for (int c = 0; c < 4; c++)
+        {
+            contexts[c].unused = true;
+        }
+
+        /* set scanner channel as current context */
+        current_context = context; // all other items use context set by POINT14 writer
+
+        /* create and init entropy models and integer compressors (and init context from item) */
+        createAndInitModelsAndCompressors(current_context, (PointDataRecordWavepacket) seedItem);
+
+        return TRUE;
     }
 
     @Override
     public boolean write(PointDataRecord point, int context) {
-        return false;
+
+        PointDataRecordWavepacket item = (PointDataRecordWavepacket) point;
+
+        // get last
+        PointDataRecordWavepacket last_item = contexts[current_context].last_item;
+
+        // check for context switch
+        if (current_context != context)
+        {
+            current_context = context; // all other items use context set by POINT14 writer
+            if (contexts[current_context].unused)
+            {
+                createAndInitModelsAndCompressors(current_context, last_item);
+                last_item = contexts[current_context].last_item;
+            }
+        }
+
+        if (!sameWavepacket(item, last_item))
+        {
+            changed_wavepacket = true;
+        }
+
+        // compress
+        LAScontextWAVEPACKET14 ctx = contexts[current_context];
+        enc_wavepacket.encodeSymbol(ctx.m_packet_index, item.DescriptorIndex & 0xFF);
+
+        // calculate the difference between the two offsets
+        long curr_diff_64 = item.OffsetToWaveformData - last_item.OffsetToWaveformData;
+        int curr_diff_32 = (int) curr_diff_64;
+
+        // if the current difference can be represented with 32 bits
+        if (curr_diff_64 == (long) curr_diff_32)
+        {
+            if (curr_diff_32 == 0) // current difference is zero
+            {
+                enc_wavepacket.encodeSymbol(ctx.m_offset_diff[ctx.sym_last_offset_diff], 0);
+                ctx.sym_last_offset_diff = 0;
+            }
+            else if (curr_diff_32 == (int) last_item.PacketSize) // current difference is size of last packet
+            {
+                enc_wavepacket.encodeSymbol(ctx.m_offset_diff[ctx.sym_last_offset_diff], 1);
+                ctx.sym_last_offset_diff = 1;
+            }
+            else
+            {
+                enc_wavepacket.encodeSymbol(ctx.m_offset_diff[ctx.sym_last_offset_diff], 2);
+                ctx.sym_last_offset_diff = 2;
+                ctx.ic_offset_diff.compress(ctx.last_diff_32, curr_diff_32);
+                ctx.last_diff_32 = curr_diff_32;
+            }
+        }
+        else
+        {
+            enc_wavepacket.encodeSymbol(ctx.m_offset_diff[ctx.sym_last_offset_diff], 3);
+            ctx.sym_last_offset_diff = 3;
+            enc_wavepacket.writeInt64(item.OffsetToWaveformData);
+        }
+
+        ctx.ic_packet_size.compress((int) last_item.PacketSize, (int) item.PacketSize);
+        ctx.ic_return_point.compress(last_item.getReturnPointWaveformLocationAsInt(), item.getReturnPointWaveformLocationAsInt());
+        ctx.ic_xyz.compress(last_item.getDxAsInt(), item.getDxAsInt(), 0);
+        ctx.ic_xyz.compress(last_item.getDyAsInt(), item.getDyAsInt(), 1);
+        ctx.ic_xyz.compress(last_item.getDzAsInt(), item.getDzAsInt(), 2);
+
+        last_item.copyFrom(item);
+        return TRUE;
     }
 
     @Override
-    public boolean init(PointDataRecord point, int context) {
-        return false;
+    public boolean chunk_sizes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // finish the encoders
+        enc_wavepacket.done();
+
+        // output the sizes of all layer (i.e.. number of bytes per layer)
+        outstream.put32bitsLE(changed_wavepacket ? (int) outstream_wavepacket.tell() : 0);
+
+        return TRUE;
+    }
+
+    @Override
+    public boolean chunk_bytes() {
+
+        ByteStreamOut outstream = enc.getByteStreamOut();
+
+        // output the bytes of all layers
+        if (changed_wavepacket) putLayer(outstream, outstream_wavepacket);
+
+        return TRUE;
+    }
+
+    private static boolean sameWavepacket(PointDataRecordWavepacket a, PointDataRecordWavepacket b) {
+        return a.DescriptorIndex == b.DescriptorIndex
+                && a.OffsetToWaveformData == b.OffsetToWaveformData
+                && a.PacketSize == b.PacketSize
+                && a.getReturnPointWaveformLocationAsInt() == b.getReturnPointWaveformLocationAsInt()
+                && a.getDxAsInt() == b.getDxAsInt()
+                && a.getDyAsInt() == b.getDyAsInt()
+                && a.getDzAsInt() == b.getDzAsInt();
+    }
+
+    private boolean createAndInitModelsAndCompressors(int context, PointDataRecordWavepacket seedItem) {
+
+        /* should only be called when context is unused */
+        assert(contexts[context].unused);
+
+        /* first create all entropy models (if needed) */
+        if (contexts[context].m_packet_index == null)
+        {
+            contexts[context].m_packet_index = enc_wavepacket.createSymbolModel(256);
+            contexts[context].m_offset_diff[0] = enc_wavepacket.createSymbolModel(4);
+            contexts[context].m_offset_diff[1] = enc_wavepacket.createSymbolModel(4);
+            contexts[context].m_offset_diff[2] = enc_wavepacket.createSymbolModel(4);
+            contexts[context].m_offset_diff[3] = enc_wavepacket.createSymbolModel(4);
+            contexts[context].ic_offset_diff = new IntegerCompressor(enc_wavepacket, 32);
+            contexts[context].ic_packet_size = new IntegerCompressor(enc_wavepacket, 32);
+            contexts[context].ic_return_point = new IntegerCompressor(enc_wavepacket, 32);
+            contexts[context].ic_xyz = new IntegerCompressor(enc_wavepacket, 32, 3);
+        }
+
+        /* then init entropy models */
+        enc_wavepacket.initSymbolModel(contexts[context].m_packet_index);
+        enc_wavepacket.initSymbolModel(contexts[context].m_offset_diff[0]);
+        enc_wavepacket.initSymbolModel(contexts[context].m_offset_diff[1]);
+        enc_wavepacket.initSymbolModel(contexts[context].m_offset_diff[2]);
+        enc_wavepacket.initSymbolModel(contexts[context].m_offset_diff[3]);
+        contexts[context].ic_offset_diff.initCompressor();
+        contexts[context].ic_packet_size.initCompressor();
+        contexts[context].ic_return_point.initCompressor();
+        contexts[context].ic_xyz.initCompressor();
+
+        /* init current context from item */
+        contexts[context].last_diff_32 = 0;
+        contexts[context].sym_last_offset_diff = 0;
+        contexts[context].last_item = new PointDataRecordWavepacket(seedItem);
+
+        contexts[context].unused = false;
+
+        return TRUE;
     }
 }
@@ -10,6 +10,8 @@
  */
 package com.github.mreutegg.laszip4j.laszip;
 
+import java.util.Arrays;
+
 import static com.github.mreutegg.laszip4j.laszip.LASzip.*;
 import static com.github.mreutegg.laszip4j.laszip.MyDefs.U32_MAX;
 import static java.lang.Boolean.FALSE;
@@ -24,6 +26,7 @@ public class LASwritePoint {
     private LASwriteItemCompressed[] writers_compressed;
     private ArithmeticEncoder enc;
     private boolean layered_las14_compression;
+    private int current_context;            // unsigned
     // used for chunking
     private int chunk_size;                 // unsigned
     private int chunk_count;                // unsigned
@@ -45,8 +48,8 @@ public class LASwritePoint {
             else
             {
                 alloced_chunks *= 2;
-                if (chunk_size == U32_MAX) chunk_sizes = new int[alloced_chunks];
-                chunk_bytes = new int[alloced_chunks];
+                if (chunk_size == U32_MAX) chunk_sizes = Arrays.copyOf(chunk_sizes, alloced_chunks);
+                chunk_bytes = Arrays.copyOf(chunk_bytes, alloced_chunks);
             }
         }
         long position = outstream.tell();
@@ -321,6 +324,11 @@ public class LASwritePoint {
     public boolean write(PointDataRecord[] pointRecords) {
         int i; // unsigned
         int context = 0; // unsigned
+        int scanner_channel = 0; // unsigned
+        if (pointRecords.length > 0 && pointRecords[0] instanceof PointDataRecordPoint14)
+        {
+            scanner_channel = ((PointDataRecordPoint14) pointRecords[0]).getScannerChannel();
+        }
 
         if (chunk_count == chunk_size)
         {
@@ -358,6 +366,13 @@ public class LASwritePoint {
 
         if (writers != null)
         {
+            // the POINT14 writer sets the context for all other items only
+            // when the scanner channel changes (same as the POINT14 reader)
+            if (scanner_channel != current_context)
+            {
+                current_context = scanner_channel;
+                context = current_context;
+            }
             for (i = 0; i < num_writers; i++)
             {
                 if (!writers[i].write(pointRecords[i], context))
@@ -368,13 +383,15 @@ public class LASwritePoint {
         }
         else
         {
+            // the POINT14 writer initializes the context from the scanner channel
+            current_context = scanner_channel;
             for (i = 0; i < num_writers; i++)
             {
                 if (!writers_raw[i].write(pointRecords[i], context))
                 {
                     return FALSE;
                 }
-                writers_compressed[i].init(pointRecords[i], context);
+                writers_compressed[i].init(pointRecords[i], current_context);
             }
             writers = writers_compressed;
             assert(enc != null);
@@ -411,6 +428,69 @@ public class LASwritePoint {
         chunk_count = 0;
         return TRUE;
     }
+
+    // compresses the points of one complete chunk into chunkstream. the
+    // points are read with records into point. the chunk is compressed
+    // independently of the chunks written to the output stream of this
+    // writer and can be added to it with write_chunk()
+    boolean compress_chunk(ByteStreamOut chunkstream, LASreadPoint records, PointDataRecord[] point, int number) {
+        int i; // unsigned
+        if (enc == null || chunk_start_position != 0) return FALSE;
+        if (Integer.compareUnsigned(number, chunk_size) > 0) return FALSE;
+        outstream = chunkstream;
+        for (i = 0; Integer.compareUnsigned(i, num_writers) < 0; i++)
+        {
+            writers_raw[i].init(outstream);
+        }
+        writers = null;
+        chunk_count = 0;
+        for (i = 0; Integer.compareUnsigned(i, number) < 0; i++)
+        {
+            if (!records.read(point) || !write(point))
+            {
+                return FALSE;
+            }
+        }
+        if (layered_las14_compression)
+        {
+            // write how many points are in the chunk
+            outstream.put32bitsLE(chunk_count);
+            // write all layers
+            for (i = 0; i < num_writers; i++)
+            {
+                ((LASwriteItemCompressed)writers[i]).chunk_sizes();
+            }
+            for (i = 0; i < num_writers; i++)
+            {
+                ((LASwriteItemCompressed)writers[i]).chunk_bytes();
+            }
+        }
+        else
+        {
+            enc.done();
+        }
+        writers = null;
+        chunk_count = 0;
+        return TRUE;
+    }
+
+    // writes a chunk compressed with compress_chunk() to the output stream
+    // and adds it to the chunk table
+    boolean write_chunk(ByteStreamOutArray chunk, int number) {
+        if (chunk_start_position == 0 || writers != null)
+        {
+            return FALSE;
+        }
+        if (!outstream.putBytes(chunk.getData().array(), 0, (int) chunk.tell()))
+        {
+            return FALSE;
+        }
+        chunk_count = number;
+        add_chunk_to_table();
+        chunk_count = 0;
+        return TRUE;
+    }
+
     public boolean done() {
         if (writers == writers_compressed)
         {
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_NONE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_POINTWISE;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static com.github.mreutegg.laszip4j.laszip.MyDefs.U32_MAX;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes points like {@link LASwritePoint}, but compresses the chunks of a
+ * chunked LAZ file in parallel. The points of a chunk are buffered as
+ * uncompressed records and the chunk is compressed by a task on the
+ * executor with its own arithmetic encoder and item writers. Compressed chunks are written to the output
+ * stream in order and added to the chunk table. Uncompressed and not chunked
+ * points are written sequentially.
+ */
+public class LASwritePointParallel extends LASwritePoint {
+
+    private final Executor executor;
+
+    private final int maxChunksInFlight;
+
+    private final Queue<ChunkCompressor> compressors = new ConcurrentLinkedQueue<>();
+
+    private final Deque<CompletableFuture<CompressedChunk>> pending = new ArrayDeque<>();
+
+    private int num_items;                  // unsigned
+    private LASitem[] items;
+    private LASzip laszip;
+    private boolean parallel;
+    private int chunk_size;                 // unsigned
+    private int record_length;
+    private LASwritePoint serializer;
+    private ByteStreamOutArray chunk_data;
+    private int chunk_count;                // unsigned
+
+    /**
+     * Creates a new point writer.
+     *
+     * @param executor the executor compressing the chunks.
+     */
+    public LASwritePointParallel(Executor executor) {
+        this.executor = requireNonNull(executor);
+        this.maxChunksInFlight = Parallelism.parallelism(executor) * 2;
+    }
+
+    @Override
+    public boolean setup(int /* unsigned */ num_items, LASitem[] items, LASzip laszip) {
+        if (!super.setup(num_items, items, laszip)) return FALSE;
+        this.num_items = num_items;
+        this.items = items;
+        this.laszip = laszip;
+        parallel = laszip != null
+                && laszip.compressor != LASZIP_COMPRESSOR_NONE
+                && laszip.compressor != LASZIP_COMPRESSOR_POINTWISE;
+        chunk_size = (parallel && laszip.chunk_size != 0) ? laszip.chunk_size : U32_MAX;
+        record_length = 0;
+        for (int i = 0; i < num_items; i++) record_length += items[i].size;
+        serializer = null;
+        if (parallel)
+        {
+            // the records of the buffered chunk
+            serializer = new LASwritePoint();
+            if (!serializer.setup(num_items, items)) return FALSE;
+        }
+        chunk_data = null;
+        chunk_count = 0;
+        return TRUE;
+    }
+
+    @Override
+    public boolean write(PointDataRecord[] pointRecords) {
+        if (!parallel) return super.write(pointRecords);
+
+        if (chunk_data == null)
+        {
+            // grows for variable sized chunks
+            chunk_data = new ByteStreamOutArray((long) (chunk_size == U32_MAX ? 1024 : chunk_size) * record_length);
+            serializer.init(chunk_data);
+        }
+        if (!serializer.write(pointRecords)) return FALSE;
+        chunk_count++;
+        if (chunk_count == chunk_size)
+        {
+            return submit_chunk();
+        }
+        return TRUE;
+    }
+
+    @Override
+    public boolean chunk() {
+        if (!parallel) return super.chunk();
+        if (chunk_size != U32_MAX) return FALSE;
+        if (chunk_count == 0) return TRUE;
+        return submit_chunk();
+    }
+
+    @Override
+    public boolean done() {
+        if (parallel)
+        {
+            if (chunk_count != 0 && !submit_chunk()) return FALSE;
+            while (!pending.isEmpty())
+            {
+                if (!write_pending_chunk()) return FALSE;
+            }
+        }
+        return super.done();
+    }
+
+    //--------------------------------< internal >-----------------------------
+
+    private boolean submit_chunk() {
+        ByteStreamOutArray data = chunk_data;
+        int number = chunk_count;
+        chunk_data = null;
+        chunk_count = 0;
+        pending.add(CompletableFuture.supplyAsync(() -> compress(data, number), executor));
+        while (pending.size() > maxChunksInFlight)
+        {
+            if (!write_pending_chunk()) return FALSE;
+        }
+        return TRUE;
+    }
+
+    private boolean write_pending_chunk() {
+        CompressedChunk chunk;
+        try {
+            chunk = pending.remove().join();
+        } catch (CompletionException e) {
+            for (CompletableFuture<CompressedChunk> f : pending) {
+                f.cancel(false);
+            }
+            pending.clear();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return write_chunk(chunk.bytes, chunk.number);
+    }
+
+    private CompressedChunk compress(ByteStreamOutArray data, int number) {
+        ChunkCompressor compressor = compressors.poll();
+        if (compressor == null) {
+            compressor = new ChunkCompressor();
+        }
+        try {
+            compressor.instream.init(data.getData().array(), data.tell());
+            if (!compressor.deserializer.init(compressor.instream)) {
+                throw new IllegalStateException("Unable to read chunk");
+            }
+            ByteStreamOutArray bytes = new ByteStreamOutArray();
+            if (!compressor.writer.compress_chunk(bytes, compressor.deserializer, compressor.point.PointRecords, number)) {
+                throw new IllegalStateException("Unable to compress chunk");
+            }
+            return new CompressedChunk(bytes, number);
+        } finally {
+            compressors.add(compressor);
+        }
+    }
+
+    // compresses the uncompressed records of a chunk, used by one task at a time
+    private final class ChunkCompressor {
+
+        final LASwritePoint writer = new LASwritePoint();
+
+        final LASreadPoint deserializer = new LASreadPoint(LASZIP_DECOMPRESS_SELECTIVE_ALL);
+
+        final ByteStreamInArray instream = new ByteStreamInArray();
+
+        final LASpoint point = new LASpoint();
+
+        ChunkCompressor() {
+            if (!writer.setup(num_items, items, laszip)
+                    || !deserializer.setup(num_items, items)
+                    || !point.init(null, num_items, items, null)) {
+                throw new IllegalStateException("Unable to set up point writer");
+            }
+        }
+    }
+
+    private static final class CompressedChunk {
+
+        final ByteStreamOutArray bytes;
+
+        final int number;
+
+        CompressedChunk(ByteStreamOutArray bytes, int number) {
+            this.bytes = bytes;
+            this.number = number;
+        }
+    }
+}
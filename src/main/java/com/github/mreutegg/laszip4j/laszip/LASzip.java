@@ -358,9 +358,18 @@ public class LASzip {
         if (!check_compressor(compressor)) return false;
         if (!check_items(num_items, items)) return false;
 
-        // setup compressor
+        // setup compressor. the new LAS 1.4 point types are always layered
+        // and the older point types never are
+        if (items[0].type == POINT14)
+        {
+            if (compressor != LASZIP_COMPRESSOR_NONE) compressor = LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+        }
+        else if (compressor == LASZIP_COMPRESSOR_LAYERED_CHUNKED)
+        {
+            compressor = LASZIP_COMPRESSOR_CHUNKED;
+        }
         this.compressor = compressor;
-        if (this.compressor == LASZIP_COMPRESSOR_POINTWISE_CHUNKED)
+        if (this.compressor == LASZIP_COMPRESSOR_POINTWISE_CHUNKED || this.compressor == LASZIP_COMPRESSOR_LAYERED_CHUNKED)
         {
             if (chunk_size == 0) chunk_size = LASZIP_CHUNK_SIZE_DEFAULT;
         }
@@ -580,7 +589,7 @@ public class LASzip {
     public boolean set_chunk_size(int u_chunk_size)
     {
         if (num_items == 0) return return_error("call setup() before setting chunk size");
-        if (this.compressor == LASZIP_COMPRESSOR_POINTWISE_CHUNKED)
+        if (this.compressor == LASZIP_COMPRESSOR_POINTWISE_CHUNKED || this.compressor == LASZIP_COMPRESSOR_LAYERED_CHUNKED)
         {
             this.chunk_size = u_chunk_size;
             return true;
@@ -606,18 +615,21 @@ public class LASzip {
             switch (items[i].type)
             {
                 case POINT10:
-                case POINT14:
                 case GPSTIME11:
                 case RGB12:
-                case RGB14:
                 case BYTE:
-                case BYTE14:
-                case WAVEPACKET14:
-                    items[i].version = requested_version;
+                    items[i].version = (char) Math.min(requested_version, 2); // no version 3 or 4
                     break;
                 case WAVEPACKET13:
                     items[i].version = 1; // no version 2
                     break;
+                case POINT14:
+                case RGB14:
+                case RGBNIR14:
+                case WAVEPACKET14:
+                case BYTE14:
+                    items[i].version = (char) (requested_version == 4 ? 4 : 3); // no version 1 or 2
+                    break;
                 default:
                     return return_error("item type not supported");
             }
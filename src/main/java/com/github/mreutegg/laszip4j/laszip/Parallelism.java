@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Sizes the work kept in flight on an executor by the number of tasks the
+ * executor runs at the same time.
+ */
+public final class Parallelism {
+
+    private Parallelism() {
+    }
+
+    /**
+     * Returns the number of tasks the given executor runs at the same time.
+     * Executors of unknown type and pools without an upper bound are
+     * assumed to run as many tasks as there are processors.
+     *
+     * @param executor the executor.
+     * @return the parallelism of the executor.
+     */
+    public static int parallelism(Executor executor) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        } else if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            return Math.max(1, Math.max(pool.getCorePoolSize(), Math.min(pool.getMaximumPoolSize(), processors)));
+        }
+        return processors;
+    }
+}
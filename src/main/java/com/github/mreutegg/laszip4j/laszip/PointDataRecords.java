@@ -21,13 +21,15 @@ import static com.github.mreutegg.laszip4j.laszip.MyDefs.I8_CLAMP;
 import static com.github.mreutegg.laszip4j.laszip.MyDefs.clearBit;
 import static com.github.mreutegg.laszip4j.laszip.MyDefs.setBit;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
 abstract class PointDataRecord {
 
     // For internal use only
     public int CompressionContext = 0;
+
+    /**
+     * @return a deep copy of this record.
+     */
+    abstract PointDataRecord copy();
 }
 
 enum ClassificationFlag
@@ -80,7 +82,10 @@ class PointDataRecordPoint10 extends PointDataRecordXYZBase {
     public PointDataRecordPoint10() {}
 
     public PointDataRecordPoint10(PointDataRecordPoint10 other) {
+        copyFrom(other);
+    }
 
+    void copyFrom(PointDataRecordPoint10 other) {
         this.X = other.X;
         this.Y = other.Y;
         this.Z = other.Z;
@@ -92,6 +97,11 @@ class PointDataRecordPoint10 extends PointDataRecordXYZBase {
         this.PointSourceID =other.PointSourceID;    
     }
 
+    @Override
+    PointDataRecordPoint10 copy() {
+        return new PointDataRecordPoint10(this);
+    }
+
     public byte Flags = 0;
     public byte ScanAngleRank = 0;
 
@@ -198,12 +208,20 @@ class PointDataRecordGpsTime extends PointDataRecord implements IGpsTimeProvider
 
     public long GPSTime = 0;
 
-    public double getGPSTimeAsDouble() {
+    public PointDataRecordGpsTime() {
+    }
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putLong(this.GPSTime);
+    public PointDataRecordGpsTime(PointDataRecordGpsTime other) {
+        this.GPSTime = other.GPSTime;
+    }
 
-        return byteBuffer.getDouble(0);
+    @Override
+    PointDataRecordGpsTime copy() {
+        return new PointDataRecordGpsTime(this);
+    }
+
+    public double getGPSTimeAsDouble() {
+        return Double.longBitsToDouble(this.GPSTime);
     }
 
     @Override
@@ -213,11 +231,7 @@ class PointDataRecordGpsTime extends PointDataRecord implements IGpsTimeProvider
     public void setGpsTime(double val) { setGPSTimeFromDouble(val); }
 
     void setGPSTimeFromDouble(double fromDouble) {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putDouble(fromDouble);
-
-        this.GPSTime = byteBuffer.getLong(0);
+        this.GPSTime = Double.doubleToRawLongBits(fromDouble);
     }
     
     @Override
@@ -237,11 +251,20 @@ class PointDataRecordRGB extends PointDataRecord {
     }
 
     public PointDataRecordRGB(PointDataRecordRGB other) {
+        copyFrom(other);
+    }
+
+    void copyFrom(PointDataRecordRGB other) {
         this.R = other.R;
         this.G = other.G;
         this.B = other.B;
     }
 
+    @Override
+    PointDataRecordRGB copy() {
+        return new PointDataRecordRGB(this);
+    }
+
     public char[] getRGB() {
         return new char[]{(char)R,(char)G,(char)B};
     }
@@ -258,6 +281,10 @@ class PointDataRecordWavepacket extends PointDataRecord {
     public PointDataRecordWavepacket(){}
 
     public PointDataRecordWavepacket(PointDataRecordWavepacket other) {
+        copyFrom(other);
+    }
+
+    void copyFrom(PointDataRecordWavepacket other) {
         this.DescriptorIndex = other.DescriptorIndex;
         this.OffsetToWaveformData = other.OffsetToWaveformData;
         this.PacketSize = other.PacketSize;
@@ -267,6 +294,11 @@ class PointDataRecordWavepacket extends PointDataRecord {
         this.ParametricDz = other.ParametricDz;
     }
 
+    @Override
+    PointDataRecordWavepacket copy() {
+        return new PointDataRecordWavepacket(this);
+    }
+
     public short DescriptorIndex = 0;
     public long OffsetToWaveformData = 0;
     public long PacketSize = 0;
@@ -276,65 +308,33 @@ class PointDataRecordWavepacket extends PointDataRecord {
     public float ParametricDz = 0.0f;
 
     public int getReturnPointWaveformLocationAsInt() {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putFloat(this.ReturnPointWaveformLocation);
-
-        return byteBuffer.getInt(0);
+        return Float.floatToRawIntBits(this.ReturnPointWaveformLocation);
     }
 
     public void setReturnPointWaveformLocation(int value) {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putInt(value);
-
-        ReturnPointWaveformLocation =  byteBuffer.getFloat(0);
+        ReturnPointWaveformLocation = Float.intBitsToFloat(value);
     }
 
     public int getDxAsInt() {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putFloat(this.ParametricDx);
-
-        return byteBuffer.getInt(0);
+        return Float.floatToRawIntBits(this.ParametricDx);
     }
 
     public int getDyAsInt() {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putFloat(this.ParametricDy);
-
-        return byteBuffer.getInt(0);
+        return Float.floatToRawIntBits(this.ParametricDy);
     }
 
     public int getDzAsInt() {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putFloat(this.ParametricDz);
-
-        return byteBuffer.getInt(0);
+        return Float.floatToRawIntBits(this.ParametricDz);
     }
 
     public void setDx(int value) {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putInt(value);
-
-        ParametricDx =  byteBuffer.getFloat(0);
+        ParametricDx = Float.intBitsToFloat(value);
     }    
     public void setDy(int value) {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putInt(value);
-
-        ParametricDy =  byteBuffer.getFloat(0);
+        ParametricDy = Float.intBitsToFloat(value);
     }    
     public void setDz(int value) {
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        byteBuffer.putInt(value);
-
-        ParametricDz =  byteBuffer.getFloat(0);
+        ParametricDz = Float.intBitsToFloat(value);
     }    
 
     @Override
@@ -350,7 +350,10 @@ class PointDataRecordPoint14 extends PointDataRecordXYZBase implements IGpsTimeP
     public PointDataRecordPoint14() {}
 
     public PointDataRecordPoint14(PointDataRecordPoint14 other) {
+        copyFrom(other);
+    }
 
+    void copyFrom(PointDataRecordPoint14 other) {
         this.X = other.X;
         this.Y = other.Y;
         this.Z = other.Z;
@@ -364,6 +367,11 @@ class PointDataRecordPoint14 extends PointDataRecordXYZBase implements IGpsTimeP
         this.GPSTime = other.GPSTime;
     }
 
+    @Override
+    PointDataRecordPoint14 copy() {
+        return new PointDataRecordPoint14(this);
+    }
+
     public byte ReturnFlags = 0;
     public byte ScanFlags = 0;
     public short ScanAngle = 0;
@@ -502,17 +510,13 @@ class PointDataRecordPoint14 extends PointDataRecordXYZBase implements IGpsTimeP
     @Override
     public double getGpsTime() 
     { 
-        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        buf.putLong(this.GPSTime);
-        return buf.getDouble(0); 
+        return Double.longBitsToDouble(this.GPSTime);
     }
 
     @Override
     public void setGpsTime(double val) 
     { 
-        ByteBuffer buf = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-        buf.putDouble(val);
-        this.GPSTime = buf.getLong(0); 
+        this.GPSTime = Double.doubleToRawLongBits(val);
     }
 }
 
@@ -525,10 +529,19 @@ class PointDataRecordRgbNIR extends PointDataRecordRGB {
     }
 
     public PointDataRecordRgbNIR(PointDataRecordRgbNIR other) {
-        super(other);
+        copyFrom(other);
+    }
+
+    void copyFrom(PointDataRecordRgbNIR other) {
+        super.copyFrom(other);
         this.NIR = other.NIR;
     }
 
+    @Override
+    PointDataRecordRgbNIR copy() {
+        return new PointDataRecordRgbNIR(this);
+    }
+
     @Override
     public String toString()
     {
@@ -546,6 +559,15 @@ class PointDataRecordBytes extends PointDataRecord {
         this.Bytes = new byte[other.Bytes.length];
         System.arraycopy(other.Bytes, 0, this.Bytes, 0, other.Bytes.length);
     }
+
+    void copyFrom(PointDataRecordBytes other) {
+        System.arraycopy(other.Bytes, 0, this.Bytes, 0, other.Bytes.length);
+    }
+
+    @Override
+    PointDataRecordBytes copy() {
+        return new PointDataRecordBytes(this);
+    }
     public byte[] Bytes;
 
     @Override
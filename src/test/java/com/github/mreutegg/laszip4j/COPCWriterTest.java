@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.COPCindex;
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASvlr_copc_entry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.TestPoints.sorted;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class COPCWriterTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void write() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        new COPCWriter(new LASReader(source)).maxPointsPerNode(1000).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        LASHeader header = new LASReader(out).getHeader();
+        assertEquals("copc", header.getVariableLengthRecords().iterator().next().getUserID());
+
+        LASreader reader = new LASreadOpener().open(out.getPath());
+        assertNotNull(reader);
+        try {
+            COPCindex index = reader.get_copc_index();
+            assertNotNull(index);
+            int maxLevel = 0;
+            long numPoints = 0;
+            for (LASvlr_copc_entry e : index.get_entries()) {
+                assertTrue(e.point_count > 0);
+                maxLevel = Math.max(maxLevel, e.level);
+                numPoints += e.point_count;
+            }
+            assertTrue(maxLevel > 0);
+            assertEquals(reader.header.extended_number_of_point_records, numPoints);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void writeWithSpill() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        File tmp = tempFolder.newFolder("tmp");
+        new COPCWriter(new LASReader(source)).maxPointsPerNode(1000)
+                .maxPointsInMemory(100).tempDirectory(tmp).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        assertArrayEquals(new String[0], tmp.list());
+    }
+
+    @Test
+    public void writeWithSpillAndLargeNodes() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        File tmp = tempFolder.newFolder("tmp");
+        // nodes with more points than fit into memory are streamed
+        new COPCWriter(new LASReader(source)).maxPointsPerNode(100000)
+                .maxPointsInMemory(100).tempDirectory(tmp).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        assertArrayEquals(new String[0], tmp.list());
+    }
+
+    @Test
+    public void levelOfDetail() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        new COPCWriter(new LASReader(source)).maxPointsPerNode(1000).write(out);
+
+        List<String> root = read(new LASReader(out).maxDepth(0));
+        List<String> all = read(new LASReader(out));
+        assertTrue(root.size() > 0 && root.size() < all.size());
+        assertTrue(all.containsAll(root));
+    }
+
+    @Test
+    public void insideRectangle() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        new COPCWriter(new LASReader(source)).maxPointsPerNode(1000).write(out);
+
+        LASHeader header = new LASReader(out).getHeader();
+        double minX = header.getMinX();
+        double minY = header.getMinY();
+        double maxX = (header.getMinX() + header.getMaxX()) / 2;
+        double maxY = (header.getMinY() + header.getMaxY()) / 2;
+        assertEquals(sorted(read(new LASReader(source).insideRectangle(minX, minY, maxX, maxY))),
+                sorted(read(new LASReader(out).insideRectangle(minX, minY, maxX, maxY))));
+    }
+
+    @Test
+    public void unsupportedPointDataFormat() throws Exception {
+        File out = tempFolder.newFile("out.copc.laz");
+        try {
+            new COPCWriter(new LASReader(new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME))).write(out);
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -57,17 +57,18 @@ public class DataFiles extends ExternalResource {
     // file created with txt2las as described here: https://groups.google.com/g/lasroom/c/DWQ2GXKE8f8
     public static final String EXTRA_TYPES_NAME = "extra-bytes.las";
 
+    public static final File RESOURCES = new File(new File("src", "test"), "resources");
+
     private final File target = new File("target");
-    private final File resources = new File(new File("src", "test"), "resources");
 
     public final File laz = new File(target, LAZ_NAME);
     public final File las = new File(target, LAS_NAME);
     public final File laz14 = new File(target, LAZ_14_NAME);
-    public final File extraBytes = new File(resources, EXTRA_TYPES_NAME);
-    public final File laz14v3rgb = new File(resources, LAZ_14_V3_RGB_NAME);
-    public final File laz14v3bytesCompressed = new File(resources, LAZ_14_BYTES_V3_COMPRESSED_NAME);
-    public final File recordFormat8 = new File(resources, LAZ_RECORD_FORMAT_8);
-    public final File recordFormat7 = new File(resources, LAZ_RECORD_FORMAT_7);
+    public final File extraBytes = new File(RESOURCES, EXTRA_TYPES_NAME);
+    public final File laz14v3rgb = new File(RESOURCES, LAZ_14_V3_RGB_NAME);
+    public final File laz14v3bytesCompressed = new File(RESOURCES, LAZ_14_BYTES_V3_COMPRESSED_NAME);
+    public final File recordFormat8 = new File(RESOURCES, LAZ_RECORD_FORMAT_8);
+    public final File recordFormat7 = new File(RESOURCES, LAZ_RECORD_FORMAT_7);
 
     @Override
     protected void before() throws Throwable {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.format;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.NUM_POINTS;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.POINTS_PER_ROW;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.writeRows;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LASBatchReaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void read() throws Exception {
+        File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+        LASHeader header = new LASReader(laz).getHeader();
+        // a point in the dense part of the file
+        LASPoint p = null;
+        int i = 0;
+        for (LASPoint pt : new LASReader(laz).getPoints()) {
+            if (i++ == 28000) {
+                p = pt;
+                break;
+            }
+        }
+        double x = p.getX() * header.getXScaleFactor() + header.getXOffset();
+        double y = p.getY() * header.getYScaleFactor() + header.getYOffset();
+
+        List<String> rectangle = new ArrayList<>();
+        List<String> circle = new ArrayList<>();
+        List<String> tile = new ArrayList<>();
+        List<String> ground = new ArrayList<>();
+        List<String> all = new ArrayList<>();
+        new LASBatchReader(laz)
+                .add(LASQuery.insideRectangle(x - 3, y - 3, x + 3, y + 3), sink(rectangle))
+                .add(LASQuery.insideCircle(x, y, 2), sink(circle))
+                .add(LASQuery.insideTile((float) x, (float) y, 2), sink(tile))
+                .add(LASQuery.insideRectangle(x - 3, y - 3, x + 3, y + 3)
+                        .filter(pt -> pt.getClassification() == 2), sink(ground))
+                .add(LASQuery.all(), sink(all))
+                .read();
+
+        assertEquals(TestPoints.read(new LASReader(laz).insideRectangle(x - 3, y - 3, x + 3, y + 3)), rectangle);
+        assertEquals(TestPoints.read(new LASReader(laz).insideCircle(x, y, 2)), circle);
+        assertEquals(TestPoints.read(new LASReader(laz).insideTile((float) x, (float) y, 2)), tile);
+        assertEquals(TestPoints.read(new LASReader(laz)), all);
+        List<String> expected = new ArrayList<>();
+        for (LASPoint pt : new LASReader(laz).insideRectangle(x - 3, y - 3, x + 3, y + 3).getPoints()) {
+            if (pt.getClassification() == 2) {
+                expected.add(format(pt));
+            }
+        }
+        assertEquals(expected, ground);
+        assertTrue(ground.size() > 0 && ground.size() < rectangle.size());
+    }
+
+    @Test
+    public void readIndexed() throws Exception {
+        File laz = writeRows(new File(tempFolder.getRoot(), "rows.laz"));
+        File copy = new File(tempFolder.getRoot(), "copy.laz");
+        Files.copy(laz.toPath(), copy.toPath());
+        new LASIndexer(laz).minimumPoints(1000).write();
+
+        List<List<String>> results = new ArrayList<>();
+        LASBatchReader batch = new LASBatchReader(laz);
+        for (int row = 0; row < 100; row += 7) {
+            List<String> points = new ArrayList<>();
+            results.add(points);
+            batch.add(LASQuery.insideRectangle(0, row * 10, 1000, row * 10 + 5), sink(points));
+        }
+        // overlaps with the first query
+        List<String> circle = new ArrayList<>();
+        batch.add(LASQuery.insideCircle(0, 0, 5), sink(circle));
+        batch.read();
+
+        for (int i = 0; i < results.size(); i++) {
+            int row = i * 7;
+            assertEquals(POINTS_PER_ROW, results.get(i).size());
+            assertEquals(TestPoints.read(new LASReader(copy).insideRectangle(0, row * 10, 1000, row * 10 + 5)), results.get(i));
+        }
+        assertEquals(3, circle.size());
+        assertEquals(TestPoints.read(new LASReader(copy).insideCircle(0, 0, 5)), circle);
+    }
+
+    @Test
+    public void readAllIndexed() throws Exception {
+        File laz = writeRows(new File(tempFolder.getRoot(), "rows.laz"));
+        new LASIndexer(laz).minimumPoints(1000).write();
+        List<String> row = new ArrayList<>();
+        List<String> all = new ArrayList<>();
+        new LASBatchReader(laz)
+                .add(LASQuery.insideRectangle(0, 0, 1000, 5), sink(row))
+                .add(LASQuery.all(), sink(all))
+                .read();
+        assertEquals(POINTS_PER_ROW, row.size());
+        assertEquals(NUM_POINTS, all.size());
+    }
+
+    private static Consumer<LASPoint> sink(List<String> points) {
+        return p -> points.add(format(p));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laszip.LASchunkstats;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASChunkStatisticsTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    private File laz;
+
+    @Before
+    public void before() throws Exception {
+        laz = new File(tempFolder.getRoot(), "points.laz");
+        Files.copy(source.toPath(), laz.toPath());
+    }
+
+    @Test
+    public void write() {
+        File stats = new LASChunkStatistics(laz).write();
+        assertEquals(new File(tempFolder.getRoot(), "points.lcs").getAbsoluteFile(), stats);
+        assertTrue(stats.isFile());
+    }
+
+    @Test
+    public void skipChunksByGPSTime() {
+        new LASChunkStatistics(laz).write();
+        // all points of the second chunk have a later GPS time
+        double maxGPSTime = 317895765.0;
+        LASPointFilter filter = new LASPointFilter().keepGPSTime(0, maxGPSTime);
+        List<String> expected = read(new LASReader(source).filter(filter));
+        // the filter only needs the selected GPS time, which means chunks
+        // are not probed and only skipped with the statistics
+        LASReader reader = new LASReader(laz).select(LASPointField.GPS_TIME).filter(filter);
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, read(reader));
+
+        LASreader r = reader.openReader();
+        try {
+            long count = 0;
+            while (r.read_point()) {
+                count++;
+            }
+            assertEquals(expected.size(), count);
+            // the second chunk was not decoded
+            assertEquals(50000, r.p_count);
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void sameResults() {
+        new LASChunkStatistics(laz).write();
+        LASHeader header = new LASReader(laz).getHeader();
+        double minX = header.getMinX();
+        double minY = header.getMinY();
+        double midX = (header.getMinX() + header.getMaxX()) / 2;
+        double midY = (header.getMinY() + header.getMaxY()) / 2;
+        assertEquals(read(new LASReader(source).insideRectangle(minX, minY, midX, midY)),
+                read(new LASReader(laz).insideRectangle(minX, minY, midX, midY)));
+        assertEquals(read(new LASReader(source).insideCircle(minX, minY, midX - minX)),
+                read(new LASReader(laz).insideCircle(minX, minY, midX - minX)));
+        LASPointFilter filter = new LASPointFilter().keepClassification(6).keepReturn(1).dropZBelow(10);
+        List<String> expected = read(new LASReader(source).filter(filter));
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, read(new LASReader(laz).filter(filter)));
+    }
+
+    @Test
+    public void staleStatistics() {
+        // statistics for other chunks, which would filter all points
+        LASchunkstats stats = new LASchunkstats();
+        stats.prepare(new long[]{0, 100, 56644}, new long[]{1000, 2000, 3000}, true);
+        stats.set_file(laz.getAbsolutePath());
+        assertTrue(stats.write(laz.getAbsolutePath()));
+        LASPointFilter filter = new LASPointFilter().keepGPSTime(0, Double.MAX_VALUE);
+        List<String> expected = read(new LASReader(source).filter(filter));
+        assertEquals(56644, expected.size());
+        assertEquals(expected, read(new LASReader(laz).filter(filter)));
+
+        // same points per chunk, but other file positions
+        stats.prepare(new long[]{0, 50000, 56644}, new long[]{1000, 2000, 3000}, true);
+        assertTrue(stats.write(laz.getAbsolutePath()));
+        assertEquals(expected, read(new LASReader(laz).filter(filter)));
+    }
+
+    @Test
+    public void rewrittenFile() {
+        new LASChunkStatistics(laz).write();
+        // a file rewritten in place has another modification time
+        assertTrue(laz.setLastModified(laz.lastModified() - 60000));
+        LASPointFilter filter = new LASPointFilter().keepGPSTime(0, 317895765.0);
+        LASreader r = new LASReader(laz).select(LASPointField.GPS_TIME).filter(filter).openReader();
+        try {
+            while (r.read_point()) {
+                // read all
+            }
+            // the statistics are ignored and the second chunk is decoded
+            assertEquals(56644, r.p_count);
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void notChunked() {
+        try {
+            new LASChunkStatistics(new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME)).write();
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static List<String> read(LASReader reader) {
+        // only GPS time is selected besides X and Y
+        return TestPoints.read(reader.getPoints(), p -> true, p -> p.getX() + " " + p.getY() + " " + p.getGPSTime());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.CHUNK_SIZE;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.NUM_POINTS;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.POINTS_PER_ROW;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.writeRows;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASIndexerTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void write() throws Exception {
+        File laz = copy(DataFiles.LAZ_14_V3_RGB_NAME, "points.laz");
+        File lax = new LASIndexer(laz).tileSize(10).minimumPoints(1000).write();
+        assertEquals(new File(tempFolder.getRoot(), "points.lax").getAbsoluteFile(), lax);
+        assertTrue(lax.isFile());
+        assertIndexed(laz);
+        assertInsideRectangle(laz, 20);
+    }
+
+    @Test
+    public void writeParallel() throws Exception {
+        File laz = copy(DataFiles.LAZ_14_V3_RGB_NAME, "points.laz");
+        byte[] sequential = Files.readAllBytes(new LASIndexer(laz).tileSize(10).minimumPoints(1000).write().toPath());
+        byte[] parallel;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            parallel = Files.readAllBytes(new LASIndexer(laz).tileSize(10).minimumPoints(1000)
+                    .parallel(executor).write().toPath());
+        } finally {
+            executor.shutdown();
+        }
+        assertArrayEquals(sequential, parallel);
+        assertInsideRectangle(laz, 20);
+    }
+
+    @Test
+    public void append() throws Exception {
+        File laz = copy(DataFiles.LAZ_14_V3_RGB_NAME, "points.laz");
+        List<String> points = read(new LASReader(laz));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new LASIndexer(laz).tileSize(10).minimumPoints(1000).parallel(executor).append();
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(new File(tempFolder.getRoot(), "points.lax").exists());
+        assertEquals(points, read(new LASReader(laz)));
+        assertIndexed(laz);
+        assertInsideRectangle(laz, 20);
+    }
+
+    @Test
+    public void insideRectangleSeeks() throws Exception {
+        File laz = writeRows(new File(tempFolder.getRoot(), "rows.laz"));
+        // the first row
+        assertEquals(NUM_POINTS, lastPointRead(new LASReader(laz).insideRectangle(0, 0, 1000, 5)));
+        new LASIndexer(laz).minimumPoints(1000).write();
+        assertEquals(POINTS_PER_ROW, read(new LASReader(laz).insideRectangle(0, 0, 1000, 5)).size());
+        assertTrue(lastPointRead(new LASReader(laz).insideRectangle(0, 0, 1000, 5)) <= CHUNK_SIZE);
+    }
+
+    @Test
+    public void insideRectangleWithTransform() throws Exception {
+        File laz = writeRows(new File(tempFolder.getRoot(), "rows.laz"));
+        new LASIndexer(laz).minimumPoints(1000).write();
+        LASPointTransformer transformer = (point, modifier) -> modifier.setClassification((short) 1);
+        LASReader reader = new LASReader(laz).insideRectangle(0, 0, 1000, 5).transform(transformer);
+        assertEquals(POINTS_PER_ROW, read(reader).size());
+        assertTrue(lastPointRead(reader) <= CHUNK_SIZE);
+    }
+
+    @Test
+    public void appendToLAS() throws Exception {
+        File las = copy(DataFiles.EXTRA_TYPES_NAME, "points.las");
+        try {
+            new LASIndexer(las).append();
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void writeLAS() throws Exception {
+        File las = copy(DataFiles.EXTRA_TYPES_NAME, "points.las");
+        new LASIndexer(las).tileSize(1).write();
+        assertIndexed(las);
+        assertInsideRectangle(las, 0.01);
+    }
+
+    private File copy(String name, String target) throws Exception {
+        File f = new File(tempFolder.getRoot(), target);
+        Files.copy(new File(RESOURCES, name).toPath(), f.toPath());
+        return f;
+    }
+
+    private static void assertIndexed(File file) {
+        LASreader reader = new LASreadOpener().open(file.getPath());
+        assertNotNull(reader);
+        try {
+            assertNotNull(reader.get_index());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void assertInsideRectangle(File file, double size) throws Exception {
+        // same points with and without index
+        File copy = new File(tempFolder.getRoot(), "no-index-" + file.getName());
+        Files.copy(file.toPath(), copy.toPath());
+        double[] r = rectangle(copy, size);
+        List<String> indexed = read(new LASReader(file).insideRectangle(r[0], r[1], r[2], r[3]));
+        assertTrue(indexed.size() > 0);
+        assertTrue(indexed.size() < read(new LASReader(file)).size());
+        assertEquals(read(new LASReader(copy).insideRectangle(r[0], r[1], r[2], r[3])), indexed);
+    }
+
+    // rectangle around the first point
+    private static double[] rectangle(File file, double size) {
+        LASReader reader = new LASReader(file);
+        LASHeader header = reader.getHeader();
+        LASPoint p = reader.getPoints().iterator().next();
+        double x = p.getX() * header.getXScaleFactor() + header.getXOffset();
+        double y = p.getY() * header.getYScaleFactor() + header.getYOffset();
+        return new double[]{x - size, y - size, x + size, y + size};
+    }
+
+    // the number of points up to and including the last point read
+    private static long lastPointRead(LASReader reader) {
+        try (LASreader r = reader.openReader()) {
+            while (r.read_point()) {
+                // read all
+            }
+            return r.p_count;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.TestPoints.sorted;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASMergedReaderTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @After
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void merge() throws Exception {
+        List<File> tiles = tiles();
+        LASMergedReader reader = new LASMergedReader(tiles);
+
+        LASHeader header = reader.getHeader();
+        LASHeader expected = new LASReader(source).getHeader();
+        assertEquals(expected.getNumberOfPointRecords(), header.getNumberOfPointRecords());
+        assertEquals(expected.getMinX(), header.getMinX(), 0.001);
+        assertEquals(expected.getMaxY(), header.getMaxY(), 0.001);
+
+        List<String> points = new ArrayList<>();
+        for (File tile : tiles) {
+            points.addAll(read(new LASReader(tile).getPoints()));
+        }
+        assertEquals(points, read(reader.getPoints()));
+    }
+
+    @Test
+    public void parallel() throws Exception {
+        List<File> tiles = tiles();
+        List<String> expected = read(new LASMergedReader(tiles).getPoints());
+
+        assertEquals(expected, read(new LASMergedReader(tiles).parallel(executor).getPoints()));
+        assertEquals(sorted(expected), sorted(read(new LASMergedReader(tiles).parallel(executor).unordered().getPoints())));
+    }
+
+    @Test
+    public void insideRectangle() throws Exception {
+        List<File> tiles = tiles();
+        // an area around the lower left corner of a tile
+        LASHeader header = new LASReader(tiles.get(tiles.size() - 1)).getHeader();
+        double x = header.getMinX();
+        double y = header.getMinY();
+
+        List<String> expected = read(new LASReader(source).insideRectangle(x - 10, y - 10, x + 10, y + 10).getPoints());
+        assertTrue(expected.size() > 0);
+        assertEquals(sorted(expected), sorted(read(new LASMergedReader(tiles)
+                .insideRectangle(x - 10, y - 10, x + 10, y + 10).getPoints())));
+        assertEquals(sorted(expected), sorted(read(new LASMergedReader(tiles).parallel(executor)
+                .insideRectangle(x - 10, y - 10, x + 10, y + 10).getPoints())));
+    }
+
+    @Test
+    public void filesAreFlightlines() throws Exception {
+        List<File> tiles = tiles();
+        int[] counts = new int[tiles.size() + 1];
+        for (LASPoint p : new LASMergedReader(tiles).filesAreFlightlines().parallel(executor).unordered().getPoints()) {
+            counts[p.getPointSourceID()]++;
+        }
+        assertEquals(0, counts[0]);
+        for (int i = 0; i < tiles.size(); i++) {
+            assertEquals(read(new LASReader(tiles.get(i)).getPoints()).size(), counts[i + 1]);
+        }
+    }
+
+    @Test
+    public void applyFileSourceID() throws Exception {
+        List<File> tiles = tiles();
+        char fileSourceID = new LASReader(tiles.get(0)).getHeader().getFileSourceID();
+        for (LASPoint p : new LASMergedReader(tiles).applyFileSourceID().getPoints()) {
+            assertEquals(fileSourceID, p.getPointSourceID());
+        }
+    }
+
+    @Test
+    public void scaleFactor() throws Exception {
+        List<File> tiles = tiles();
+        LASMergedReader reader = new LASMergedReader(tiles).scaleFactor(0.0005, 0.0005, 0.0005);
+        LASHeader header = reader.getHeader();
+        assertEquals(0.0005, header.getXScaleFactor(), 0.0);
+
+        LASHeader expected = new LASReader(source).getHeader();
+        List<String> points = new ArrayList<>();
+        for (LASPoint p : reader.getPoints()) {
+            points.add(coordinates(header, p));
+        }
+        List<String> expectedPoints = new ArrayList<>();
+        for (LASPoint p : new LASReader(source).getPoints()) {
+            expectedPoints.add(coordinates(expected, p));
+        }
+        assertEquals(sorted(expectedPoints), sorted(points));
+    }
+
+    @Test
+    public void differentPointDataFormats() throws Exception {
+        try {
+            new LASMergedReader(source, new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME)).getHeader();
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void differentExtraBytes() throws Exception {
+        File las = new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME);
+        File copy = tempFolder.newFile("copy.las");
+        Files.copy(las.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        LASMergedReader reader = new LASMergedReader(las, copy);
+        assertEquals(2 * new LASReader(las).getHeader().getNumberOfPointRecords(),
+                reader.getHeader().getNumberOfPointRecords());
+        assertSame(reader.getHeader(), reader.getHeader());
+
+        // rename the extra bytes "phi" of the copy
+        byte[] data = Files.readAllBytes(las.toPath());
+        String text = new String(data, StandardCharsets.ISO_8859_1);
+        int idx = text.indexOf("phi\0");
+        assertTrue(idx > 0);
+        data[idx] = 'x';
+        Files.write(copy.toPath(), data);
+        try {
+            new LASMergedReader(las, copy).getHeader();
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private List<File> tiles() throws Exception {
+        return new LASTiler(new LASReader(source)).tileSize(25).write(tempFolder.newFolder("tiles"));
+    }
+
+    private static String coordinates(LASHeader header, LASPoint p) {
+        return String.format("%.3f %.3f %.3f",
+                p.getX() * header.getXScaleFactor() + header.getXOffset(),
+                p.getY() * header.getYScaleFactor() + header.getYOffset(),
+                p.getZ() * header.getZScaleFactor() + header.getZOffset());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASPointFilterTest {
+
+    private final File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Test
+    public void keepClassification() {
+        List<String> expected = read(new LASReader(laz), p -> p.getClassification() == 2);
+        List<String> actual = read(new LASReader(laz)
+                .filter(new LASPointFilter().keepClassification(2)), p -> true);
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void multipleCriteria() {
+        LASHeader header = new LASReader(laz).getHeader();
+        double z = 0;
+        int n = 0;
+        for (LASPoint p : new LASReader(laz).getPoints()) {
+            z += p.getZ() * header.getZScaleFactor() + header.getZOffset();
+            n++;
+        }
+        double meanZ = z / n;
+        List<String> expected = read(new LASReader(laz), p -> p.getClassification() != 2
+                && p.getZ() * header.getZScaleFactor() + header.getZOffset() >= meanZ);
+        List<String> actual = read(new LASReader(laz).filter(new LASPointFilter()
+                .dropClassification(2).dropZBelow(meanZ)), p -> true);
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void filteredFieldsNotSelected() {
+        int expected = read(new LASReader(laz), p -> p.getClassification() == 2).size();
+        int count = 0;
+        for (LASPoint p : new LASReader(laz).select()
+                .filter(new LASPointFilter().keepClassification(2)).getPoints()) {
+            try {
+                p.getClassification();
+                fail("must fail with IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            count++;
+        }
+        assertEquals(expected, count);
+    }
+
+    @Test
+    public void filterWithTransform() {
+        List<String> expected = read(new LASReader(laz), p -> p.getClassification() == 2);
+        List<String> actual = new ArrayList<>();
+        for (LASPoint p : new LASReader(laz)
+                .filter(new LASPointFilter().keepClassification(2))
+                .transform((p, m) -> m.setClassification((short) 1)).getPoints()) {
+            assertEquals(1, p.getClassification());
+            actual.add(p.getX() + " " + p.getY() + " " + p.getZ());
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void skipChunks() {
+        // all points of the second chunk have a later GPS time
+        double maxGPSTime = 317895765.0;
+        List<String> expected = read(new LASReader(laz), p -> p.getGPSTime() <= maxGPSTime);
+        LASReader reader = new LASReader(laz).select(LASPointField.Z, LASPointField.RGB)
+                .filter(new LASPointFilter().keepGPSTime(0, maxGPSTime));
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, read(reader, p -> true));
+
+        LASreader r = reader.openReader();
+        try {
+            long count = 0;
+            while (r.read_point()) {
+                count++;
+            }
+            assertEquals(expected.size(), count);
+            // the second chunk was not decoded
+            assertEquals(50000, r.p_count);
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void filterChangedAfterwards() {
+        LASPointFilter filter = new LASPointFilter().keepClassification(2);
+        LASReader reader = new LASReader(laz).filter(filter);
+        filter.keepClassification(3);
+        assertEquals(read(new LASReader(laz), p -> p.getClassification() == 2), read(reader, p -> true));
+    }
+
+    @Test
+    public void invalidClassification() {
+        try {
+            new LASPointFilter().keepClassification(32);
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new LASPointFilter().dropClassification();
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void commandLine() {
+        assertEquals("-keep_class 2 6 -drop_z_below 1.5 -drop_withheld",
+                new LASPointFilter().keepClassification(2, 6).dropZBelow(1.5).dropWithheld().toString());
+    }
+
+    private static List<String> read(LASReader reader, Predicate<LASPoint> predicate) {
+        return TestPoints.read(reader.getPoints(), predicate, TestPoints::xyz);
+    }
+}
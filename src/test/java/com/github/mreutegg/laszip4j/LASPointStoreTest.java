@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_DECOMPRESS_SELECTIVE_ALL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASPointStoreTest {
+
+    private final File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Test
+    public void allFields() {
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : new LASReader(laz).getPoints()) {
+            expected.add(p.getX() + " " + p.getY() + " " + p.getZ() + " " + (int) p.getIntensity()
+                    + " " + p.getReturnNumber() + " " + p.getNumberOfReturns() + " " + p.getClassification()
+                    + " " + p.getScanAngleRank() + " " + p.getUserData() + " " + (int) p.getPointSourceID()
+                    + " " + p.getGPSTime() + " " + (int) p.getRed() + " " + (int) p.getGreen() + " " + (int) p.getBlue());
+        }
+        LASPointStore store = new LASReader(laz).getPointStore();
+        assertTrue(store.hasGPSTime());
+        assertTrue(store.hasRGB());
+        assertFalse(store.hasNIR());
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), store.getX(i) + " " + store.getY(i) + " " + store.getZ(i)
+                    + " " + (int) store.getIntensity(i) + " " + store.getReturnNumber(i)
+                    + " " + store.getNumberOfReturns(i) + " " + store.getClassification(i)
+                    + " " + store.getScanAngleRank(i) + " " + store.getUserData(i)
+                    + " " + (int) store.getPointSourceID(i) + " " + store.getGPSTime(i)
+                    + " " + (int) store.getRed(i) + " " + (int) store.getGreen(i) + " " + (int) store.getBlue(i));
+        }
+    }
+
+    @Test
+    public void flags() {
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : new LASReader(laz).getPoints()) {
+            expected.add(flags(p.getScanDirectionFlag(), p.getEdgeOfFlightLine(), p.isSynthetic(),
+                    p.isKeyPoint(), p.isWithheld(), p.isOverlap(), p.getScannerChannel()));
+        }
+        LASPointStore store = new LASReader(laz).select(LASPointField.FLAGS).getPointStore();
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), flags(store.getScanDirectionFlag(i), store.getEdgeOfFlightLine(i),
+                    store.isSynthetic(i), store.isKeyPoint(i), store.isWithheld(i), store.isOverlap(i),
+                    store.getScannerChannel(i)));
+        }
+        try {
+            new LASReader(laz).select(LASPointField.Z).getPointStore().isWithheld(0);
+            fail("must fail with IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void selectedFields() {
+        LASPointStore store = new LASReader(laz).select(LASPointField.Z).getPointStore();
+        assertEquals(16, store.getRecordLength());
+        assertFalse(store.hasGPSTime());
+        try {
+            store.getIntensity(0);
+            fail("must fail with IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        int i = 0;
+        for (LASPoint p : new LASReader(laz).select(LASPointField.Z).getPoints()) {
+            assertEquals(p.getScannerChannel(), store.getScannerChannel(i));
+            assertEquals(p.getZ(), store.getZ(i++));
+        }
+    }
+
+    @Test
+    public void filtered() {
+        int expected = 0;
+        for (LASPoint p : new LASReader(laz).getPoints()) {
+            if (p.getClassification() == 2) {
+                expected++;
+            }
+        }
+        LASPointStore store = new LASReader(laz).filter(new LASPointFilter().keepClassification(2)).getPointStore();
+        assertEquals(expected, store.size());
+        for (long i = 0; i < store.size(); i++) {
+            assertEquals(2, store.getClassification(i));
+        }
+    }
+
+    @Test
+    public void moreThanExpected() {
+        List<Integer> expected = new ArrayList<>();
+        LASPointStore store = new LASPointStore(LASZIP_DECOMPRESS_SELECTIVE_ALL, 10);
+        try (LASreader r = new LASReader(laz).openReader()) {
+            while (r.read_point()) {
+                store.add(r.point);
+                expected.add(r.point.getZ());
+            }
+        }
+        store.trim();
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((int) expected.get(i), store.getZ(i));
+        }
+    }
+
+    @Test
+    public void invalidIndex() {
+        LASPointStore store = new LASReader(laz).getPointStore();
+        try {
+            store.getX(store.size());
+            fail("must fail with IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    private static String flags(byte scanDirection, byte edgeOfFlightLine, boolean synthetic,
+                                boolean keyPoint, boolean withheld, boolean overlap, byte scannerChannel) {
+        return scanDirection + " " + edgeOfFlightLine + " " + synthetic + " " + keyPoint
+                + " " + withheld + " " + overlap + " " + scannerChannel;
+    }
+}
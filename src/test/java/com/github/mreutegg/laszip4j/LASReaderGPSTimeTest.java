@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.StripsFixture;
+import com.github.mreutegg.laszip4j.lastools.Laszip;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASReaderGPSTimeTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void orderedByGPSTime() throws Exception {
+        // points of this file are ordered by GPS time, recompress them
+        // with small chunks
+        File source = new File(tempFolder.getRoot(), "source.laz");
+        Files.copy(new File(RESOURCES, DataFiles.LAZ_14_BYTES_V3_COMPRESSED_NAME).toPath(), source.toPath());
+        File laz = new File(tempFolder.getRoot(), "chunked.laz");
+        Laszip.run(new String[]{"-i", source.getPath(), "-o", laz.getPath(), "-chunk_size", "500"});
+
+        List<Double> times = gpsTimes(new LASReader(laz));
+        double min = times.get(2000);
+        double max = times.get(3000);
+        List<String> expected = read(new LASReader(laz), min, max);
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(min, max), min, max));
+
+        new LASChunkStatistics(laz).write();
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(min, max), min, max));
+        // reading stopped after the window
+        assertTrue(lastPointRead(new LASReader(laz).betweenGPSTime(min, max), expected.size()) <= 3500);
+    }
+
+    @Test
+    public void overlappingStrips() throws Exception {
+        File laz = StripsFixture.writeOverlappingStrips(tempFolder.newFile("strips.laz"));
+        List<String> expected = read(new LASReader(laz), 60, 70);
+        assertEquals(2002, expected.size());
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(60, 70), 60, 70));
+        new LASChunkStatistics(laz).write();
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(60, 70), 60, 70));
+    }
+
+    @Test
+    public void nearlySortedStrips() throws Exception {
+        File laz = StripsFixture.writeNearlySortedStrips(tempFolder.newFile("strips.laz"));
+        // a window across the boundary of chunks and strips
+        List<String> expected = read(new LASReader(laz), 95, 105);
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(95, 105), 95, 105));
+        new LASChunkStatistics(laz).write();
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(95, 105), 95, 105));
+    }
+
+    @Test
+    public void notOrderedByGPSTime() {
+        File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+        List<Double> times = gpsTimes(new LASReader(laz));
+        Collections.sort(times);
+        // windows that start in the first and in the last chunk
+        assertSamePoints(laz, times.get(20000), times.get(30000));
+        assertSamePoints(laz, times.get(times.size() - 3000), times.get(times.size() - 1));
+    }
+
+    @Test
+    public void invalidWindow() {
+        try {
+            new LASReader(new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME)).betweenGPSTime(2, 1);
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertSamePoints(File laz, double min, double max) {
+        List<String> expected = read(new LASReader(laz), min, max);
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, read(new LASReader(laz).betweenGPSTime(min, max), min, max));
+    }
+
+    // reads all points and returns the number of points up to and including
+    // the last point read
+    private static long lastPointRead(LASReader reader, int expectedCount) {
+        LASreader r = reader.openReader();
+        try {
+            long count = 0;
+            while (r.read_point()) {
+                count++;
+            }
+            assertEquals(expectedCount, count);
+            return r.p_count;
+        } finally {
+            r.close();
+        }
+    }
+
+    private static List<Double> gpsTimes(LASReader reader) {
+        List<Double> times = new ArrayList<>();
+        for (LASPoint p : reader.getPoints()) {
+            times.add(p.getGPSTime());
+        }
+        return times;
+    }
+
+    private static List<String> read(LASReader reader, double min, double max) {
+        return TestPoints.read(reader.getPoints(), p -> p.getGPSTime() >= min && p.getGPSTime() <= max, TestPoints::format);
+    }
+}
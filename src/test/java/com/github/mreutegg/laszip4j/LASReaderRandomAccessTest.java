@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.RowsFixture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.format;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_POINTWISE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class LASReaderRandomAccessTest {
+
+    private final File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void getPoint() {
+        List<String> expected = read(new LASReader(laz));
+        LASReader reader = new LASReader(laz);
+        for (long index : new long[]{0, 28000, 49999, 50000, 56643, 1}) {
+            assertEquals(expected.get((int) index), format(reader.getPoint(index)));
+        }
+    }
+
+    @Test
+    public void getPoints() {
+        List<String> expected = read(new LASReader(laz));
+        Random r = new Random(42);
+        long[] indices = new long[1000];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = r.nextInt(expected.size());
+        }
+        LASPoint[] points = new LASReader(laz).chunkCacheSize(1).getPoints(indices);
+        assertEquals(indices.length, points.length);
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(expected.get((int) indices[i]), format(points[i]));
+        }
+    }
+
+    @Test
+    public void cachedChunks() {
+        LASReader reader = new LASReader(laz).chunkCacheSize(1);
+        LASPoint p = reader.getPoint(5);
+        assertSame(p, reader.getPoint(5));
+        reader.getPoint(50005);
+        // the first chunk was evicted
+        LASPoint q = reader.getPoint(5);
+        assertNotSame(p, q);
+        assertEquals(format(p), format(q));
+    }
+
+    @Test
+    public void rawPoints() {
+        File las = new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME);
+        List<String> expected = read(new LASReader(las));
+        LASReader reader = new LASReader(las);
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), format(reader.getPoint(i)));
+        }
+    }
+
+    @Test
+    public void invalidIndex() {
+        LASReader reader = new LASReader(laz);
+        for (long index : new long[]{-1, 56644}) {
+            try {
+                reader.getPoint(index);
+                fail("must fail with IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void close() {
+        LASReader reader = new LASReader(laz).chunkCacheSize(1);
+        String first = format(reader.getPoint(5));
+        reader.close();
+        // cached chunks are still available
+        assertEquals(first, format(reader.getPoint(5)));
+        // and the file is opened again for other chunks
+        assertEquals(read(new LASReader(laz)).get(50005), format(reader.getPoint(50005)));
+        reader.close();
+        reader.close();
+    }
+
+    @Test
+    public void notChunked() throws Exception {
+        File file = RowsFixture.writeRows(tempFolder.newFile("rows.laz"), LASZIP_COMPRESSOR_POINTWISE);
+        LASReader reader = new LASReader(file);
+        assertEquals(RowsFixture.NUM_POINTS, read(reader).size());
+        try {
+            reader.getPoint(0);
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -37,7 +39,9 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -129,6 +133,14 @@ public class LASReaderTest {
         }
     }
 
+    @Test
+    public void readLAZStreamPrefetch() throws IOException {
+        LASHeader header = new LASReader(files.laz).getHeader();
+        try (InputStream is = Files.newInputStream(files.laz.toPath())) {
+            verifyLaz(LASReader.getPoints(is, 4, 4096), header);
+        }
+    }
+
     @Test
     public void readLAZTryWithResources() {
         LASReader reader = new LASReader(files.laz);
@@ -649,4 +661,142 @@ public class LASReaderTest {
 
         assertEquals(DataFiles.LAZ_RECORD_FORMAT_8_NUM_POINT_RECORDS, numPoints);
     }
+
+    @Test
+    public void readLaz14v3Parallel() {
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : new LASReader(files.laz14v3rgb).getPoints()) {
+            expected.add(toString(p));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> points = new ArrayList<>();
+            for (LASPoint p : new LASReader(files.laz14v3rgb).parallel(executor).getPoints()) {
+                points.add(toString(p));
+            }
+            assertEquals(expected, points);
+
+            points.clear();
+            for (LASPoint p : new LASReader(files.laz14v3rgb).parallel(executor).unordered().getPoints()) {
+                points.add(toString(p));
+            }
+            assertEquals(expected.size(), points.size());
+            assertEquals(expected.stream().sorted().collect(Collectors.toList()),
+                    points.stream().sorted().collect(Collectors.toList()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void insideRectangleParallel() {
+        LASReader sequential = new LASReader(files.laz14v3rgb)
+                .insideRectangle(546360, 5937320, 546378.6, 5937360);
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : sequential.getPoints()) {
+            expected.add(toString(p));
+        }
+        assertFalse(expected.isEmpty());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (CloseablePointIterable points = new LASReader(files.laz14v3rgb)
+                .insideRectangle(546360, 5937320, 546378.6, 5937360)
+                .parallel(executor).getCloseablePoints()) {
+            List<String> actual = new ArrayList<>();
+            for (LASPoint p : points) {
+                actual.add(toString(p));
+            }
+            assertEquals(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void pointInstanceReused() {
+        LASPoint previous = null;
+        List<String> points = new ArrayList<>();
+        for (LASPoint p : new LASReader(files.laz14v3rgb).getPoints()) {
+            if (previous != null) {
+                assertSame(previous, p);
+            }
+            previous = p;
+            points.add(toString(p));
+        }
+        assertEquals(56644, points.size());
+        assertNotEquals(points.get(0), points.get(1));
+    }
+
+    @Test
+    public void readLaz14v3Blocks() {
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : new LASReader(files.laz14v3rgb).getPoints()) {
+            expected.add(toString(p));
+        }
+        List<String> points = new ArrayList<>();
+        int numBlocks = 0;
+        for (LASPointBlock b : new LASReader(files.laz14v3rgb).getPointBlocks(1000)) {
+            assertTrue(b.size() > 0);
+            assertEquals(1000, b.capacity());
+            for (int i = 0; i < b.size(); i++) {
+                points.add(String.format(Locale.US, "%d,%d,%d,%d,%d,%d,%f",
+                        b.getX()[i], b.getY()[i], b.getZ()[i], (int) b.getRed()[i],
+                        (int) b.getIntensity()[i], b.getClassification()[i], b.getGPSTime()[i]));
+            }
+            numBlocks++;
+        }
+        assertEquals(57, numBlocks);
+        assertEquals(expected, points);
+    }
+
+    @Test
+    public void readExtraBytesBlocks() {
+        LASReader reader = new LASReader(files.extraBytes);
+        LASExtraBytesDescription phi = reader.getHeader().getExtraBytesDescription("phi");
+        List<String> values = new ArrayList<>();
+        for (LASPointBlock b : reader.getPointBlocks(2)) {
+            assertFalse(b.hasGPSTime());
+            assertFalse(b.hasRGB());
+            for (double v : b.getExtraBytes(phi)) {
+                values.add(String.format(Locale.US, "%.2f", v));
+            }
+        }
+        assertEquals(Arrays.asList("0.80", "1.12", "1.00", "1.28", "1.52"), values);
+    }
+
+    @Test
+    public void selectFields() {
+        List<String> expected = new ArrayList<>();
+        for (LASPoint p : new LASReader(files.laz14v3rgb).getPoints()) {
+            expected.add(p.getX() + "," + p.getY() + "," + p.getZ() + "," + p.getClassification());
+        }
+        LASReader reader = new LASReader(files.laz14v3rgb)
+                .select(LASPointField.Z, LASPointField.CLASSIFICATION);
+        List<String> points = new ArrayList<>();
+        for (LASPoint p : reader.getPoints()) {
+            points.add(p.getX() + "," + p.getY() + "," + p.getZ() + "," + p.getClassification());
+            try {
+                p.getIntensity();
+                fail("must throw IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        assertEquals(expected, points);
+
+        for (LASPointBlock b : reader.getPointBlocks(10000)) {
+            assertEquals(b.getZ().length, b.getClassification().length);
+            try {
+                b.getRed();
+                fail("must throw IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+    }
+
+    private static String toString(LASPoint p) {
+        return String.format(Locale.US, "%d,%d,%d,%d,%d,%d,%f",
+                p.getX(), p.getY(), p.getZ(), (int) p.getRed(),
+                (int) p.getIntensity(), p.getClassification(), p.getGPSTime());
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import com.github.mreutegg.laszip4j.laslib.LASreaderLAS;
+import com.github.mreutegg.laszip4j.laslib.LASwriterSorted;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.TestPoints.sorted;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LASSorterTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void hilbert() throws Exception {
+        File out = tempFolder.newFile("out.laz");
+        new LASSorter(new LASReader(source)).chunkSize(5000).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        assertSorted(source, out, LASSorter.Curve.HILBERT, false);
+        assertChunks(out, 5000);
+    }
+
+    @Test
+    public void morton() throws Exception {
+        File out = tempFolder.newFile("out.laz");
+        new LASSorter(new LASReader(source)).curve(LASSorter.Curve.MORTON).chunkSize(5000).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        assertSorted(source, out, LASSorter.Curve.MORTON, false);
+        assertChunks(out, 5000);
+    }
+
+    @Test
+    public void gpsTimeTiebreak() throws Exception {
+        File out = tempFolder.newFile("out.laz");
+        new LASSorter(new LASReader(source)).gpsTimeTiebreak(true).write(out);
+
+        assertEquals(sorted(read(new LASReader(source))), sorted(read(new LASReader(out))));
+        assertSorted(source, out, LASSorter.Curve.HILBERT, true);
+    }
+
+    @Test
+    public void sortWithSpill() throws Exception {
+        File expected = tempFolder.newFile("expected.laz");
+        new LASSorter(new LASReader(source)).gpsTimeTiebreak(true).write(expected);
+
+        File out = tempFolder.newFile("out.laz");
+        File tmp = tempFolder.newFolder("tmp");
+        new LASSorter(new LASReader(source)).gpsTimeTiebreak(true)
+                .maxPointsInMemory(10000).tempDirectory(tmp).write(out);
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(out.toPath()));
+        assertArrayEquals(new String[0], tmp.list());
+    }
+
+    @Test
+    public void fixedChunkSize() throws Exception {
+        File las = new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME);
+        File out = tempFolder.newFile("out.laz");
+        new LASSorter(new LASReader(las)).chunkSize(10).write(out);
+
+        assertEquals(sorted(read(new LASReader(las))), sorted(read(new LASReader(out))));
+        assertSorted(las, out, LASSorter.Curve.HILBERT, false);
+    }
+
+    private static void assertSorted(File source, File out, LASSorter.Curve curve, boolean gpsTimeTiebreak) {
+        // the origin of the keys is the minimum in the header of the source
+        LASreader s = open(source);
+        int minX = s.header.get_X(s.header.min_x);
+        int minY = s.header.get_Y(s.header.min_y);
+        s.close();
+        LASreader r = open(out);
+        try {
+            long previousKey = 0;
+            double previousTime = -Double.MAX_VALUE;
+            while (r.read_point()) {
+                long x = (long) r.point.get_X() - minX;
+                long y = (long) r.point.get_Y() - minY;
+                long key = (curve == LASSorter.Curve.MORTON ? LASwriterSorted.morton(x, y) : LASwriterSorted.hilbert(x, y));
+                int c = Long.compareUnsigned(previousKey, key);
+                assertTrue(c <= 0);
+                if (gpsTimeTiebreak) {
+                    assertTrue(c < 0 || previousTime <= r.point.get_gps_time());
+                    previousTime = r.point.get_gps_time();
+                }
+                previousKey = key;
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    private static void assertChunks(File out, int chunkSize) {
+        LASreader r = open(out);
+        try {
+            long[] starts = ((LASreaderLAS) r).get_chunk_point_starts();
+            assertNotNull(starts);
+            assertTrue(starts.length > 2);
+            for (int i = 1; i < starts.length; i++) {
+                long size = starts[i] - starts[i - 1];
+                assertTrue(size <= chunkSize);
+                assertTrue(size >= chunkSize / 2 || i == starts.length - 1);
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    private static LASreader open(File file) {
+        LASreader r = new LASreadOpener().open(file.getPath());
+        assertNotNull(r);
+        return r;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import com.github.mreutegg.laszip4j.laslib.LASreadOpener;
+import com.github.mreutegg.laszip4j.laslib.LASreader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.TestPoints.sorted;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LASTilerTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void write() throws Exception {
+        File dir = tempFolder.newFolder("tiles");
+        List<File> tiles = new LASTiler(new LASReader(source)).tileSize(10).write(dir);
+
+        assertTrue(tiles.size() > 1);
+        assertEquals(new HashSet<>(tiles), files(dir));
+        long numPoints = 0;
+        Set<Integer> levelIndexes = new HashSet<>();
+        for (File tile : tiles) {
+            String[] name = tile.getName().replace(".laz", "").split("_");
+            assertEquals("tile", name[0]);
+            float llX = Float.parseFloat(name[1]);
+            float llY = Float.parseFloat(name[2]);
+            List<String> points = read(new LASReader(tile));
+            assertEquals(sorted(read(new LASReader(source).insideTile(llX, llY, 10))), sorted(points));
+            numPoints += points.size();
+
+            LASreader r = new LASreadOpener().open(tile.getPath());
+            assertNotNull(r);
+            try {
+                assertNotNull(r.header.vlr_lastiling);
+                assertTrue(r.header.vlr_lastiling.level > 0);
+                assertTrue(levelIndexes.add(r.header.vlr_lastiling.level_index));
+                assertTrue(r.header.min_x >= llX && r.header.max_x < llX + 10);
+                assertTrue(r.header.min_y >= llY && r.header.max_y < llY + 10);
+            } finally {
+                r.close();
+            }
+        }
+        assertEquals(read(new LASReader(source)).size(), numPoints);
+    }
+
+    @Test
+    public void writeWithSpill() throws Exception {
+        File expected = tempFolder.newFolder("expected");
+        new LASTiler(new LASReader(source)).tileSize(10).write(expected);
+
+        File dir = tempFolder.newFolder("tiles");
+        File tmp = tempFolder.newFolder("tmp");
+        List<File> tiles = new LASTiler(new LASReader(source)).tileSize(10)
+                .maxOpenWriters(2).maxPointsInMemory(1000).tempDirectory(tmp).write(dir);
+
+        for (File tile : tiles) {
+            assertEquals(read(new LASReader(new File(expected, tile.getName()))), read(new LASReader(tile)));
+        }
+        assertEquals(files(expected).size(), tiles.size());
+        assertArrayEquals(new String[0], tmp.list());
+    }
+
+    @Test
+    public void multipleInputs() throws Exception {
+        File dir = tempFolder.newFolder("tiles");
+        LASHeader header = new LASReader(source).getHeader();
+        double midY = (header.getMinY() + header.getMaxY()) / 2;
+        LASReader half = new LASReader(source).insideRectangle(header.getMinX(), header.getMinY(), header.getMaxX() + 1, midY);
+        LASReader otherHalf = new LASReader(source).insideRectangle(header.getMinX(), midY, header.getMaxX() + 1, header.getMaxY() + 1);
+        List<File> tiles = new LASTiler(half, otherHalf).tileSize(25).compress(false).write(dir);
+
+        List<String> points = new ArrayList<>();
+        for (File tile : tiles) {
+            assertTrue(tile.getName().endsWith(".las"));
+            points.addAll(read(new LASReader(tile)));
+        }
+        assertEquals(sorted(read(new LASReader(source))), sorted(points));
+    }
+
+    @Test
+    public void differentPointDataFormats() throws Exception {
+        File dir = tempFolder.newFolder("tiles");
+        try {
+            new LASTiler(new LASReader(source), new LASReader(new File(RESOURCES, DataFiles.EXTRA_TYPES_NAME))).write(dir);
+            fail("must fail with IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static Set<File> files(File dir) {
+        Set<File> files = new HashSet<>();
+        Collections.addAll(files, dir.listFiles());
+        return files;
+    }
+}
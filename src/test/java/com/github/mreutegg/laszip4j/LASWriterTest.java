@@ -23,9 +23,15 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class LASWriterTest {
@@ -106,6 +112,32 @@ public class LASWriterTest {
         assertEquals(125744999, maxY);
     }
 
+    @Test
+    public void writeLaz() throws IOException {
+        for (File source : new File[]{files.laz14v3rgb, files.laz14v3bytesCompressed, files.extraBytes}) {
+            File output = temporaryFolder.newFile(source.getName() + ".laz");
+            new LASWriter(new LASReader(source)).write(output);
+            assertSamePoints(source, output);
+        }
+    }
+
+    @Test
+    public void writeLazParallel() throws IOException {
+        File sequential = temporaryFolder.newFile("sequential.laz");
+        new LASWriter(new LASReader(files.laz14v3rgb)).write(sequential);
+
+        File parallel = temporaryFolder.newFile("parallel.laz");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new LASWriter(new LASReader(files.laz14v3rgb)).parallel(executor).write(parallel);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertArrayEquals(Files.readAllBytes(sequential.toPath()), Files.readAllBytes(parallel.toPath()));
+        assertSamePoints(files.laz14v3rgb, parallel);
+    }
+
     @Test
     public void setWithheld() throws IOException {
         final short lowPoint = 20;
@@ -150,4 +182,33 @@ public class LASWriterTest {
         }
         assertEquals(0, numWithheld.get());
     }
+
+    private static void assertSamePoints(File expected, File actual) {
+        Iterator<LASPoint> expectedPoints = new LASReader(expected).getPoints().iterator();
+        Iterator<LASPoint> actualPoints = new LASReader(actual).getPoints().iterator();
+        while (expectedPoints.hasNext()) {
+            assertTrue(actualPoints.hasNext());
+            LASPoint e = expectedPoints.next();
+            LASPoint a = actualPoints.next();
+            assertEquals(e.getX(), a.getX());
+            assertEquals(e.getY(), a.getY());
+            assertEquals(e.getZ(), a.getZ());
+            assertEquals(e.getIntensity(), a.getIntensity());
+            assertEquals(e.getReturnNumber(), a.getReturnNumber());
+            assertEquals(e.getNumberOfReturns(), a.getNumberOfReturns());
+            assertEquals(e.getClassification(), a.getClassification());
+            assertEquals(e.getPointSourceID(), a.getPointSourceID());
+            assertEquals(e.hasGPSTime(), a.hasGPSTime());
+            if (e.hasGPSTime()) {
+                assertEquals(e.getGPSTime(), a.getGPSTime(), 0.0);
+            }
+            assertEquals(e.hasRGB(), a.hasRGB());
+            if (e.hasRGB()) {
+                assertEquals(e.getRed(), a.getRed());
+                assertEquals(e.getGreen(), a.getGreen());
+                assertEquals(e.getBlue(), a.getBlue());
+            }
+        }
+        assertFalse(actualPoints.hasNext());
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static com.github.mreutegg.laszip4j.TestPoints.read;
+import static com.github.mreutegg.laszip4j.TestPoints.sorted;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelPointIteratorTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Test
+    public void parallelism() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService fixed = Executors.newFixedThreadPool(3);
+        ExecutorService cached = Executors.newCachedThreadPool();
+        ForkJoinPool forkJoin = new ForkJoinPool(5);
+        try {
+            assertEquals(3, ParallelPointIterator.parallelism(fixed));
+            assertEquals(processors, ParallelPointIterator.parallelism(cached));
+            assertEquals(5, ParallelPointIterator.parallelism(forkJoin));
+            assertEquals(processors, ParallelPointIterator.parallelism(Runnable::run));
+        } finally {
+            fixed.shutdown();
+            cached.shutdown();
+            forkJoin.shutdown();
+        }
+    }
+
+    @Test
+    public void explicitParallelism() {
+        List<String> expected = read(new LASReader(source));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertEquals(expected, read(new LASReader(source).parallel(executor, 1)));
+            assertEquals(sorted(expected), sorted(read(new LASReader(source).parallel(executor, 1).unordered())));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void closeUnordered() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            try (CloseablePointIterable points = new LASReader(source)
+                    .parallel(executor).unordered().getCloseablePoints()) {
+                assertTrue(points.iterator().hasNext());
+            }
+            // chunks not yet decoded are cancelled and do not keep the
+            // executor busy
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidParallelism() {
+        new LASReader(source).parallel(Runnable::run, 0);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reads points into lists of strings, which tests compare to check that
+ * two readers return the same points.
+ */
+public final class TestPoints {
+
+    private TestPoints() {
+    }
+
+    public static List<String> read(LASReader reader) {
+        return read(reader.getPoints());
+    }
+
+    public static List<String> read(Iterable<LASPoint> points) {
+        return read(points, p -> true, TestPoints::format);
+    }
+
+    public static List<String> read(Iterable<LASPoint> points,
+                                    Predicate<LASPoint> predicate,
+                                    Function<LASPoint, String> format) {
+        List<String> list = new ArrayList<>();
+        for (LASPoint p : points) {
+            if (predicate.test(p)) {
+                list.add(format.apply(p));
+            }
+        }
+        return list;
+    }
+
+    // the coordinates, GPS time, intensity, classification and red of a
+    // point. GPS time and red are 0 for point formats without them
+    public static String format(LASPoint p) {
+        return xyz(p) + " " + (p.hasGPSTime() ? p.getGPSTime() : 0) + " " + (int) p.getIntensity()
+                + " " + p.getClassification() + " " + (p.hasRGB() ? (int) p.getRed() : 0);
+    }
+
+    // the coordinates of a point, for readers that only select them
+    public static String xyz(LASPoint p) {
+        return p.getX() + " " + p.getY() + " " + p.getZ();
+    }
+
+    public static List<String> sorted(List<String> points) {
+        Collections.sort(points);
+        return points;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.LASReader;
+import com.github.mreutegg.laszip4j.TestPoints;
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutFile;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_LAYERED_CHUNKED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class COPCindexTest {
+
+    private static final double HALFSIZE = 50;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    // points of the octree nodes in file order
+    private final Map<LASvlr_copc_entry, List<String>> nodes = new LinkedHashMap<>();
+
+    private File file;
+
+    @Before
+    public void setup() throws Exception {
+        file = new File(tempFolder.getRoot(), "test.copc.laz");
+        nodes.put(new LASvlr_copc_entry(0, 0, 0, 0), new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            nodes.put(new LASvlr_copc_entry(1, i & 1, (i >> 1) & 1, (i >> 2) & 1), new ArrayList<>());
+        }
+        for (int i = 0; i < 8; i++) {
+            nodes.put(new LASvlr_copc_entry(2, i & 1, (i >> 1) & 1, (i >> 2) & 1), new ArrayList<>());
+        }
+        writeCOPC();
+    }
+
+    @Test
+    public void readAll() {
+        assertEquals(allPoints(), read(new LASReader(file)));
+    }
+
+    @Test
+    public void maxDepth() {
+        assertEquals(pointsOfNodes(0), read(new LASReader(file).maxDepth(0)));
+        assertEquals(pointsOfNodes(1), read(new LASReader(file).maxDepth(1)));
+        assertEquals(pointsOfNodes(2), read(new LASReader(file).maxDepth(2)));
+    }
+
+    @Test
+    public void insideRectangle() {
+        List<String> expected = new ArrayList<>();
+        for (String p : allPoints()) {
+            String[] xyz = p.split(" ");
+            if (Integer.parseInt(xyz[0]) <= 2000 && Integer.parseInt(xyz[1]) <= 2000) {
+                expected.add(p);
+            }
+        }
+        assertEquals(expected, read(new LASReader(file).insideRectangle(0, 0, 20, 20)));
+    }
+
+    @Test
+    public void insideRectangleMaxDepth() {
+        List<String> expected = new ArrayList<>();
+        for (String p : pointsOfNodes(1)) {
+            String[] xyz = p.split(" ");
+            if (Integer.parseInt(xyz[0]) <= 2000 && Integer.parseInt(xyz[1]) <= 2000) {
+                expected.add(p);
+            }
+        }
+        assertEquals(expected, read(new LASReader(file).insideRectangle(0, 0, 20, 20).maxDepth(1)));
+    }
+
+    @Test
+    public void entries() {
+        LASreader reader = new LASreadOpener().open(file.getPath());
+        assertNotNull(reader);
+        try {
+            COPCindex index = reader.get_copc_index();
+            assertNotNull(index);
+            assertEquals(HALFSIZE, index.get_info().halfsize, 0);
+            assertEquals(nodes.size(), index.get_entries().size());
+
+            index.set_max_depth(1);
+            assertEquals(9, index.get_entries().size());
+
+            // root, two nodes on level 1 and two on level 2
+            index.set_max_depth(-1);
+            index.intersect_rectangle(0, 0, 20, 20);
+            List<String> keys = new ArrayList<>();
+            for (LASvlr_copc_entry e : index.get_entries()) {
+                keys.add(e.toString());
+                assertTrue(index.get_min_x(e) <= 20 && index.get_min_y(e) <= 20);
+            }
+            assertEquals("[0-0-0-0, 1-0-0-0, 1-0-0-1, 2-0-0-0, 2-0-0-1]", keys.toString());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<String> allPoints() {
+        List<String> points = new ArrayList<>();
+        nodes.values().forEach(points::addAll);
+        return points;
+    }
+
+    private List<String> pointsOfNodes(int maxLevel) {
+        List<String> points = new ArrayList<>();
+        for (Map.Entry<LASvlr_copc_entry, List<String>> e : nodes.entrySet()) {
+            if (e.getKey().level <= maxLevel) {
+                points.addAll(e.getValue());
+            }
+        }
+        return points;
+    }
+
+    private static List<String> read(LASReader reader) {
+        return TestPoints.read(reader.getPoints(), p -> true, TestPoints::xyz);
+    }
+
+    // writes a COPC file with a root page for levels 0 and 1 and a child
+    // page for node 1-0-0-0 and its children on level 2
+    private void writeCOPC() throws Exception {
+        LASheader header = new LASheader();
+        header.version_minor = 4;
+        header.header_size = 375;
+        header.offset_to_point_data = 375;
+        header.point_data_format = 6;
+        header.point_data_record_length = 30;
+        header.x_scale_factor = 0.01;
+        header.y_scale_factor = 0.01;
+        header.z_scale_factor = 0.01;
+        header.add_vlr("copc", (char) 1, (char) LASvlr_copc_info.SIZE, new byte[LASvlr_copc_info.SIZE]);
+        int numRootEntries = 9;
+        int numChildEntries = 9;
+        LASevlr evlr = new LASevlr();
+        byte[] userId = "copc".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(userId, 0, evlr.user_id, 0, userId.length);
+        evlr.record_id = 1000;
+        evlr.record_length_after_header = (long) (numRootEntries + numChildEntries) * LASvlr_copc_entry.SIZE;
+        evlr.data = new byte[(int) evlr.record_length_after_header];
+        header.evlrs = new LASevlr[]{evlr};
+        header.number_of_extended_variable_length_records = 1;
+
+        // the writer closes the file
+        ByteStreamOutFile out = new ByteStreamOutFile(new RandomAccessFile(file, "rw"));
+        LASwriterLAS writer = new LASwriterLAS();
+        assertTrue(writer.open(out, header, LASZIP_COMPRESSOR_LAYERED_CHUNKED, 0, 0));
+        writer.inventory = new LASinventory();
+        LASpoint point = new LASpoint();
+        assertTrue(point.init(header, header.point_data_format, header.point_data_record_length, header));
+        Random random = new Random(42);
+        for (Map.Entry<LASvlr_copc_entry, List<String>> e : nodes.entrySet()) {
+            LASvlr_copc_entry entry = e.getKey();
+            double size = 2 * HALFSIZE / (1 << entry.level);
+            entry.offset = out.tell();
+            entry.point_count = 20 + random.nextInt(20);
+            for (int i = 0; i < entry.point_count; i++) {
+                point.set_X((int) ((entry.x + random.nextDouble()) * size * 100));
+                point.set_Y((int) ((entry.y + random.nextDouble()) * size * 100));
+                point.set_Z((int) ((entry.z + random.nextDouble()) * size * 100));
+                point.setReturn_number((byte) 1);
+                point.setNumber_of_returns((byte) 1);
+                writer.write_point(point);
+                writer.update_inventory(point);
+                e.getValue().add(point.get_X() + " " + point.get_Y() + " " + point.get_Z());
+            }
+            assertTrue(writer.chunk());
+            entry.byte_size = (int) (out.tell() - entry.offset);
+        }
+
+        ByteBuffer hierarchy = ByteBuffer.wrap(evlr.data).order(ByteOrder.LITTLE_ENDIAN);
+        List<LASvlr_copc_entry> childPage = new ArrayList<>();
+        for (LASvlr_copc_entry entry : nodes.keySet()) {
+            if (entry.level == 2 || (entry.level == 1 && entry.x == 0 && entry.y == 0 && entry.z == 0)) {
+                childPage.add(entry);
+            }
+            if (entry.level == 1 && entry.x == 0 && entry.y == 0 && entry.z == 0) {
+                // reference to the child page
+                LASvlr_copc_entry ref = new LASvlr_copc_entry(1, 0, 0, 0);
+                ref.point_count = -1;
+                ref.byte_size = numChildEntries * LASvlr_copc_entry.SIZE;
+                childPage.add(0, ref);
+            } else if (entry.level < 2) {
+                entry.writeTo(hierarchy);
+            }
+        }
+        // the reference comes last in the root page
+        childPage.remove(0).writeTo(hierarchy);
+        for (LASvlr_copc_entry entry : childPage) {
+            entry.writeTo(hierarchy);
+        }
+        writer.update_header(header, true);
+        writer.close();
+
+        // the hierarchy EVLR is at the end of the file
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        long hierarchyStart = raf.length() - evlr.record_length_after_header;
+        hierarchy.putLong((numRootEntries - 1) * LASvlr_copc_entry.SIZE + 16, hierarchyStart + numRootEntries * LASvlr_copc_entry.SIZE);
+        raf.seek(hierarchyStart);
+        raf.write(evlr.data);
+
+        LASvlr_copc_info info = new LASvlr_copc_info();
+        info.center_x = HALFSIZE;
+        info.center_y = HALFSIZE;
+        info.center_z = HALFSIZE;
+        info.halfsize = HALFSIZE;
+        info.spacing = 1;
+        info.root_hier_offset = hierarchyStart;
+        info.root_hier_size = numRootEntries * LASvlr_copc_entry.SIZE;
+        ByteBuffer infoData = ByteBuffer.allocate(LASvlr_copc_info.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        info.writeTo(infoData);
+        // the COPC info is the first VLR
+        raf.seek(375 + 54);
+        raf.write(infoData.array());
+        raf.close();
+    }
+}
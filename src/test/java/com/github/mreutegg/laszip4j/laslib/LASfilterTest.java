@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.DataFiles;
+import com.github.mreutegg.laszip4j.laszip.LASquantizer;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LASfilterTest {
+
+    private final File laz = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Test
+    public void compiledCoordinates() {
+        // bounds on the coordinates of a point test rounding at the boundary
+        double[] p = point(28000);
+        assertSameResult(String.format("-keep_xy %s %s %s %s -drop_z_below %s -keep_class 2 6",
+                p[0] - 5, p[1], p[0], p[1] + 5, p[2]));
+        assertSameResult(String.format("-keep_x %s %s -keep_y %s %s -drop_xyz %s %s %s %s %s %s",
+                p[0], p[0] + 10, p[1] - 10, p[1], p[0], p[1] - 2, p[2], p[0] + 2, p[1], p[2] + 1));
+        assertSameResult(String.format("-keep_tile %s %s 10 -drop_z_above %s",
+                (float) p[0], (float) p[1], p[2]));
+    }
+
+    @Test
+    public void compiledWithStatefulCriterion() {
+        double[] p = point(28000);
+        assertSameResult(String.format("-keep_every_nth 3 -keep_xy %s %s %s %s -drop_z %s %s",
+                p[0] - 5, p[1] - 5, p[0] + 5, p[1] + 5, p[2], p[2] + 1));
+    }
+
+    @Test
+    public void unparse() {
+        LASfilter filter = parse("-keep_xy 1 2 3 4 -keep_z 5 6 -keep_class 2");
+        StringBuilder before = new StringBuilder();
+        filter.unparse(before);
+        filter.compile(new LASheader());
+        StringBuilder after = new StringBuilder();
+        filter.unparse(after);
+        assertEquals(before.toString().length(), after.toString().length());
+        assertTrue(after.toString().contains("-keep_xy"));
+        assertTrue(after.toString().contains("-keep_z"));
+    }
+
+    @Test
+    public void ceilQuantized() {
+        LASquantizer q = new LASquantizer();
+        q.x_scale_factor = 0.01;
+        q.x_offset = 1000;
+        for (int X = -1000; X < 1000; X++) {
+            double x = q.get_x(X);
+            assertEquals(X, LAScriterionKeepBoxInt.ceil_quantized(x, q.x_scale_factor, q.x_offset));
+            assertEquals(X + 1, LAScriterionKeepBoxInt.ceil_quantized(Math.nextUp(x), q.x_scale_factor, q.x_offset));
+        }
+        assertEquals(Long.MIN_VALUE, LAScriterionKeepBoxInt.ceil_quantized(Double.NEGATIVE_INFINITY, 0.01, 0));
+        assertEquals(Long.MAX_VALUE, LAScriterionKeepBoxInt.ceil_quantized(Double.POSITIVE_INFINITY, 0.01, 0));
+        assertEquals(Integer.MIN_VALUE, LAScriterionKeepBoxInt.ceil_quantized(-1e300, 0.01, 0));
+        assertEquals(Integer.MAX_VALUE + 1L, LAScriterionKeepBoxInt.ceil_quantized(1e300, 0.01, 0));
+    }
+
+    // compares the compiled filter with the parsed filter on every point
+    private void assertSameResult(String command) {
+        LASfilter parsed = parse(command);
+        LASfilter compiled = parse(command);
+        LASreader reader = new LASreadOpener().open(laz.getPath());
+        assertNotNull(reader);
+        try {
+            compiled.compile(reader.header);
+            int kept = 0;
+            while (reader.read_point()) {
+                boolean filtered = parsed.filter(reader.point);
+                assertEquals(command + " at point " + reader.p_count, filtered, compiled.filter(reader.point));
+                if (!filtered) {
+                    kept++;
+                }
+            }
+            assertTrue(command, kept > 0);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static LASfilter parse(String command) {
+        LASfilter filter = new LASfilter();
+        assertTrue(filter.parse("filter " + command));
+        return filter;
+    }
+
+    // the scaled coordinates of the point with the given index
+    private double[] point(int index) {
+        LASreader reader = new LASreadOpener().open(laz.getPath());
+        assertNotNull(reader);
+        try {
+            assertTrue(reader.seek(index));
+            assertTrue(reader.read_point());
+            return new double[]{reader.point.get_x(), reader.point.get_y(), reader.point.get_z()};
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.LASIndexer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.CHUNK_SIZE;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.NUM_POINTS;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.POINTS_PER_ROW;
+import static com.github.mreutegg.laszip4j.laslib.RowsFixture.writeRows;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LASreaderIndexTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = writeRows(tempFolder.newFile("rows.laz"));
+    }
+
+    @Test
+    public void insideRectangle() {
+        // the first row is in the first chunk
+        assertEquals(NUM_POINTS, read(r -> r.inside_rectangle(0, 0, 1000, 5))[1]);
+        new LASIndexer(file).minimumPoints(1000).write();
+        long[] result = read(r -> r.inside_rectangle(0, 0, 1000, 5));
+        assertEquals(POINTS_PER_ROW, result[0]);
+        assertTrue(result[1] <= CHUNK_SIZE);
+    }
+
+    @Test
+    public void insideTile() {
+        new LASIndexer(file).minimumPoints(1000).write();
+        long[] result = read(r -> r.inside_tile(0, 0, 5));
+        assertEquals(3, result[0]);
+        assertTrue(result[1] <= CHUNK_SIZE);
+    }
+
+    @Test
+    public void insideCircle() {
+        new LASIndexer(file).minimumPoints(1000).write();
+        long[] result = read(r -> r.inside_circle(0, 0, 3));
+        assertEquals(2, result[0]);
+        assertTrue(result[1] <= CHUNK_SIZE);
+    }
+
+    // returns the number of points read and the number of points up to
+    // and including the last point read
+    private long[] read(Inside inside) {
+        LASreader reader = new LASreadOpener().open(file.getPath());
+        assertNotNull(reader);
+        try {
+            inside.apply(reader);
+            long count = 0;
+            while (reader.read_point()) {
+                count++;
+            }
+            return new long[]{count, reader.p_count};
+        } finally {
+            reader.close();
+        }
+    }
+
+    private interface Inside {
+
+        void apply(LASreader reader);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutFile;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_CHUNKED;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A LAZ file with rows of points for tests of spatial queries. The rows are
+ * sorted by y, so a query for a single row only needs a few chunks when the
+ * file is indexed.
+ */
+public final class RowsFixture {
+
+    public static final int NUM_POINTS = 50000;
+
+    public static final int POINTS_PER_ROW = 500;
+
+    public static final int CHUNK_SIZE = 5000;
+
+    private RowsFixture() {
+    }
+
+    // writes a 1000 x 1000 tile with rows of points 2 apart, the rows are
+    // 10 apart and there are ten rows per chunk
+    public static File writeRows(File file) throws Exception {
+        return writeRows(file, LASZIP_COMPRESSOR_CHUNKED);
+    }
+
+    // same as above with the given compressor, the chunk size is ignored
+    // by compressors without chunks
+    public static File writeRows(File file, char compressor) throws Exception {
+        LASheader header = new LASheader();
+        header.point_data_format = 0;
+        header.point_data_record_length = 20;
+        header.x_scale_factor = 0.01;
+        header.y_scale_factor = 0.01;
+        header.z_scale_factor = 0.01;
+
+        // the writer closes the file
+        LASwriterLAS writer = new LASwriterLAS();
+        assertTrue(writer.open(new ByteStreamOutFile(new RandomAccessFile(file, "rw")),
+                header, compressor, 0, CHUNK_SIZE));
+        writer.inventory = new LASinventory();
+        LASpoint point = new LASpoint();
+        assertTrue(point.init(header, header.point_data_format, header.point_data_record_length, header));
+        for (int row = 0; row < NUM_POINTS / POINTS_PER_ROW; row++) {
+            for (int i = 0; i < POINTS_PER_ROW; i++) {
+                point.set_X(i * 200);
+                point.set_Y(row * 1000);
+                point.set_Z(row);
+                point.setReturn_number((byte) 1);
+                point.setNumber_of_returns((byte) 1);
+                writer.write_point(point);
+                writer.update_inventory(point);
+            }
+        }
+        writer.update_header(header, true);
+        writer.close();
+        return file;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laslib;
+
+import com.github.mreutegg.laszip4j.laszip.ByteStreamOutFile;
+import com.github.mreutegg.laszip4j.laszip.LASpoint;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static com.github.mreutegg.laszip4j.laszip.LASzip.LASZIP_COMPRESSOR_CHUNKED;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LAZ files with two flight strips of points for tests of GPS time queries.
+ */
+public final class StripsFixture {
+
+    public static final int NUM_POINTS = 20000;
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private StripsFixture() {
+    }
+
+    // writes a strip with GPS times from 0 to 100 followed by a strip with
+    // GPS times from 50 to 150
+    public static File writeOverlappingStrips(File file) throws Exception {
+        return write(file, false);
+    }
+
+    // writes a strip with GPS times from 0 to 100 followed by a strip with
+    // GPS times from 100 to 200, where the GPS times of neighboring points
+    // are up to one second out of order
+    public static File writeNearlySortedStrips(File file) throws Exception {
+        return write(file, true);
+    }
+
+    private static File write(File file, boolean nearlySorted) throws Exception {
+        LASheader header = new LASheader();
+        header.point_data_format = 1;
+        header.point_data_record_length = 28;
+        header.x_scale_factor = 0.01;
+        header.y_scale_factor = 0.01;
+        header.z_scale_factor = 0.01;
+
+        // the writer closes the file
+        LASwriterLAS writer = new LASwriterLAS();
+        assertTrue(writer.open(new ByteStreamOutFile(new RandomAccessFile(file, "rw")),
+                header, LASZIP_COMPRESSOR_CHUNKED, 0, CHUNK_SIZE));
+        writer.inventory = new LASinventory();
+        LASpoint point = new LASpoint();
+        assertTrue(point.init(header, header.point_data_format, header.point_data_record_length, header));
+        int pointsPerStrip = NUM_POINTS / 2;
+        for (int strip = 0; strip < 2; strip++) {
+            for (int i = 0; i < pointsPerStrip; i++) {
+                double gpsTime = (nearlySorted ? strip * 100 + ((i * 7919) % 100) / 100.0 : strip * 50) + i / 100.0;
+                point.set_X(i * 100);
+                point.set_Y(strip * 1000);
+                point.set_Z(strip);
+                point.setGps_time(gpsTime);
+                point.setReturn_number((byte) 1);
+                point.setNumber_of_returns((byte) 1);
+                writer.write_point(point);
+                writer.update_inventory(point);
+            }
+        }
+        writer.update_header(header, true);
+        writer.close();
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.lastools;
+
+import com.github.mreutegg.laszip4j.DataFiles;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static com.github.mreutegg.laszip4j.DataFiles.RESOURCES;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LaszipTest {
+
+    private final File source = new File(RESOURCES, DataFiles.LAZ_14_V3_RGB_NAME);
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    @Test
+    public void decompressMultiCore() throws Exception {
+        File[] sequential = copies(tempFolder.newFolder("sequential"), 3);
+        File[] parallel = copies(tempFolder.newFolder("parallel"), 3);
+
+        for (File f : sequential) {
+            Laszip.run(new String[]{"-i", f.getPath()});
+        }
+        Laszip.run(new String[]{"-i", parallel[0].getPath(), parallel[1].getPath(),
+                parallel[2].getPath(), "-cores", "2"});
+
+        for (int i = 0; i < parallel.length; i++) {
+            File expected = las(sequential[i]);
+            File actual = las(parallel[i]);
+            assertTrue(actual.exists());
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+        }
+    }
+
+    @Test
+    public void checkMultiCoreOrderedOutput() throws Exception {
+        File[] files = copies(tempFolder.newFolder("in"), 4);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(out, true));
+        try {
+            Laszip.run(new String[]{"-i", files[0].getPath(), files[1].getPath(),
+                    files[2].getPath(), files[3].getPath(), "-check", "-cores", "4"});
+        } finally {
+            System.setErr(err);
+        }
+
+        String text = out.toString();
+        int previous = -1;
+        for (File f : files) {
+            int idx = text.indexOf("SUCCESS for '" + f.getPath() + "'");
+            assertTrue(text, idx > previous);
+            previous = idx;
+        }
+    }
+
+    private static File las(File laz) {
+        return new File(laz.getParentFile(), laz.getName().replace(".laz", ".las"));
+    }
+
+    private File[] copies(File dir, int num) throws Exception {
+        File[] files = new File[num];
+        for (int i = 0; i < num; i++) {
+            files[i] = new File(dir, "file" + i + ".laz");
+            Files.copy(source.toPath(), files[i].toPath());
+        }
+        return files;
+    }
+}
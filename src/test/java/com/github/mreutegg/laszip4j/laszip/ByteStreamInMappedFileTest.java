@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ByteStreamInMappedFileTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder(new File("target"));
+
+    private RandomAccessFile file;
+
+    @Before
+    public void setup() throws Exception {
+        file = new RandomAccessFile(tempFolder.newFile(ByteStreamInMappedFileTest.class.getSimpleName()), "rw");
+        // little-endian values
+        file.writeShort(Short.reverseBytes((short) 0xcafe));
+        file.writeInt(Integer.reverseBytes(42));
+        file.writeLong(Long.reverseBytes(0xcafebabeL));
+        // big-endian values
+        file.writeShort(0xbabe);
+        file.writeInt(-42);
+        file.writeLong(Long.MIN_VALUE + 1);
+        file.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+    }
+
+    @After
+    public void after() throws Exception {
+        file.close();
+    }
+
+    @Test
+    public void read() {
+        // segment sizes that split values at various offsets
+        for (int segmentSize : new int[]{3, 4, 5, 7, 8, Integer.MAX_VALUE}) {
+            ByteStreamInMappedFile in = new ByteStreamInMappedFile(file, segmentSize);
+            assertEquals(0xcafe, in.get16bitsLE());
+            assertEquals(42, in.get32bitsLE());
+            assertEquals(0xcafebabeL, in.get64bitsLE());
+            assertEquals(0xbabe, in.get16bitsBE());
+            assertEquals(-42, in.get32bitsBE());
+            assertEquals(Long.MIN_VALUE + 1, in.get64bitsBE());
+            assertEquals(1, in.getByte());
+            byte[] bytes = new byte[8];
+            in.getBytes(bytes, 8);
+            assertArrayEquals(new byte[]{2, 3, 4, 5, 6, 7, 8, 9}, bytes);
+            try {
+                in.getByte();
+                fail("UncheckedEOFException expected");
+            } catch (UncheckedEOFException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void seek() throws Exception {
+        ByteStreamInMappedFile in = new ByteStreamInMappedFile(file, 7);
+        assertEquals(0, in.tell());
+        for (int p : new int[]{6, 7, 8, 14, 2}) {
+            assertTrue(in.seek(p));
+            assertEquals(p, in.tell());
+        }
+        assertTrue(in.seek(2));
+        assertEquals(42, in.get32bitsLE());
+        assertTrue(in.seek(file.length()));
+        assertEquals(file.length(), in.tell());
+        assertFalse(in.seek(file.length() + 1));
+        assertTrue(in.seekEnd(9));
+        assertEquals(1, in.getByte());
+        assertFalse(in.seekEnd(file.length() + 1));
+    }
+
+    @Test
+    public void decode() throws Exception {
+        ByteStreamOutArray out = new ByteStreamOutArray();
+        ArithmeticEncoder enc = new ArithmeticEncoder();
+        enc.init(out);
+        ArithmeticModel m = enc.createSymbolModel(256);
+        enc.initSymbolModel(m);
+        for (int i = 0; i < 10000; i++) {
+            enc.encodeSymbol(m, (i * 31) & 0xFF);
+        }
+        enc.done();
+
+        file.setLength(0);
+        file.write(out.getData().array(), 0, (int) out.getSize());
+        for (int segmentSize : new int[]{7, Integer.MAX_VALUE}) {
+            ArithmeticDecoder dec = new ArithmeticDecoder();
+            dec.init(new ByteStreamInMappedFile(file, segmentSize));
+            ArithmeticModel dm = dec.createSymbolModel(256);
+            dec.initSymbolModel(dm);
+            for (int i = 0; i < 10000; i++) {
+                assertEquals((i * 31) & 0xFF, dec.decodeSymbol(dm));
+            }
+        }
+    }
+}
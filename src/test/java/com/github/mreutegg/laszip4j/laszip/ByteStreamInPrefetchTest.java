@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Marcel Reutegger
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.mreutegg.laszip4j.laszip;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ByteStreamInPrefetchTest {
+
+    private byte[] data;
+
+    @Before
+    public void setup() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // little-endian values
+        out.writeShort(Short.reverseBytes((short) 0xcafe));
+        out.writeInt(Integer.reverseBytes(42));
+        out.writeLong(Long.reverseBytes(0xcafebabeL));
+        // big-endian values
+        out.writeShort(0xbabe);
+        out.writeInt(-42);
+        out.writeLong(Long.MIN_VALUE + 1);
+        out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        out.close();
+        data = bytes.toByteArray();
+    }
+
+    @Test
+    public void read() throws Exception {
+        // buffer sizes that split values at various offsets
+        for (int bufferSize : new int[]{1, 3, 4, 5, 7, 8, 1024}) {
+            try (ByteStreamInPrefetch in = new ByteStreamInPrefetch(new ByteArrayInputStream(data), 2, bufferSize)) {
+                assertEquals(0xcafe, in.get16bitsLE());
+                assertEquals(42, in.get32bitsLE());
+                assertEquals(0xcafebabeL, in.get64bitsLE());
+                assertEquals(0xbabe, in.get16bitsBE());
+                assertEquals(-42, in.get32bitsBE());
+                assertEquals(Long.MIN_VALUE + 1, in.get64bitsBE());
+                assertEquals(1, in.getByte());
+                byte[] bytes = new byte[8];
+                in.getBytes(bytes, 8);
+                assertArrayEquals(new byte[]{2, 3, 4, 5, 6, 7, 8, 9}, bytes);
+                assertEquals(data.length, in.tell());
+                try {
+                    in.getByte();
+                    fail("UncheckedEOFException expected");
+                } catch (UncheckedEOFException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void skip() throws Exception {
+        try (ByteStreamInPrefetch in = new ByteStreamInPrefetch(new ByteArrayInputStream(data), 3, 5)) {
+            assertFalse(in.isSeekable());
+            assertFalse(in.seek(2));
+            assertEquals(0, in.tell());
+            assertTrue(in.skipBytes(2));
+            assertEquals(2, in.tell());
+            assertEquals(42, in.get32bitsLE());
+            assertTrue(in.skipBytes(data.length - 15));
+            assertEquals(data.length - 9, in.tell());
+            assertEquals(1, in.getByte());
+            assertFalse(in.skipBytes(9));
+        }
+    }
+
+    @Test
+    public void readFailure() throws Exception {
+        IOException failure = new IOException("connection reset");
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ < 10) {
+                    return count;
+                }
+                throw failure;
+            }
+        };
+        try (ByteStreamInPrefetch in = new ByteStreamInPrefetch(failing, 2, 4)) {
+            byte[] bytes = new byte[10];
+            in.getBytes(bytes, 10);
+            assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, bytes);
+            try {
+                in.getByte();
+                fail("UncheckedIOException expected");
+            } catch (UncheckedIOException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void decode() throws Exception {
+        ByteStreamOutArray out = new ByteStreamOutArray();
+        ArithmeticEncoder enc = new ArithmeticEncoder();
+        enc.init(out);
+        ArithmeticModel m = enc.createSymbolModel(256);
+        enc.initSymbolModel(m);
+        for (int i = 0; i < 10000; i++) {
+            enc.encodeSymbol(m, (i * 31) & 0xFF);
+        }
+        enc.done();
+
+        InputStream encoded = new ByteArrayInputStream(out.getData().array(), 0, (int) out.getSize());
+        try (ByteStreamInPrefetch in = new ByteStreamInPrefetch(encoded, 2, 7)) {
+            ArithmeticDecoder dec = new ArithmeticDecoder();
+            dec.init(in);
+            ArithmeticModel dm = dec.createSymbolModel(256);
+            dec.initSymbolModel(dm);
+            for (int i = 0; i < 10000; i++) {
+                assertEquals((i * 31) & 0xFF, dec.decodeSymbol(dm));
+            }
+        }
+    }
+}